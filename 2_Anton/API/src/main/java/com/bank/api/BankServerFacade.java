@@ -1,18 +1,26 @@
 package com.bank.api;
 
+import com.bank.api.admission.AdmissionController;
 import com.bank.api.dto.CommandResponse;
 import com.bank.api.dto.SystemStateDto;
 import com.bank.api.service.AdminService;
 import com.bank.api.service.ApiTransactionService;
 import com.bank.api.service.QueryService;
 import com.bank.application.BankApplication;
+import com.bank.application.config.BankDataSources;
+import com.bank.application.config.DataSourceConfig;
+import com.bank.core.command.TransactionCommand;
+import com.bank.core.engine.EngineConfig;
+import com.bank.core.engine.TransactionEventProducer;
+import com.bank.core.metrics.LatencySnapshot;
+import com.bank.core.metrics.LatencyStage;
+import com.bank.persistence.statement.StatementPage;
 import com.zaxxer.hikari.HikariConfig;
 import com.zaxxer.hikari.HikariDataSource;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
 import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
 
-import javax.sql.DataSource;
 import java.math.BigDecimal;
 import java.sql.Timestamp;
 import java.time.Instant;
@@ -27,9 +35,10 @@ public class BankServerFacade {
 
     private final BankApplication bankApplication;
     private final AdminService adminService;
+    private final AdmissionController admission;
     private final ApiTransactionService transactionService;
     private final QueryService queryService;
-    private final DataSource dataSource;
+    private final BankDataSources dataSources;
     private final JdbcTemplate jdbcTemplate;
 
     private final ScheduledExecutorService observerExecutor = Executors.newSingleThreadScheduledExecutor();
@@ -41,14 +50,31 @@ public class BankServerFacade {
     }
 
     public BankServerFacade(boolean testMode) {
+        this(testMode, EngineConfig.load());
+    }
+
+    /**
+     * directIngress = true нужен, если команды публикуются в движок в обход outbox (бинарный TCP-вход)
+     */
+    public BankServerFacade(boolean testMode, boolean directIngress) {
+        this(testMode, EngineConfig.load().withDirectIngress(directIngress));
+    }
+
+    private BankServerFacade(boolean testMode, EngineConfig engineConfig) {
+        BankDataSources postgres = testMode ? null : DataSourceConfig.fromSystemProperties();
         if (testMode) {
-            this.dataSource = new EmbeddedDatabaseBuilder()
+            this.dataSources = BankDataSources.single(new EmbeddedDatabaseBuilder()
                     .setType(EmbeddedDatabaseType.H2)
                     .setName("test_db;MODE=PostgreSQL;DATABASE_TO_UPPER=false")
                     .addScript("classpath:schema.sql") 
-                    .build();
-            this.jdbcTemplate = new JdbcTemplate(this.dataSource);
+                    .build());
+            this.jdbcTemplate = new JdbcTemplate(this.dataSources.query());
             initUiTables(this.jdbcTemplate);
+        } else if (postgres != null) {
+            this.dataSources = postgres;
+            this.jdbcTemplate = new JdbcTemplate(this.dataSources.query());
+
+            initAllTablesSafe(this.jdbcTemplate);
         } else {
             HikariConfig config = new HikariConfig();
             config.setJdbcUrl("jdbc:h2:./bank_storage;MODE=PostgreSQL;DATABASE_TO_UPPER=false;DB_CLOSE_ON_EXIT=FALSE;TRACE_LEVEL_FILE=0;LOCK_TIMEOUT=10000");
@@ -62,19 +88,21 @@ public class BankServerFacade {
             config.setValidationTimeout(5000);
             config.setConnectionTestQuery("SELECT 1");
 
-            this.dataSource = new HikariDataSource(config);
-            this.jdbcTemplate = new JdbcTemplate(this.dataSource);
+            this.dataSources = BankDataSources.single(new HikariDataSource(config));
+            this.jdbcTemplate = new JdbcTemplate(this.dataSources.query());
             
             initAllTablesSafe(this.jdbcTemplate);
         }
 
-        this.adminService = new AdminService(this.jdbcTemplate);
-        this.transactionService = new ApiTransactionService(this.jdbcTemplate);
-        this.queryService = new QueryService(this.jdbcTemplate);
-
-        this.bankApplication = new BankApplication(this.dataSource);
+        this.bankApplication = new BankApplication(this.dataSources, engineConfig);
         this.bankApplication.start();
 
+        this.adminService = new AdminService(this.jdbcTemplate, this.bankApplication);
+        this.admission = AdmissionController.forRing(this.bankApplication::getRingRemainingCapacity,
+                this.bankApplication.getRingBufferSize());
+        this.transactionService = new ApiTransactionService(this.bankApplication.getIngestOutbox(), this.admission);
+        this.queryService = new QueryService(this.jdbcTemplate);
+
         observerExecutor.scheduleWithFixedDelay(this::checkProcessedTransactions, 1000, 100, TimeUnit.MILLISECONDS);
     }
 
@@ -116,9 +144,17 @@ public class BankServerFacade {
         jdbc.execute("CREATE TABLE IF NOT EXISTS \"accounts\" (\"id\" UUID PRIMARY KEY, \"balance\" DECIMAL(19, 2) NOT NULL, \"status\" VARCHAR(20) NOT NULL)");
         jdbc.execute("CREATE TABLE IF NOT EXISTS \"idempotency_keys\" (\"key\" UUID PRIMARY KEY, \"created_at\" TIMESTAMP NOT NULL)");
         jdbc.execute("CREATE TABLE IF NOT EXISTS \"transaction_outbox\" (\"idempotency_key\" UUID PRIMARY KEY, \"transaction_id\" UUID NOT NULL UNIQUE, \"payload\" VARCHAR(2048) NOT NULL, \"status\" VARCHAR(20) DEFAULT 'PENDING' NOT NULL, \"attempts\" INT DEFAULT 0 NOT NULL, \"failure_count\" INT DEFAULT 0 NOT NULL, \"created_at\" TIMESTAMP NOT NULL)");
-        jdbc.execute("CREATE TABLE IF NOT EXISTS \"transaction_outbox_dlq\" (\"id\" UUID PRIMARY KEY, \"payload\" VARCHAR(2048) NOT NULL, \"reason\" VARCHAR(1024), \"moved_at\" TIMESTAMP NOT NULL)");
+        jdbc.execute("CREATE TABLE IF NOT EXISTS \"transaction_outbox_dlq\" (\"id\" UUID PRIMARY KEY, \"idempotency_key\" UUID, \"payload\" VARCHAR(2048) NOT NULL, \"reason\" VARCHAR(1024), \"error_type\" VARCHAR(100), \"retryable\" BOOLEAN DEFAULT FALSE NOT NULL, \"attempts\" INT DEFAULT 0 NOT NULL, \"next_attempt_at\" TIMESTAMP, \"moved_at\" TIMESTAMP NOT NULL)");
+        jdbc.execute("ALTER TABLE \"transaction_outbox_dlq\" ADD COLUMN IF NOT EXISTS \"idempotency_key\" UUID");
+        jdbc.execute("ALTER TABLE \"transaction_outbox_dlq\" ADD COLUMN IF NOT EXISTS \"error_type\" VARCHAR(100)");
+        jdbc.execute("ALTER TABLE \"transaction_outbox_dlq\" ADD COLUMN IF NOT EXISTS \"retryable\" BOOLEAN DEFAULT FALSE NOT NULL");
+        jdbc.execute("ALTER TABLE \"transaction_outbox_dlq\" ADD COLUMN IF NOT EXISTS \"attempts\" INT DEFAULT 0 NOT NULL");
+        jdbc.execute("ALTER TABLE \"transaction_outbox_dlq\" ADD COLUMN IF NOT EXISTS \"next_attempt_at\" TIMESTAMP");
+        jdbc.execute("CREATE INDEX IF NOT EXISTS \"transaction_outbox_dlq_due\" ON \"transaction_outbox_dlq\" (\"retryable\", \"next_attempt_at\")");
+        jdbc.execute("CREATE TABLE IF NOT EXISTS \"transaction_outbox_dlq_archive\" (\"id\" UUID PRIMARY KEY, \"idempotency_key\" UUID, \"payload\" VARCHAR(2048) NOT NULL, \"reason\" VARCHAR(1024), \"error_type\" VARCHAR(100), \"attempts\" INT NOT NULL, \"moved_at\" TIMESTAMP NOT NULL, \"archived_at\" TIMESTAMP NOT NULL)");
         jdbc.execute("CREATE TABLE IF NOT EXISTS \"processed_transactions\" (\"idempotency_key\" UUID PRIMARY KEY, \"processed_at\" TIMESTAMP NOT NULL)");
         jdbc.execute("CREATE TABLE IF NOT EXISTS \"transaction_journal\" (\"sequence_id\" BIGSERIAL PRIMARY KEY, \"idempotency_key\" UUID NOT NULL UNIQUE, \"transaction_id\" UUID NOT NULL, \"timestamp\" TIMESTAMP NOT NULL, \"command_type\" VARCHAR(50) NOT NULL, \"account_id_from\" UUID NOT NULL, \"account_id_to\" UUID, \"amount\" DECIMAL(19, 2))");
+        jdbc.execute("CREATE TABLE IF NOT EXISTS \"account_postings\" (\"account_id\" UUID NOT NULL, \"posting_no\" BIGINT NOT NULL, \"transaction_id\" UUID NOT NULL, \"command_type\" VARCHAR(50) NOT NULL, \"counterparty_id\" UUID, \"amount\" DECIMAL(19, 2) NOT NULL, \"balance_after\" DECIMAL(19, 2) NOT NULL, \"posted_at\" TIMESTAMP NOT NULL, PRIMARY KEY (\"account_id\", \"posting_no\"))");
 
         jdbc.execute("CREATE TABLE IF NOT EXISTS \"users\" (\"id\" UUID PRIMARY KEY, \"nickname\" VARCHAR(255) NOT NULL)");
         jdbc.execute("CREATE TABLE IF NOT EXISTS \"user_accounts\" (\"user_id\" UUID NOT NULL, \"account_id\" UUID NOT NULL, PRIMARY KEY (\"user_id\", \"account_id\"), FOREIGN KEY (\"user_id\") REFERENCES \"users\"(\"id\"), FOREIGN KEY (\"account_id\") REFERENCES \"accounts\"(\"id\"))");
@@ -127,9 +163,7 @@ public class BankServerFacade {
     public void stop() {
         observerExecutor.shutdownNow();
         this.bankApplication.stop();
-        if (this.dataSource instanceof HikariDataSource) {
-            ((HikariDataSource) this.dataSource).close();
-        }
+        this.dataSources.close();
     }
 
     public void killApp() {
@@ -143,6 +177,9 @@ public class BankServerFacade {
 
     public CommandResponse createUser(String nickname) { return adminService.createUser(nickname); }
     public CommandResponse createAccount(UUID userId) { return adminService.createAccount(userId); }
+    public CommandResponse createUsers(String baseName, int count) { return adminService.createUsers(baseName, count); }
+    public CommandResponse createAccounts(UUID userId, int count) { return adminService.createAccounts(userId, count); }
+    public CommandResponse provision(String baseName, int userCount, int accountsPerUser) { return adminService.provision(baseName, userCount, accountsPerUser); }
     
     public CommandResponse deposit(UUID accountId, BigDecimal amount) { return transactionService.deposit(accountId, amount); }
     public CommandResponse withdraw(UUID accountId, BigDecimal amount) { return transactionService.withdraw(accountId, amount); }
@@ -151,5 +188,17 @@ public class BankServerFacade {
     public CommandResponse unfreeze(UUID accountId) { return transactionService.unfreeze(accountId); }
     public CommandResponse close(UUID accountId) { return transactionService.close(accountId); }
     
+    public List<CommandResponse> submitBatch(List<TransactionCommand> commands) { return transactionService.enqueueAll(commands); }
+
     public SystemStateDto getSystemState() { return queryService.getSystemState(); }
+
+    public StatementPage statement(UUID accountId, Long cursor, int limit) { return bankApplication.getTransactionService().getStatement(accountId, cursor, limit); }
+
+    public TransactionEventProducer directIngress() { return bankApplication.getDirectIngress(); }
+
+    public AdmissionController admission() { return admission; }
+
+    public String metricsText() { return bankApplication.getMetrics().renderText(); }
+
+    public Map<LatencyStage, LatencySnapshot> latencyMetrics() { return bankApplication.getLatencyTracker().intervalSnapshot(); }
 }
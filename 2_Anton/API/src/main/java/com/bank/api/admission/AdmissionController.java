@@ -0,0 +1,95 @@
+package com.bank.api.admission;
+
+import com.bank.core.command.ActionType;
+import com.bank.core.command.TransactionCommand;
+import com.bank.core.engine.TransactionEventProducer;
+
+import java.util.UUID;
+import java.util.function.LongSupplier;
+
+/**
+ * Контроль допуска на входе: лимит частоты команд по каждому счету
+ * и проверка свободного места в RingBuffer. Отказ возвращается сразу,
+ * не доходя до outbox и движка
+ */
+public class AdmissionController {
+
+    public static final long DEFAULT_RATE_PER_SECOND = 10_000;
+    public static final long DEFAULT_BURST = 20_000;
+    public static final double DEFAULT_MIN_FREE_RATIO = 0.05;
+
+    private final TokenBucketTable buckets;
+    private final LongSupplier remainingCapacity;
+    private final long minFreeSlots;
+    private final LongSupplier clock;
+
+    public AdmissionController(long ratePerSecond, long burst, LongSupplier remainingCapacity, long minFreeSlots,
+            LongSupplier clock) {
+        this.buckets = new TokenBucketTable(ratePerSecond, burst);
+        this.remainingCapacity = remainingCapacity;
+        this.minFreeSlots = minFreeSlots;
+        this.clock = clock;
+    }
+
+    public static AdmissionController forProducer(TransactionEventProducer producer) {
+        return forRing(producer::remainingCapacity, producer.getBufferSize());
+    }
+
+    public static AdmissionController forRing(LongSupplier remainingCapacity, int bufferSize) {
+        long rate = Long.getLong("bank.admission.ratePerSecond", DEFAULT_RATE_PER_SECOND);
+        long burst = Long.getLong("bank.admission.burst", DEFAULT_BURST);
+        double minFreeRatio = Double.parseDouble(
+                System.getProperty("bank.admission.minFreeRatio", String.valueOf(DEFAULT_MIN_FREE_RATIO)));
+        long minFreeSlots = (long) (bufferSize * minFreeRatio);
+        return new AdmissionController(rate, burst, remainingCapacity, minFreeSlots, System::nanoTime);
+    }
+
+    /**
+     * Возвращает причину отказа или null, если команда допущена
+     */
+    public String admit(TransactionCommand command) {
+        UUID account = command.getAccountId();
+        UUID target = command.getActionType() == ActionType.TRANSFER ? command.getTargetAccountId() : null;
+        if (account == null) {
+            return null;
+        }
+        return admit(account.getMostSignificantBits(), account.getLeastSignificantBits(),
+                target == null ? 0L : target.getMostSignificantBits(),
+                target == null ? 0L : target.getLeastSignificantBits());
+    }
+
+    /**
+     * Возвращает токены команды, которую admit допустил, но вход не смог поставить в очередь
+     */
+    public void refund(TransactionCommand command) {
+        UUID account = command.getAccountId();
+        if (account == null) {
+            return;
+        }
+        buckets.release(account.getMostSignificantBits(), account.getLeastSignificantBits());
+        UUID target = command.getActionType() == ActionType.TRANSFER ? command.getTargetAccountId() : null;
+        if (target != null) {
+            buckets.release(target.getMostSignificantBits(), target.getLeastSignificantBits());
+        }
+    }
+
+    public String admit(long accountMsb, long accountLsb, long targetMsb, long targetLsb) {
+        if (remainingCapacity.getAsLong() < minFreeSlots) {
+            return "Rejected: engine is overloaded, retry later";
+        }
+        long now = clock.getAsLong();
+        if (!buckets.tryAcquire(accountMsb, accountLsb, now)) {
+            return "Rejected: rate limit exceeded for account " + new UUID(accountMsb, accountLsb);
+        }
+        if ((targetMsb != 0L || targetLsb != 0L) && !buckets.tryAcquire(targetMsb, targetLsb, now)) {
+            // токен источника уже списан, а команда не пройдет
+            buckets.release(accountMsb, accountLsb);
+            return "Rejected: rate limit exceeded for account " + new UUID(targetMsb, targetLsb);
+        }
+        return null;
+    }
+
+    int trackedAccounts() {
+        return buckets.size();
+    }
+}
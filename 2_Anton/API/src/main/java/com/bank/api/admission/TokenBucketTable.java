@@ -0,0 +1,157 @@
+package com.bank.api.admission;
+
+/**
+ * Токен-бакеты по счетам в примитивной хеш-таблице с открытой адресацией.
+ * Бакет хранится как одно число — теоретическое время прибытия (GCRA):
+ * запрос проходит, если оно опережает текущее время не больше чем на burst интервалов.
+ * Таблица разбита на сегменты со своими мониторами; бакеты, успевшие
+ * полностью восполниться, вытесняются при заполнении сегмента
+ */
+final class TokenBucketTable {
+
+    private static final int STRIPES = 64;
+    private static final int INITIAL_STRIPE_CAPACITY = 256;
+
+    private final long intervalNanos;
+    private final long toleranceNanos;
+    private final Stripe[] stripes = new Stripe[STRIPES];
+
+    TokenBucketTable(long ratePerSecond, long burst) {
+        if (ratePerSecond <= 0 || burst <= 0) {
+            throw new IllegalArgumentException("Rate and burst must be positive");
+        }
+        this.intervalNanos = Math.max(1L, 1_000_000_000L / ratePerSecond);
+        this.toleranceNanos = intervalNanos * (burst - 1);
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new Stripe(INITIAL_STRIPE_CAPACITY);
+        }
+    }
+
+    boolean tryAcquire(long msb, long lsb, long now) {
+        long hash = mix(msb, lsb);
+        Stripe stripe = stripes[(int) (hash >>> 58)];
+        synchronized (stripe) {
+            return stripe.tryAcquire(msb, lsb, (int) hash, now, intervalNanos, toleranceNanos);
+        }
+    }
+
+    void release(long msb, long lsb) {
+        long hash = mix(msb, lsb);
+        Stripe stripe = stripes[(int) (hash >>> 58)];
+        synchronized (stripe) {
+            stripe.release(msb, lsb, (int) hash, intervalNanos);
+        }
+    }
+
+    int size() {
+        int size = 0;
+        for (Stripe stripe : stripes) {
+            synchronized (stripe) {
+                size += stripe.size;
+            }
+        }
+        return size;
+    }
+
+    private static long mix(long msb, long lsb) {
+        long h = msb * 0x9E3779B97F4A7C15L ^ lsb;
+        h ^= h >>> 33;
+        h *= 0xFF51AFD7ED558CCDL;
+        return h ^ (h >>> 33);
+    }
+
+    private static final class Stripe {
+        private long[] keys;
+        private long[] arrivals;
+        private boolean[] used;
+        private int mask;
+        private int size;
+
+        Stripe(int capacity) {
+            allocate(capacity);
+        }
+
+        boolean tryAcquire(long msb, long lsb, int hash, long now, long interval, long tolerance) {
+            int slot = find(msb, lsb, hash);
+            if (slot < 0) {
+                if (size + 1 > (mask + 1) * 3 / 4) {
+                    rehash(now);
+                }
+                slot = insertSlot(hash);
+                used[slot] = true;
+                keys[2 * slot] = msb;
+                keys[2 * slot + 1] = lsb;
+                arrivals[slot] = now;
+                size++;
+            }
+            long arrival = arrivals[slot] - now > 0 ? arrivals[slot] : now;
+            if (arrival - now > tolerance) {
+                return false;
+            }
+            arrivals[slot] = arrival + interval;
+            return true;
+        }
+
+        void release(long msb, long lsb, int hash, long interval) {
+            int slot = find(msb, lsb, hash);
+            if (slot >= 0) {
+                arrivals[slot] -= interval;
+            }
+        }
+
+        private int find(long msb, long lsb, int hash) {
+            for (int slot = hash & mask; used[slot]; slot = (slot + 1) & mask) {
+                if (keys[2 * slot] == msb && keys[2 * slot + 1] == lsb) {
+                    return slot;
+                }
+            }
+            return -1;
+        }
+
+        private int insertSlot(int hash) {
+            int slot = hash & mask;
+            while (used[slot]) {
+                slot = (slot + 1) & mask;
+            }
+            return slot;
+        }
+
+        private void rehash(long now) {
+            long[] oldKeys = keys;
+            long[] oldArrivals = arrivals;
+            boolean[] oldUsed = used;
+            int live = 0;
+            for (int i = 0; i < oldUsed.length; i++) {
+                if (oldUsed[i] && oldArrivals[i] - now > 0) {
+                    live++;
+                }
+            }
+            int capacity = oldUsed.length;
+            while (live + 1 > capacity / 2) {
+                capacity <<= 1;
+            }
+            allocate(capacity);
+            for (int i = 0; i < oldUsed.length; i++) {
+                // Восполненный бакет неотличим от отсутствующего
+                if (oldUsed[i] && oldArrivals[i] - now > 0) {
+                    long msb = oldKeys[2 * i];
+                    long lsb = oldKeys[2 * i + 1];
+                    int slot = insertSlot((int) mix(msb, lsb));
+                    used[slot] = true;
+                    keys[2 * slot] = msb;
+                    keys[2 * slot + 1] = lsb;
+                    arrivals[slot] = oldArrivals[i];
+                    size++;
+                }
+            }
+        }
+
+        private void allocate(int capacity) {
+            keys = new long[2 * capacity];
+            arrivals = new long[capacity];
+            used = new boolean[capacity];
+            mask = capacity - 1;
+            size = 0;
+        }
+    }
+}
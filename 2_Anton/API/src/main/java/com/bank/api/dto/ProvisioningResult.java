@@ -0,0 +1,49 @@
+package com.bank.api.dto;
+
+import java.util.Arrays;
+import java.util.UUID;
+
+/**
+ * Результат массового создания пользователей и счетов.
+ * ID хранятся компактно: пара (mostSigBits, leastSigBits) на каждый UUID,
+ * счета пользователя i лежат подряд начиная с индекса i * accountsPerUser.
+ * equals/hashCode сравнивают содержимое массивов, а не ссылки
+ */
+public record ProvisioningResult(long[] userIds, long[] accountIds, int accountsPerUser) {
+
+    public int userCount() {
+        return userIds.length / 2;
+    }
+
+    public int accountCount() {
+        return accountIds.length / 2;
+    }
+
+    public UUID userId(int index) {
+        return new UUID(userIds[2 * index], userIds[2 * index + 1]);
+    }
+
+    public UUID accountId(int index) {
+        return new UUID(accountIds[2 * index], accountIds[2 * index + 1]);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof ProvisioningResult other)) return false;
+        return accountsPerUser == other.accountsPerUser
+                && Arrays.equals(userIds, other.userIds)
+                && Arrays.equals(accountIds, other.accountIds);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * (31 * Arrays.hashCode(userIds) + Arrays.hashCode(accountIds)) + accountsPerUser;
+    }
+
+    @Override
+    public String toString() {
+        return "ProvisioningResult[users=" + userCount() + ", accounts=" + accountCount()
+                + ", accountsPerUser=" + accountsPerUser + "]";
+    }
+}
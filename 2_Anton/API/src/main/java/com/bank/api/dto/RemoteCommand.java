@@ -0,0 +1,68 @@
+package com.bank.api.dto;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+/**
+ * Команда, передаваемая удаленным клиентом по сети. Поля, не нужные
+ * конкретному типу, остаются пустыми
+ */
+public record RemoteCommand(String type, UUID accountId, UUID targetAccountId, UUID userId,
+        String name, BigDecimal amount, int count, int accountsPerUser) {
+
+    public static final String CREATE_USER = "CREATE_USER";
+    public static final String CREATE_ACCOUNT = "CREATE_ACCOUNT";
+    public static final String CREATE_USERS = "CREATE_USERS";
+    public static final String CREATE_ACCOUNTS = "CREATE_ACCOUNTS";
+    public static final String PROVISION = "PROVISION";
+    public static final String DEPOSIT = "DEPOSIT";
+    public static final String WITHDRAW = "WITHDRAW";
+    public static final String TRANSFER = "TRANSFER";
+    public static final String FREEZE = "FREEZE";
+    public static final String UNFREEZE = "UNFREEZE";
+    public static final String CLOSE = "CLOSE";
+
+    public static RemoteCommand createUser(String nickname) {
+        return new RemoteCommand(CREATE_USER, null, null, null, nickname, null, 1, 0);
+    }
+
+    public static RemoteCommand createAccount(UUID userId) {
+        return new RemoteCommand(CREATE_ACCOUNT, null, null, userId, null, null, 1, 0);
+    }
+
+    public static RemoteCommand createUsers(String baseName, int count) {
+        return new RemoteCommand(CREATE_USERS, null, null, null, baseName, null, count, 0);
+    }
+
+    public static RemoteCommand createAccounts(UUID userId, int count) {
+        return new RemoteCommand(CREATE_ACCOUNTS, null, null, userId, null, null, count, 0);
+    }
+
+    public static RemoteCommand provision(String baseName, int userCount, int accountsPerUser) {
+        return new RemoteCommand(PROVISION, null, null, null, baseName, null, userCount, accountsPerUser);
+    }
+
+    public static RemoteCommand deposit(UUID accountId, BigDecimal amount) {
+        return new RemoteCommand(DEPOSIT, accountId, null, null, null, amount, 1, 0);
+    }
+
+    public static RemoteCommand withdraw(UUID accountId, BigDecimal amount) {
+        return new RemoteCommand(WITHDRAW, accountId, null, null, null, amount, 1, 0);
+    }
+
+    public static RemoteCommand transfer(UUID from, UUID to, BigDecimal amount) {
+        return new RemoteCommand(TRANSFER, from, to, null, null, amount, 1, 0);
+    }
+
+    public static RemoteCommand freeze(UUID accountId) {
+        return new RemoteCommand(FREEZE, accountId, null, null, null, null, 1, 0);
+    }
+
+    public static RemoteCommand unfreeze(UUID accountId) {
+        return new RemoteCommand(UNFREEZE, accountId, null, null, null, null, 1, 0);
+    }
+
+    public static RemoteCommand close(UUID accountId) {
+        return new RemoteCommand(CLOSE, accountId, null, null, null, null, 1, 0);
+    }
+}
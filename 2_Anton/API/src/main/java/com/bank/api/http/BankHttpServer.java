@@ -0,0 +1,229 @@
+package com.bank.api.http;
+
+import com.bank.api.BankServerFacade;
+import com.bank.api.dto.CommandResponse;
+import com.bank.api.dto.RemoteCommand;
+import com.bank.api.tcp.BinaryTcpServer;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Встроенный HTTP/JSON сервер поверх BankServerFacade на базе JDK HttpServer.
+ * Соединения HTTP/1.1 держатся открытыми (keep-alive), команды принимаются
+ * пачками: POST /api/commands с JSON-массивом RemoteCommand.
+ * Административные /api/reset и /api/kill регистрируются, только если задан adminToken,
+ * и требуют его в заголовке X-Bank-Admin-Token. Без этого заголовка /api/commands
+ * отклоняет массовые CREATE_USERS, CREATE_ACCOUNTS и PROVISION
+ */
+public class BankHttpServer {
+    private static final Logger log = LoggerFactory.getLogger(BankHttpServer.class);
+    public static final String ADMIN_TOKEN_HEADER = "X-Bank-Admin-Token";
+    public static final String HOST_PROPERTY = "bank.http.host";
+    public static final String ADMIN_TOKEN_PROPERTY = "bank.http.adminToken";
+
+    private static final int BACKLOG = 1024;
+    private static final int PROCESSED_LOG_CAPACITY = 1 << 16;
+    private static final int MAX_PROCESSED_PAGE = 4096;
+    private static final TypeReference<List<RemoteCommand>> COMMAND_LIST = new TypeReference<>() {};
+
+    private final BankServerFacade facade;
+    private final RemoteCommandDispatcher dispatcher;
+    private final ProcessedKeyLog processedKeys = new ProcessedKeyLog(PROCESSED_LOG_CAPACITY);
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final HttpServer server;
+    private final ExecutorService workers;
+    private final byte[] adminToken;
+
+    public BankHttpServer(BankServerFacade facade, InetSocketAddress address, int workerThreads) throws IOException {
+        this(facade, address, workerThreads, null);
+    }
+
+    public BankHttpServer(BankServerFacade facade, InetSocketAddress address, int workerThreads, String adminToken)
+            throws IOException {
+        this.facade = facade;
+        this.adminToken = adminToken == null || adminToken.isEmpty()
+                ? null
+                : adminToken.getBytes(StandardCharsets.UTF_8);
+        this.dispatcher = new RemoteCommandDispatcher(facade);
+        this.server = HttpServer.create(address, BACKLOG);
+
+        AtomicInteger threadCounter = new AtomicInteger();
+        this.workers = Executors.newFixedThreadPool(workerThreads, r -> {
+            Thread t = new Thread(r, "bank-http-" + threadCounter.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+        server.setExecutor(workers);
+
+        server.createContext("/api/commands", this::handleCommands);
+        server.createContext("/api/state", exchange -> handleQuery(exchange, "GET", facade::getSystemState));
+        server.createContext("/api/processed", this::handleProcessed);
+        server.createContext("/api/metrics", this::handleMetrics);
+        server.createContext("/api/metrics/latency", exchange -> handleQuery(exchange, "GET", facade::latencyMetrics));
+        if (this.adminToken != null) {
+            server.createContext("/api/reset", exchange -> {
+                if (authorizeAdmin(exchange)) {
+                    handleQuery(exchange, "POST", facade::reset);
+                }
+            });
+            server.createContext("/api/kill", exchange -> {
+                if (!authorizeAdmin(exchange)) {
+                    return;
+                }
+                exchange.sendResponseHeaders(204, -1);
+                exchange.close();
+                facade.killApp();
+            });
+        }
+
+        facade.addObserver(processedKeys::append);
+    }
+
+    public void start() {
+        server.start();
+        log.info("Bank HTTP server listening on {}", server.getAddress());
+    }
+
+    public void stop() {
+        server.stop(0);
+        workers.shutdown();
+        try {
+            if (!workers.awaitTermination(5, TimeUnit.SECONDS)) {
+                workers.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            workers.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+        log.info("Bank HTTP server stopped.");
+    }
+
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    private boolean isAdmin(HttpExchange exchange) {
+        String presented = exchange.getRequestHeaders().getFirst(ADMIN_TOKEN_HEADER);
+        return adminToken != null && presented != null
+                && MessageDigest.isEqual(adminToken, presented.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private boolean authorizeAdmin(HttpExchange exchange) throws IOException {
+        if (isAdmin(exchange)) {
+            return true;
+        }
+        log.warn("Rejected admin request {} from {}", exchange.getRequestURI().getPath(), exchange.getRemoteAddress());
+        exchange.getRequestBody().close();
+        sendJson(exchange, 401, CommandResponse.error("Admin token required"));
+        return false;
+    }
+
+    private void handleCommands(HttpExchange exchange) throws IOException {
+        if (!"POST".equals(exchange.getRequestMethod())) {
+            sendStatus(exchange, 405);
+            return;
+        }
+        List<RemoteCommand> commands;
+        try (InputStream body = exchange.getRequestBody()) {
+            commands = objectMapper.readValue(body, COMMAND_LIST);
+        } catch (IOException e) {
+            sendJson(exchange, 400, CommandResponse.error("Malformed request: " + e.getMessage()));
+            return;
+        }
+        sendJson(exchange, 200, dispatcher.dispatch(commands, isAdmin(exchange)));
+    }
+
+    private void handleProcessed(HttpExchange exchange) throws IOException {
+        long cursor = 0;
+        String query = exchange.getRequestURI().getQuery();
+        if (query != null && query.startsWith("after=")) {
+            try {
+                cursor = Long.parseLong(query.substring("after=".length()));
+            } catch (NumberFormatException e) {
+                sendStatus(exchange, 400);
+                return;
+            }
+        }
+        sendJson(exchange, 200, processedKeys.readAfter(cursor, MAX_PROCESSED_PAGE));
+    }
+
+    private void handleMetrics(HttpExchange exchange) throws IOException {
+        if (!"GET".equals(exchange.getRequestMethod())) {
+            sendStatus(exchange, 405);
+            return;
+        }
+        byte[] body = facade.metricsText().getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "text/plain; version=0.0.4; charset=utf-8");
+        exchange.sendResponseHeaders(200, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    private void handleQuery(HttpExchange exchange, String method, Supplier<?> query) throws IOException {
+        if (!method.equals(exchange.getRequestMethod())) {
+            sendStatus(exchange, 405);
+            return;
+        }
+        exchange.getRequestBody().close();
+        sendJson(exchange, 200, query.get());
+    }
+
+    private void sendJson(HttpExchange exchange, int status, Object value) throws IOException {
+        byte[] body = objectMapper.writeValueAsBytes(value);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    private void sendStatus(HttpExchange exchange, int status) throws IOException {
+        exchange.sendResponseHeaders(status, -1);
+        exchange.close();
+    }
+
+    public static void main(String[] args) throws IOException {
+        // по умолчанию только локальный интерфейс: наружу сервер открывается явным -Dbank.http.host=0.0.0.0
+        String host = System.getProperty(HOST_PROPERTY, "127.0.0.1");
+        int port = Integer.getInteger("bank.http.port", 8080);
+        int threads = Integer.getInteger("bank.http.threads", Runtime.getRuntime().availableProcessors());
+
+        Integer tcpPort = Integer.getInteger("bank.tcp.port");
+        BankServerFacade facade = new BankServerFacade(false, tcpPort != null);
+        BankHttpServer httpServer = new BankHttpServer(facade, new InetSocketAddress(host, port), threads,
+                System.getProperty(ADMIN_TOKEN_PROPERTY));
+        BinaryTcpServer tcpServer = tcpPort == null
+                ? null
+                : new BinaryTcpServer(facade.directIngress(), facade.admission(),
+                        new InetSocketAddress(host, tcpPort));
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            if (tcpServer != null) {
+                tcpServer.stop();
+            }
+            httpServer.stop();
+            facade.stop();
+        }));
+        httpServer.start();
+        if (tcpServer != null) {
+            tcpServer.start();
+        }
+    }
+}
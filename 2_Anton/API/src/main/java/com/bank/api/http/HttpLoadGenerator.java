@@ -0,0 +1,141 @@
+package com.bank.api.http;
+
+import com.bank.api.BankServerFacade;
+import com.bank.api.dto.RemoteCommand;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Генератор нагрузки для BankHttpServer на localhost.
+ * Без -Dbank.load.port поднимает встроенный сервер на H2 в памяти со случайным
+ * admin-токеном, для внешнего сервера токен берется из -Dbank.load.adminToken.
+ * Каждое соединение шлет пачки депозитов по случайным счетам и замеряет
+ * время ответа на пачку
+ */
+public class HttpLoadGenerator {
+
+    public static void main(String[] args) throws Exception {
+        int connections = Integer.getInteger("bank.load.connections", 8);
+        int batchSize = Integer.getInteger("bank.load.batch", 64);
+        int requestsPerConnection = Integer.getInteger("bank.load.requests", 500);
+        int users = Integer.getInteger("bank.load.users", 100);
+        int accountsPerUser = Integer.getInteger("bank.load.accountsPerUser", 10);
+        Integer port = Integer.getInteger("bank.load.port");
+        String adminToken = System.getProperty("bank.load.adminToken");
+
+        BankServerFacade facade = null;
+        BankHttpServer embedded = null;
+        if (port == null) {
+            facade = new BankServerFacade(true);
+            adminToken = UUID.randomUUID().toString();
+            embedded = new BankHttpServer(facade, new InetSocketAddress("127.0.0.1", 0), connections, adminToken);
+            embedded.start();
+            port = embedded.getPort();
+        }
+
+        try {
+            URI commandsUri = URI.create("http://127.0.0.1:" + port + "/api/commands");
+            HttpClient client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+            ObjectMapper mapper = new ObjectMapper();
+
+            List<UUID> accounts = provision(client, mapper, commandsUri, adminToken, users, accountsPerUser);
+            System.out.printf("Provisioned %d accounts. Running %d connections x %d requests x %d commands...%n",
+                    accounts.size(), connections, requestsPerConnection, batchSize);
+
+            ExecutorService pool = Executors.newFixedThreadPool(connections);
+            List<Future<long[]>> futures = new ArrayList<>();
+            long start = System.nanoTime();
+            for (int c = 0; c < connections; c++) {
+                futures.add(pool.submit(() -> runConnection(client, mapper, commandsUri, accounts,
+                        requestsPerConnection, batchSize)));
+            }
+            long[] latencies = new long[connections * requestsPerConnection];
+            int offset = 0;
+            for (Future<long[]> f : futures) {
+                long[] part = f.get();
+                System.arraycopy(part, 0, latencies, offset, part.length);
+                offset += part.length;
+            }
+            long elapsed = System.nanoTime() - start;
+            pool.shutdown();
+
+            Arrays.sort(latencies);
+            long commands = (long) latencies.length * batchSize;
+            System.out.printf("Commands: %d in %.2f s -> %.0f cmd/s%n", commands, elapsed / 1e9,
+                    commands / (elapsed / 1e9));
+            System.out.printf("Batch latency us: p50=%d p99=%d p99.9=%d max=%d%n",
+                    percentile(latencies, 0.50) / 1000, percentile(latencies, 0.99) / 1000,
+                    percentile(latencies, 0.999) / 1000, latencies[latencies.length - 1] / 1000);
+        } finally {
+            if (embedded != null) {
+                embedded.stop();
+                facade.stop();
+            }
+        }
+    }
+
+    private static List<UUID> provision(HttpClient client, ObjectMapper mapper, URI uri, String adminToken,
+            int users, int accountsPerUser) throws IOException, InterruptedException {
+        JsonNode result = post(client, mapper, uri, adminToken,
+                List.of(RemoteCommand.provision("load", users, accountsPerUser))).get(0);
+        if (!result.path("success").asBoolean()) {
+            throw new IllegalStateException("Provisioning failed: " + result.path("message").asText());
+        }
+        JsonNode ids = result.path("data").path("accountIds");
+        List<UUID> accounts = new ArrayList<>(ids.size() / 2);
+        for (int i = 0; i + 1 < ids.size(); i += 2) {
+            accounts.add(new UUID(ids.get(i).asLong(), ids.get(i + 1).asLong()));
+        }
+        return accounts;
+    }
+
+    private static long[] runConnection(HttpClient client, ObjectMapper mapper, URI uri, List<UUID> accounts,
+            int requests, int batchSize) throws IOException, InterruptedException {
+        long[] latencies = new long[requests];
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        List<RemoteCommand> batch = new ArrayList<>(batchSize);
+        for (int r = 0; r < requests; r++) {
+            batch.clear();
+            for (int i = 0; i < batchSize; i++) {
+                batch.add(RemoteCommand.deposit(accounts.get(random.nextInt(accounts.size())), BigDecimal.ONE));
+            }
+            long t0 = System.nanoTime();
+            post(client, mapper, uri, null, batch);
+            latencies[r] = System.nanoTime() - t0;
+        }
+        return latencies;
+    }
+
+    private static JsonNode post(HttpClient client, ObjectMapper mapper, URI uri, String adminToken,
+            List<RemoteCommand> commands) throws IOException, InterruptedException {
+        HttpRequest.Builder request = HttpRequest.newBuilder(uri)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofByteArray(mapper.writeValueAsBytes(commands)));
+        if (adminToken != null) {
+            request.header(BankHttpServer.ADMIN_TOKEN_HEADER, adminToken);
+        }
+        HttpResponse<byte[]> response = client.send(request.build(), HttpResponse.BodyHandlers.ofByteArray());
+        return mapper.readTree(response.body());
+    }
+
+    private static long percentile(long[] sorted, double p) {
+        int index = (int) Math.min(sorted.length - 1, Math.ceil(p * sorted.length) - 1);
+        return sorted[Math.max(index, 0)];
+    }
+}
@@ -0,0 +1,42 @@
+package com.bank.api.http;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Кольцевой журнал обработанных ключей идемпотентности для удаленных
+ * наблюдателей. Клиент читает все ключи после своего курсора; слишком
+ * отставший клиент теряет самые старые записи
+ */
+public class ProcessedKeyLog {
+
+    public record Page(long cursor, List<UUID> keys) {}
+
+    private final UUID[] keys;
+    private long written;
+
+    public ProcessedKeyLog(int capacity) {
+        this.keys = new UUID[capacity];
+    }
+
+    public synchronized void append(UUID key) {
+        keys[(int) (written % keys.length)] = key;
+        written++;
+    }
+
+    /**
+     * Курсор впереди журнала (рестарт сервера или выдуманный клиентом) дает пустую страницу с курсором
+     * written, с которого клиент продолжает
+     */
+    public synchronized Page readAfter(long cursor, int maxKeys) {
+        long from = Math.max(cursor, written - keys.length);
+        from = Math.min(Math.max(from, 0), written);
+        long to = Math.min(written, from + maxKeys);
+        List<UUID> page = new ArrayList<>((int) (to - from));
+        for (long i = from; i < to; i++) {
+            page.add(keys[(int) (i % keys.length)]);
+        }
+        return new Page(to, page);
+    }
+}
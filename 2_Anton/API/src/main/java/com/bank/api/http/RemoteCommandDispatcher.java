@@ -0,0 +1,98 @@
+package com.bank.api.http;
+
+import com.bank.api.BankServerFacade;
+import com.bank.api.dto.CommandResponse;
+import com.bank.api.dto.RemoteCommand;
+import com.bank.core.command.TransactionCommand;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Выполняет пачку сетевых команд через фасад. Подряд идущие денежные команды
+ * сохраняются в outbox одним JDBC-батчем, порядок относительно
+ * административных команд сохраняется. Массовые CREATE_USERS, CREATE_ACCOUNTS
+ * и PROVISION выполняются только для запроса с admin-токеном
+ */
+public class RemoteCommandDispatcher {
+
+    private final BankServerFacade facade;
+
+    public RemoteCommandDispatcher(BankServerFacade facade) {
+        this.facade = facade;
+    }
+
+    public List<CommandResponse> dispatch(List<RemoteCommand> commands, boolean admin) {
+        CommandResponse[] responses = new CommandResponse[commands.size()];
+        List<TransactionCommand> pending = new ArrayList<>();
+        List<Integer> pendingSlots = new ArrayList<>();
+
+        for (int i = 0; i < commands.size(); i++) {
+            RemoteCommand command = commands.get(i);
+            TransactionCommand tx;
+            try {
+                tx = toTransactionCommand(command);
+            } catch (RuntimeException e) {
+                responses[i] = CommandResponse.error("Invalid command: " + e.getMessage());
+                continue;
+            }
+
+            if (tx != null) {
+                pending.add(tx);
+                pendingSlots.add(i);
+            } else {
+                flush(pending, pendingSlots, responses);
+                responses[i] = executeAdmin(command, admin);
+            }
+        }
+        flush(pending, pendingSlots, responses);
+        return List.of(responses);
+    }
+
+    private void flush(List<TransactionCommand> pending, List<Integer> slots, CommandResponse[] responses) {
+        if (pending.isEmpty()) {
+            return;
+        }
+        List<CommandResponse> results = facade.submitBatch(pending);
+        for (int i = 0; i < results.size(); i++) {
+            responses[slots.get(i)] = results.get(i);
+        }
+        pending.clear();
+        slots.clear();
+    }
+
+    private TransactionCommand toTransactionCommand(RemoteCommand c) {
+        UUID key = UUID.randomUUID();
+        return switch (c.type()) {
+            case RemoteCommand.DEPOSIT -> TransactionCommand.createDepositCommand(key, c.accountId(), c.amount());
+            case RemoteCommand.WITHDRAW -> TransactionCommand.createWithdrawCommand(key, c.accountId(), c.amount());
+            case RemoteCommand.TRANSFER ->
+                TransactionCommand.createTransferCommand(key, c.accountId(), c.targetAccountId(), c.amount());
+            case RemoteCommand.FREEZE -> TransactionCommand.createFreezeCommand(key, c.accountId());
+            case RemoteCommand.UNFREEZE -> TransactionCommand.createUnfreezeCommand(key, c.accountId());
+            case RemoteCommand.CLOSE -> TransactionCommand.createCloseCommand(key, c.accountId());
+            default -> null;
+        };
+    }
+
+    private CommandResponse executeAdmin(RemoteCommand c, boolean admin) {
+        if (!admin && isBulk(c.type())) {
+            return CommandResponse.error("Admin token required for " + c.type());
+        }
+        return switch (c.type()) {
+            case RemoteCommand.CREATE_USER -> facade.createUser(c.name());
+            case RemoteCommand.CREATE_ACCOUNT -> facade.createAccount(c.userId());
+            case RemoteCommand.CREATE_USERS -> facade.createUsers(c.name(), c.count());
+            case RemoteCommand.CREATE_ACCOUNTS -> facade.createAccounts(c.userId(), c.count());
+            case RemoteCommand.PROVISION -> facade.provision(c.name(), c.count(), c.accountsPerUser());
+            default -> CommandResponse.error("Unknown command type: " + c.type());
+        };
+    }
+
+    private static boolean isBulk(String type) {
+        return RemoteCommand.CREATE_USERS.equals(type)
+                || RemoteCommand.CREATE_ACCOUNTS.equals(type)
+                || RemoteCommand.PROVISION.equals(type);
+    }
+}
@@ -1,21 +1,43 @@
 package com.bank.api.service;
 
 import com.bank.api.dto.CommandResponse;
+import com.bank.api.dto.ProvisioningResult;
+import com.bank.application.BankApplication;
+import com.bank.core.engine.consumers.BalanceAuditConsumer;
 import com.bank.core.state.AccountState;
+import com.bank.persistence.outbox.OutboxPartitions;
 import com.bank.domain.Account;
 import com.bank.domain.AccountStatus;
+import org.springframework.jdbc.core.ConnectionCallback;
 import org.springframework.jdbc.core.JdbcTemplate;
 
 import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.UUID;
 
 public class AdminService {
+    private static final int ROWS_PER_STATEMENT = 500;
+    private static final int ROWS_PER_CHUNK = 10_000;
+
+    private static final String INSERT_USERS_HEAD = "INSERT INTO \"users\" (\"id\", \"nickname\") VALUES ";
+    private static final String INSERT_USERS_ROW = "(?, ?)";
+    private static final String INSERT_ACCOUNTS_HEAD = "INSERT INTO \"accounts\" (\"id\", \"balance\", \"status\") VALUES ";
+    private static final String INSERT_ACCOUNTS_ROW = "(?, 0, 'ACTIVE')";
+    private static final String INSERT_LINKS_HEAD = "INSERT INTO \"user_accounts\" (\"user_id\", \"account_id\") VALUES ";
+    private static final String INSERT_LINKS_ROW = "(?, ?)";
+
     private final JdbcTemplate jdbcTemplate;
+    private final BankApplication bankApplication;
 
-    public AdminService(JdbcTemplate jdbcTemplate) {
+    public AdminService(JdbcTemplate jdbcTemplate, BankApplication bankApplication) {
         this.jdbcTemplate = jdbcTemplate;
+        this.bankApplication = bankApplication;
     }
 
     public CommandResponse createUser(String nickname) {
@@ -42,7 +64,7 @@ public class AdminService {
             jdbcTemplate.update("INSERT INTO \"user_accounts\" (\"user_id\", \"account_id\") VALUES (?, ?)",
                     userId, accountId);
 
-            reloadEngineState();
+            bankApplication.openAccount(accountId);
 
             return CommandResponse.ok("Account created", accountId);
         } catch (Exception e) {
@@ -50,13 +72,181 @@ public class AdminService {
         }
     }
 
+    public CommandResponse createUsers(String baseName, int count) {
+        return provision(baseName, count, 0);
+    }
+
+    public CommandResponse createAccounts(UUID userId, int count) {
+        if (count <= 0) return CommandResponse.error("Count must be positive");
+        try {
+            Integer users = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM \"users\" WHERE \"id\" = ?", Integer.class, userId);
+            if (users == null || users == 0) return CommandResponse.error("User not found");
+
+            long[] ownerIds = { userId.getMostSignificantBits(), userId.getLeastSignificantBits() };
+            long[] accountIds = randomIds(count);
+            jdbcTemplate.execute((ConnectionCallback<Void>) conn -> {
+                inTransaction(conn, () -> insertAccounts(conn, ownerIds, accountIds, count));
+                return null;
+            });
+            openAccounts(accountIds);
+            return CommandResponse.ok("Accounts created: " + count, new ProvisioningResult(ownerIds, accountIds, count));
+        } catch (Exception e) {
+            return CommandResponse.error("Error creating accounts: " + e.getMessage());
+        }
+    }
+
+    public CommandResponse provision(String baseName, int userCount, int accountsPerUser) {
+        if (userCount <= 0 || accountsPerUser < 0) return CommandResponse.error("Invalid provisioning size");
+        try {
+            long[] userIds = randomIds(userCount);
+            long[] accountIds = randomIds(Math.multiplyExact(userCount, accountsPerUser));
+            jdbcTemplate.execute((ConnectionCallback<Void>) conn -> {
+                inTransaction(conn, () -> {
+                    insertUsers(conn, userIds, baseName);
+                    if (accountsPerUser > 0) {
+                        insertAccounts(conn, userIds, accountIds, accountsPerUser);
+                    }
+                });
+                return null;
+            });
+            openAccounts(accountIds);
+            ProvisioningResult result = new ProvisioningResult(userIds, accountIds, accountsPerUser);
+            return CommandResponse.ok("Provisioned " + result.userCount() + " users and "
+                    + result.accountCount() + " accounts", result);
+        } catch (Exception e) {
+            return CommandResponse.error("Error provisioning: " + e.getMessage());
+        }
+    }
+
+    private void insertUsers(Connection conn, long[] userIds, String baseName) throws SQLException {
+        int count = userIds.length / 2;
+        for (int from = 0; from < count; from += ROWS_PER_CHUNK) {
+            int to = Math.min(count, from + ROWS_PER_CHUNK);
+            insertRows(conn, INSERT_USERS_HEAD, INSERT_USERS_ROW, from, to, (ps, p, i) -> {
+                ps.setObject(p, new UUID(userIds[2 * i], userIds[2 * i + 1]));
+                ps.setString(p + 1, nickname(baseName, i, count));
+            });
+        }
+    }
+
+    private void insertAccounts(Connection conn, long[] ownerIds, long[] accountIds, int accountsPerOwner)
+            throws SQLException {
+        int count = accountIds.length / 2;
+        for (int from = 0; from < count; from += ROWS_PER_CHUNK) {
+            int to = Math.min(count, from + ROWS_PER_CHUNK);
+            insertRows(conn, INSERT_ACCOUNTS_HEAD, INSERT_ACCOUNTS_ROW, from, to,
+                    (ps, p, i) -> ps.setObject(p, new UUID(accountIds[2 * i], accountIds[2 * i + 1])));
+            insertRows(conn, INSERT_LINKS_HEAD, INSERT_LINKS_ROW, from, to, (ps, p, i) -> {
+                int owner = i / accountsPerOwner;
+                ps.setObject(p, new UUID(ownerIds[2 * owner], ownerIds[2 * owner + 1]));
+                ps.setObject(p + 1, new UUID(accountIds[2 * i], accountIds[2 * i + 1]));
+            });
+        }
+    }
+
+    /**
+     * Открывает счета в движке только после коммита всей транзакции: при ошибке в БД не остается ни одной
+     * строки и движок не знает ни одного счета
+     */
+    private void openAccounts(long[] accountIds) {
+        int count = accountIds.length / 2;
+        for (int from = 0; from < count; from += ROWS_PER_CHUNK) {
+            int to = Math.min(count, from + ROWS_PER_CHUNK);
+            List<UUID> committed = new ArrayList<>(to - from);
+            for (int i = from; i < to; i++) {
+                committed.add(new UUID(accountIds[2 * i], accountIds[2 * i + 1]));
+            }
+            bankApplication.openAccounts(committed);
+        }
+    }
+
+    private void insertRows(Connection conn, String head, String row, int from, int to, RowBinder binder)
+            throws SQLException {
+        int paramsPerRow = (int) row.chars().filter(c -> c == '?').count();
+        int fullStatements = (to - from) / ROWS_PER_STATEMENT;
+        int remainder = (to - from) % ROWS_PER_STATEMENT;
+
+        if (fullStatements > 0) {
+            try (PreparedStatement ps = conn.prepareStatement(multiRowSql(head, row, ROWS_PER_STATEMENT))) {
+                for (int s = 0; s < fullStatements; s++) {
+                    int base = from + s * ROWS_PER_STATEMENT;
+                    for (int r = 0; r < ROWS_PER_STATEMENT; r++) {
+                        binder.bind(ps, r * paramsPerRow + 1, base + r);
+                    }
+                    ps.addBatch();
+                }
+                ps.executeBatch();
+            }
+        }
+        if (remainder > 0) {
+            try (PreparedStatement ps = conn.prepareStatement(multiRowSql(head, row, remainder))) {
+                int base = from + fullStatements * ROWS_PER_STATEMENT;
+                for (int r = 0; r < remainder; r++) {
+                    binder.bind(ps, r * paramsPerRow + 1, base + r);
+                }
+                ps.executeUpdate();
+            }
+        }
+    }
+
+    private static String multiRowSql(String head, String row, int rows) {
+        StringBuilder sb = new StringBuilder(head.length() + rows * (row.length() + 2)).append(head);
+        for (int i = 0; i < rows; i++) {
+            if (i > 0) sb.append(", ");
+            sb.append(row);
+        }
+        return sb.toString();
+    }
+
+    private static long[] randomIds(int count) {
+        long[] ids = new long[Math.multiplyExact(count, 2)];
+        for (int i = 0; i < count; i++) {
+            UUID id = UUID.randomUUID();
+            ids[2 * i] = id.getMostSignificantBits();
+            ids[2 * i + 1] = id.getLeastSignificantBits();
+        }
+        return ids;
+    }
+
+    private static String nickname(String baseName, int index, int count) {
+        if (baseName == null || baseName.isBlank()) return "user_" + UUID.randomUUID().toString().substring(0, 5);
+        return count > 1 ? baseName + "_" + (index + 1) : baseName;
+    }
+
+    private static void inTransaction(Connection conn, SqlWork work) throws SQLException {
+        boolean autoCommit = conn.getAutoCommit();
+        conn.setAutoCommit(false);
+        try {
+            work.run();
+            conn.commit();
+        } catch (SQLException | RuntimeException e) {
+            conn.rollback();
+            throw e;
+        } finally {
+            conn.setAutoCommit(autoCommit);
+        }
+    }
+
+    @FunctionalInterface
+    private interface RowBinder {
+        void bind(PreparedStatement ps, int firstParam, int rowIndex) throws SQLException;
+    }
+
+    @FunctionalInterface
+    private interface SqlWork {
+        void run() throws SQLException;
+    }
+
     public CommandResponse resetSystem() {
         try {
             jdbcTemplate.execute("DELETE FROM \"user_accounts\"");
             jdbcTemplate.execute("DELETE FROM \"transaction_journal\"");
+            jdbcTemplate.execute("DELETE FROM \"account_postings\"");
             jdbcTemplate.execute("DELETE FROM \"processed_transactions\"");
             jdbcTemplate.execute("DELETE FROM \"transaction_outbox_dlq\"");
+            jdbcTemplate.execute("DELETE FROM \"transaction_outbox_dlq_archive\"");
             jdbcTemplate.execute("DELETE FROM \"transaction_outbox\"");
+            clearOutboxPartitions();
             jdbcTemplate.execute("DELETE FROM \"idempotency_keys\"");
             jdbcTemplate.execute("DELETE FROM \"accounts\"");
             jdbcTemplate.execute("DELETE FROM \"users\"");
@@ -69,6 +259,13 @@ public class AdminService {
         }
     }
 
+    private void clearOutboxPartitions() {
+        OutboxPartitions partitions = bankApplication.getOutboxPartitions();
+        if (partitions != null) {
+            partitions.clear();
+        }
+    }
+
     private void reloadEngineState() {
         Map<UUID, Account> accountMap = new HashMap<>();
         try {
@@ -79,6 +276,7 @@ public class AdminService {
                 accountMap.put(id, new Account(id, bal, status));
             });
             AccountState.INSTANCE.loadAll(accountMap);
+            bankApplication.getBalanceAudit().rebase(BalanceAuditConsumer.totalBalance(accountMap));
         } catch (Exception e) {
             // Silent error handling as required
         }
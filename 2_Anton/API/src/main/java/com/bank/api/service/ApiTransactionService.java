@@ -1,21 +1,26 @@
 package com.bank.api.service;
 
+import com.bank.api.admission.AdmissionController;
 import com.bank.api.dto.CommandResponse;
+import com.bank.application.port.out.TransactionalOutboxRepository;
 import com.bank.core.command.TransactionCommand;
-import com.fasterxml.jackson.databind.ObjectMapper;
-import org.springframework.jdbc.core.JdbcTemplate;
 
 import java.math.BigDecimal;
-import java.sql.Timestamp;
-import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.UUID;
 
+/**
+ * Прием команд API: запись идет через outbox-репозиторий приложения, так что команды попадают в ту же таблицу
+ * или активный раздел, которые читает поллер
+ */
 public class ApiTransactionService {
-    private final JdbcTemplate jdbcTemplate;
-    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final TransactionalOutboxRepository outbox;
+    private final AdmissionController admission;
 
-    public ApiTransactionService(JdbcTemplate jdbcTemplate) {
-        this.jdbcTemplate = jdbcTemplate;
+    public ApiTransactionService(TransactionalOutboxRepository outbox, AdmissionController admission) {
+        this.outbox = outbox;
+        this.admission = admission;
     }
 
     public CommandResponse deposit(UUID accountId, BigDecimal amount) {
@@ -54,23 +59,62 @@ public class ApiTransactionService {
         return enqueueCommand(cmd, idempotencyKey);
     }
 
-    private CommandResponse enqueueCommand(TransactionCommand cmd, UUID idempotencyKey) {
+    public List<CommandResponse> enqueueAll(List<TransactionCommand> commands) {
+        List<CommandResponse> responses = new ArrayList<>(commands.size());
+        List<TransactionCommand> admitted = new ArrayList<>(commands.size());
+        List<Integer> admittedAt = new ArrayList<>(commands.size());
+        for (TransactionCommand cmd : commands) {
+            String rejection = admission.admit(cmd);
+            if (rejection != null) {
+                responses.add(CommandResponse.error(rejection));
+                continue;
+            }
+            admittedAt.add(responses.size());
+            admitted.add(cmd);
+            responses.add(CommandResponse.ok("Task accepted", cmd.getIdempotencyKey()));
+        }
+        if (admitted.isEmpty()) {
+            return responses;
+        }
+        boolean[] saved;
         try {
-            String payload = objectMapper.writeValueAsString(cmd);
-
-            String sql = "INSERT INTO \"transaction_outbox\" " +
-                    "(\"idempotency_key\", \"transaction_id\", \"payload\", \"status\", \"created_at\") " +
-                    "VALUES (?, ?, ?, 'PENDING', ?)";
-
-            jdbcTemplate.update(sql,
-                    cmd.getIdempotencyKey(),
-                    cmd.getTransactionId(),
-                    payload,
-                    Timestamp.from(Instant.now()));
+            saved = outbox.saveAll(admitted);
+        } catch (Exception e) {
+            admitted.forEach(admission::refund);
+            CommandResponse error = CommandResponse.error("Failed to enqueue batch: " + e.getMessage());
+            for (int slot : admittedAt) {
+                responses.set(slot, error);
+            }
+            return responses;
+        }
+        for (int i = 0; i < saved.length; i++) {
+            if (!saved[i]) {
+                TransactionCommand duplicate = admitted.get(i);
+                admission.refund(duplicate);
+                responses.set(admittedAt.get(i), duplicateError(duplicate));
+            }
+        }
+        return responses;
+    }
 
+    private CommandResponse enqueueCommand(TransactionCommand cmd, UUID idempotencyKey) {
+        String rejection = admission.admit(cmd);
+        if (rejection != null) {
+            return CommandResponse.error(rejection);
+        }
+        try {
+            if (!outbox.save(cmd)) {
+                admission.refund(cmd);
+                return duplicateError(cmd);
+            }
             return CommandResponse.ok("Task accepted", idempotencyKey);
         } catch (Exception e) {
+            admission.refund(cmd);
             return CommandResponse.error("Failed to enqueue task: " + e.getMessage());
         }
     }
-}
\ No newline at end of file
+
+    private static CommandResponse duplicateError(TransactionCommand cmd) {
+        return CommandResponse.error("Duplicate idempotency key: " + cmd.getIdempotencyKey());
+    }
+}
@@ -0,0 +1,141 @@
+package com.bank.api.tcp;
+
+import com.bank.api.dto.CommandResponse;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Клиент бинарного протокола. Запросы отправляются конвейером,
+ * ответы сопоставляются с запросами по correlationId в отдельном потоке чтения
+ */
+public class BinaryClient implements AutoCloseable {
+
+    private final SocketChannel channel;
+    private final ByteBuffer writeBuffer = ByteBuffer.allocateDirect(BinaryProtocol.REQUEST_FRAME_LENGTH * 256);
+    private final Map<Long, Pending> pending = new ConcurrentHashMap<>();
+    private final AtomicLong correlationIds = new AtomicLong();
+    private final Thread readerThread;
+    private volatile boolean closed;
+
+    public BinaryClient(String host, int port) throws IOException {
+        this.channel = SocketChannel.open(new InetSocketAddress(host, port));
+        this.channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+        this.readerThread = new Thread(this::readLoop, "bank-tcp-client-reader");
+        this.readerThread.setDaemon(true);
+        this.readerThread.start();
+    }
+
+    public CompletableFuture<CommandResponse> deposit(UUID accountId, BigDecimal amount) {
+        return send(BinaryProtocol.DEPOSIT, accountId, null, amount);
+    }
+
+    public CompletableFuture<CommandResponse> withdraw(UUID accountId, BigDecimal amount) {
+        return send(BinaryProtocol.WITHDRAW, accountId, null, amount);
+    }
+
+    public CompletableFuture<CommandResponse> transfer(UUID fromAccountId, UUID toAccountId, BigDecimal amount) {
+        return send(BinaryProtocol.TRANSFER, fromAccountId, toAccountId, amount);
+    }
+
+    public CompletableFuture<CommandResponse> freeze(UUID accountId) {
+        return send(BinaryProtocol.FREEZE, accountId, null, null);
+    }
+
+    public CompletableFuture<CommandResponse> unfreeze(UUID accountId) {
+        return send(BinaryProtocol.UNFREEZE, accountId, null, null);
+    }
+
+    public CompletableFuture<CommandResponse> close(UUID accountId) {
+        return send(BinaryProtocol.CLOSE, accountId, null, null);
+    }
+
+    public CompletableFuture<CommandResponse> send(byte type, UUID accountId, UUID targetAccountId,
+            BigDecimal amount) {
+        long cents;
+        try {
+            cents = amount == null ? 0L : amount.setScale(2, RoundingMode.UNNECESSARY).unscaledValue().longValueExact();
+        } catch (ArithmeticException e) {
+            return CompletableFuture.completedFuture(
+                    CommandResponse.error("Amount must be whole cents within range: " + amount.toPlainString()));
+        }
+        long correlationId = correlationIds.incrementAndGet();
+        UUID idempotencyKey = UUID.randomUUID();
+        CompletableFuture<CommandResponse> future = new CompletableFuture<>();
+        pending.put(correlationId, new Pending(idempotencyKey, future));
+        try {
+            synchronized (writeBuffer) {
+                writeBuffer.clear();
+                BinaryProtocol.writeRequest(writeBuffer, correlationId, type, idempotencyKey, accountId,
+                        targetAccountId, cents);
+                writeBuffer.flip();
+                while (writeBuffer.hasRemaining()) {
+                    channel.write(writeBuffer);
+                }
+            }
+        } catch (IOException e) {
+            pending.remove(correlationId);
+            future.completeExceptionally(e);
+        }
+        return future;
+    }
+
+    private void readLoop() {
+        ByteBuffer in = ByteBuffer.allocateDirect(64 * 1024);
+        try {
+            while (!closed && channel.read(in) >= 0) {
+                in.flip();
+                while (in.remaining() >= 4 && in.remaining() >= 4 + in.getInt(in.position())) {
+                    int length = in.getInt();
+                    long correlationId = in.getLong();
+                    byte status = in.get();
+                    byte[] text = new byte[length - BinaryProtocol.RESPONSE_HEADER_LENGTH];
+                    in.get(text);
+                    complete(correlationId, status, new String(text, StandardCharsets.UTF_8));
+                }
+                in.compact();
+            }
+        } catch (IOException e) {
+            if (!closed) {
+                failPending(e);
+            }
+            return;
+        }
+        failPending(new IOException("Connection closed by server"));
+    }
+
+    private void complete(long correlationId, byte status, String message) {
+        Pending request = pending.remove(correlationId);
+        if (request == null) {
+            return;
+        }
+        request.future().complete(status == BinaryProtocol.STATUS_ACCEPTED
+                ? CommandResponse.ok("Task accepted", request.idempotencyKey())
+                : CommandResponse.error(message));
+    }
+
+    private void failPending(IOException cause) {
+        pending.values().forEach(p -> p.future().completeExceptionally(cause));
+        pending.clear();
+    }
+
+    @Override
+    public void close() throws IOException {
+        closed = true;
+        channel.close();
+    }
+
+    private record Pending(UUID idempotencyKey, CompletableFuture<CommandResponse> future) {
+    }
+}
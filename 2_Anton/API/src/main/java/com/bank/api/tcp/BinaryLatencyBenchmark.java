@@ -0,0 +1,103 @@
+package com.bank.api.tcp;
+
+import com.bank.api.BankServerFacade;
+import com.bank.api.dto.CommandResponse;
+import com.bank.api.dto.ProvisioningResult;
+
+import java.math.BigDecimal;
+import java.net.InetSocketAddress;
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Замер задержки подтверждения команд по бинарному протоколу на localhost.
+ * Поднимает встроенный сервер на H2 в памяти, шлет запросы с заданной глубиной
+ * конвейера и печатает перцентили и гистограмму задержек
+ */
+public class BinaryLatencyBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        int requests = Integer.getInteger("bank.load.requests", 200_000);
+        int warmup = Integer.getInteger("bank.load.warmup", 50_000);
+        int pipeline = Integer.getInteger("bank.load.pipeline", 1);
+        int users = Integer.getInteger("bank.load.users", 100);
+        int accountsPerUser = Integer.getInteger("bank.load.accountsPerUser", 10);
+
+        BankServerFacade facade = new BankServerFacade(true, true);
+        BinaryTcpServer server = new BinaryTcpServer(facade.directIngress(), facade.admission(),
+                new InetSocketAddress("127.0.0.1", 0));
+        server.start();
+        try (BinaryClient client = new BinaryClient("127.0.0.1", server.getPort())) {
+            ProvisioningResult accounts = (ProvisioningResult) facade.provision("bin", users, accountsPerUser).data();
+
+            run(client, accounts, warmup, pipeline);
+            long start = System.nanoTime();
+            long[] latencies = run(client, accounts, requests, pipeline);
+            long elapsed = System.nanoTime() - start;
+
+            Arrays.sort(latencies);
+            System.out.printf("Commands: %d in %.2f s -> %.0f cmd/s (pipeline %d)%n", requests, elapsed / 1e9,
+                    requests / (elapsed / 1e9), pipeline);
+            System.out.printf("Ack latency us: p50=%.1f p99=%.1f p99.9=%.1f p99.99=%.1f max=%.1f%n",
+                    percentile(latencies, 0.50) / 1e3, percentile(latencies, 0.99) / 1e3,
+                    percentile(latencies, 0.999) / 1e3, percentile(latencies, 0.9999) / 1e3,
+                    latencies[latencies.length - 1] / 1e3);
+            printHistogram(latencies);
+        } finally {
+            server.stop();
+            facade.stop();
+        }
+    }
+
+    private static long[] run(BinaryClient client, ProvisioningResult accounts, int requests, int pipeline)
+            throws Exception {
+        long[] latencies = new long[requests];
+        long[] sentAt = new long[pipeline];
+        @SuppressWarnings("unchecked")
+        CompletableFuture<CommandResponse>[] inFlight = new CompletableFuture[pipeline];
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        for (int r = 0; r < requests; r++) {
+            int slot = r % pipeline;
+            if (inFlight[slot] != null) {
+                await(inFlight[slot]);
+                latencies[r - pipeline] = System.nanoTime() - sentAt[slot];
+            }
+            sentAt[slot] = System.nanoTime();
+            inFlight[slot] = client.deposit(accounts.accountId(random.nextInt(accounts.accountCount())),
+                    BigDecimal.ONE);
+        }
+        for (int r = Math.max(0, requests - pipeline); r < requests; r++) {
+            int slot = r % pipeline;
+            await(inFlight[slot]);
+            latencies[r] = System.nanoTime() - sentAt[slot];
+        }
+        return latencies;
+    }
+
+    private static void await(CompletableFuture<CommandResponse> future) throws Exception {
+        CommandResponse response = future.get();
+        if (!response.success()) {
+            throw new IllegalStateException("Command rejected: " + response.message());
+        }
+    }
+
+    private static void printHistogram(long[] sorted) {
+        int[] buckets = new int[64];
+        for (long latency : sorted) {
+            buckets[63 - Long.numberOfLeadingZeros(Math.max(latency, 1))]++;
+        }
+        System.out.println("Histogram (ns, power-of-two buckets):");
+        for (int b = 0; b < buckets.length; b++) {
+            if (buckets[b] > 0) {
+                System.out.printf("  [%,12d .. %,12d) %8d %6.2f%%%n", 1L << b, 1L << (b + 1), buckets[b],
+                        100.0 * buckets[b] / sorted.length);
+            }
+        }
+    }
+
+    private static long percentile(long[] sorted, double p) {
+        int index = (int) Math.min(sorted.length - 1, Math.ceil(p * sorted.length) - 1);
+        return sorted[Math.max(index, 0)];
+    }
+}
@@ -0,0 +1,143 @@
+package com.bank.api.tcp;
+
+import com.bank.core.command.ActionType;
+import com.bank.core.command.TransactionCommand;
+
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+
+/**
+ * Бинарный протокол с префиксом длины (big-endian).
+ * Запрос: [int length][long correlationId][byte type][uuid idempotencyKey]
+ * [uuid accountId][uuid targetAccountId][long amountCents], длина тела фиксирована.
+ * Ответ: [int length][long correlationId][byte status][UTF-8 message]
+ */
+public final class BinaryProtocol {
+
+    public static final int REQUEST_BODY_LENGTH = 8 + 1 + 16 + 16 + 16 + 8;
+    public static final int REQUEST_FRAME_LENGTH = 4 + REQUEST_BODY_LENGTH;
+    public static final int RESPONSE_HEADER_LENGTH = 8 + 1;
+
+    public static final byte DEPOSIT = 1;
+    public static final byte WITHDRAW = 2;
+    public static final byte TRANSFER = 3;
+    public static final byte FREEZE = 4;
+    public static final byte UNFREEZE = 5;
+    public static final byte CLOSE = 6;
+
+    public static final byte STATUS_ACCEPTED = 0;
+    public static final byte STATUS_REJECTED = 1;
+
+    private static final int OFFSET_CORRELATION = 0;
+    private static final int OFFSET_TYPE = 8;
+    private static final int OFFSET_KEY = 9;
+    private static final int OFFSET_ACCOUNT = 25;
+    private static final int OFFSET_TARGET = 41;
+    private static final int OFFSET_AMOUNT = 57;
+
+    private BinaryProtocol() {
+    }
+
+    public static void writeRequest(ByteBuffer out, long correlationId, byte type, UUID idempotencyKey,
+            UUID accountId, UUID targetAccountId, long amountCents) {
+        out.putInt(REQUEST_BODY_LENGTH);
+        out.putLong(correlationId);
+        out.put(type);
+        putUuid(out, idempotencyKey);
+        putUuid(out, accountId);
+        putUuid(out, targetAccountId);
+        out.putLong(amountCents);
+    }
+
+    public static void writeResponse(ByteBuffer out, long correlationId, byte status, String message) {
+        byte[] text = message == null ? new byte[0] : message.getBytes(StandardCharsets.UTF_8);
+        out.putInt(RESPONSE_HEADER_LENGTH + text.length);
+        out.putLong(correlationId);
+        out.put(status);
+        out.put(text);
+    }
+
+    public static long correlationId(ByteBuffer in, int body) {
+        return in.getLong(body + OFFSET_CORRELATION);
+    }
+
+    public static byte type(ByteBuffer in, int body) {
+        return in.get(body + OFFSET_TYPE);
+    }
+
+    public static long amountCents(ByteBuffer in, int body) {
+        return in.getLong(body + OFFSET_AMOUNT);
+    }
+
+    public static long accountMsb(ByteBuffer in, int body) {
+        return in.getLong(body + OFFSET_ACCOUNT);
+    }
+
+    public static long accountLsb(ByteBuffer in, int body) {
+        return in.getLong(body + OFFSET_ACCOUNT + 8);
+    }
+
+    public static long targetMsb(ByteBuffer in, int body) {
+        return type(in, body) == TRANSFER ? in.getLong(body + OFFSET_TARGET) : 0L;
+    }
+
+    public static long targetLsb(ByteBuffer in, int body) {
+        return type(in, body) == TRANSFER ? in.getLong(body + OFFSET_TARGET + 8) : 0L;
+    }
+
+    /**
+     * Возвращает причину отказа или null, если кадр корректен
+     */
+    public static String validate(ByteBuffer in, int body) {
+        byte type = type(in, body);
+        if (type < DEPOSIT || type > CLOSE) {
+            return "Unknown command type: " + type;
+        }
+        if (isZero(in, body + OFFSET_KEY) || isZero(in, body + OFFSET_ACCOUNT)) {
+            return "Idempotency key and account id are required";
+        }
+        if (type == TRANSFER && isZero(in, body + OFFSET_TARGET)) {
+            return "Target account id is required";
+        }
+        if (type <= TRANSFER && amountCents(in, body) <= 0) {
+            return "Amount must be positive";
+        }
+        return null;
+    }
+
+    public static TransactionCommand decode(ByteBuffer in, int body) {
+        byte type = type(in, body);
+        UUID key = getUuid(in, body + OFFSET_KEY);
+        UUID account = getUuid(in, body + OFFSET_ACCOUNT);
+        UUID target = type == TRANSFER ? getUuid(in, body + OFFSET_TARGET) : null;
+        BigDecimal amount = type <= TRANSFER ? BigDecimal.valueOf(amountCents(in, body), 2) : null;
+        return new TransactionCommand(UUID.randomUUID(), key, account, actionType(type), amount, target);
+    }
+
+    private static ActionType actionType(byte type) {
+        return switch (type) {
+            case DEPOSIT -> ActionType.DEPOSIT;
+            case WITHDRAW -> ActionType.WITHDRAW;
+            case TRANSFER -> ActionType.TRANSFER;
+            case FREEZE -> ActionType.FREEZE;
+            case UNFREEZE -> ActionType.UNFREEZE;
+            case CLOSE -> ActionType.CLOSE;
+            default -> throw new IllegalArgumentException("Unknown command type: " + type);
+        };
+    }
+
+    private static void putUuid(ByteBuffer out, UUID id) {
+        out.putLong(id == null ? 0L : id.getMostSignificantBits());
+        out.putLong(id == null ? 0L : id.getLeastSignificantBits());
+    }
+
+    private static UUID getUuid(ByteBuffer in, int offset) {
+        return new UUID(in.getLong(offset), in.getLong(offset + 8));
+    }
+
+    private static boolean isZero(ByteBuffer in, int offset) {
+        return in.getLong(offset) == 0L && in.getLong(offset + 8) == 0L;
+    }
+}
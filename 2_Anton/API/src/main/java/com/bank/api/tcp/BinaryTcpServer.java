@@ -0,0 +1,275 @@
+package com.bank.api.tcp;
+
+import com.bank.api.admission.AdmissionController;
+import com.bank.core.engine.TransactionEventProducer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * NIO-сервер бинарного протокола. Один поток-селектор читает кадры и
+ * публикует их в RingBuffer напрямую, декодируя поля из буфера сокета прямо в
+ * захваченные слоты. Ответ (ACK с correlationId) означает, что команда принята
+ * движком; клиенты могут слать запросы конвейером, не дожидаясь ответов.
+ * Селектор не ждет места в RingBuffer: кадры сверх свободного места остаются в буфере
+ * соединения, чтение с него приостанавливается и возобновляется, когда движок освободит слоты.
+ * Так же чтение останавливается, когда неотправленные ответы клиенту, который их не читает,
+ * превысили OUTPUT_HIGH_WATER, и возобновляется, когда сокет их примет
+ */
+public class BinaryTcpServer implements Runnable {
+    private static final Logger log = LoggerFactory.getLogger(BinaryTcpServer.class);
+
+    private static final int READ_BUFFER_SIZE = 64 * 1024;
+    private static final int WRITE_BUFFER_SIZE = 64 * 1024;
+    private static final int OUTPUT_HIGH_WATER = 256 * 1024;
+    private static final int MAX_PUBLISH_BATCH = 256;
+    private static final long STALL_RETRY_MILLIS = 1;
+
+    private final TransactionEventProducer producer;
+    private final AdmissionController admission;
+    private final Selector selector;
+    private final ServerSocketChannel serverChannel;
+    private final int[] framePositions = new int[MAX_PUBLISH_BATCH];
+    private final List<SelectionKey> stalled = new ArrayList<>();
+    private final Thread selectorThread;
+    private volatile boolean running = true;
+
+    public BinaryTcpServer(TransactionEventProducer producer, AdmissionController admission,
+            InetSocketAddress address) throws IOException {
+        this.producer = producer;
+        this.admission = admission;
+        this.selector = Selector.open();
+        this.serverChannel = ServerSocketChannel.open();
+        serverChannel.bind(address, 1024);
+        serverChannel.configureBlocking(false);
+        serverChannel.register(selector, SelectionKey.OP_ACCEPT);
+        this.selectorThread = new Thread(this, "bank-tcp-selector");
+        this.selectorThread.setDaemon(true);
+    }
+
+    public void start() {
+        selectorThread.start();
+        log.info("Binary TCP server listening on {}", serverChannel.socket().getLocalSocketAddress());
+    }
+
+    public void stop() {
+        running = false;
+        selector.wakeup();
+        try {
+            selectorThread.join(5000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    public int getPort() {
+        return serverChannel.socket().getLocalPort();
+    }
+
+    @Override
+    public void run() {
+        while (running) {
+            try {
+                selector.select(stalled.isEmpty() ? 0 : STALL_RETRY_MILLIS);
+                Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+                while (keys.hasNext()) {
+                    SelectionKey key = keys.next();
+                    keys.remove();
+                    if (!key.isValid()) {
+                        continue;
+                    }
+                    try {
+                        if (key.isAcceptable()) {
+                            accept();
+                        } else {
+                            if (key.isReadable()) {
+                                read(key);
+                            }
+                            if (key.isValid() && key.isWritable()) {
+                                flush(key);
+                            }
+                        }
+                    } catch (IOException e) {
+                        log.debug("Closing connection after I/O error: {}", e.getMessage());
+                        close(key);
+                    }
+                }
+                resumeStalled();
+            } catch (IOException e) {
+                log.error("Selector failure in binary TCP server.", e);
+            }
+        }
+        closeAll();
+    }
+
+    private void accept() throws IOException {
+        SocketChannel channel = serverChannel.accept();
+        if (channel == null) {
+            return;
+        }
+        channel.configureBlocking(false);
+        channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+        channel.register(selector, SelectionKey.OP_READ, new Connection());
+    }
+
+    private void read(SelectionKey key) throws IOException {
+        SocketChannel channel = (SocketChannel) key.channel();
+        Connection conn = (Connection) key.attachment();
+        if (channel.read(conn.in) < 0) {
+            close(key);
+            return;
+        }
+        drain(key, conn);
+    }
+
+    /**
+     * Разбирает накопленные кадры; если RingBuffer заполнен, останавливает чтение соединения
+     */
+    private void drain(SelectionKey key, Connection conn) throws IOException {
+        conn.in.flip();
+        if (!processFrames(conn)) {
+            close(key);
+            return;
+        }
+        conn.in.compact();
+        flush(key);
+    }
+
+    private void resumeStalled() throws IOException {
+        for (int i = stalled.size() - 1; i >= 0; i--) {
+            SelectionKey key = stalled.get(i);
+            if (!key.isValid()) {
+                stalled.remove(i);
+                continue;
+            }
+            Connection conn = (Connection) key.attachment();
+            drain(key, conn);
+            // соединение с полным буфером ответов вернет в список flush, когда сокет их примет
+            if (!conn.stalled || !key.isValid() || conn.outputFull()) {
+                stalled.remove(i);
+            }
+        }
+    }
+
+    private boolean processFrames(Connection conn) {
+        ByteBuffer in = conn.in;
+        int count = 0;
+        // другие потоки тоже публикуют, поэтому это оценка: в редкой гонке publishBatch коротко подождет
+        long capacity = producer.remainingCapacity();
+        conn.stalled = false;
+        while (in.remaining() >= 4) {
+            if (conn.outputFull()) {
+                conn.stalled = true;
+                break;
+            }
+            int length = in.getInt(in.position());
+            if (length != BinaryProtocol.REQUEST_BODY_LENGTH) {
+                log.warn("Protocol violation: unexpected frame length {}", length);
+                return false;
+            }
+            if (in.remaining() < BinaryProtocol.REQUEST_FRAME_LENGTH) {
+                break;
+            }
+            int body = in.position() + 4;
+            String rejection = BinaryProtocol.validate(in, body);
+            if (rejection == null && count >= capacity) {
+                conn.stalled = true;
+                break;
+            }
+            if (rejection == null) {
+                rejection = admission.admit(BinaryProtocol.accountMsb(in, body), BinaryProtocol.accountLsb(in, body),
+                        BinaryProtocol.targetMsb(in, body), BinaryProtocol.targetLsb(in, body));
+            }
+            if (rejection != null) {
+                conn.respond(BinaryProtocol.correlationId(in, body), BinaryProtocol.STATUS_REJECTED, rejection);
+            } else {
+                framePositions[count++] = body;
+                if (count == MAX_PUBLISH_BATCH) {
+                    publish(conn, count);
+                    capacity -= count;
+                    count = 0;
+                }
+            }
+            in.position(body + BinaryProtocol.REQUEST_BODY_LENGTH);
+        }
+        publish(conn, count);
+        return true;
+    }
+
+    private void publish(Connection conn, int count) {
+        if (count == 0) {
+            return;
+        }
+        ByteBuffer in = conn.in;
+        producer.publishBatch(count, i -> BinaryProtocol.decode(in, framePositions[i]));
+        for (int i = 0; i < count; i++) {
+            conn.respond(BinaryProtocol.correlationId(in, framePositions[i]), BinaryProtocol.STATUS_ACCEPTED, null);
+        }
+    }
+
+    private void flush(SelectionKey key) throws IOException {
+        Connection conn = (Connection) key.attachment();
+        conn.out.flip();
+        ((SocketChannel) key.channel()).write(conn.out);
+        conn.out.compact();
+        if (conn.stalled && !conn.outputFull() && !stalled.contains(key)) {
+            stalled.add(key);
+        }
+        int read = conn.stalled ? 0 : SelectionKey.OP_READ;
+        key.interestOps(conn.out.position() > 0 ? read | SelectionKey.OP_WRITE : read);
+    }
+
+    private void close(SelectionKey key) {
+        key.cancel();
+        try {
+            key.channel().close();
+        } catch (IOException e) {
+            log.debug("Failed to close channel cleanly.", e);
+        }
+    }
+
+    private void closeAll() {
+        for (SelectionKey key : selector.keys()) {
+            close(key);
+        }
+        try {
+            selector.close();
+            serverChannel.close();
+        } catch (IOException e) {
+            log.warn("Failed to close binary TCP server.", e);
+        }
+        log.info("Binary TCP server stopped.");
+    }
+
+    private static final class Connection {
+        final ByteBuffer in = ByteBuffer.allocateDirect(READ_BUFFER_SIZE);
+        ByteBuffer out = ByteBuffer.allocateDirect(WRITE_BUFFER_SIZE);
+        boolean stalled;
+
+        boolean outputFull() {
+            return out.position() >= OUTPUT_HIGH_WATER;
+        }
+
+        void respond(long correlationId, byte status, String message) {
+            int needed = 4 + BinaryProtocol.RESPONSE_HEADER_LENGTH + (message == null ? 0 : message.length() * 3);
+            if (out.remaining() < needed) {
+                ByteBuffer bigger = ByteBuffer.allocateDirect(Math.max(out.capacity() * 2, out.position() + needed));
+                out.flip();
+                bigger.put(out);
+                out = bigger;
+            }
+            BinaryProtocol.writeResponse(out, correlationId, status, message);
+        }
+    }
+}
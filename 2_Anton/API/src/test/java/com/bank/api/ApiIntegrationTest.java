@@ -1,12 +1,20 @@
 package com.bank.api;
 
 import com.bank.api.dto.CommandResponse;
+import com.bank.api.dto.ProvisioningResult;
 import com.bank.api.dto.SystemStateDto;
+import com.bank.core.command.TransactionCommand;
+import com.bank.core.metrics.LatencySnapshot;
+import com.bank.core.metrics.LatencyStage;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
 
 import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 import java.util.concurrent.TimeUnit;
 
@@ -63,10 +71,112 @@ class ApiIntegrationTest {
         });
     }
     
+    @Test
+    void shouldExposeStageLatenciesForProcessedCommands() {
+        UUID userId = (UUID) facade.createUser("Timed").data();
+        UUID accountId = (UUID) facade.createAccount(userId).data();
+        facade.latencyMetrics();
+
+        for (int i = 0; i < 10; i++) {
+            facade.deposit(accountId, BigDecimal.ONE);
+        }
+
+        long[] committed = new long[1];
+        long[] executed = new long[1];
+        await().atMost(5, TimeUnit.SECONDS).pollInterval(100, TimeUnit.MILLISECONDS).untilAsserted(() -> {
+            Map<LatencyStage, LatencySnapshot> metrics = facade.latencyMetrics();
+            committed[0] += metrics.get(LatencyStage.PUBLISH_TO_COMMIT).count();
+            executed[0] += metrics.get(LatencyStage.BUSINESS_TO_PERSIST).count();
+            assertThat(committed[0]).isGreaterThanOrEqualTo(10);
+            assertThat(executed[0]).isGreaterThanOrEqualTo(10);
+        });
+    }
+
     @Test
     void shouldFailCreatingAccountForNonExistentUser() {
         CommandResponse resp = facade.createAccount(UUID.randomUUID());
         assertThat(resp.success()).isFalse();
         assertThat(resp.message()).contains("User not found");
     }
+
+    @Test
+    void shouldProvisionUsersWithAccountsInBulk() {
+        CommandResponse resp = facade.provision("Load", 3, 4);
+        assertThat(resp.success()).isTrue();
+        ProvisioningResult result = (ProvisioningResult) resp.data();
+        assertThat(result.userCount()).isEqualTo(3);
+        assertThat(result.accountCount()).isEqualTo(12);
+        assertThat(result).isEqualTo(new ProvisioningResult(result.userIds().clone(), result.accountIds().clone(), 4));
+
+        SystemStateDto state = facade.getSystemState();
+        assertThat(state.users()).hasSize(3);
+        assertThat(state.users()).allSatisfy(u -> assertThat(u.accounts()).hasSize(4));
+
+        UUID lastAccount = result.accountId(result.accountCount() - 1);
+        facade.deposit(lastAccount, new BigDecimal("7.00"));
+
+        await().atMost(5, TimeUnit.SECONDS).pollInterval(100, TimeUnit.MILLISECONDS).untilAsserted(() ->
+                assertThat(facade.getSystemState().users().stream()
+                        .flatMap(u -> u.accounts().stream())
+                        .filter(a -> a.id().equals(lastAccount))
+                        .findFirst().orElseThrow().balance())
+                        .isEqualByComparingTo("7.00"));
+    }
+
+    @Test
+    void shouldRollBackWholeProvisioningWhenLaterChunkFails() {
+        // ник последнего пользователя "_100000" выходит за VARCHAR(255), первые девять пачек проходят
+        CommandResponse resp = facade.provision("x".repeat(249), 100_000, 1);
+
+        assertThat(resp.success()).isFalse();
+        assertThat(facade.getSystemState().users()).isEmpty();
+    }
+
+    @Test
+    void shouldCreateManyAccountsForExistingUserAcrossStatementBoundaries() {
+        UUID userId = (UUID) facade.createUser("Bulk").data();
+
+        CommandResponse resp = facade.createAccounts(userId, 1203);
+
+        assertThat(resp.success()).isTrue();
+        assertThat(((ProvisioningResult) resp.data()).accountCount()).isEqualTo(1203);
+        assertThat(facade.getSystemState().users().get(0).accounts()).hasSize(1203);
+    }
+
+    @Test
+    void shouldApplyApiCommandsAndResetPartitionedOutbox() {
+        facade.stop();
+        facade = null;
+        System.setProperty("bank.outbox.partitions", "2");
+        try {
+            facade = new BankServerFacade(true);
+            JdbcTemplate db = new JdbcTemplate(new DriverManagerDataSource(
+                    "jdbc:h2:mem:test_db;MODE=PostgreSQL;DATABASE_TO_UPPER=false", "sa", ""));
+            UUID accountId = (UUID) facade.createAccount((UUID) facade.createUser("Partitioned").data()).data();
+
+            assertThat(facade.deposit(accountId, new BigDecimal("5.00")).success()).isTrue();
+            assertThat(facade.submitBatch(List.of(
+                    TransactionCommand.createDepositCommand(UUID.randomUUID(), accountId, new BigDecimal("2.00")),
+                    TransactionCommand.createWithdrawCommand(UUID.randomUUID(), accountId, BigDecimal.ONE))))
+                    .allMatch(CommandResponse::success);
+
+            await().atMost(5, TimeUnit.SECONDS).pollInterval(100, TimeUnit.MILLISECONDS).untilAsserted(() ->
+                    assertThat(facade.getSystemState().users().get(0).accounts().get(0).balance())
+                            .isEqualByComparingTo("6.00"));
+            assertThat(partitionRows(db)).isEqualTo(3);
+            assertThat(db.queryForObject("SELECT COUNT(*) FROM \"transaction_outbox\"", Integer.class)).isZero();
+
+            assertThat(facade.reset().success()).isTrue();
+            assertThat(partitionRows(db)).isZero();
+            assertThat(db.queryForObject("SELECT \"seq\" FROM \"transaction_outbox_watermark\"", Long.class))
+                    .isZero();
+        } finally {
+            System.clearProperty("bank.outbox.partitions");
+        }
+    }
+
+    private static int partitionRows(JdbcTemplate db) {
+        return db.queryForObject("SELECT (SELECT COUNT(*) FROM \"transaction_outbox_p0\") "
+                + "+ (SELECT COUNT(*) FROM \"transaction_outbox_p1\")", Integer.class);
+    }
 }
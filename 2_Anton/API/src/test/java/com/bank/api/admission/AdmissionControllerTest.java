@@ -0,0 +1,120 @@
+package com.bank.api.admission;
+
+import com.bank.api.dto.CommandResponse;
+import com.bank.api.service.ApiTransactionService;
+import com.bank.application.service.impl.JdbcTransactionalOutboxRepository;
+import com.bank.core.command.TransactionCommand;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AdmissionControllerTest {
+
+    private final AtomicLong clock = new AtomicLong(1_000_000_000L);
+    private final AtomicLong freeSlots = new AtomicLong(1024);
+
+    private AdmissionController controller(long rate, long burst) {
+        return new AdmissionController(rate, burst, freeSlots::get, 64, clock::get);
+    }
+
+    @Test
+    void shouldRejectBurstAboveLimitAndRefillOverTime() {
+        AdmissionController admission = controller(10, 5);
+        UUID hot = UUID.randomUUID();
+
+        for (int i = 0; i < 5; i++) {
+            assertThat(admission.admit(deposit(hot))).isNull();
+        }
+        assertThat(admission.admit(deposit(hot))).contains("rate limit");
+        assertThat(admission.admit(deposit(UUID.randomUUID()))).isNull();
+
+        clock.addAndGet(100_000_000L);
+        assertThat(admission.admit(deposit(hot))).isNull();
+        assertThat(admission.admit(deposit(hot))).contains("rate limit");
+    }
+
+    @Test
+    void shouldChargeBothSidesOfTransferAndRefundSourceOnRejection() {
+        AdmissionController admission = controller(10, 1);
+        UUID source = UUID.randomUUID();
+        UUID hotTarget = UUID.randomUUID();
+
+        assertThat(admission.admit(deposit(hotTarget))).isNull();
+        assertThat(admission.admit(transfer(source, hotTarget))).contains(hotTarget.toString());
+        assertThat(admission.admit(deposit(source))).isNull();
+    }
+
+    @Test
+    void shouldReturnBothTokensOfRefundedTransfer() {
+        AdmissionController admission = controller(10, 1);
+        UUID source = UUID.randomUUID();
+        UUID target = UUID.randomUUID();
+        TransactionCommand transfer = transfer(source, target);
+
+        assertThat(admission.admit(transfer)).isNull();
+        admission.refund(transfer);
+
+        assertThat(admission.admit(deposit(source))).isNull();
+        assertThat(admission.admit(deposit(target))).isNull();
+    }
+
+    @Test
+    void shouldNotChargeTokensWhenOutboxInsertFails() {
+        AdmissionController admission = controller(10, 1);
+        EmbeddedDatabase emptyDatabase = new EmbeddedDatabaseBuilder()
+                .setType(EmbeddedDatabaseType.H2)
+                .setName("admission_refund_test")
+                .build();
+        try {
+            ApiTransactionService service = new ApiTransactionService(new JdbcTransactionalOutboxRepository(
+                    emptyDatabase, new TransactionTemplate(new DataSourceTransactionManager(emptyDatabase))), admission);
+            UUID account = UUID.randomUUID();
+
+            assertThat(service.deposit(account, BigDecimal.ONE).message()).contains("Failed to enqueue");
+            List<CommandResponse> batch = service.enqueueAll(List.of(deposit(account), deposit(account)));
+            assertThat(batch.get(0).message()).contains("Failed to enqueue");
+            assertThat(batch.get(1).message()).contains("rate limit");
+            assertThat(admission.admit(deposit(account))).isNull();
+        } finally {
+            emptyDatabase.shutdown();
+        }
+    }
+
+    @Test
+    void shouldRejectWhenRingBufferIsNearlyFull() {
+        AdmissionController admission = controller(1000, 1000);
+        freeSlots.set(10);
+
+        assertThat(admission.admit(deposit(UUID.randomUUID()))).contains("overloaded");
+    }
+
+    @Test
+    void shouldEvictRefilledBucketsWhenTableGrows() {
+        AdmissionController admission = controller(1000, 10);
+
+        for (int i = 0; i < 100_000; i++) {
+            assertThat(admission.admit(deposit(UUID.randomUUID()))).isNull();
+            clock.addAndGet(1_000_000L);
+        }
+
+        assertThat(admission.trackedAccounts()).isLessThan(100_000);
+    }
+
+    private static TransactionCommand deposit(UUID accountId) {
+        return TransactionCommand.createDepositCommand(UUID.randomUUID(), accountId, BigDecimal.ONE);
+    }
+
+    private static TransactionCommand transfer(UUID from, UUID to) {
+        return TransactionCommand.createTransferCommand(UUID.randomUUID(), from, to, BigDecimal.ONE);
+    }
+}
@@ -0,0 +1,164 @@
+package com.bank.api.http;
+
+import com.bank.api.BankServerFacade;
+import com.bank.api.dto.RemoteCommand;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+class BankHttpServerTest {
+
+    private BankServerFacade facade;
+    private BankHttpServer server;
+    private HttpClient client;
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    @BeforeEach
+    void setUp() throws Exception {
+        facade = new BankServerFacade(true);
+        server = new BankHttpServer(facade, new InetSocketAddress("127.0.0.1", 0), 2, "secret");
+        server.start();
+        client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.stop();
+        facade.stop();
+    }
+
+    @Test
+    void shouldExecuteBatchedCommandsInOrderAndExposeState() throws Exception {
+        UUID userId = UUID.fromString(post(List.of(RemoteCommand.createUser("Remote"))).get(0).path("data").asText());
+        UUID accountId = UUID.fromString(post(List.of(RemoteCommand.createAccount(userId))).get(0).path("data").asText());
+
+        JsonNode responses = post(List.of(
+                RemoteCommand.deposit(accountId, new BigDecimal("10.00")),
+                RemoteCommand.deposit(accountId, new BigDecimal("5.00")),
+                RemoteCommand.createAccounts(userId, 2),
+                RemoteCommand.withdraw(accountId, new BigDecimal("3.00"))), "secret");
+
+        assertThat(responses).hasSize(4);
+        assertThat(responses).allSatisfy(r -> assertThat(r.path("success").asBoolean()).isTrue());
+        assertThat(responses.get(2).path("data").path("accountIds")).hasSize(4);
+
+        await().atMost(5, TimeUnit.SECONDS).pollInterval(100, TimeUnit.MILLISECONDS).untilAsserted(() -> {
+            JsonNode state = get("/api/state");
+            JsonNode accounts = state.path("users").get(0).path("accounts");
+            assertThat(accounts).hasSize(3);
+            for (JsonNode acc : accounts) {
+                if (acc.path("id").asText().equals(accountId.toString())) {
+                    assertThat(acc.path("balance").decimalValue()).isEqualByComparingTo("12.00");
+                }
+            }
+        });
+    }
+
+    @Test
+    void shouldServeEngineMetricsAsText() throws Exception {
+        HttpResponse<String> response = client.send(HttpRequest.newBuilder(uri("/api/metrics")).GET().build(),
+                HttpResponse.BodyHandlers.ofString());
+
+        assertThat(response.statusCode()).isEqualTo(200);
+        assertThat(response.body())
+                .contains("bank_ringbuffer_remaining")
+                .contains("bank_consumer_persistence_lag")
+                .contains("bank_outbox_empty_polls_total");
+    }
+
+    @Test
+    void shouldRejectMalformedBody() throws Exception {
+        HttpResponse<String> response = client.send(HttpRequest.newBuilder(uri("/api/commands"))
+                .POST(HttpRequest.BodyPublishers.ofString("{not json")).build(), HttpResponse.BodyHandlers.ofString());
+
+        assertThat(response.statusCode()).isEqualTo(400);
+    }
+
+    @Test
+    void shouldRequireAdminTokenForResetAndDisableAdminRoutesWithoutIt() throws Exception {
+        assertThat(reset(null).statusCode()).isEqualTo(401);
+        assertThat(reset("wrong").statusCode()).isEqualTo(401);
+        HttpResponse<String> accepted = reset("secret");
+        assertThat(accepted.statusCode()).isEqualTo(200);
+        assertThat(mapper.readTree(accepted.body()).path("success").asBoolean()).isTrue();
+
+        BankHttpServer open = new BankHttpServer(facade, new InetSocketAddress("127.0.0.1", 0), 1);
+        open.start();
+        try {
+            HttpResponse<String> kill = client.send(HttpRequest.newBuilder(
+                    URI.create("http://127.0.0.1:" + open.getPort() + "/api/kill"))
+                    .POST(HttpRequest.BodyPublishers.noBody()).build(), HttpResponse.BodyHandlers.ofString());
+            assertThat(kill.statusCode()).isEqualTo(404);
+        } finally {
+            open.stop();
+        }
+    }
+
+    @Test
+    void shouldRejectBulkAdminCommandsWithoutAdminToken() throws Exception {
+        UUID userId = UUID.fromString(post(List.of(RemoteCommand.createUser("Open"))).get(0).path("data").asText());
+
+        JsonNode rejected = post(List.of(
+                RemoteCommand.provision("bulk", 3, 2),
+                RemoteCommand.createUsers("bulk", 3),
+                RemoteCommand.createAccounts(userId, 2),
+                RemoteCommand.createAccount(userId)), "wrong");
+
+        assertThat(rejected.get(0).path("success").asBoolean()).isFalse();
+        assertThat(rejected.get(0).path("message").asText()).contains("Admin token required");
+        assertThat(rejected.get(1).path("success").asBoolean()).isFalse();
+        assertThat(rejected.get(2).path("success").asBoolean()).isFalse();
+        assertThat(rejected.get(3).path("success").asBoolean()).isTrue();
+
+        JsonNode accepted = post(List.of(RemoteCommand.provision("bulk", 3, 2)), "secret");
+        assertThat(accepted.get(0).path("success").asBoolean()).isTrue();
+        assertThat(get("/api/state").path("users")).hasSize(4);
+    }
+
+    private HttpResponse<String> reset(String token) throws Exception {
+        HttpRequest.Builder request = HttpRequest.newBuilder(uri("/api/reset")).POST(HttpRequest.BodyPublishers.noBody());
+        if (token != null) {
+            request.header(BankHttpServer.ADMIN_TOKEN_HEADER, token);
+        }
+        return client.send(request.build(), HttpResponse.BodyHandlers.ofString());
+    }
+
+    private JsonNode post(List<RemoteCommand> commands) throws Exception {
+        return post(commands, null);
+    }
+
+    private JsonNode post(List<RemoteCommand> commands, String token) throws Exception {
+        HttpRequest.Builder request = HttpRequest.newBuilder(uri("/api/commands"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofByteArray(mapper.writeValueAsBytes(commands)));
+        if (token != null) {
+            request.header(BankHttpServer.ADMIN_TOKEN_HEADER, token);
+        }
+        HttpResponse<byte[]> response = client.send(request.build(), HttpResponse.BodyHandlers.ofByteArray());
+        return mapper.readTree(response.body());
+    }
+
+    private JsonNode get(String path) throws Exception {
+        return mapper.readTree(client.send(HttpRequest.newBuilder(uri(path)).GET().build(),
+                HttpResponse.BodyHandlers.ofByteArray()).body());
+    }
+
+    private URI uri(String path) {
+        return URI.create("http://127.0.0.1:" + server.getPort() + path);
+    }
+}
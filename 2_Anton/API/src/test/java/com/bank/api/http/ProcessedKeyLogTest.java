@@ -0,0 +1,28 @@
+package com.bank.api.http;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ProcessedKeyLogTest {
+
+    @Test
+    void shouldResyncCursorAheadOfLogWithEmptyPage() {
+        ProcessedKeyLog log = new ProcessedKeyLog(4);
+        UUID first = UUID.randomUUID();
+        UUID second = UUID.randomUUID();
+        log.append(first);
+        log.append(second);
+
+        ProcessedKeyLog.Page stale = log.readAfter(1_000, 10);
+
+        assertThat(stale.keys()).isEmpty();
+        assertThat(stale.cursor()).isEqualTo(2);
+        UUID third = UUID.randomUUID();
+        log.append(third);
+        assertThat(log.readAfter(stale.cursor(), 10).keys()).containsExactly(third);
+        assertThat(log.readAfter(0, 10).keys()).containsExactly(first, second, third);
+    }
+}
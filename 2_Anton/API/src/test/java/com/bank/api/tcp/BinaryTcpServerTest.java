@@ -0,0 +1,191 @@
+package com.bank.api.tcp;
+
+import com.bank.api.BankServerFacade;
+import com.bank.api.admission.AdmissionController;
+import com.bank.api.dto.CommandResponse;
+import com.bank.api.dto.SystemStateDto;
+import com.bank.core.engine.TransactionEvent;
+import com.bank.core.engine.TransactionEventProducer;
+import com.lmax.disruptor.RingBuffer;
+import com.lmax.disruptor.Sequence;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.DataInputStream;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+class BinaryTcpServerTest {
+
+    private BankServerFacade facade;
+    private BinaryTcpServer server;
+    private BinaryClient client;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        facade = new BankServerFacade(true, true);
+        server = new BinaryTcpServer(facade.directIngress(), facade.admission(),
+                new InetSocketAddress("127.0.0.1", 0));
+        server.start();
+        client = new BinaryClient("127.0.0.1", server.getPort());
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        client.close();
+        server.stop();
+        facade.stop();
+    }
+
+    @Test
+    void shouldAcknowledgePipelinedCommandsAndApplyThem() throws Exception {
+        UUID userId = (UUID) facade.createUser("Binary").data();
+        UUID accountId = (UUID) facade.createAccount(userId).data();
+
+        List<CompletableFuture<CommandResponse>> futures = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            futures.add(client.deposit(accountId, new BigDecimal("0.10")));
+        }
+        futures.add(client.withdraw(accountId, new BigDecimal("1.50")));
+
+        for (CompletableFuture<CommandResponse> future : futures) {
+            CommandResponse response = future.get(5, TimeUnit.SECONDS);
+            assertThat(response.success()).isTrue();
+            assertThat(response.data()).isInstanceOf(UUID.class);
+        }
+
+        await().atMost(5, TimeUnit.SECONDS).pollInterval(100, TimeUnit.MILLISECONDS).untilAsserted(() -> {
+            SystemStateDto.AccountDto account = facade.getSystemState().users().get(0).accounts().get(0);
+            assertThat(account.balance()).isEqualByComparingTo("48.50");
+        });
+    }
+
+    @Test
+    void shouldRejectInvalidFramesWithoutDroppingConnection() throws Exception {
+        UUID accountId = UUID.randomUUID();
+
+        CommandResponse rejected = client.deposit(accountId, new BigDecimal("-1.00")).get(5, TimeUnit.SECONDS);
+        CommandResponse missingTarget = client.transfer(accountId, null, BigDecimal.ONE).get(5, TimeUnit.SECONDS);
+        CommandResponse accepted = client.freeze(accountId).get(5, TimeUnit.SECONDS);
+
+        assertThat(rejected.success()).isFalse();
+        assertThat(rejected.message()).contains("positive");
+        assertThat(missingTarget.success()).isFalse();
+        assertThat(accepted.success()).isTrue();
+    }
+
+    @Test
+    void shouldRejectSubCentAndOverflowingAmountsOnClient() throws Exception {
+        UUID accountId = UUID.randomUUID();
+
+        CommandResponse subCent = client.deposit(accountId, new BigDecimal("0.005")).get(1, TimeUnit.SECONDS);
+        CommandResponse overflow = client.deposit(accountId, new BigDecimal("1e18")).get(1, TimeUnit.SECONDS);
+
+        assertThat(subCent.success()).isFalse();
+        assertThat(subCent.message()).contains("0.005");
+        assertThat(overflow.success()).isFalse();
+    }
+
+    @Test
+    void shouldHoldFramesInsteadOfBlockingSelectorWhenRingIsFull() throws Exception {
+        RingBuffer<TransactionEvent> ring = RingBuffer.createMultiProducer(TransactionEvent::new, 8);
+        Sequence consumer = new Sequence(-1);
+        ring.addGatingSequences(consumer);
+        AdmissionController admission = new AdmissionController(1_000_000, 1_000_000, ring::remainingCapacity, 0,
+                System::nanoTime);
+        BinaryTcpServer small = new BinaryTcpServer(new TransactionEventProducer(ring), admission,
+                new InetSocketAddress("127.0.0.1", 0));
+        small.start();
+        try (BinaryClient flooding = new BinaryClient("127.0.0.1", small.getPort());
+             BinaryClient other = new BinaryClient("127.0.0.1", small.getPort())) {
+            List<CompletableFuture<CommandResponse>> futures = new ArrayList<>();
+            for (int i = 0; i < 20; i++) {
+                futures.add(flooding.deposit(UUID.randomUUID(), BigDecimal.ONE));
+            }
+            await().atMost(5, TimeUnit.SECONDS).until(() -> futures.stream().filter(CompletableFuture::isDone).count() == 8);
+
+            CommandResponse rejected = other.deposit(UUID.randomUUID(), new BigDecimal("-1")).get(5, TimeUnit.SECONDS);
+            assertThat(rejected.success()).isFalse();
+            assertThat(futures.stream().filter(CompletableFuture::isDone).count()).isEqualTo(8);
+
+            consumer.set(ring.getCursor());
+            await().atMost(5, TimeUnit.SECONDS).until(() -> futures.stream().filter(CompletableFuture::isDone).count() == 16);
+            consumer.set(ring.getCursor());
+            for (CompletableFuture<CommandResponse> future : futures) {
+                assertThat(future.get(5, TimeUnit.SECONDS).success()).isTrue();
+            }
+        } finally {
+            small.stop();
+        }
+    }
+
+    @Test
+    void shouldStopReadingFromClientThatNeverReadsResponsesAndResumeWhenItDoes() throws Exception {
+        int framesPerChunk = 1000;
+        int chunks = 500;
+        ByteBuffer chunk = ByteBuffer.allocate(framesPerChunk * BinaryProtocol.REQUEST_FRAME_LENGTH);
+        for (int i = 0; i < framesPerChunk; i++) {
+            // отрицательная сумма: каждый кадр получает отказ с текстом, не занимая RingBuffer
+            BinaryProtocol.writeRequest(chunk, i, BinaryProtocol.DEPOSIT, UUID.randomUUID(), UUID.randomUUID(),
+                    null, -1);
+        }
+        byte[] frames = chunk.array();
+        AtomicLong sentChunks = new AtomicLong();
+
+        try (Socket socket = new Socket()) {
+            socket.setReceiveBufferSize(4096);
+            socket.connect(new InetSocketAddress("127.0.0.1", server.getPort()));
+            OutputStream out = socket.getOutputStream();
+            CompletableFuture<Void> writer = CompletableFuture.runAsync(() -> {
+                try {
+                    for (int c = 0; c < chunks; c++) {
+                        out.write(frames);
+                        sentChunks.incrementAndGet();
+                    }
+                } catch (Exception e) {
+                    throw new IllegalStateException(e);
+                }
+            });
+
+            // писатель упирается в заполненные буферы сокета и перестает продвигаться
+            Callable<Boolean> writerBlocked = new Callable<>() {
+                long last = -1;
+
+                @Override
+                public Boolean call() {
+                    long now = sentChunks.get();
+                    boolean settled = now == last;
+                    last = now;
+                    return settled;
+                }
+            };
+            await().atMost(10, TimeUnit.SECONDS).pollInterval(300, TimeUnit.MILLISECONDS).until(writerBlocked);
+            assertThat(writer).isNotDone();
+            assertThat(sentChunks.get()).isLessThan(chunks);
+
+            socket.setSoTimeout(10_000);
+            DataInputStream in = new DataInputStream(socket.getInputStream());
+            byte[] body = new byte[256];
+            for (long i = 0; i < (long) chunks * framesPerChunk; i++) {
+                int length = in.readInt();
+                in.readFully(body, 0, length);
+                assertThat(body[8]).isEqualTo(BinaryProtocol.STATUS_REJECTED);
+            }
+            writer.get(10, TimeUnit.SECONDS);
+        }
+    }
+}
@@ -2,10 +2,14 @@ package com.bank.ui.cli;
 
 import com.bank.api.BankServerFacade;
 import com.bank.api.dto.CommandResponse;
+import com.bank.api.dto.ProvisioningResult;
 import com.bank.api.dto.SystemStateDto;
 import com.bank.ui.cli.session.SessionContext;
+import com.bank.ui.contract.BufferedConnection;
 import com.bank.ui.contract.ServerConnection;
 import com.bank.ui.contract.TransactionObserver;
+import com.bank.ui.net.BinaryAdapter;
+import com.bank.ui.net.HttpAdapter;
 
 import java.io.BufferedReader;
 import java.io.IOException;
@@ -13,9 +17,8 @@ import java.io.InputStreamReader;
 import java.io.PrintStream;
 import java.io.OutputStream;
 import java.math.BigDecimal;
+import java.net.URI;
 import java.util.*;
-import java.util.concurrent.ConcurrentLinkedQueue;
-import java.util.function.Supplier;
 
 public class ConsoleRunner {
     
@@ -66,44 +69,12 @@ public class ConsoleRunner {
     }
 
 
-    public static class DirectAdapter implements ServerConnection {
+    public static class DirectAdapter extends BufferedConnection {
         private final BankServerFacade facade;
-        private boolean blocked = false;
-        private final Queue<Runnable> buffer = new ConcurrentLinkedQueue<>();
 
         public DirectAdapter() { 
             this.facade = new BankServerFacade(); 
         }
-        
-        private CommandResponse executeOrBuffer(Supplier<CommandResponse> action) {
-            if (blocked) {
-                buffer.add(() -> action.get());
-                return CommandResponse.ok("BUFFERED (Queue size: " + (buffer.size() + 1) + ")", null);
-            }
-            return action.get();
-        }
-
-        private void executeVoidOrBuffer(Runnable action) {
-            if (blocked) {
-                buffer.add(action);
-                System.out.println(">> BUFFERED (Void Action Queued)");
-            } else {
-                action.run();
-            }
-        }
-
-        @Override public void setBlocked(boolean blocked) { this.blocked = blocked; }
-        @Override public boolean isBlocked() { return blocked; }
-        
-        @Override public void flushBuffer() {
-            System.out.println(">> Flushing " + buffer.size() + " commands...");
-            int count = 0;
-            while (!buffer.isEmpty()) {
-                buffer.poll().run();
-                count++;
-            }
-            System.out.println(">> Flushed " + count + " commands.");
-        }
 
         @Override public void addObserver(TransactionObserver observer) {
             facade.addObserver(observer::onTransactionProcessed);
@@ -111,6 +82,8 @@ public class ConsoleRunner {
 
         @Override public CommandResponse createUser(String n) { return executeOrBuffer(() -> facade.createUser(n)); }
         @Override public CommandResponse createAccount(UUID uid) { return executeOrBuffer(() -> facade.createAccount(uid)); }
+        @Override public CommandResponse createUsers(String base, int count) { return executeOrBuffer(() -> facade.createUsers(base, count)); }
+        @Override public CommandResponse createAccounts(UUID uid, int count) { return executeOrBuffer(() -> facade.createAccounts(uid, count)); }
         @Override public CommandResponse deposit(UUID aid, BigDecimal amt) { return executeOrBuffer(() -> facade.deposit(aid, amt)); }
         @Override public CommandResponse withdraw(UUID aid, BigDecimal amt) { return executeOrBuffer(() -> facade.withdraw(aid, amt)); }
         @Override public CommandResponse transfer(UUID from, UUID to, BigDecimal amt) { return executeOrBuffer(() -> facade.transfer(from, to, amt)); }
@@ -123,8 +96,26 @@ public class ConsoleRunner {
         @Override public void disconnect() { facade.stop(); }
     }
 
+    public static ServerConnection connect() {
+        String url = System.getProperty("bank.server.url");
+        if (url == null) {
+            return new DirectAdapter();
+        }
+        HttpAdapter http = new HttpAdapter(URI.create(url), System.getProperty("bank.server.adminToken"));
+        Integer tcpPort = Integer.getInteger("bank.server.tcpPort");
+        if (tcpPort == null) {
+            return http;
+        }
+        try {
+            return new BinaryAdapter(URI.create(url).getHost(), tcpPort, http);
+        } catch (IOException e) {
+            System.err.println("Binary channel unavailable, falling back to HTTP: " + e.getMessage());
+            return http;
+        }
+    }
+
     public static void main(String[] args) {
-        ServerConnection server = new DirectAdapter();
+        ServerConnection server = connect();
         SessionContext session = new SessionContext();
 
         Thread uiThread = new Thread(() -> runCli(server, session));
@@ -211,19 +202,30 @@ public class ConsoleRunner {
         if (target.equals("user")) {
             if (parts.length < 3) return;
             int count = getRepeatCount(parts, 3);
-            for(int i=0; i<count; i++) {
-                String name = parts[2] + (count > 1 ? "_" + i : "");
-                CommandResponse resp = server.createUser(name);
-                if (count == 1) printResponse(resp);
-                if (resp.success() && resp.data() != null) session.setActiveUser((UUID) resp.data(), name);
+            if (count == 1) {
+                CommandResponse resp = server.createUser(parts[2]);
+                printResponse(resp);
+                if (resp.success() && resp.data() != null) session.setActiveUser((UUID) resp.data(), parts[2]);
+                return;
+            }
+            CommandResponse resp = server.createUsers(parts[2], count);
+            System.out.println(">> " + resp.message());
+            if (resp.success() && resp.data() instanceof ProvisioningResult result) {
+                session.setActiveUser(result.userId(result.userCount() - 1), parts[2] + "_" + count);
             }
         } else if (target.equals("account")) {
             if (session.getActiveUserId() == null) { System.err.println("No active user."); return; }
             int count = getRepeatCount(parts, 2);
-            for(int i=0; i<count; i++) {
+            if (count == 1) {
                 CommandResponse resp = server.createAccount(session.getActiveUserId());
-                if (count == 1) printResponse(resp);
+                printResponse(resp);
                 if (resp.success() && resp.data() != null) session.setActiveAccount((UUID) resp.data());
+                return;
+            }
+            CommandResponse resp = server.createAccounts(session.getActiveUserId(), count);
+            System.out.println(">> " + resp.message());
+            if (resp.success() && resp.data() instanceof ProvisioningResult result) {
+                session.setActiveAccount(result.accountId(result.accountCount() - 1));
             }
         }
     }
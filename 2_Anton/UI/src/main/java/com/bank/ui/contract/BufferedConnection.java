@@ -0,0 +1,42 @@
+package com.bank.ui.contract;
+
+import com.bank.api.dto.CommandResponse;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.Supplier;
+
+public abstract class BufferedConnection implements ServerConnection {
+    private volatile boolean blocked = false;
+    private final Queue<Runnable> buffer = new ConcurrentLinkedQueue<>();
+
+    protected CommandResponse executeOrBuffer(Supplier<CommandResponse> action) {
+        if (blocked) {
+            buffer.add(() -> action.get());
+            return CommandResponse.ok("BUFFERED (Queue size: " + (buffer.size() + 1) + ")", null);
+        }
+        return action.get();
+    }
+
+    protected void executeVoidOrBuffer(Runnable action) {
+        if (blocked) {
+            buffer.add(action);
+            System.out.println(">> BUFFERED (Void Action Queued)");
+        } else {
+            action.run();
+        }
+    }
+
+    @Override public void setBlocked(boolean blocked) { this.blocked = blocked; }
+    @Override public boolean isBlocked() { return blocked; }
+
+    @Override public void flushBuffer() {
+        System.out.println(">> Flushing " + buffer.size() + " commands...");
+        int count = 0;
+        while (!buffer.isEmpty()) {
+            buffer.poll().run();
+            count++;
+        }
+        System.out.println(">> Flushed " + count + " commands.");
+    }
+}
@@ -8,6 +8,8 @@ import java.util.UUID;
 public interface ServerConnection {
     CommandResponse createUser(String nickname);
     CommandResponse createAccount(UUID userId);
+    CommandResponse createUsers(String baseName, int count);
+    CommandResponse createAccounts(UUID userId, int count);
     
     CommandResponse deposit(UUID accountId, BigDecimal amount);
     CommandResponse withdraw(UUID accountId, BigDecimal amount);
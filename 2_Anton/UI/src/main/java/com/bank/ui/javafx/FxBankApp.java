@@ -18,7 +18,7 @@ public class FxBankApp extends Application {
     @Override
     public void init() {
         silenceSystemOut();
-        this.server = new ConsoleRunner.DirectAdapter();
+        this.server = ConsoleRunner.connect();
     }
 
     @Override
@@ -127,14 +127,9 @@ public class MainController {
         String baseName = userNameInput.getText().trim();
         int count = userCountSpinner.getValue();
         runAsync(() -> {
-            int success = 0, fail = 0; String lastError = null;
-            for (int i = 0; i < count; i++) {
-                String finalName = baseName.isEmpty() ? "user_" + UUID.randomUUID().toString().substring(0, 5) : (count > 1 ? baseName + "_" + (i + 1) : baseName);
-                CommandResponse resp = server.createUser(finalName);
-                if (resp.success()) success++; else { fail++; lastError = resp.message(); }
-            }
-            printBatchResult("Create Users", success, fail, lastError);
-            if (success > 0) Platform.runLater(() -> {
+            CommandResponse resp = server.createUsers(baseName, count);
+            printBatchResult("Create Users", resp.success() ? count : 0, resp.success() ? 0 : count, resp.message());
+            if (resp.success()) Platform.runLater(() -> {
                 refreshTree();
                 userNameInput.clear();
                 userCountSpinner.getValueFactory().setValue(1);
@@ -144,13 +139,9 @@ public class MainController {
 
     public void createAccountsAction(UUID userId, int count) {
         runAsync(() -> {
-            int success = 0, fail = 0; String lastError = null;
-            for(int i=0; i<count; i++) {
-                CommandResponse resp = server.createAccount(userId);
-                if (resp.success()) success++; else { fail++; lastError = resp.message(); }
-            }
-            printBatchResult("Create Accounts", success, fail, lastError);
-            if (success > 0) Platform.runLater(this::refreshTree);
+            CommandResponse resp = server.createAccounts(userId, count);
+            printBatchResult("Create Accounts", resp.success() ? count : 0, resp.success() ? 0 : count, resp.message());
+            if (resp.success()) Platform.runLater(this::refreshTree);
         });
     }
 
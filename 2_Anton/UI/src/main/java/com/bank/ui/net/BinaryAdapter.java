@@ -0,0 +1,66 @@
+package com.bank.ui.net;
+
+import com.bank.api.dto.CommandResponse;
+import com.bank.api.dto.SystemStateDto;
+import com.bank.api.tcp.BinaryClient;
+import com.bank.ui.contract.BufferedConnection;
+import com.bank.ui.contract.ServerConnection;
+import com.bank.ui.contract.TransactionObserver;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Денежные команды отправляются по бинарному TCP-протоколу,
+ * административные операции и запросы состояния — через delegate (обычно HttpAdapter)
+ */
+public class BinaryAdapter extends BufferedConnection {
+
+    private final BinaryClient client;
+    private final ServerConnection delegate;
+
+    public BinaryAdapter(String host, int port, ServerConnection delegate) throws IOException {
+        this.client = new BinaryClient(host, port);
+        this.delegate = delegate;
+    }
+
+    private CommandResponse await(CompletableFuture<CommandResponse> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return CommandResponse.error("Interrupted");
+        } catch (ExecutionException e) {
+            return CommandResponse.error("Network error: " + e.getCause().getMessage());
+        }
+    }
+
+    @Override public CommandResponse createUser(String n) { return executeOrBuffer(() -> delegate.createUser(n)); }
+    @Override public CommandResponse createAccount(UUID uid) { return executeOrBuffer(() -> delegate.createAccount(uid)); }
+    @Override public CommandResponse createUsers(String base, int count) { return executeOrBuffer(() -> delegate.createUsers(base, count)); }
+    @Override public CommandResponse createAccounts(UUID uid, int count) { return executeOrBuffer(() -> delegate.createAccounts(uid, count)); }
+    @Override public CommandResponse deposit(UUID aid, BigDecimal amt) { return executeOrBuffer(() -> await(client.deposit(aid, amt))); }
+    @Override public CommandResponse withdraw(UUID aid, BigDecimal amt) { return executeOrBuffer(() -> await(client.withdraw(aid, amt))); }
+    @Override public CommandResponse transfer(UUID from, UUID to, BigDecimal amt) { return executeOrBuffer(() -> await(client.transfer(from, to, amt))); }
+    @Override public CommandResponse freeze(UUID aid) { return executeOrBuffer(() -> await(client.freeze(aid))); }
+    @Override public CommandResponse unfreeze(UUID aid) { return executeOrBuffer(() -> await(client.unfreeze(aid))); }
+    @Override public CommandResponse close(UUID aid) { return executeOrBuffer(() -> await(client.close(aid))); }
+
+    @Override public CommandResponse reset() { return executeOrBuffer(delegate::reset); }
+    @Override public void kill() { executeVoidOrBuffer(delegate::kill); }
+    @Override public SystemStateDto getSystemState() { return delegate.getSystemState(); }
+    @Override public void addObserver(TransactionObserver observer) { delegate.addObserver(observer); }
+
+    @Override
+    public void disconnect() {
+        try {
+            client.close();
+        } catch (IOException e) {
+            System.err.println("Failed to close binary connection: " + e.getMessage());
+        }
+        delegate.disconnect();
+    }
+}
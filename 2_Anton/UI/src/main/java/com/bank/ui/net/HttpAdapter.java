@@ -0,0 +1,192 @@
+package com.bank.ui.net;
+
+import com.bank.api.dto.CommandResponse;
+import com.bank.api.dto.ProvisioningResult;
+import com.bank.api.dto.RemoteCommand;
+import com.bank.api.dto.SystemStateDto;
+import com.bank.api.http.BankHttpServer;
+import com.bank.ui.contract.BufferedConnection;
+import com.bank.ui.contract.TransactionObserver;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Клиент BankHttpServer. Соединения переиспользуются (HTTP/1.1 keep-alive),
+ * sendBatch отправляет несколько команд одним запросом; adminToken сервера передается
+ * с каждым запросом — он нужен reset, kill и массовому созданию пользователей и счетов
+ */
+public class HttpAdapter extends BufferedConnection {
+
+    private final URI baseUri;
+    private final String adminToken;
+    private final HttpClient client;
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final List<TransactionObserver> observers = new CopyOnWriteArrayList<>();
+    private final ScheduledExecutorService observerPoller = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "bank-http-observer");
+        t.setDaemon(true);
+        return t;
+    });
+    private volatile boolean polling = false;
+    private long processedCursor = 0;
+
+    public HttpAdapter(URI baseUri) {
+        this(baseUri, null);
+    }
+
+    public HttpAdapter(URI baseUri, String adminToken) {
+        this.baseUri = baseUri;
+        this.adminToken = adminToken;
+        this.client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+    }
+
+    public List<CommandResponse> sendBatch(List<RemoteCommand> commands) {
+        try {
+            JsonNode body = mapper.readTree(send(post("/api/commands", mapper.writeValueAsBytes(commands))));
+            List<CommandResponse> responses = new ArrayList<>(body.size());
+            for (JsonNode node : body) {
+                responses.add(toResponse(node));
+            }
+            return responses;
+        } catch (IOException e) {
+            CommandResponse error = CommandResponse.error("Network error: " + e.getMessage());
+            List<CommandResponse> responses = new ArrayList<>(commands.size());
+            for (int i = 0; i < commands.size(); i++) responses.add(error);
+            return responses;
+        }
+    }
+
+    private CommandResponse sendOne(RemoteCommand command) {
+        return executeOrBuffer(() -> sendBatch(List.of(command)).get(0));
+    }
+
+    @Override public CommandResponse createUser(String n) { return sendOne(RemoteCommand.createUser(n)); }
+    @Override public CommandResponse createAccount(UUID uid) { return sendOne(RemoteCommand.createAccount(uid)); }
+    @Override public CommandResponse createUsers(String base, int count) { return sendOne(RemoteCommand.createUsers(base, count)); }
+    @Override public CommandResponse createAccounts(UUID uid, int count) { return sendOne(RemoteCommand.createAccounts(uid, count)); }
+    @Override public CommandResponse deposit(UUID aid, BigDecimal amt) { return sendOne(RemoteCommand.deposit(aid, amt)); }
+    @Override public CommandResponse withdraw(UUID aid, BigDecimal amt) { return sendOne(RemoteCommand.withdraw(aid, amt)); }
+    @Override public CommandResponse transfer(UUID from, UUID to, BigDecimal amt) { return sendOne(RemoteCommand.transfer(from, to, amt)); }
+    @Override public CommandResponse freeze(UUID aid) { return sendOne(RemoteCommand.freeze(aid)); }
+    @Override public CommandResponse unfreeze(UUID aid) { return sendOne(RemoteCommand.unfreeze(aid)); }
+    @Override public CommandResponse close(UUID aid) { return sendOne(RemoteCommand.close(aid)); }
+
+    @Override
+    public CommandResponse reset() {
+        return executeOrBuffer(() -> {
+            try {
+                return toResponse(mapper.readTree(send(admin("/api/reset"))));
+            } catch (IOException e) {
+                return CommandResponse.error("Network error: " + e.getMessage());
+            }
+        });
+    }
+
+    @Override
+    public void kill() {
+        executeVoidOrBuffer(() -> {
+            try {
+                send(admin("/api/kill"));
+            } catch (IOException e) {
+                System.err.println("Kill request failed: " + e.getMessage());
+            }
+        });
+    }
+
+    @Override
+    public SystemStateDto getSystemState() {
+        try {
+            return mapper.readValue(send(HttpRequest.newBuilder(baseUri.resolve("/api/state")).GET().build()),
+                    SystemStateDto.class);
+        } catch (IOException e) {
+            return new SystemStateDto(List.of());
+        }
+    }
+
+    @Override
+    public void addObserver(TransactionObserver observer) {
+        observers.add(observer);
+        if (!polling) {
+            polling = true;
+            observerPoller.scheduleWithFixedDelay(this::pollProcessed, 0, 100, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    @Override
+    public void disconnect() {
+        observerPoller.shutdownNow();
+    }
+
+    private void pollProcessed() {
+        try {
+            URI uri = baseUri.resolve("/api/processed?after=" + processedCursor);
+            JsonNode page = mapper.readTree(send(HttpRequest.newBuilder(uri).GET().build()));
+            processedCursor = page.path("cursor").asLong(processedCursor);
+            for (JsonNode key : page.path("keys")) {
+                UUID id = UUID.fromString(key.asText());
+                for (TransactionObserver obs : observers) {
+                    obs.onTransactionProcessed(id);
+                }
+            }
+        } catch (Exception e) {
+            // Сервер недоступен: повторим на следующем тике
+        }
+    }
+
+    private HttpRequest post(String path, byte[] body) {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(baseUri.resolve(path))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofByteArray(body));
+        if (adminToken != null) {
+            builder.header(BankHttpServer.ADMIN_TOKEN_HEADER, adminToken);
+        }
+        return builder.build();
+    }
+
+    private HttpRequest admin(String path) {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(baseUri.resolve(path))
+                .POST(HttpRequest.BodyPublishers.noBody());
+        if (adminToken != null) {
+            builder.header(BankHttpServer.ADMIN_TOKEN_HEADER, adminToken);
+        }
+        return builder.build();
+    }
+
+    private byte[] send(HttpRequest request) throws IOException {
+        try {
+            return client.send(request, HttpResponse.BodyHandlers.ofByteArray()).body();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted", e);
+        }
+    }
+
+    private CommandResponse toResponse(JsonNode node) throws IOException {
+        JsonNode data = node.path("data");
+        Object value = null;
+        if (data.isTextual()) {
+            try {
+                value = UUID.fromString(data.asText());
+            } catch (IllegalArgumentException e) {
+                value = data.asText();
+            }
+        } else if (data.has("accountIds")) {
+            value = mapper.treeToValue(data, ProvisioningResult.class);
+        }
+        return new CommandResponse(node.path("success").asBoolean(), node.path("message").asText(), value);
+    }
+}
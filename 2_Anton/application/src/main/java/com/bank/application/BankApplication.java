@@ -1,116 +1,490 @@
 package com.bank.application;
 
+import com.bank.application.config.BankDataSources;
 import com.bank.application.config.DataSourceConfig;
+import com.bank.application.config.ReplicationConfig;
 import com.bank.application.engine.IdempotencyCheckConsumer;
 import com.bank.application.port.out.ProcessedTransactionRepository;
+import com.bank.application.reconciliation.LedgerReconciler;
+import com.bank.application.reconciliation.ReconciliationReport;
+import com.bank.application.replication.ReplicationClient;
+import com.bank.application.replication.ReplicationServer;
+import com.bank.application.replication.StandbySnapshot;
 import com.bank.application.port.out.TransactionalOutboxRepository;
 import com.bank.application.port.out.TransactionStatusProvider;
 import com.bank.application.service.TransactionService;
 import com.bank.application.service.TransactionStatus;
+import com.bank.application.service.impl.JdbcPartitionedOutboxRepository;
 import com.bank.application.service.impl.JdbcProcessedTransactionRepository;
 import com.bank.application.service.impl.JdbcTransactionalOutboxRepository;
 import com.bank.application.service.impl.TransactionServiceImpl;
+import com.bank.application.visitor.StreamingReportRunner;
+import com.bank.application.visitor.StreamingReportVisitor;
+import com.bank.core.command.TransactionCommand;
 import com.bank.core.command.factory.TransactionActionFactory;
+import com.bank.core.engine.TransactionEvent;
 import com.bank.core.engine.TransactionEventProducer;
+import com.bank.core.engine.EngineConfig;
 import com.bank.core.engine.TransactionRingBuffer;
+import com.bank.core.engine.consumers.BalanceAuditConsumer;
 import com.bank.core.engine.consumers.BatchDatabasePersistenceConsumer;
 import com.bank.core.engine.consumers.BusinessLogicConsumer;
+import com.bank.core.engine.consumers.ChangeDataCaptureConsumer;
+import com.bank.core.engine.consumers.NettingBusinessLogicConsumer;
+import com.bank.core.engine.consumers.ParallelBusinessLogicConsumer;
+import com.bank.core.engine.consumers.ReplicationConsumer;
+import com.bank.core.metrics.LatencyTracker;
+import com.bank.core.metrics.MetricsRegistry;
 import com.bank.core.port.out.BatchPersister;
+import com.bank.core.port.out.BatchUnitOfWork;
 import com.bank.core.state.AccountState;
 import com.bank.core.state.AccountStateProvider;
 import com.bank.domain.Account;
+import com.bank.persistence.archive.ArchivedJournalEntry;
+import com.bank.persistence.archive.JournalArchiver;
+import com.bank.persistence.cdc.CdcLogWriter;
+import com.bank.persistence.dlq.DlqRetryPolicy;
+import com.bank.persistence.dlq.JdbcDeadLetterQueue;
+import com.bank.persistence.outbox.OutboxPartitions;
 import com.bank.persistence.repository.AccountRepository;
 import com.bank.persistence.repository.impl.JdbcAccountRepository;
 import com.bank.persistence.repository.impl.JdbcBatchPersister;
+import com.bank.persistence.repository.impl.JdbcJournalRepository;
+import com.bank.persistence.repository.impl.JdbcPostingIndex;
+import com.lmax.disruptor.dsl.EventHandlerGroup;
+import com.lmax.disruptor.dsl.ProducerType;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.jdbc.datasource.DataSourceTransactionManager;
-import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.support.TransactionTemplate;
 
-import com.lmax.disruptor.YieldingWaitStrategy;
 import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.UUID;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
 
 public class BankApplication {
     private static final Logger log = LoggerFactory.getLogger(BankApplication.class);
+    private static final int OPEN_PUBLISH_BATCH = 1024;
+    private static final String METRICS_MBEAN_NAME = "com.bank:type=EngineMetrics";
+    private static final String ARCHIVE_DIR_PROPERTY = "bank.archive.dir";
+    private static final String ARCHIVE_RETENTION_PROPERTY = "bank.archive.retention";
+    private static final String ARCHIVE_INTERVAL_PROPERTY = "bank.archive.intervalSeconds";
+    private static final String RECONCILE_INTERVAL_PROPERTY = "bank.reconcile.intervalSeconds";
+    private static final String DLQ_INTERVAL_PROPERTY = "bank.dlq.intervalSeconds";
+    private static final String DLQ_ARCHIVE_AFTER_PROPERTY = "bank.dlq.archiveAfter";
+    private static final String OUTBOX_PARTITIONS_PROPERTY = "bank.outbox.partitions";
+    private static final String OUTBOX_SLICE_PROPERTY = "bank.outbox.sliceSeconds";
+    private static final String OUTBOX_GAP_TIMEOUT_PROPERTY = "bank.outbox.gapTimeoutMillis";
+    private static final String CDC_DIR_PROPERTY = "bank.cdc.dir";
+    private static final String CDC_SEGMENT_RECORDS_PROPERTY = "bank.cdc.segmentRecords";
+    private static final String POSTING_HEADS_PROPERTY = "bank.postings.cachedHeads";
+    private static final long PRIMARY_CONNECT_TIMEOUT_MILLIS = 30_000;
+    private static final long DRAIN_TIMEOUT_MILLIS = 30_000;
 
     private final TransactionRingBuffer ringBuffer;
     private final TransactionService transactionService;
     private final OutboxPoller outboxPoller;
+    private final TransactionEventProducer producer;
     private final ExecutorService pollerExecutor = Executors.newSingleThreadExecutor();
     private final IdempotencyCheckConsumer idempotencyConsumer;
+    private final LatencyTracker latencyTracker = new LatencyTracker();
+    private final MetricsRegistry metrics = new MetricsRegistry();
+    private final boolean directIngress;
+    private final JournalArchiver archiver;
+    private ScheduledExecutorService archiveExecutor;
+    private final AccountRepository accountRepository;
+    private final JdbcJournalRepository journalRepository;
+    private final StreamingReportRunner reportRunner = new StreamingReportRunner();
+    private final BalanceAuditConsumer balanceAudit;
+    private final LedgerReconciler reconciler;
+    private ScheduledExecutorService reconcileExecutor;
+    private final DlqRedriver dlqRedriver;
+    private ScheduledExecutorService dlqExecutor;
+    private final OutboxCompactor outboxCompactor;
+    private final JdbcBatchPersister batchPersister;
+    private final CdcLogWriter changeFeed;
+    private ScheduledExecutorService outboxExecutor;
+    private final AccountState accountState;
+    private final TransactionalOutboxRepository outboxRepository;
+    private final TransactionalOutboxRepository ingestOutbox;
+    private final OutboxPartitions outboxPartitions;
+    private final BatchDatabasePersistenceConsumer persistenceConsumer;
+    private final ReplicationConfig replication;
+    private final ReplicationServer replicationServer;
+    private final ReplicationClient replicationClient;
+    private volatile boolean standby;
+    private volatile UUID lastReplicatedKey;
+    private final long snapshotJournalSequence;
 
     public BankApplication() {
         this(DataSourceConfig.createDataSource());
     }
 
     public BankApplication(DataSource dataSource) {
-        PlatformTransactionManager transactionManager = new DataSourceTransactionManager(dataSource);
-        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        this(dataSource, EngineConfig.load());
+    }
+
+    public BankApplication(DataSource dataSource, EngineConfig engineConfig) {
+        this(BankDataSources.single(dataSource), engineConfig);
+    }
+
+    public BankApplication(BankDataSources dataSources, EngineConfig engineConfig) {
+        this(dataSources, engineConfig, ReplicationConfig.fromSystemProperties(), AccountState.INSTANCE);
+    }
 
-        TransactionalOutboxRepository outboxRepository = new JdbcTransactionalOutboxRepository(dataSource,
-                transactionTemplate);
+    /**
+     * Реплика (replication.isStandby()) подписывается на поток основного узла, читает состояние одним снимком
+     * и до promote() только повторяет поток: персистер, поллер outbox и фоновые задачи не работают.
+     * Отдельный accountState нужен только если основной и реплика запущены в одной JVM
+     */
+    public BankApplication(BankDataSources dataSources, EngineConfig engineConfig, ReplicationConfig replication,
+            AccountState accountState) {
+        DataSource dataSource = dataSources.query();
+        this.replication = replication;
+        this.accountState = accountState;
+        this.standby = replication.isStandby();
+        if (standby && engineConfig.getProducerType() == ProducerType.SINGLE) {
+            // до promote() публикует поток репликации, после — поллер outbox
+            engineConfig = engineConfig.withProducerType(ProducerType.MULTI);
+        }
+        int partitionCount = Integer.getInteger(OUTBOX_PARTITIONS_PROPERTY, 0);
+        OutboxPartitions partitions = partitionCount > 0
+                ? new OutboxPartitions(dataSources.poller(), partitionCount)
+                : null;
+        this.outboxPartitions = partitions;
+        this.outboxRepository = outboxRepository(dataSources.poller(), partitions);
+        this.ingestOutbox = dataSources.ingest() == dataSources.poller()
+                ? outboxRepository
+                : outboxRepository(dataSources.ingest(), partitions);
         ProcessedTransactionRepository processedRepo = new JdbcProcessedTransactionRepository(dataSource);
-        BatchPersister batchPersister = new JdbcBatchPersister(dataSource, transactionTemplate);
+        JdbcPostingIndex postingIndex = new JdbcPostingIndex(dataSources.persister(),
+                Integer.getInteger(POSTING_HEADS_PROPERTY, JdbcPostingIndex.DEFAULT_MAX_CACHED_HEADS));
+        JdbcPostingIndex statements = dataSources.persister() == dataSource ? postingIndex
+                : new JdbcPostingIndex(dataSource);
+        this.batchPersister = new JdbcBatchPersister(dataSources.persister(), metrics, postingIndex,
+                DlqRetryPolicy.DEFAULT, partitions);
 
         TransactionStatusProvider statusProvider = idempotencyKey -> TransactionStatus.PENDING;
-        AccountStateProvider stateProvider = restoreState(dataSource);
+        this.accountRepository = new JdbcAccountRepository(dataSource);
+        this.journalRepository = new JdbcJournalRepository(dataSource);
+        this.replicationClient = standby ? connectToPrimary(replication) : null;
+        StandbySnapshot snapshot = standby ? StandbySnapshot.load(dataSource) : null;
+        this.snapshotJournalSequence = snapshot != null ? snapshot.journalSequence() : -1;
+        Map<UUID, Account> allAccounts = snapshot != null ? snapshot.accounts() : accountRepository.loadAllAccounts();
+        AccountStateProvider stateProvider = restoreState(allAccounts);
         TransactionActionFactory actionFactory = new TransactionActionFactory();
 
-        this.idempotencyConsumer = new IdempotencyCheckConsumer();
+        this.idempotencyConsumer = new IdempotencyCheckConsumer(metrics);
 
-        Set<UUID> existingKeys = processedRepo.loadAllProcessedKeys();
+        Set<UUID> existingKeys = snapshot != null ? snapshot.processedKeys() : processedRepo.loadAllProcessedKeys();
         this.idempotencyConsumer.initializeCache(existingKeys);
 
-        BusinessLogicConsumer businessLogicConsumer = new BusinessLogicConsumer(stateProvider, actionFactory);
-        BatchDatabasePersistenceConsumer persistenceConsumer = new BatchDatabasePersistenceConsumer(batchPersister);
+        BusinessLogicConsumer businessLogicConsumer;
+        if (engineConfig.getBusinessWorkers() > 0) {
+            businessLogicConsumer = new ParallelBusinessLogicConsumer(stateProvider, actionFactory, metrics,
+                    engineConfig.getBusinessWorkers());
+        } else if (engineConfig.isNetting()) {
+            businessLogicConsumer = new NettingBusinessLogicConsumer(stateProvider, actionFactory, metrics);
+        } else {
+            businessLogicConsumer = new BusinessLogicConsumer(stateProvider, actionFactory, metrics);
+        }
+        BatchPersister persister = standby ? this::persistUnlessStandby : batchPersister;
+        this.persistenceConsumer = new BatchDatabasePersistenceConsumer(persister, latencyTracker, metrics);
+        this.balanceAudit = new BalanceAuditConsumer(BalanceAuditConsumer.totalBalance(allAccounts), metrics);
 
-        this.ringBuffer = new TransactionRingBuffer(
-                new com.lmax.disruptor.SleepingWaitStrategy(),
-                null,
-                null,
-                null);
+        log.info("Engine configuration: {}", engineConfig);
+        this.ringBuffer = new TransactionRingBuffer(engineConfig);
 
-        ringBuffer.getDisruptor()
+        EventHandlerGroup<TransactionEvent> afterBusiness = ringBuffer.getDisruptor()
                 .handleEventsWith(this.idempotencyConsumer)
-                .then(businessLogicConsumer)
-                .then(persistenceConsumer);
+                .then(businessLogicConsumer);
+        afterBusiness.then(persistenceConsumer, balanceAudit);
+        this.changeFeed = createChangeFeed();
+        ChangeDataCaptureConsumer cdcConsumer = null;
+        if (changeFeed != null) {
+            cdcConsumer = new ChangeDataCaptureConsumer(changeFeed, metrics);
+            afterBusiness.then(cdcConsumer);
+        }
 
-        outboxRepository.resetProcessingToPending();
-        TransactionEventProducer producer = new TransactionEventProducer(ringBuffer.getRingBuffer());
-        this.outboxPoller = new OutboxPoller(outboxRepository, producer);
-        this.transactionService = new TransactionServiceImpl(stateProvider, statusProvider, outboxRepository);
+        if (replication.isListening()) {
+            this.replicationServer = createReplicationServer(replication);
+            ReplicationConsumer replicationConsumer = new ReplicationConsumer(replicationServer, metrics);
+            ringBuffer.getDisruptor().after(persistenceConsumer).then(replicationConsumer);
+            ringBuffer.registerConsumerLag(metrics, "replication", replicationConsumer);
+        } else {
+            this.replicationServer = null;
+        }
+
+        ringBuffer.registerMetrics(metrics);
+        ringBuffer.registerConsumerLag(metrics, "idempotency", this.idempotencyConsumer);
+        ringBuffer.registerConsumerLag(metrics, "business", businessLogicConsumer);
+        ringBuffer.registerConsumerLag(metrics, "persistence", persistenceConsumer);
+        ringBuffer.registerConsumerLag(metrics, "audit", balanceAudit);
+        if (cdcConsumer != null) {
+            ringBuffer.registerConsumerLag(metrics, "cdc", cdcConsumer);
+        }
+
+        if (!standby) {
+            outboxRepository.resetProcessingToPending();
+        }
+        this.directIngress = engineConfig.isDirectIngress();
+        this.producer = new TransactionEventProducer(ringBuffer.getRingBuffer(),
+                engineConfig.getProducerType() == ProducerType.SINGLE);
+        this.outboxPoller = new OutboxPoller(outboxRepository, producer, metrics);
+        this.transactionService = new TransactionServiceImpl(stateProvider, statusProvider, ingestOutbox,
+                statements);
+        this.archiver = createArchiver(dataSource);
+        this.reconciler = new LedgerReconciler(accountRepository, accountState, accountState::forEach, metrics);
+        if (partitions != null) {
+            this.outboxCompactor = new OutboxCompactor((JdbcPartitionedOutboxRepository) outboxRepository, partitions,
+                    ringBuffer.getRingBuffer()::getCursor,
+                    () -> ringBuffer.getDisruptor().getSequenceValueFor(persistenceConsumer),
+                    metrics.counter("bank_persistence_failures_total")::sum,
+                    Duration.ofSeconds(Long.getLong(OUTBOX_SLICE_PROPERTY, 60)), metrics);
+        } else {
+            this.outboxCompactor = null;
+        }
+        this.dlqRedriver = new DlqRedriver(
+                new JdbcDeadLetterQueue(dataSources.poller(), JdbcDeadLetterQueue.DEFAULT_CHUNK_ROWS, partitions),
+                idempotencyConsumer,
+                Duration.parse(System.getProperty(DLQ_ARCHIVE_AFTER_PROPERTY, "P7D")), metrics);
+    }
+
+    private TransactionalOutboxRepository outboxRepository(DataSource dataSource, OutboxPartitions partitions) {
+        if (partitions != null) {
+            return new JdbcPartitionedOutboxRepository(dataSource, partitions,
+                    Duration.ofMillis(Long.getLong(OUTBOX_GAP_TIMEOUT_PROPERTY,
+                            JdbcPartitionedOutboxRepository.DEFAULT_GAP_TIMEOUT.toMillis())),
+                    metrics);
+        }
+        TransactionTemplate transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+        return new JdbcTransactionalOutboxRepository(dataSource, transactionTemplate);
+    }
+
+    private static JournalArchiver createArchiver(DataSource dataSource) {
+        String dir = System.getProperty(ARCHIVE_DIR_PROPERTY);
+        if (dir == null || dir.isBlank()) {
+            return null;
+        }
+        Duration retention = Duration.parse(System.getProperty(ARCHIVE_RETENTION_PROPERTY, "P30D"));
+        return new JournalArchiver(dataSource, Path.of(dir), retention);
+    }
+
+    private static CdcLogWriter createChangeFeed() {
+        String dir = System.getProperty(CDC_DIR_PROPERTY);
+        if (dir == null || dir.isBlank()) {
+            return null;
+        }
+        try {
+            return new CdcLogWriter(Path.of(dir),
+                    Integer.getInteger(CDC_SEGMENT_RECORDS_PROPERTY, CdcLogWriter.DEFAULT_SEGMENT_RECORDS),
+                    CdcLogWriter.DEFAULT_RETAIN_SEGMENTS);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to open change feed in " + dir, e);
+        }
+    }
+
+    private ReplicationServer createReplicationServer(ReplicationConfig replication) {
+        try {
+            return new ReplicationServer(replication.listenHost(), replication.listenPort(), replication.secret(),
+                    replication.syncAck(), replication.ackTimeoutMillis(), metrics);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to listen for standby on " + replication.listenHost() + ":"
+                    + replication.listenPort(), e);
+        }
+    }
+
+    private ReplicationClient connectToPrimary(ReplicationConfig replication) {
+        ReplicationClient client = new ReplicationClient(replication.primaryHost(), replication.primaryPort(),
+                replication.secret(), replication.failoverMillis(), metrics);
+        try {
+            client.connect(PRIMARY_CONNECT_TIMEOUT_MILLIS);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Standby failed to subscribe to the primary", e);
+        }
+        log.info("Subscribed to primary {}:{}", replication.primaryHost(), replication.primaryPort());
+        return client;
     }
 
-    private AccountStateProvider restoreState(DataSource dataSource) {
+    private AccountStateProvider restoreState(Map<UUID, Account> allAccounts) {
         log.info("Starting state restoration from database...");
-        AccountRepository accountRepository = new JdbcAccountRepository(dataSource);
-        Map<UUID, Account> allAccounts = accountRepository.loadAllAccounts();
         log.info("Loaded {} accounts from the database.", allAccounts.size());
 
-        AccountState singletonInstance = AccountState.INSTANCE;
-        singletonInstance.loadAll(allAccounts);
+        accountState.loadAll(allAccounts);
         log.info("State restoration complete.");
-        return singletonInstance;
+        return accountState;
     }
 
     public void start() {
         log.info("Starting Bank Application...");
         ringBuffer.start();
-        pollerExecutor.submit(outboxPoller);
+        metrics.registerMBean(METRICS_MBEAN_NAME);
+        if (standby) {
+            replicationClient.start(new StandbyListener());
+            log.info("Running as standby of {}:{}, failover after {} ms", replication.primaryHost(),
+                    replication.primaryPort(), replication.failoverMillis());
+        } else {
+            startServices();
+        }
         Runtime.getRuntime().addShutdownHook(new Thread(this::stop));
         log.info("Bank Application started successfully.");
     }
 
+    /**
+     * Реплика становится основным узлом: поток репликации закрывается, RingBuffer дорабатывает принятое,
+     * хвост журнала, который основной узел успел записать, но не отправить, повторяется в память,
+     * после чего включается персистер и запускаются поллер outbox и фоновые задачи. Состояние уже в памяти,
+     * из БД читается только этот хвост
+     */
+    public synchronized void promote() {
+        if (!standby) {
+            return;
+        }
+        long started = System.nanoTime();
+        log.info("Promoting standby to primary...");
+        replicationClient.close();
+        awaitDrained();
+        int caughtUp = catchUp();
+        awaitDrained();
+        standby = false;
+        outboxRepository.resetProcessingToPending();
+        startServices();
+        log.info("Promoted to primary in {} ms, {} journal records caught up",
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started), caughtUp);
+    }
+
+    public boolean isStandby() {
+        return standby;
+    }
+
+    /**
+     * Порт, на котором узел отдает журнал реплике, или -1
+     */
+    public int getReplicationPort() {
+        return replicationServer != null ? replicationServer.getPort() : -1;
+    }
+
+    private void persistUnlessStandby(BatchUnitOfWork unitOfWork) {
+        if (!standby) {
+            batchPersister.persistBatch(unitOfWork);
+        }
+    }
+
+    /**
+     * Повторяет команды журнала после последней принятой по репликации (или после снимка);
+     * уже примененные отсекает проверка идемпотентности
+     */
+    private int catchUp() {
+        UUID key = lastReplicatedKey;
+        long after = key != null ? journalRepository.sequenceIdOf(key) : snapshotJournalSequence;
+        List<TransactionCommand> tail = journalRepository.loadJournalAfter(after);
+        int chunk = Math.min(OPEN_PUBLISH_BATCH, ringBuffer.getRingBuffer().getBufferSize());
+        for (int from = 0; from < tail.size(); from += chunk) {
+            producer.publishBatch(tail.subList(from, Math.min(tail.size(), from + chunk)));
+        }
+        if (!tail.isEmpty()) {
+            lastReplicatedKey = tail.get(tail.size() - 1).getIdempotencyKey();
+        }
+        return tail.size();
+    }
+
+    private void awaitDrained() {
+        long target = ringBuffer.getRingBuffer().getCursor();
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(DRAIN_TIMEOUT_MILLIS);
+        while (ringBuffer.getDisruptor().getSequenceValueFor(persistenceConsumer) < target) {
+            if (System.nanoTime() > deadline) {
+                throw new IllegalStateException("Ring buffer did not drain to sequence " + target);
+            }
+            LockSupport.parkNanos(1_000_000L);
+        }
+    }
+
+    private final class StandbyListener implements ReplicationClient.Listener {
+        @Override
+        public void onCommands(List<TransactionCommand> commands) {
+            producer.publishBatch(commands);
+            lastReplicatedKey = commands.get(commands.size() - 1).getIdempotencyKey();
+        }
+
+        @Override
+        public void onReconnected() {
+            int caughtUp = catchUp();
+            log.info("Standby caught up {} journal records after reconnect", caughtUp);
+        }
+
+        @Override
+        public void onPrimaryLost() {
+            new Thread(BankApplication.this::promote, "bank-promote").start();
+        }
+    }
+
+    private void startServices() {
+        pollerExecutor.submit(outboxPoller);
+        if (archiver != null) {
+            long interval = Long.getLong(ARCHIVE_INTERVAL_PROPERTY, 3600);
+            archiveExecutor = daemonScheduler("bank-archiver");
+            archiveExecutor.scheduleWithFixedDelay(this::runArchiver, interval, interval, TimeUnit.SECONDS);
+            log.info("Journal archiving to {} with retention {} every {}s", archiver.getRoot(),
+                    archiver.getRetention(), interval);
+        }
+        long reconcileInterval = Long.getLong(RECONCILE_INTERVAL_PROPERTY, 0);
+        if (reconcileInterval > 0) {
+            reconcileExecutor = daemonScheduler("bank-reconciler");
+            reconcileExecutor.scheduleWithFixedDelay(this::runReconciler, reconcileInterval, reconcileInterval,
+                    TimeUnit.SECONDS);
+            log.info("Ledger reconciliation every {}s", reconcileInterval);
+        }
+        if (outboxCompactor != null) {
+            outboxExecutor = daemonScheduler("bank-outbox-compactor");
+            outboxExecutor.scheduleWithFixedDelay(outboxCompactor, 1, 1, TimeUnit.SECONDS);
+            log.info("Partitioned outbox with {} partitions", Integer.getInteger(OUTBOX_PARTITIONS_PROPERTY));
+        }
+        long dlqInterval = Long.getLong(DLQ_INTERVAL_PROPERTY, 0);
+        if (dlqInterval > 0) {
+            dlqExecutor = daemonScheduler("bank-dlq-redriver");
+            dlqExecutor.scheduleWithFixedDelay(dlqRedriver, dlqInterval, dlqInterval, TimeUnit.SECONDS);
+            log.info("DLQ redrive every {}s", dlqInterval);
+        }
+        if (changeFeed != null) {
+            log.info("Change feed to {} from position {}", changeFeed.getDir(), changeFeed.position());
+        }
+        if (replicationServer != null) {
+            replicationServer.start();
+        }
+    }
+
     public void stop() {
         log.info("Stopping Bank Application (Graceful Shutdown)...");
 
+        if (archiveExecutor != null) {
+            archiveExecutor.shutdownNow();
+        }
+        if (reconcileExecutor != null) {
+            reconcileExecutor.shutdownNow();
+        }
+        if (dlqExecutor != null) {
+            dlqExecutor.shutdownNow();
+        }
+        if (outboxExecutor != null) {
+            outboxExecutor.shutdownNow();
+        }
+        if (replicationClient != null) {
+            replicationClient.close();
+        }
         outboxPoller.stop();
         pollerExecutor.shutdown();
         try {
@@ -125,13 +499,157 @@ public class BankApplication {
         }
 
         ringBuffer.stop();
+        if (replicationServer != null) {
+            replicationServer.close();
+        }
+        batchPersister.close();
+        if (changeFeed != null) {
+            changeFeed.close();
+        }
+        reportRunner.close();
+        metrics.unregisterMBean();
         log.info("Bank Application stopped.");
     }
 
+    private static ScheduledExecutorService daemonScheduler(String name) {
+        return Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, name);
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    private void runReconciler() {
+        try {
+            reconciler.reconcile();
+        } catch (RuntimeException e) {
+            log.error("Ledger reconciliation failed, will retry on next run", e);
+        }
+    }
+
+    private void runArchiver() {
+        try {
+            archiver.archive();
+        } catch (RuntimeException e) {
+            log.error("Journal archiving failed, will retry on next run", e);
+        }
+    }
+
+    public void openAccount(UUID accountId) {
+        TransactionCommand command = TransactionCommand.createOpenCommand(UUID.randomUUID(), accountId);
+        if (directIngress) {
+            producer.publish(command);
+        } else {
+            outboxPoller.submit(List.of(command));
+        }
+    }
+
+    public void openAccounts(List<UUID> accountIds) {
+        if (!directIngress) {
+            List<TransactionCommand> commands = new ArrayList<>(accountIds.size());
+            for (UUID accountId : accountIds) {
+                commands.add(TransactionCommand.createOpenCommand(UUID.randomUUID(), accountId));
+            }
+            outboxPoller.submit(commands);
+            return;
+        }
+        for (int from = 0; from < accountIds.size(); from += OPEN_PUBLISH_BATCH) {
+            int to = Math.min(accountIds.size(), from + OPEN_PUBLISH_BATCH);
+            List<TransactionCommand> commands = new ArrayList<>(to - from);
+            for (UUID accountId : accountIds.subList(from, to)) {
+                commands.add(TransactionCommand.createOpenCommand(UUID.randomUUID(), accountId));
+            }
+            producer.publishBatch(commands);
+        }
+    }
+
+    public TransactionEventProducer getDirectIngress() {
+        if (!directIngress) {
+            throw new IllegalStateException("Direct ingress is disabled, set bank.engine.directIngress=true");
+        }
+        return producer;
+    }
+
+    public boolean isDirectIngressEnabled() {
+        return directIngress;
+    }
+
+    public long getRingRemainingCapacity() {
+        return ringBuffer.getRingBuffer().remainingCapacity();
+    }
+
+    public int getRingBufferSize() {
+        return ringBuffer.getRingBuffer().getBufferSize();
+    }
+
+    public MetricsRegistry getMetrics() {
+        return metrics;
+    }
+
+    public LatencyTracker getLatencyTracker() {
+        return latencyTracker;
+    }
+
+    /**
+     * Outbox для внешних писателей команд (API): пишет в активный раздел, если outbox разбит на разделы
+     */
+    public TransactionalOutboxRepository getIngestOutbox() {
+        return ingestOutbox;
+    }
+
+    /**
+     * Разделы outbox или null, если outbox в одной таблице
+     */
+    public OutboxPartitions getOutboxPartitions() {
+        return outboxPartitions;
+    }
+
     public TransactionService getTransactionService() {
         return transactionService;
     }
 
+    /**
+     * Отчет по всем счетам из БД; счета читаются курсором и обходятся пачками на всех ядрах
+     */
+    public <P> P generateAccountsReport(StreamingReportVisitor<Account, P> visitor, Writer out)
+            throws IOException {
+        return reportRunner.run(accountRepository::forEachAccount, visitor, out);
+    }
+
+    /**
+     * Отчет по горячему окну журнала в БД; по архиву — reportRunner.run с JournalArchive.scan в качестве источника
+     */
+    public <P> P generateJournalReport(Instant from, Instant to,
+            StreamingReportVisitor<ArchivedJournalEntry, P> visitor, Writer out) throws IOException {
+        return reportRunner.run(sink -> journalRepository.forEachEntry(from, to, sink), visitor, out);
+    }
+
+    /**
+     * Внеочередной проход сверки AccountState с accounts в потоке вызывающего
+     */
+    public ReconciliationReport reconcile() {
+        return reconciler.reconcile();
+    }
+
+    /**
+     * null, если outbox — одна таблица
+     */
+    public OutboxCompactor getOutboxCompactor() {
+        return outboxCompactor;
+    }
+
+    public DlqRedriver getDlqRedriver() {
+        return dlqRedriver;
+    }
+
+    public BalanceAuditConsumer getBalanceAudit() {
+        return balanceAudit;
+    }
+
+    public StreamingReportRunner getReportRunner() {
+        return reportRunner;
+    }
+
     public void clearIdempotencyCache() {
         if (this.idempotencyConsumer != null) {
             this.idempotencyConsumer.clearCache();
@@ -0,0 +1,79 @@
+package com.bank.application;
+
+import com.bank.application.engine.IdempotencyCheckConsumer;
+import com.bank.core.metrics.MetricsRegistry;
+import com.bank.persistence.dlq.DlqSummary;
+import com.bank.persistence.dlq.JdbcDeadLetterQueue;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Повтор и архивация DLQ: повторяемые отказы, срок которых наступил, возвращаются в outbox и проходят
+ * RingBuffer заново, окончательные старше archiveAfter уходят в архивную таблицу. Ключи идемпотентности
+ * повторяемых команд снимаются с IdempotencyCheckConsumer до коммита порции, иначе их отбросили бы как дубликаты
+ */
+public class DlqRedriver implements Runnable {
+    private static final Logger log = LoggerFactory.getLogger(DlqRedriver.class);
+
+    private final JdbcDeadLetterQueue dlq;
+    private final IdempotencyCheckConsumer idempotencyConsumer;
+    private final Duration archiveAfter;
+    private final LongAdder redriven;
+    private final LongAdder archived;
+
+    public DlqRedriver(JdbcDeadLetterQueue dlq, IdempotencyCheckConsumer idempotencyConsumer, Duration archiveAfter,
+            MetricsRegistry metrics) {
+        this.dlq = dlq;
+        this.idempotencyConsumer = idempotencyConsumer;
+        this.archiveAfter = archiveAfter;
+        this.redriven = metrics.counter("bank_dlq_redriven_total");
+        this.archived = metrics.counter("bank_dlq_archived_total");
+    }
+
+    @Override
+    public void run() {
+        try {
+            redriveDue();
+            archiveTerminal();
+        } catch (RuntimeException e) {
+            log.error("DLQ redrive failed, will retry on next run", e);
+        }
+    }
+
+    public int redriveDue() {
+        int rows = dlq.redriveDue(Instant.now(), idempotencyConsumer::forget);
+        redriven.add(rows);
+        if (rows > 0) {
+            log.info("Redrove {} DLQ entries due for retry", rows);
+        }
+        return rows;
+    }
+
+    /**
+     * Повтор всех строк с типом ошибки errorType (null — всех повторяемых) без учета задержки
+     */
+    public int redriveAll(String errorType) {
+        int rows = dlq.redriveAll(errorType, idempotencyConsumer::forget);
+        redriven.add(rows);
+        log.info("Redrove {} DLQ entries of type {}", rows, errorType != null ? errorType : "<retryable>");
+        return rows;
+    }
+
+    public int archiveTerminal() {
+        int rows = dlq.archiveTerminal(Instant.now().minus(archiveAfter));
+        archived.add(rows);
+        if (rows > 0) {
+            log.info("Archived {} terminal DLQ entries older than {}", rows, archiveAfter);
+        }
+        return rows;
+    }
+
+    public List<DlqSummary> summary() {
+        return dlq.summary();
+    }
+}
@@ -0,0 +1,99 @@
+package com.bank.application;
+
+import com.bank.application.service.impl.JdbcPartitionedOutboxRepository;
+import com.bank.core.metrics.MetricsRegistry;
+import com.bank.persistence.outbox.OutboxPartitions;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Двигает водяной знак outbox на разделах, вращает и очищает таблицы. Пара (опубликованный водяной знак,
+ * курсор RingBuffer), снятая в этом порядке, значит: все строки до знака опубликованы не позже курсора.
+ * Когда персистер дошел до курсора, знак записывается в БД, и неактивные таблицы целиком ниже него очищаются.
+ * После сбоя персистера знак больше не двигается до рестарта, и строки выше него будут опубликованы снова
+ */
+public class OutboxCompactor implements Runnable {
+    private static final Logger log = LoggerFactory.getLogger(OutboxCompactor.class);
+
+    private final JdbcPartitionedOutboxRepository repository;
+    private final OutboxPartitions partitions;
+    private final LongSupplier ringCursor;
+    private final LongSupplier persistedSequence;
+    private final LongSupplier persistFailures;
+    private final long sliceMillis;
+    private final long failuresAtStart;
+    private final LongAdder truncated;
+    private volatile long confirmed;
+    private long pendingWatermark;
+    private long pendingCursor;
+    private boolean frozen;
+    private boolean rotationStalled;
+
+    public OutboxCompactor(JdbcPartitionedOutboxRepository repository, OutboxPartitions partitions,
+            LongSupplier ringCursor, LongSupplier persistedSequence, LongSupplier persistFailures, Duration slice,
+            MetricsRegistry metrics) {
+        this.repository = repository;
+        this.partitions = partitions;
+        this.ringCursor = ringCursor;
+        this.persistedSequence = persistedSequence;
+        this.persistFailures = persistFailures;
+        this.sliceMillis = slice.toMillis();
+        this.failuresAtStart = persistFailures.getAsLong();
+        this.confirmed = partitions.readWatermark();
+        this.pendingWatermark = confirmed;
+        this.truncated = metrics.counter("bank_outbox_truncated_partitions_total");
+        metrics.gauge("bank_outbox_watermark", () -> confirmed);
+        metrics.gauge("bank_outbox_active_partition", partitions::activeSlot);
+    }
+
+    @Override
+    public void run() {
+        try {
+            compact();
+        } catch (RuntimeException e) {
+            log.error("Outbox compaction failed, will retry on next run", e);
+        }
+    }
+
+    void compact() {
+        if (!frozen && persistFailures.getAsLong() != failuresAtStart) {
+            frozen = true;
+            log.error("Persistence failed, outbox watermark stays at {} until restart", confirmed);
+        }
+        if (!frozen) {
+            advanceWatermark();
+        }
+        if (System.currentTimeMillis() - partitions.activeSinceMillis() >= sliceMillis) {
+            boolean rotated = partitions.rotate();
+            if (!rotated && !rotationStalled) {
+                log.warn("Next outbox partition is not drained yet, partition {} keeps growing",
+                        partitions.activeSlot());
+            }
+            rotationStalled = !rotated;
+        }
+        truncated.add(partitions.truncateBelow(confirmed));
+    }
+
+    public long getConfirmedWatermark() {
+        return confirmed;
+    }
+
+    private void advanceWatermark() {
+        if (pendingWatermark > confirmed && persistedSequence.getAsLong() >= pendingCursor) {
+            partitions.writeWatermark(pendingWatermark);
+            confirmed = pendingWatermark;
+        }
+        if (pendingWatermark <= confirmed) {
+            long watermark = repository.getPublishedWatermark();
+            long cursor = ringCursor.getAsLong();
+            if (watermark > confirmed) {
+                pendingWatermark = watermark;
+                pendingCursor = cursor;
+            }
+        }
+    }
+}
@@ -3,11 +3,22 @@ package com.bank.application;
 import com.bank.application.port.out.TransactionalOutboxRepository;
 import com.bank.core.command.TransactionCommand;
 import com.bank.core.engine.TransactionEventProducer;
+import com.bank.core.metrics.LatencyHistogram;
+import com.bank.core.metrics.MetricsRegistry;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.concurrent.locks.LockSupport;
 
+/**
+ * Единственный производитель RingBuffer в режиме без прямого входа: читает outbox
+ * и публикует команды пачками. Команды, которые создаются в обход outbox (OPEN),
+ * передаются сюда через submit и публикуются из этого же потока
+ */
 public class OutboxPoller implements Runnable {
     private static final Logger log = LoggerFactory.getLogger(OutboxPoller.class);
     static final int BATCH_SIZE = 256;
@@ -16,11 +27,28 @@ public class OutboxPoller implements Runnable {
 
     private final TransactionalOutboxRepository outboxRepository;
     private final TransactionEventProducer producer;
+    private final LatencyHistogram fetchSizes;
+    private final LatencyHistogram iterationNanos;
+    private final LongAdder emptyPolls;
+    private final LongAdder published;
+    private final LongAdder errors;
+    private final Queue<TransactionCommand> handoff = new ConcurrentLinkedQueue<>();
     private volatile boolean running = true;
 
     public OutboxPoller(TransactionalOutboxRepository outboxRepository, TransactionEventProducer producer) {
+        this(outboxRepository, producer, new MetricsRegistry());
+    }
+
+    public OutboxPoller(TransactionalOutboxRepository outboxRepository, TransactionEventProducer producer,
+            MetricsRegistry metrics) {
         this.outboxRepository = outboxRepository;
         this.producer = producer;
+        MetricsRegistry registry = metrics != null ? metrics : new MetricsRegistry();
+        this.fetchSizes = registry.histogram("bank_outbox_fetch_size");
+        this.iterationNanos = registry.histogram("bank_outbox_iteration_nanos");
+        this.emptyPolls = registry.counter("bank_outbox_empty_polls_total");
+        this.published = registry.counter("bank_outbox_published_total");
+        this.errors = registry.counter("bank_outbox_errors_total");
     }
 
     @Override
@@ -31,11 +59,17 @@ public class OutboxPoller implements Runnable {
                 final long startTime = System.nanoTime();
 
                 List<TransactionCommand> commands = outboxRepository.fetchAndLockUnprocessed(BATCH_SIZE);
+                // после выборки: команда, переданная раньше вставки строки в outbox, уйдет раньше этой строки
+                boolean handedOff = publishHandoff();
 
                 if (!commands.isEmpty()) {
                     log.trace("Fetched {} commands from outbox. Publishing to Disruptor.", commands.size());
                     producer.publishBatch(commands);
-                } else {
+                    fetchSizes.record(commands.size());
+                    published.add(commands.size());
+                    iterationNanos.record(System.nanoTime() - startTime);
+                } else if (!handedOff) {
+                    emptyPolls.increment();
                     LockSupport.parkNanos(IDLE_SLEEP_NANOS);
                 }
 
@@ -46,6 +80,7 @@ public class OutboxPoller implements Runnable {
                 }
 
             } catch (Exception e) {
+                errors.increment();
                 log.error("Unhandled exception in OutboxPoller loop. Will retry after a short delay.", e);
                 LockSupport.parkNanos(ERROR_SLEEP_NANOS);
             }
@@ -56,6 +91,30 @@ public class OutboxPoller implements Runnable {
         log.info("OutboxPoller has been stopped.");
     }
 
+    /**
+     * Передает команды в очередь потока поллера; вызывается из любых потоков
+     */
+    public void submit(List<TransactionCommand> commands) {
+        handoff.addAll(commands);
+    }
+
+    private boolean publishHandoff() {
+        if (handoff.isEmpty()) {
+            return false;
+        }
+        List<TransactionCommand> batch = new ArrayList<>(BATCH_SIZE);
+        TransactionCommand command;
+        while ((command = handoff.poll()) != null) {
+            batch.add(command);
+            if (batch.size() == BATCH_SIZE) {
+                producer.publishBatch(batch);
+                batch.clear();
+            }
+        }
+        producer.publishBatch(batch);
+        return true;
+    }
+
     public void stop() {
         log.info("Stopping OutboxPoller...");
         this.running = false;
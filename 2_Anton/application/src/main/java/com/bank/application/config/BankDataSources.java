@@ -0,0 +1,30 @@
+package com.bank.application.config;
+
+import javax.sql.DataSource;
+
+/**
+ * Источники данных по ролям, чтобы нагрузка одной роли не выбирала соединения другой: ingest пишет outbox,
+ * poller читает его и обслуживает DLQ, persister — единственный поток записи батчей, query — чтение,
+ * сверки и старт. В тестах и на H2 все роли делят один источник
+ */
+public record BankDataSources(DataSource ingest, DataSource poller, DataSource persister, DataSource query) {
+
+    public static BankDataSources single(DataSource dataSource) {
+        return new BankDataSources(dataSource, dataSource, dataSource, dataSource);
+    }
+
+    /**
+     * Закрывает пулы, если источники — пулы (HikariDataSource и т.п.)
+     */
+    public void close() {
+        for (DataSource dataSource : new DataSource[] { ingest, poller, persister, query }) {
+            if (dataSource instanceof AutoCloseable closeable) {
+                try {
+                    closeable.close();
+                } catch (Exception e) {
+                    throw new IllegalStateException("Failed to close data source", e);
+                }
+            }
+        }
+    }
+}
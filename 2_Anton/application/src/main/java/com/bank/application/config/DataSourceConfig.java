@@ -1,5 +1,7 @@
 package com.bank.application.config;
 
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
 import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
 import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
 
@@ -10,11 +12,63 @@ import javax.sql.DataSource;
  */
 
 public class DataSourceConfig {
+    public static final String DB_URL_PROPERTY = "bank.db.url";
+    public static final String DB_USER_PROPERTY = "bank.db.user";
+    public static final String DB_PASSWORD_PROPERTY = "bank.db.password";
+    private static final String POOL_SIZE_PROPERTY = "bank.db.pool.";
 
     public static DataSource createDataSource() {
-        
+
         return new EmbeddedDatabaseBuilder()
             .setType(EmbeddedDatabaseType.H2)
             .build();
     }
+
+    /**
+     * Пулы PostgreSQL по ролям из -Dbank.db.url/user/password; null, если bank.db.url не задан
+     */
+    public static BankDataSources fromSystemProperties() {
+        String url = System.getProperty(DB_URL_PROPERTY);
+        if (url == null || url.isBlank()) {
+            return null;
+        }
+        return postgres(url, System.getProperty(DB_USER_PROPERTY, "bank"),
+                System.getProperty(DB_PASSWORD_PROPERTY, ""));
+    }
+
+    /**
+     * Размеры пулов по умолчанию: ingest 8 (потоки HTTP/TCP-входа), poller 2 (поллер и компактор/DLQ),
+     * persister 2 (один поток записи и запас на переподключение), query 4; переопределяются
+     * -Dbank.db.pool.&lt;роль&gt;. Пулы фиксированного размера: соединения не закрываются и не открываются под нагрузкой
+     */
+    public static BankDataSources postgres(String url, String user, String password) {
+        return new BankDataSources(
+                postgresPool("ingest", url, user, password, 8),
+                postgresPool("poller", url, user, password, 2),
+                postgresPool("persister", url, user, password, 2),
+                postgresPool("query", url, user, password, 4));
+    }
+
+    /**
+     * reWriteBatchedInserts склеивает JDBC-батч INSERT в многострочный INSERT; prepareThreshold=1 делает
+     * запрос серверным prepared statement с первого выполнения, кэш драйвера держит их на каждом соединении
+     */
+    private static HikariDataSource postgresPool(String role, String url, String user, String password,
+            int defaultSize) {
+        int size = Integer.getInteger(POOL_SIZE_PROPERTY + role, defaultSize);
+        HikariConfig config = new HikariConfig();
+        config.setJdbcUrl(url);
+        config.setUsername(user);
+        config.setPassword(password);
+        config.setPoolName("bank-" + role);
+        config.setMaximumPoolSize(size);
+        config.setMinimumIdle(size);
+        config.setValidationTimeout(5000);
+        config.addDataSourceProperty("reWriteBatchedInserts", "true");
+        config.addDataSourceProperty("prepareThreshold", "1");
+        config.addDataSourceProperty("preparedStatementCacheQueries", "256");
+        config.addDataSourceProperty("preparedStatementCacheSizeMiB", "8");
+        config.addDataSourceProperty("ApplicationName", "bank-" + role);
+        return new HikariDataSource(config);
+    }
 }
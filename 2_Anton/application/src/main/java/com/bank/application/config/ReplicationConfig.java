@@ -0,0 +1,90 @@
+package com.bank.application.config;
+
+/**
+ * Настройки горячего резерва. listenPort &gt;= 0 — узел отдает журнал реплике на этом порту (0 — любой свободный)
+ * и адресе listenHost, primaryHost — узел сам реплика этого адреса и до promote() только повторяет поток. syncAck —
+ * основной ждет подтверждения каждой пачки не дольше ackTimeoutMillis; failoverMillis — через сколько тишины
+ * реплика сама становится основной (0 — только вручную). secret — общий секрет основного и реплики, без него
+ * основной слушает только loopback
+ */
+public record ReplicationConfig(String listenHost, int listenPort, String primaryHost, int primaryPort,
+        boolean syncAck, long ackTimeoutMillis, long failoverMillis, String secret) {
+
+    public static final String HOST_PROPERTY = "bank.replication.host";
+    public static final String LISTEN_PROPERTY = "bank.replication.listen";
+    public static final String PRIMARY_PROPERTY = "bank.replication.primary";
+    public static final String ACK_PROPERTY = "bank.replication.ack";
+    public static final String ACK_TIMEOUT_PROPERTY = "bank.replication.ackTimeoutMillis";
+    public static final String FAILOVER_PROPERTY = "bank.replication.failoverMillis";
+    public static final String SECRET_PROPERTY = "bank.replication.secret";
+
+    private static final String DEFAULT_LISTEN_HOST = "127.0.0.1";
+    private static final long DEFAULT_ACK_TIMEOUT_MILLIS = 1000;
+    private static final long DEFAULT_FAILOVER_MILLIS = 3000;
+
+    public static ReplicationConfig none() {
+        return new ReplicationConfig(DEFAULT_LISTEN_HOST, -1, null, 0, false, DEFAULT_ACK_TIMEOUT_MILLIS, 0, null);
+    }
+
+    public static ReplicationConfig primary(int listenPort, boolean syncAck) {
+        return new ReplicationConfig(DEFAULT_LISTEN_HOST, listenPort, null, 0, syncAck, DEFAULT_ACK_TIMEOUT_MILLIS, 0,
+                null);
+    }
+
+    public static ReplicationConfig standby(String primaryHost, int primaryPort, long failoverMillis) {
+        return new ReplicationConfig(DEFAULT_LISTEN_HOST, -1, primaryHost, primaryPort, false,
+                DEFAULT_ACK_TIMEOUT_MILLIS, failoverMillis, null);
+    }
+
+    /**
+     * -Dbank.replication.listen=порт, -Dbank.replication.host (127.0.0.1), -Dbank.replication.primary=хост:порт,
+     * -Dbank.replication.ack=sync|async, -Dbank.replication.ackTimeoutMillis, -Dbank.replication.failoverMillis,
+     * -Dbank.replication.secret
+     */
+    public static ReplicationConfig fromSystemProperties() {
+        String primary = System.getProperty(PRIMARY_PROPERTY);
+        String host = null;
+        int port = 0;
+        if (primary != null && !primary.isBlank()) {
+            int colon = primary.lastIndexOf(':');
+            if (colon <= 0) {
+                throw new IllegalArgumentException(PRIMARY_PROPERTY + " must be host:port, got " + primary);
+            }
+            host = primary.substring(0, colon).trim();
+            port = Integer.parseInt(primary.substring(colon + 1).trim());
+        }
+        String secret = System.getProperty(SECRET_PROPERTY);
+        return new ReplicationConfig(
+                System.getProperty(HOST_PROPERTY, DEFAULT_LISTEN_HOST).trim(),
+                Integer.getInteger(LISTEN_PROPERTY, -1),
+                host,
+                port,
+                "sync".equalsIgnoreCase(System.getProperty(ACK_PROPERTY, "async").trim()),
+                Long.getLong(ACK_TIMEOUT_PROPERTY, DEFAULT_ACK_TIMEOUT_MILLIS),
+                Long.getLong(FAILOVER_PROPERTY, host != null ? DEFAULT_FAILOVER_MILLIS : 0),
+                secret != null && !secret.isBlank() ? secret : null);
+    }
+
+    public boolean isStandby() {
+        return primaryHost != null;
+    }
+
+    public boolean isListening() {
+        return listenPort >= 0;
+    }
+
+    public ReplicationConfig withListenPort(int listenPort) {
+        return new ReplicationConfig(listenHost, listenPort, primaryHost, primaryPort, syncAck, ackTimeoutMillis,
+                failoverMillis, secret);
+    }
+
+    public ReplicationConfig withListenHost(String listenHost) {
+        return new ReplicationConfig(listenHost, listenPort, primaryHost, primaryPort, syncAck, ackTimeoutMillis,
+                failoverMillis, secret);
+    }
+
+    public ReplicationConfig withSecret(String secret) {
+        return new ReplicationConfig(listenHost, listenPort, primaryHost, primaryPort, syncAck, ackTimeoutMillis,
+                failoverMillis, secret);
+    }
+}
@@ -1,13 +1,17 @@
 package com.bank.application.engine;
 
 import com.bank.core.engine.TransactionEvent;
+import com.bank.core.metrics.BatchMeter;
+import com.bank.core.metrics.MetricsRegistry;
 import com.lmax.disruptor.EventHandler;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.Collection;
 import java.util.Set;
 import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
 
 /**
  * Первый потребитель в цепочке, обеспечивающий идемпотентность на уровне
@@ -18,9 +22,18 @@ public class IdempotencyCheckConsumer implements EventHandler<TransactionEvent>
     private static final Logger log = LoggerFactory.getLogger(IdempotencyCheckConsumer.class);
 
     private final Set<UUID> processedKeysCache;
+    private final BatchMeter batchMeter;
+    private final LongAdder duplicates;
 
     public IdempotencyCheckConsumer() {
+        this(new MetricsRegistry());
+    }
+
+    public IdempotencyCheckConsumer(MetricsRegistry metrics) {
         this.processedKeysCache = ConcurrentHashMap.newKeySet();
+        this.batchMeter = new BatchMeter(metrics, "idempotency");
+        this.duplicates = metrics.counter("bank_idempotency_duplicates_total");
+        metrics.gauge("bank_idempotency_cache_size", () -> processedKeysCache.size());
     }
 
     public void initializeCache(Set<UUID> existingKeys) {
@@ -33,6 +46,14 @@ public class IdempotencyCheckConsumer implements EventHandler<TransactionEvent>
         log.info("Idempotency cache initialization complete.");
     }
 
+    /**
+     * Снимает ключи отказавших команд перед повтором из DLQ: в processed_transactions они не пишутся,
+     * так что после рестарта кэш выглядел бы так же
+     */
+    public void forget(Collection<UUID> keys) {
+        keys.forEach(this.processedKeysCache::remove);
+    }
+
     public void clearCache() {
         this.processedKeysCache.clear();
         log.warn("Idempotency cache cleared explicitly!");
@@ -40,10 +61,13 @@ public class IdempotencyCheckConsumer implements EventHandler<TransactionEvent>
 
     @Override
     public void onEvent(TransactionEvent event, long sequence, boolean endOfBatch) throws Exception {
+        event.stampIdempotency(System.nanoTime());
+        batchMeter.onEvent(endOfBatch);
         final UUID key = event.getCommand().getIdempotencyKey();
 
         if (processedKeysCache.contains(key)) {
             log.trace("Skipping duplicate transaction (found in cache): {}", key);
+            duplicates.increment();
             event.setShouldProcess(false);
             return;
         }
@@ -55,6 +79,7 @@ public class IdempotencyCheckConsumer implements EventHandler<TransactionEvent>
             event.setIdempotencyKeyToPersist(key);
         } else {
             log.trace("Skipping duplicate transaction (found in-flight in the same batch): {}", key);
+            duplicates.increment();
             event.setShouldProcess(false);
         }
     }
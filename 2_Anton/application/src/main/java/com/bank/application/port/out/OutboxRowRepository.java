@@ -0,0 +1,19 @@
+package com.bank.application.port.out;
+
+import com.bank.core.command.TransactionCommand;
+import java.util.UUID;
+
+/**
+ * Построчный учет статуса и ошибок в единой таблице outbox; у outbox на разделах строк не помечают
+ */
+
+public interface OutboxRowRepository {
+
+    void markAsProcessed(TransactionCommand command);
+
+    void moveToDlq(TransactionCommand command, String reason);
+
+    int getFailureCount(UUID transactionId);
+
+    void incrementFailureCount(UUID transactionId);
+}
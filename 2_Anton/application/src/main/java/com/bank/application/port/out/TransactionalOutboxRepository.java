@@ -2,25 +2,27 @@ package com.bank.application.port.out;
 
 import com.bank.core.command.TransactionCommand;
 import java.util.List;
-import java.util.UUID;
 
 /**
- * Определяет шаблон для работы с таблицей outbox, включая DLQ
+ * Определяет шаблон для работы с таблицей outbox: запись команд и выборка поллером
  */
 
 public interface TransactionalOutboxRepository {
 
     boolean save(TransactionCommand command);
 
-    List<TransactionCommand> fetchAndLockUnprocessed(int batchSize);
-
-    void markAsProcessed(TransactionCommand command);
+    /**
+     * Сохраняет пачку команд; false в ответе — дубликат ключа идемпотентности
+     */
+    default boolean[] saveAll(List<TransactionCommand> commands) {
+        boolean[] saved = new boolean[commands.size()];
+        for (int i = 0; i < saved.length; i++) {
+            saved[i] = save(commands.get(i));
+        }
+        return saved;
+    }
 
-    void moveToDlq(TransactionCommand command, String reason);
-    
-    int getFailureCount(UUID transactionId);
-
-    void incrementFailureCount(UUID transactionId);
+    List<TransactionCommand> fetchAndLockUnprocessed(int batchSize);
 
     void resetProcessingToPending(); 
 }
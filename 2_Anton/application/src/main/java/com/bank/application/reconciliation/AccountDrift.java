@@ -0,0 +1,13 @@
+package com.bank.application.reconciliation;
+
+import com.bank.domain.AccountStatus;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+/**
+ * Подтвержденное расхождение счета между AccountState и accounts; поля отсутствующей стороны — null
+ */
+public record AccountDrift(UUID accountId, BigDecimal memoryBalance, AccountStatus memoryStatus,
+        BigDecimal dbBalance, AccountStatus dbStatus) {
+}
@@ -0,0 +1,222 @@
+package com.bank.application.reconciliation;
+
+import com.bank.application.visitor.ReportSource;
+import com.bank.core.exception.AccountNotFoundException;
+import com.bank.core.metrics.MetricsRegistry;
+import com.bank.core.state.AccountStateProvider;
+import com.bank.domain.Account;
+import com.bank.persistence.repository.AccountRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Сверка AccountState с таблицей accounts без остановки движка.
+ * Память обходится один раз без блокировок, таблица читается порциями по chunkRows в порядке id с паузой
+ * между порциями; обе стороны сворачиваются в RangeHashTree, и дальше смотрятся только несовпавшие диапазоны:
+ * они перечитываются из БД запросом по диапазону ключей и сравниваются со счетами из памяти поштучно.
+ * БД отстает от памяти на конвейер персистенции, поэтому расхождение подтверждается перепроверкой через
+ * settleDelay: если счет в памяти за это время не менялся, а в БД так и не сошелся — это дрейф,
+ * если менялся — счет остается без вердикта до следующего прохода
+ */
+public final class LedgerReconciler {
+    public static final int DEFAULT_CHUNK_ROWS = 5000;
+    public static final int DEFAULT_MAX_DRILL_RANGES = 256;
+
+    private static final Logger log = LoggerFactory.getLogger(LedgerReconciler.class);
+    private static final int MAX_LOGGED_DRIFTS = 20;
+    private static final int ID_BATCH = 1000;
+    private static final UUID LAST_KEY = new UUID(-1L, -1L);
+
+    private final AccountRepository repository;
+    private final AccountStateProvider state;
+    private final ReportSource<Account> memory;
+    private final int chunkRows;
+    private final Duration chunkPause;
+    private final Duration settleDelay;
+    private final int maxDrillRanges;
+    private final LongAdder runs;
+    private final LongAdder driftAccounts;
+    private final LongAdder mismatchedRanges;
+
+    public LedgerReconciler(AccountRepository repository, AccountStateProvider state, ReportSource<Account> memory,
+            MetricsRegistry metrics) {
+        this(repository, state, memory, metrics, DEFAULT_CHUNK_ROWS, Duration.ofMillis(5), Duration.ofSeconds(2),
+                DEFAULT_MAX_DRILL_RANGES);
+    }
+
+    public LedgerReconciler(AccountRepository repository, AccountStateProvider state, ReportSource<Account> memory,
+            MetricsRegistry metrics, int chunkRows, Duration chunkPause, Duration settleDelay, int maxDrillRanges) {
+        this.repository = repository;
+        this.state = state;
+        this.memory = memory;
+        this.chunkRows = chunkRows;
+        this.chunkPause = chunkPause;
+        this.settleDelay = settleDelay;
+        this.maxDrillRanges = maxDrillRanges;
+        this.runs = metrics.counter("bank_reconcile_runs_total");
+        this.driftAccounts = metrics.counter("bank_reconcile_drift_accounts_total");
+        this.mismatchedRanges = metrics.counter("bank_reconcile_mismatched_ranges_total");
+    }
+
+    public ReconciliationReport reconcile() {
+        long started = System.currentTimeMillis();
+
+        RangeHashTree memoryTree = new RangeHashTree();
+        memory.forEach(memoryTree::add);
+        RangeHashTree dbTree = new RangeHashTree();
+        UUID after = null;
+        while (true) {
+            List<Account> chunk = repository.loadChunk(after, LAST_KEY, chunkRows);
+            for (Account account : chunk) {
+                dbTree.add(account);
+            }
+            if (chunk.size() < chunkRows) {
+                break;
+            }
+            after = chunk.get(chunk.size() - 1).getId();
+            pause(chunkPause);
+        }
+        memoryTree.build();
+        dbTree.build();
+
+        List<Integer> mismatched = memoryTree.mismatchingLeaves(dbTree);
+        List<Integer> drilled = mismatched.subList(0, Math.min(mismatched.size(), maxDrillRanges));
+        Map<UUID, Account> candidates = drillDown(drilled);
+
+        List<AccountDrift> drifts = new ArrayList<>();
+        int inFlux = 0;
+        if (!candidates.isEmpty()) {
+            pause(settleDelay);
+            Map<UUID, Account> dbNow = loadByIds(candidates.keySet());
+            for (Map.Entry<UUID, Account> candidate : candidates.entrySet()) {
+                Account memoryNow = memorySnapshot(candidate.getKey());
+                Account dbAccount = dbNow.get(candidate.getKey());
+                if (same(memoryNow, dbAccount)) {
+                    continue;
+                }
+                if (!same(memoryNow, candidate.getValue())) {
+                    inFlux++;
+                    continue;
+                }
+                drifts.add(new AccountDrift(candidate.getKey(),
+                        memoryNow != null ? memoryNow.getBalance() : null,
+                        memoryNow != null ? memoryNow.getStatus() : null,
+                        dbAccount != null ? dbAccount.getBalance() : null,
+                        dbAccount != null ? dbAccount.getStatus() : null));
+            }
+        }
+
+        runs.increment();
+        mismatchedRanges.add(mismatched.size());
+        driftAccounts.add(drifts.size());
+        ReconciliationReport report = new ReconciliationReport(memoryTree.accounts(), dbTree.accounts(),
+                mismatched.size(), mismatched.size() - drilled.size(), List.copyOf(drifts), inFlux,
+                System.currentTimeMillis() - started);
+        if (drifts.isEmpty()) {
+            log.info("Reconciliation clean: {} accounts in memory, {} in db, {} ranges rechecked, {} in flux",
+                    report.memoryAccounts(), report.dbAccounts(), drilled.size(), inFlux);
+        } else {
+            log.error("Reconciliation found {} drifted accounts, first: {}", drifts.size(),
+                    drifts.subList(0, Math.min(drifts.size(), MAX_LOGGED_DRIFTS)));
+        }
+        return report;
+    }
+
+    /**
+     * Счета несовпавших диапазонов, которые различаются между памятью и БД; значение — копия из памяти или null
+     */
+    private Map<UUID, Account> drillDown(List<Integer> leaves) {
+        Map<UUID, Account> candidates = new LinkedHashMap<>();
+        if (leaves.isEmpty()) {
+            return candidates;
+        }
+        BitSet selected = new BitSet(RangeHashTree.LEAVES);
+        leaves.forEach(selected::set);
+        Map<UUID, Account> inMemory = new HashMap<>();
+        memory.forEach(account -> {
+            if (selected.get(RangeHashTree.leafOf(account.getId()))) {
+                inMemory.put(account.getId(), new Account(account));
+            }
+        });
+
+        Set<UUID> seen = new HashSet<>();
+        for (int leaf : leaves) {
+            UUID after = RangeHashTree.before(RangeHashTree.firstKey(leaf));
+            UUID upTo = RangeHashTree.lastKey(leaf);
+            while (true) {
+                List<Account> chunk = repository.loadChunk(after, upTo, chunkRows);
+                for (Account dbAccount : chunk) {
+                    seen.add(dbAccount.getId());
+                    Account memoryAccount = inMemory.get(dbAccount.getId());
+                    if (!same(memoryAccount, dbAccount)) {
+                        candidates.put(dbAccount.getId(), memoryAccount);
+                    }
+                }
+                if (chunk.size() < chunkRows) {
+                    break;
+                }
+                after = chunk.get(chunk.size() - 1).getId();
+                pause(chunkPause);
+            }
+        }
+        for (Account memoryAccount : inMemory.values()) {
+            if (!seen.contains(memoryAccount.getId())) {
+                candidates.put(memoryAccount.getId(), memoryAccount);
+            }
+        }
+        return candidates;
+    }
+
+    private Map<UUID, Account> loadByIds(Set<UUID> ids) {
+        Map<UUID, Account> accounts = new HashMap<>();
+        List<UUID> batch = new ArrayList<>(ID_BATCH);
+        for (UUID id : ids) {
+            batch.add(id);
+            if (batch.size() == ID_BATCH) {
+                repository.findByIds(batch).forEach(a -> accounts.put(a.getId(), a));
+                batch.clear();
+            }
+        }
+        repository.findByIds(batch).forEach(a -> accounts.put(a.getId(), a));
+        return accounts;
+    }
+
+    private Account memorySnapshot(UUID id) {
+        try {
+            return state.containsAccount(id) ? new Account(state.getAccount(id)) : null;
+        } catch (AccountNotFoundException e) {
+            return null;
+        }
+    }
+
+    private static boolean same(Account left, Account right) {
+        if (left == null || right == null) {
+            return left == right;
+        }
+        return left.getBalance().compareTo(right.getBalance()) == 0 && left.getStatus() == right.getStatus();
+    }
+
+    private static void pause(Duration duration) {
+        if (duration.isZero()) {
+            return;
+        }
+        try {
+            Thread.sleep(duration.toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Reconciliation interrupted", e);
+        }
+    }
+}
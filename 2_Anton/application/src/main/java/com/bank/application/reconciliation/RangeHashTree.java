@@ -0,0 +1,95 @@
+package com.bank.application.reconciliation;
+
+import com.bank.domain.Account;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Дерево хешей над диапазонами ключей: лист — диапазон UUID с одинаковыми старшими LEAF_BITS битами,
+ * то есть непрерывный отрезок в беззнаковом порядке id, как его сортирует БД. Хеш листа — сумма хешей счетов,
+ * поэтому порядок добавления не важен и память можно обходить как угодно. Узел — сумма детей,
+ * сравнение идет сверху и спускается только в несовпавшие поддеревья
+ */
+final class RangeHashTree {
+    static final int LEAF_BITS = 16;
+    static final int LEAVES = 1 << LEAF_BITS;
+
+    private final long[] nodes = new long[2 * LEAVES];
+    private long accounts;
+
+    static int leafOf(UUID id) {
+        return (int) (id.getMostSignificantBits() >>> (64 - LEAF_BITS));
+    }
+
+    static UUID firstKey(int leaf) {
+        return new UUID((long) leaf << (64 - LEAF_BITS), 0L);
+    }
+
+    static UUID lastKey(int leaf) {
+        return new UUID(((long) leaf << (64 - LEAF_BITS)) | (-1L >>> LEAF_BITS), -1L);
+    }
+
+    /**
+     * Предыдущий ключ в беззнаковом порядке, null для наименьшего
+     */
+    static UUID before(UUID id) {
+        long msb = id.getMostSignificantBits();
+        long lsb = id.getLeastSignificantBits();
+        if (lsb != 0) {
+            return new UUID(msb, lsb - 1);
+        }
+        return msb == 0 ? null : new UUID(msb - 1, -1L);
+    }
+
+    static long hash(Account account) {
+        UUID id = account.getId();
+        long h = mix(id.getMostSignificantBits() ^ 0x9E3779B97F4A7C15L);
+        h = mix(h ^ id.getLeastSignificantBits());
+        h = mix(h ^ account.getBalance().stripTrailingZeros().hashCode());
+        return mix(h ^ account.getStatus().ordinal());
+    }
+
+    void add(Account account) {
+        nodes[LEAVES + leafOf(account.getId())] += hash(account);
+        accounts++;
+    }
+
+    long accounts() {
+        return accounts;
+    }
+
+    void build() {
+        for (int i = LEAVES - 1; i >= 1; i--) {
+            nodes[i] = nodes[2 * i] + nodes[2 * i + 1];
+        }
+    }
+
+    /**
+     * Листья с разными хешами в порядке ключей; оба дерева должны быть построены
+     */
+    List<Integer> mismatchingLeaves(RangeHashTree other) {
+        List<Integer> leaves = new ArrayList<>();
+        descend(other, 1, leaves);
+        return leaves;
+    }
+
+    private void descend(RangeHashTree other, int node, List<Integer> leaves) {
+        if (nodes[node] == other.nodes[node]) {
+            return;
+        }
+        if (node >= LEAVES) {
+            leaves.add(node - LEAVES);
+            return;
+        }
+        descend(other, 2 * node, leaves);
+        descend(other, 2 * node + 1, leaves);
+    }
+
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
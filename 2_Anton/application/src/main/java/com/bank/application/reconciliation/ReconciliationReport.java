@@ -0,0 +1,15 @@
+package com.bank.application.reconciliation;
+
+import java.util.List;
+
+/**
+ * Итог прохода сверки. inFlux — счета, которые менялись в памяти за время перепроверки и остались
+ * без вердикта; skippedRanges — несовпавшие диапазоны сверх лимита, они будут проверены следующим проходом
+ */
+public record ReconciliationReport(long memoryAccounts, long dbAccounts, int mismatchedRanges, int skippedRanges,
+        List<AccountDrift> drifts, int inFlux, long durationMillis) {
+
+    public boolean isClean() {
+        return drifts.isEmpty();
+    }
+}
@@ -0,0 +1,155 @@
+package com.bank.application.replay;
+
+import com.bank.core.command.ActionType;
+import com.bank.core.command.TransactionCommand;
+import com.bank.core.engine.TransactionEvent;
+import com.bank.core.engine.consumers.BusinessLogicConsumer;
+import com.bank.core.state.AccountStateProvider;
+import com.bank.domain.Account;
+import com.bank.domain.AccountStatus;
+import com.bank.persistence.repository.impl.JdbcAccountRepository;
+import com.bank.persistence.repository.impl.JdbcJournalRepository;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Function;
+
+/**
+ * Повтор transaction_journal через BusinessLogicConsumer без Disruptor и БД: производственная
+ * нагрузка (перекос по горячим счетам, смесь типов команд) как бенчмарк и как эталон
+ * корректности для вариантов движка. Итоговые счета сверяются с таблицей accounts.
+ * Если начальный снимок не задан, он выводится из accounts обратным применением журнала
+ * простой арифметикой: счета, созданные вставкой в БД, считаются ACTIVE, открытые
+ * командой OPEN в журнале — отсутствующими до нее. При таком снимке баланс сходится
+ * по построению, и ловятся отказы и расхождения в правилах действий; подмену баланса
+ * в БД ловит только явный снимок
+ */
+public final class JournalReplay {
+
+    private static final int MAX_REPORTED_DIVERGENCES = 20;
+
+    private final TransactionCommand[] commands;
+    private final Map<UUID, Account> initial;
+    private final Map<UUID, Account> expected;
+
+    private JournalReplay(List<TransactionCommand> commands, Map<UUID, Account> initial,
+            Map<UUID, Account> expected) {
+        this.commands = commands.toArray(new TransactionCommand[0]);
+        this.initial = initial;
+        this.expected = expected;
+    }
+
+    public static JournalReplay fromDatabase(DataSource dataSource) {
+        List<TransactionCommand> journal = new JdbcJournalRepository(dataSource).loadJournalInCommitOrder();
+        Map<UUID, Account> accounts = new JdbcAccountRepository(dataSource).loadAllAccounts();
+        return new JournalReplay(journal, deriveInitial(journal, accounts), accounts);
+    }
+
+    public static JournalReplay fromDatabase(DataSource dataSource, Map<UUID, Account> initialSnapshot) {
+        List<TransactionCommand> journal = new JdbcJournalRepository(dataSource).loadJournalInCommitOrder();
+        Map<UUID, Account> accounts = new JdbcAccountRepository(dataSource).loadAllAccounts();
+        return new JournalReplay(journal, initialSnapshot, accounts);
+    }
+
+    public int size() {
+        return commands.length;
+    }
+
+    /**
+     * Прогоняет журнал пачками по batchSize событий (endOfBatch на последнем в пачке)
+     * через потребитель, созданный для свежего состояния
+     */
+    public ReplayResult run(Function<AccountStateProvider, BusinessLogicConsumer> consumerFactory, int batchSize) {
+        ReplayAccountState state = new ReplayAccountState(initial);
+        BusinessLogicConsumer consumer = consumerFactory.apply(state);
+        TransactionEvent[] events = new TransactionEvent[batchSize];
+        for (int i = 0; i < batchSize; i++) {
+            events[i] = new TransactionEvent();
+        }
+        List<String> divergences = new ArrayList<>();
+        int rejected = 0;
+
+        long started = System.nanoTime();
+        for (int from = 0; from < commands.length; from += batchSize) {
+            int size = Math.min(batchSize, commands.length - from);
+            for (int i = 0; i < size; i++) {
+                TransactionEvent event = events[i];
+                event.clear();
+                event.setCommand(commands[from + i]);
+                event.setShouldProcess(true);
+                consumer.onEvent(event, from + i, i == size - 1);
+            }
+            for (int i = 0; i < size; i++) {
+                Exception failure = events[i].getBusinessException();
+                if (failure != null) {
+                    rejected++;
+                    report(divergences, "#" + (from + i) + " " + commands[from + i].getActionType() + " rejected: "
+                            + failure.getMessage());
+                }
+            }
+        }
+        long elapsed = System.nanoTime() - started;
+
+        compare(state.accounts(), divergences);
+        return new ReplayResult(commands.length, elapsed, rejected, divergences);
+    }
+
+    private void compare(Map<UUID, Account> actual, List<String> divergences) {
+        for (Account want : expected.values()) {
+            Account got = actual.get(want.getId());
+            if (got == null) {
+                report(divergences, want.getId() + " missing after replay");
+            } else if (got.getBalance().compareTo(want.getBalance()) != 0 || got.getStatus() != want.getStatus()) {
+                report(divergences, want.getId() + " expected " + want.getBalance() + "/" + want.getStatus()
+                        + " but replay gives " + got.getBalance() + "/" + got.getStatus());
+            }
+        }
+        for (UUID id : actual.keySet()) {
+            if (!expected.containsKey(id)) {
+                report(divergences, id + " exists after replay but not in accounts");
+            }
+        }
+    }
+
+    private static void report(List<String> divergences, String message) {
+        if (divergences.size() < MAX_REPORTED_DIVERGENCES) {
+            divergences.add(message);
+        } else if (divergences.size() == MAX_REPORTED_DIVERGENCES) {
+            divergences.add("...");
+        }
+    }
+
+    static Map<UUID, Account> deriveInitial(List<TransactionCommand> journal, Map<UUID, Account> finalAccounts) {
+        Map<UUID, BigDecimal> net = new HashMap<>();
+        Set<UUID> opened = new HashSet<>();
+        for (TransactionCommand command : journal) {
+            switch (command.getActionType()) {
+                case DEPOSIT -> net.merge(command.getAccountId(), command.getAmount(), BigDecimal::add);
+                case WITHDRAW -> net.merge(command.getAccountId(), command.getAmount().negate(), BigDecimal::add);
+                case TRANSFER -> {
+                    net.merge(command.getAccountId(), command.getAmount().negate(), BigDecimal::add);
+                    net.merge(command.getTargetAccountId(), command.getAmount(), BigDecimal::add);
+                }
+                case OPEN -> opened.add(command.getAccountId());
+                default -> {
+                }
+            }
+        }
+        Map<UUID, Account> initial = new HashMap<>();
+        for (Account account : finalAccounts.values()) {
+            if (opened.contains(account.getId())) {
+                continue;
+            }
+            BigDecimal balance = account.getBalance().subtract(net.getOrDefault(account.getId(), BigDecimal.ZERO));
+            initial.put(account.getId(), new Account(account.getId(), balance, AccountStatus.ACTIVE));
+        }
+        return initial;
+    }
+}
@@ -0,0 +1,44 @@
+package com.bank.application.replay;
+
+import com.bank.core.exception.AccountNotFoundException;
+import com.bank.core.state.AccountStateProvider;
+import com.bank.domain.Account;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Состояние счетов одного прогона повтора; не трогает общий AccountState.INSTANCE
+ */
+final class ReplayAccountState implements AccountStateProvider {
+
+    private final Map<UUID, Account> accounts = new ConcurrentHashMap<>();
+
+    ReplayAccountState(Map<UUID, Account> initial) {
+        initial.forEach((id, account) -> accounts.put(id, new Account(account)));
+    }
+
+    @Override
+    public Account getAccount(UUID accountId) throws AccountNotFoundException {
+        Account account = accounts.get(accountId);
+        if (account == null) {
+            throw new AccountNotFoundException("Account with ID " + accountId + " not found.");
+        }
+        return account;
+    }
+
+    @Override
+    public void createOrUpdateAccount(Account account) {
+        accounts.put(account.getId(), account);
+    }
+
+    @Override
+    public boolean containsAccount(UUID accountId) {
+        return accounts.containsKey(accountId);
+    }
+
+    Map<UUID, Account> accounts() {
+        return accounts;
+    }
+}
@@ -0,0 +1,18 @@
+package com.bank.application.replay;
+
+import java.util.List;
+
+/**
+ * Итог одного прогона: время, число отклоненных команд (в журнале только успешные,
+ * так что любой отказ — расхождение) и расхождения итоговых счетов с таблицей accounts
+ */
+public record ReplayResult(int commands, long elapsedNanos, int rejected, List<String> divergences) {
+
+    public double commandsPerSecond() {
+        return elapsedNanos == 0 ? 0 : commands / (elapsedNanos / 1e9);
+    }
+
+    public boolean isConsistent() {
+        return rejected == 0 && divergences.isEmpty();
+    }
+}
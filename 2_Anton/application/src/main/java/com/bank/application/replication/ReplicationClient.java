@@ -0,0 +1,213 @@
+package com.bank.application.replication;
+
+import com.bank.core.command.TransactionCommand;
+import com.bank.core.metrics.MetricsRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Сторона реплики: подключается к основному узлу, читает пачки журнала, передает их слушателю и подтверждает.
+ * Подтверждение уходит после того, как слушатель принял пачку (опубликовал в свой RingBuffer).
+ * Обрыв или тишина дольше SILENCE_TIMEOUT_MILLIS — переподключение; удалось — onReconnected
+ * (реплика догоняет пропущенное по журналу), не удалось за failoverMillis — onPrimaryLost.
+ * При failoverMillis = 0 переподключение идет, пока клиент не закрыт
+ */
+public class ReplicationClient {
+    static final long SILENCE_TIMEOUT_MILLIS = ReplicationServer.HEARTBEAT_MILLIS * 6;
+
+    private static final Logger log = LoggerFactory.getLogger(ReplicationClient.class);
+    private static final int CONNECT_TIMEOUT_MILLIS = 1000;
+    private static final long RECONNECT_PAUSE_MILLIS = 200;
+
+    /**
+     * Вызывается из потока чтения реплики
+     */
+    public interface Listener {
+        void onCommands(List<TransactionCommand> commands);
+
+        void onReconnected();
+
+        void onPrimaryLost();
+    }
+
+    private final String host;
+    private final int port;
+    private final String secret;
+    private final long failoverMillis;
+    private final LongAdder received;
+    private final LongAdder reconnects;
+    private volatile Socket socket;
+    private DataInputStream in;
+    private DataOutputStream out;
+    private Thread reader;
+    private volatile boolean closed;
+
+    public ReplicationClient(String host, int port, String secret, long failoverMillis, MetricsRegistry metrics) {
+        this.host = host;
+        this.port = port;
+        this.secret = secret;
+        this.failoverMillis = failoverMillis;
+        this.received = metrics.counter("bank_replication_received_total");
+        this.reconnects = metrics.counter("bank_replication_reconnects_total");
+    }
+
+    /**
+     * Подключается с повторами не дольше timeoutMillis; после возврата основной узел уже шлет
+     * все новые пачки, и снимок состояния можно читать из БД
+     */
+    public void connect(long timeoutMillis) throws IOException {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+        while (true) {
+            try {
+                open();
+                return;
+            } catch (IOException e) {
+                if (System.nanoTime() >= deadline) {
+                    throw new IOException("Primary " + host + ":" + port + " is not reachable", e);
+                }
+                pause();
+            }
+        }
+    }
+
+    public void start(Listener listener) {
+        reader = new Thread(() -> readLoop(listener), "bank-replication-standby");
+        reader.setDaemon(true);
+        reader.start();
+    }
+
+    private void readLoop(Listener listener) {
+        List<TransactionCommand> commands = new ArrayList<>();
+        ByteBuffer records = ByteBuffer.allocate(256 * ReplicationProtocol.RECORD_BYTES);
+        while (!closed) {
+            try {
+                long batchId = in.readLong();
+                int count = in.readInt();
+                if (count == 0) {
+                    continue;
+                }
+                int length = count * ReplicationProtocol.RECORD_BYTES;
+                if (records.capacity() < length) {
+                    records = ByteBuffer.allocate(length);
+                }
+                records.clear();
+                in.readFully(records.array(), 0, length);
+                commands.clear();
+                for (int i = 0; i < count; i++) {
+                    commands.add(ReplicationProtocol.readCommand(records));
+                }
+                listener.onCommands(commands);
+                received.add(count);
+                out.writeLong(batchId);
+                out.flush();
+            } catch (IOException e) {
+                if (closed) {
+                    return;
+                }
+                log.warn("Replication stream from {}:{} lost: {}", host, port, e.getMessage());
+                closeSocket();
+                if (!reconnect()) {
+                    if (!closed) {
+                        log.error("Primary {}:{} unreachable for {} ms", host, port, failoverMillis);
+                        listener.onPrimaryLost();
+                    }
+                    return;
+                }
+                reconnects.increment();
+                listener.onReconnected();
+            }
+        }
+    }
+
+    private boolean reconnect() {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(failoverMillis);
+        while (!closed) {
+            try {
+                open();
+                log.info("Reconnected to primary {}:{}", host, port);
+                return true;
+            } catch (IOException e) {
+                if (failoverMillis > 0 && System.nanoTime() >= deadline) {
+                    return false;
+                }
+                pause();
+            }
+        }
+        return false;
+    }
+
+    private void open() throws IOException {
+        Socket next = new Socket();
+        try {
+            next.connect(new InetSocketAddress(host, port), CONNECT_TIMEOUT_MILLIS);
+            next.setTcpNoDelay(true);
+            next.setSoTimeout((int) SILENCE_TIMEOUT_MILLIS);
+            DataOutputStream nextOut = new DataOutputStream(new BufferedOutputStream(next.getOutputStream()));
+            DataInputStream nextIn = new DataInputStream(new BufferedInputStream(next.getInputStream(), 64 * 1024));
+            nextOut.writeInt(ReplicationProtocol.MAGIC);
+            nextOut.writeInt(ReplicationProtocol.VERSION);
+            nextOut.flush();
+            byte[] nonce = new byte[ReplicationProtocol.NONCE_BYTES];
+            nextIn.readFully(nonce);
+            nextOut.write(ReplicationProtocol.proof(secret, nonce));
+            nextOut.flush();
+            if (nextIn.readInt() != ReplicationProtocol.MAGIC || nextIn.readInt() != ReplicationProtocol.VERSION) {
+                throw new IOException("Unexpected replication handshake from " + host + ":" + port);
+            }
+            this.socket = next;
+            this.in = nextIn;
+            this.out = nextOut;
+        } catch (IOException e) {
+            next.close();
+            throw e;
+        }
+    }
+
+    private void pause() {
+        try {
+            Thread.sleep(RECONNECT_PAUSE_MILLIS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            closed = true;
+        }
+    }
+
+    /**
+     * Останавливает чтение; после возврата слушатель больше не вызывается
+     */
+    public void close() {
+        closed = true;
+        closeSocket();
+        if (reader != null && reader != Thread.currentThread()) {
+            try {
+                reader.join(TimeUnit.SECONDS.toMillis(5));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private void closeSocket() {
+        Socket current = socket;
+        if (current != null) {
+            try {
+                current.close();
+            } catch (IOException ignored) {
+                // соединение уже оборвано
+            }
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package com.bank.application.replication;
+
+import com.bank.core.command.ActionType;
+import com.bank.core.command.TransactionCommand;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.util.UUID;
+
+/**
+ * Протокол репликации журнала, big-endian. Рукопожатие: реплика шлет [int MAGIC][int VERSION], основной
+ * отвечает случайным nonce из NONCE_BYTES, реплика — HMAC-SHA256 этого nonce на общем секрете (PROOF_BYTES),
+ * основной при совпадении подключает реплику и отвечает [int MAGIC][int VERSION]. Основной шлет пачки [long batchId][int count] и count записей по RECORD_BYTES:
+ * [byte actionType][uuid transactionId][uuid idempotencyKey][uuid accountId][uuid targetAccountId]
+ * [byte hasAmount][byte scale][long unscaledAmount]; пачка с count = 0 — heartbeat.
+ * Реплика отвечает на каждую непустую пачку [long batchId]
+ */
+final class ReplicationProtocol {
+    static final int MAGIC = 0x42524550;
+    static final int VERSION = 2;
+    static final int NONCE_BYTES = 16;
+    static final int PROOF_BYTES = 32;
+    static final int BATCH_HEADER_BYTES = 8 + 4;
+    static final int RECORD_BYTES = 1 + 16 * 4 + 1 + 1 + 8;
+
+    private static final ActionType[] TYPES = ActionType.values();
+    private static final String HMAC = "HmacSHA256";
+
+    private ReplicationProtocol() {
+    }
+
+    /**
+     * Сумма проверяется до первого байта: исключение не оставляет в пачке половину записи
+     */
+    static void writeCommand(ByteBuffer out, TransactionCommand command) {
+        BigDecimal amount = encodable(command.getAmount());
+        out.put((byte) command.getActionType().ordinal());
+        putUuid(out, command.getTransactionId());
+        putUuid(out, command.getIdempotencyKey());
+        putUuid(out, command.getAccountId());
+        putUuid(out, command.getTargetAccountId());
+        if (amount != null) {
+            out.put((byte) 1);
+            out.put((byte) amount.scale());
+            out.putLong(amount.unscaledValue().longValue());
+        } else {
+            out.put((byte) 0);
+            out.put((byte) 0);
+            out.putLong(0);
+        }
+    }
+
+    /**
+     * Сумма в виде, который помещается в [byte scale][long unscaledAmount]; если не помещается как есть,
+     * пробуется без хвостовых нулей, иначе IllegalArgumentException
+     */
+    static BigDecimal encodable(BigDecimal amount) {
+        if (amount == null || fits(amount)) {
+            return amount;
+        }
+        BigDecimal stripped = amount.stripTrailingZeros();
+        if (fits(stripped)) {
+            return stripped;
+        }
+        throw new IllegalArgumentException("Amount " + amount + " does not fit a replication record");
+    }
+
+    private static boolean fits(BigDecimal amount) {
+        return amount.scale() >= Byte.MIN_VALUE && amount.scale() <= Byte.MAX_VALUE
+                && amount.unscaledValue().bitLength() < Long.SIZE;
+    }
+
+    /**
+     * Ответ на вызов рукопожатия; префикс ключа нужен, чтобы ключ HMAC не был пустым, когда секрет не задан
+     */
+    static byte[] proof(String secret, byte[] nonce) {
+        try {
+            Mac mac = Mac.getInstance(HMAC);
+            mac.init(new SecretKeySpec(("bank-replication:" + (secret != null ? secret : ""))
+                    .getBytes(StandardCharsets.UTF_8), HMAC));
+            return mac.doFinal(nonce);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(HMAC + " is not available", e);
+        }
+    }
+
+    static TransactionCommand readCommand(ByteBuffer in) {
+        ActionType type = TYPES[in.get()];
+        UUID transactionId = getUuid(in);
+        UUID idempotencyKey = getUuid(in);
+        UUID accountId = getUuid(in);
+        UUID targetAccountId = getUuid(in);
+        boolean hasAmount = in.get() != 0;
+        int scale = in.get();
+        long unscaled = in.getLong();
+        BigDecimal amount = hasAmount ? new BigDecimal(BigInteger.valueOf(unscaled), scale) : null;
+        return new TransactionCommand(transactionId, idempotencyKey, accountId, type, amount, targetAccountId);
+    }
+
+    private static void putUuid(ByteBuffer out, UUID value) {
+        out.putLong(value != null ? value.getMostSignificantBits() : 0L);
+        out.putLong(value != null ? value.getLeastSignificantBits() : 0L);
+    }
+
+    private static UUID getUuid(ByteBuffer in) {
+        long msb = in.getLong();
+        long lsb = in.getLong();
+        return msb == 0 && lsb == 0 ? null : new UUID(msb, lsb);
+    }
+}
@@ -0,0 +1,383 @@
+package com.bank.application.replication;
+
+import com.bank.core.command.TransactionCommand;
+import com.bank.core.metrics.MetricsRegistry;
+import com.bank.core.port.out.ReplicationLink;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.nio.ByteBuffer;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.Arrays;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Сторона основного узла: принимает одну реплику и отдает ей пачки журнала. Поток конвейера только кодирует
+ * пачку и кладет ее в очередь; в сокет пишет поток отправки, он же шлет heartbeat, когда пачек нет.
+ * В асинхронном режиме конвейер не ждет ничего: переполненная очередь (реплика не успевает) отключает реплику.
+ * В синхронном режиме endOfBatch ждет подтверждения пачки не дольше ackTimeout, после чего реплика тоже
+ * отключается, а конвейер продолжает без нее. Отключенная реплика переподключается и догоняет по журналу.
+ * Реплика подключается, только если ответила на вызов рукопожатия тем же секретом; без секрета сервер
+ * слушает только loopback
+ */
+public class ReplicationServer implements ReplicationLink, Closeable {
+    static final long HEARTBEAT_MILLIS = 500;
+
+    private static final Logger log = LoggerFactory.getLogger(ReplicationServer.class);
+    private static final int QUEUE_BATCHES = 4096;
+    private static final int HANDSHAKE_TIMEOUT_MILLIS = 5000;
+
+    private final ServerSocket serverSocket;
+    private final String secret;
+    private final SecureRandom random = new SecureRandom();
+    private final boolean syncAck;
+    private final long ackTimeoutNanos;
+    private final Thread acceptThread;
+    private final LongAdder batches;
+    private final LongAdder records;
+    private final LongAdder detached;
+    private final LongAdder rejected;
+    private ByteBuffer batch = ByteBuffer.allocate(ReplicationProtocol.BATCH_HEADER_BYTES
+            + 256 * ReplicationProtocol.RECORD_BYTES);
+    private int count;
+    private long batchId;
+    private volatile long sentBatchId;
+    private final Object lifecycle = new Object();
+    private volatile Standby standby;
+    private volatile boolean stopped;
+    // соединение в рукопожатии; под lifecycle
+    private Socket handshaking;
+
+    public ReplicationServer(String host, int port, String secret, boolean syncAck, long ackTimeoutMillis,
+            MetricsRegistry metrics) throws IOException {
+        InetAddress address = InetAddress.getByName(host);
+        if (secret == null && !address.isLoopbackAddress()) {
+            throw new IllegalArgumentException("Replication on " + host
+                    + " needs a shared secret, only loopback may listen without one");
+        }
+        this.secret = secret;
+        this.serverSocket = new ServerSocket();
+        serverSocket.setReuseAddress(true);
+        serverSocket.bind(new InetSocketAddress(address, port));
+        this.syncAck = syncAck;
+        this.ackTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(ackTimeoutMillis);
+        this.acceptThread = new Thread(this::acceptLoop, "bank-replication-accept");
+        acceptThread.setDaemon(true);
+        this.batches = metrics.counter("bank_replication_batches_total");
+        this.records = metrics.counter("bank_replication_records_total");
+        this.detached = metrics.counter("bank_replication_detached_total");
+        this.rejected = metrics.counter("bank_replication_rejected_total");
+        metrics.gauge("bank_replication_standby_connected", () -> standby != null ? 1 : 0);
+        metrics.gauge("bank_replication_lag_batches", () -> {
+            Standby current = standby;
+            return current != null ? sentBatchId - current.acked : 0;
+        });
+        batch.position(ReplicationProtocol.BATCH_HEADER_BYTES);
+    }
+
+    public void start() {
+        acceptThread.start();
+        log.info("Replication listening on {} ({} acknowledgement)", serverSocket.getLocalSocketAddress(),
+                syncAck ? "sync" : "async");
+    }
+
+    public int getPort() {
+        return serverSocket.getLocalPort();
+    }
+
+    public boolean hasStandby() {
+        return standby != null;
+    }
+
+    /**
+     * Команду, которую нельзя закодировать, реплика не получит: она отключается и догоняет по журналу
+     */
+    @Override
+    public void send(TransactionCommand command) {
+        Standby current = standby;
+        if (current == null) {
+            return;
+        }
+        if (batch.remaining() < ReplicationProtocol.RECORD_BYTES) {
+            ByteBuffer larger = ByteBuffer.allocate(batch.capacity() * 2);
+            batch.flip();
+            larger.put(batch);
+            batch = larger;
+        }
+        try {
+            ReplicationProtocol.writeCommand(batch, command);
+        } catch (IllegalArgumentException e) {
+            detach(current, e.getMessage());
+            throw e;
+        }
+        count++;
+    }
+
+    @Override
+    public void endOfBatch() {
+        Standby current = standby;
+        if (count == 0 || current == null) {
+            resetBatch();
+            return;
+        }
+        long id = ++batchId;
+        batch.putLong(0, id);
+        batch.putInt(8, count);
+        byte[] frame = Arrays.copyOf(batch.array(), batch.position());
+        records.add(count);
+        resetBatch();
+        if (!current.frames.offer(frame)) {
+            detach(current, "send queue is full");
+            return;
+        }
+        sentBatchId = id;
+        batches.increment();
+        if (syncAck && !current.awaitAck(id, ackTimeoutNanos)) {
+            detach(current, "no acknowledgement for batch " + id + " in time");
+        }
+    }
+
+    private void resetBatch() {
+        batch.clear();
+        batch.position(ReplicationProtocol.BATCH_HEADER_BYTES);
+        count = 0;
+    }
+
+    private void acceptLoop() {
+        while (!stopped) {
+            Socket socket;
+            try {
+                socket = serverSocket.accept();
+            } catch (IOException e) {
+                if (!stopped) {
+                    log.error("Replication accept failed", e);
+                }
+                return;
+            }
+            synchronized (lifecycle) {
+                if (stopped) {
+                    closeQuietly(socket);
+                    return;
+                }
+                handshaking = socket;
+            }
+            Standby next = null;
+            try {
+                next = handshake(socket);
+                Standby previous;
+                synchronized (lifecycle) {
+                    handshaking = null;
+                    if (stopped) {
+                        next.close();
+                        return;
+                    }
+                    previous = standby;
+                    // подключаем до ответа: все, что персистер запишет после снимка реплики, попадет в ее очередь
+                    standby = next;
+                }
+                next.confirm();
+                next.start();
+                if (previous != null) {
+                    previous.close();
+                }
+                log.info("Standby {} attached", socket.getRemoteSocketAddress());
+            } catch (IOException e) {
+                synchronized (lifecycle) {
+                    handshaking = null;
+                }
+                log.warn("Replication handshake with {} failed: {}", socket.getRemoteSocketAddress(), e.getMessage());
+                if (next != null) {
+                    detach(next, "handshake failed");
+                } else {
+                    closeQuietly(socket);
+                }
+            }
+        }
+    }
+
+    private Standby handshake(Socket socket) throws IOException {
+        socket.setSoTimeout(HANDSHAKE_TIMEOUT_MILLIS);
+        socket.setTcpNoDelay(true);
+        DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+        DataOutputStream out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream(), 64 * 1024));
+        if (in.readInt() != ReplicationProtocol.MAGIC || in.readInt() != ReplicationProtocol.VERSION) {
+            throw new IOException("Unexpected replication handshake");
+        }
+        byte[] nonce = new byte[ReplicationProtocol.NONCE_BYTES];
+        random.nextBytes(nonce);
+        out.write(nonce);
+        out.flush();
+        byte[] proof = new byte[ReplicationProtocol.PROOF_BYTES];
+        in.readFully(proof);
+        if (!MessageDigest.isEqual(proof, ReplicationProtocol.proof(secret, nonce))) {
+            rejected.increment();
+            throw new IOException("Standby did not prove the shared secret");
+        }
+        return new Standby(socket, in, out);
+    }
+
+    private void detach(Standby current, String reason) {
+        synchronized (lifecycle) {
+            if (standby == current) {
+                standby = null;
+            }
+        }
+        if (current.close()) {
+            detached.increment();
+            log.warn("Standby {} detached: {}", current.socket.getRemoteSocketAddress(), reason);
+        }
+    }
+
+    /**
+     * Под тем же замком, что и подключение реплики: соединение, принятое до закрытия, не подключится после него
+     */
+    @Override
+    public void close() {
+        Standby current;
+        Socket pending;
+        synchronized (lifecycle) {
+            stopped = true;
+            closeQuietly(serverSocket);
+            current = standby;
+            standby = null;
+            pending = handshaking;
+            handshaking = null;
+        }
+        if (pending != null) {
+            closeQuietly(pending);
+        }
+        if (current != null) {
+            current.close();
+        }
+    }
+
+    private static void closeQuietly(Closeable closeable) {
+        try {
+            closeable.close();
+        } catch (IOException ignored) {
+            // закрываем при отключении, ошибка закрытия ничего не меняет
+        }
+    }
+
+    /**
+     * Подключенная реплика: поток отправки пачек и heartbeat, поток чтения подтверждений
+     */
+    private final class Standby {
+        private final Socket socket;
+        private final DataInputStream in;
+        private final DataOutputStream out;
+        private final BlockingQueue<byte[]> frames = new ArrayBlockingQueue<>(QUEUE_BATCHES);
+        private final Object ackMonitor = new Object();
+        private volatile long acked;
+        private volatile boolean closed;
+
+        Standby(Socket socket, DataInputStream in, DataOutputStream out) {
+            this.socket = socket;
+            this.in = in;
+            this.out = out;
+        }
+
+        void confirm() throws IOException {
+            out.writeInt(ReplicationProtocol.MAGIC);
+            out.writeInt(ReplicationProtocol.VERSION);
+            out.flush();
+            socket.setSoTimeout(0);
+        }
+
+        void start() {
+            Thread sender = new Thread(this::sendLoop, "bank-replication-sender");
+            sender.setDaemon(true);
+            sender.start();
+            Thread acks = new Thread(this::ackLoop, "bank-replication-acks");
+            acks.setDaemon(true);
+            acks.start();
+        }
+
+        boolean awaitAck(long id, long timeoutNanos) {
+            long deadline = System.nanoTime() + timeoutNanos;
+            synchronized (ackMonitor) {
+                while (acked < id && !closed) {
+                    long remaining = deadline - System.nanoTime();
+                    if (remaining <= 0) {
+                        return false;
+                    }
+                    try {
+                        TimeUnit.NANOSECONDS.timedWait(ackMonitor, remaining);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        return false;
+                    }
+                }
+                return acked >= id;
+            }
+        }
+
+        private void sendLoop() {
+            try {
+                while (!closed) {
+                    byte[] frame = frames.poll(HEARTBEAT_MILLIS, TimeUnit.MILLISECONDS);
+                    if (frame != null) {
+                        out.write(frame);
+                        if (frames.isEmpty()) {
+                            out.flush();
+                        }
+                    } else {
+                        out.writeLong(sentBatchId);
+                        out.writeInt(0);
+                        out.flush();
+                    }
+                }
+            } catch (IOException e) {
+                detach(this, "send failed: " + e.getMessage());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        private void ackLoop() {
+            try {
+                while (!closed) {
+                    long id = in.readLong();
+                    synchronized (ackMonitor) {
+                        acked = id;
+                        ackMonitor.notifyAll();
+                    }
+                }
+            } catch (SocketException e) {
+                detach(this, "connection closed");
+            } catch (IOException e) {
+                detach(this, "connection lost: " + e.getMessage());
+            }
+        }
+
+        /**
+         * Закрывает соединение; true только у первого вызова
+         */
+        boolean close() {
+            synchronized (ackMonitor) {
+                if (closed) {
+                    return false;
+                }
+                closed = true;
+                ackMonitor.notifyAll();
+            }
+            closeQuietly(socket);
+            return true;
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package com.bank.application.replication;
+
+import com.bank.application.service.impl.JdbcProcessedTransactionRepository;
+import com.bank.domain.Account;
+import com.bank.persistence.dialect.SqlDialect;
+import com.bank.persistence.exception.DataAccessException;
+import com.bank.persistence.repository.impl.JdbcAccountRepository;
+import com.bank.persistence.repository.impl.JdbcJournalRepository;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Начальное состояние реплики: счета, обработанные ключи и последний sequence_id журнала, прочитанные
+ * одним снимком, пока основной узел пишет. Каждая пачка персистера либо целиком в снимке, либо целиком
+ * в потоке репликации (реплика подписывается до снимка); команда, попавшая и туда и туда, отсекается по ключу
+ */
+public record StandbySnapshot(Map<UUID, Account> accounts, Set<UUID> processedKeys, long journalSequence) {
+
+    public static StandbySnapshot load(DataSource dataSource) {
+        SqlDialect dialect = SqlDialect.detect(dataSource);
+        try (Connection conn = dataSource.getConnection()) {
+            boolean autoCommit = conn.getAutoCommit();
+            int isolation = conn.getTransactionIsolation();
+            conn.setAutoCommit(false);
+            conn.setTransactionIsolation(dialect.snapshotIsolation());
+            try {
+                DataSource snapshot = new SingleConnectionDataSource(conn, true);
+                return new StandbySnapshot(
+                        new JdbcAccountRepository(snapshot).loadAllAccounts(),
+                        new JdbcProcessedTransactionRepository(snapshot).loadAllProcessedKeys(),
+                        new JdbcJournalRepository(snapshot).lastSequenceId());
+            } finally {
+                conn.rollback();
+                conn.setTransactionIsolation(isolation);
+                conn.setAutoCommit(autoCommit);
+            }
+        } catch (SQLException e) {
+            throw new DataAccessException("Failed to load standby snapshot", e);
+        }
+    }
+}
@@ -2,6 +2,7 @@ package com.bank.application.service;
 
 import com.bank.application.visitor.ReportVisitor;
 import com.bank.core.exception.AccountNotFoundException;
+import com.bank.persistence.statement.StatementPage;
 import java.math.BigDecimal;
 import java.util.UUID;
 
@@ -28,4 +29,9 @@ public interface TransactionService {
     String generateReport(UUID accountId, ReportVisitor visitor) throws AccountNotFoundException;
 
     TransactionStatus getTransactionStatus(UUID idempotencyKey);
+
+    /**
+     * Страница выписки от новых проводок к старым; cursor — nextCursor предыдущей страницы или null для первой
+     */
+    StatementPage getStatement(UUID accountId, Long cursor, int limit);
 }
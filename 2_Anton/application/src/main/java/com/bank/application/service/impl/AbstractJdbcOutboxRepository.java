@@ -0,0 +1,155 @@
+package com.bank.application.service.impl;
+
+import com.bank.application.port.out.TransactionalOutboxRepository;
+import com.bank.core.command.TransactionCommand;
+import com.bank.persistence.dialect.SqlDialect;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Общая запись в outbox: ключ идемпотентности и строка outbox в одной транзакции
+ */
+abstract class AbstractJdbcOutboxRepository implements TransactionalOutboxRepository {
+    private static final Logger log = LoggerFactory.getLogger(AbstractJdbcOutboxRepository.class);
+
+    protected final DataSource dataSource;
+    private final ObjectMapper objectMapper;
+    private final SqlDialect dialect;
+
+    AbstractJdbcOutboxRepository(DataSource dataSource) {
+        this.dataSource = dataSource;
+        this.objectMapper = new ObjectMapper();
+        this.objectMapper.registerModule(new JavaTimeModule());
+        this.dialect = SqlDialect.detect(dataSource);
+    }
+
+    /**
+     * outboxSql принимает idempotency_key, transaction_id, payload, created_at
+     */
+    protected boolean save(TransactionCommand command, String outboxSql) {
+        final String idempotencySql = dialect.insertIdempotencyKeySql();
+
+        try (Connection conn = dataSource.getConnection()) {
+            try {
+                conn.setAutoCommit(false);
+
+                try (PreparedStatement idempotencyStmt = conn.prepareStatement(idempotencySql)) {
+                    idempotencyStmt.setObject(1, command.getIdempotencyKey());
+                    idempotencyStmt.setTimestamp(2, Timestamp.from(Instant.now()));
+                    if (idempotencyStmt.executeUpdate() == 0) {
+                        log.warn("Idempotency key {} already exists. Assuming duplicate submission.",
+                                command.getIdempotencyKey());
+                        conn.rollback();
+                        return false;
+                    }
+                }
+
+                try (PreparedStatement outboxStmt = conn.prepareStatement(outboxSql)) {
+                    outboxStmt.setObject(1, command.getIdempotencyKey());
+                    outboxStmt.setObject(2, command.getTransactionId());
+                    outboxStmt.setString(3, toJson(command));
+                    outboxStmt.setTimestamp(4, Timestamp.from(Instant.now()));
+                    outboxStmt.executeUpdate();
+                }
+
+                conn.commit();
+                return true;
+
+            } catch (SQLException e) {
+                conn.rollback();
+                if ("23505".equals(e.getSQLState())) {
+                    log.warn("Attempted to save a duplicate transaction to outbox with key: {}. Ignoring.",
+                            command.getIdempotencyKey());
+                    return false;
+                } else {
+                    log.error("Transaction failed for idempotency key {}. SQLState: {}, ErrorCode: {}",
+                            command.getIdempotencyKey(), e.getSQLState(), e.getErrorCode(), e);
+                    throw new RuntimeException("Failed to save transaction to outbox due to a database error.", e);
+                }
+            }
+        } catch (SQLException ex) {
+            throw new RuntimeException("Database connection error.", ex);
+        }
+    }
+
+    /**
+     * Пачка в одной транзакции: батч ключей идемпотентности, затем батч строк outbox для новых ключей.
+     * Ошибка откатывает всю пачку
+     */
+    protected boolean[] saveAll(List<TransactionCommand> commands, String outboxSql) {
+        boolean[] saved = new boolean[commands.size()];
+        if (commands.isEmpty()) {
+            return saved;
+        }
+        Timestamp now = Timestamp.from(Instant.now());
+        try (Connection conn = dataSource.getConnection()) {
+            try {
+                conn.setAutoCommit(false);
+
+                try (PreparedStatement idempotencyStmt = conn.prepareStatement(dialect.insertIdempotencyKeySql())) {
+                    for (TransactionCommand command : commands) {
+                        idempotencyStmt.setObject(1, command.getIdempotencyKey());
+                        idempotencyStmt.setTimestamp(2, now);
+                        idempotencyStmt.addBatch();
+                    }
+                    int[] counts = idempotencyStmt.executeBatch();
+                    for (int i = 0; i < saved.length; i++) {
+                        saved[i] = counts[i] != 0;
+                    }
+                }
+
+                try (PreparedStatement outboxStmt = conn.prepareStatement(outboxSql)) {
+                    for (int i = 0; i < saved.length; i++) {
+                        if (!saved[i]) {
+                            log.warn("Idempotency key {} already exists. Assuming duplicate submission.",
+                                    commands.get(i).getIdempotencyKey());
+                            continue;
+                        }
+                        TransactionCommand command = commands.get(i);
+                        outboxStmt.setObject(1, command.getIdempotencyKey());
+                        outboxStmt.setObject(2, command.getTransactionId());
+                        outboxStmt.setString(3, toJson(command));
+                        outboxStmt.setTimestamp(4, now);
+                        outboxStmt.addBatch();
+                    }
+                    outboxStmt.executeBatch();
+                }
+
+                conn.commit();
+                return saved;
+
+            } catch (SQLException | RuntimeException e) {
+                conn.rollback();
+                throw new RuntimeException("Failed to save batch of " + commands.size() + " commands to outbox.", e);
+            }
+        } catch (SQLException ex) {
+            throw new RuntimeException("Database connection error.", ex);
+        }
+    }
+
+    protected String toJson(TransactionCommand command) {
+        try {
+            return objectMapper.writeValueAsString(command);
+        } catch (Exception e) {
+            throw new RuntimeException("Failed to serialize command to JSON", e);
+        }
+    }
+
+    protected TransactionCommand fromJson(String json) {
+        try {
+            return objectMapper.readValue(json, TransactionCommand.class);
+        } catch (Exception e) {
+            throw new RuntimeException("Failed to deserialize command from JSON", e);
+        }
+    }
+}
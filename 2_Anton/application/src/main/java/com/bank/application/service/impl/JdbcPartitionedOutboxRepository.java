@@ -0,0 +1,228 @@
+package com.bank.application.service.impl;
+
+import com.bank.core.command.TransactionCommand;
+import com.bank.core.metrics.MetricsRegistry;
+import com.bank.persistence.exception.DataAccessException;
+import com.bank.persistence.outbox.OutboxPartitions;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.sql.DataSource;
+import java.sql.Array;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Outbox на вращающихся таблицах-разделах (см. OutboxPartitions). Строки не помечаются и не удаляются:
+ * поллер читает их по возрастанию seq от последнего прочитанного. Номера выдаются при вставке, а коммиты идут
+ * в другом порядке, поэтому пропуск в seq запоминается и перепроверяется: строка из пропуска публикуется,
+ * как только появится, а пропуск забывается, когда в outbox не осталось пишущих транзакций или истек gapTimeout.
+ * Построчных статусов и счетчиков ошибок нет: отказы уводит в DLQ батч-персистер.
+ * Водяной знак — seq, до которого прочитано все, кроме забытых пропусков
+ */
+public class JdbcPartitionedOutboxRepository extends AbstractJdbcOutboxRepository {
+    private static final Logger log = LoggerFactory.getLogger(JdbcPartitionedOutboxRepository.class);
+    public static final Duration DEFAULT_GAP_TIMEOUT = Duration.ofSeconds(30);
+
+    private final OutboxPartitions partitions;
+    private final String insertSql;
+    private final String fetchSql;
+    private final String gapSeqSql;
+    private final String gapSql;
+    private final long gapTimeoutNanos;
+    private final LongAdder gapTimeouts;
+    // пропуски по первому seq; диапазоны не пересекаются
+    private final TreeMap<Long, Gap> gaps = new TreeMap<>();
+    private long highest;
+    private long watermark;
+    private volatile long publishedWatermark;
+
+    public JdbcPartitionedOutboxRepository(DataSource dataSource, OutboxPartitions partitions) {
+        this(dataSource, partitions, DEFAULT_GAP_TIMEOUT, new MetricsRegistry());
+    }
+
+    /**
+     * gapTimeout — сколько ждать коммита строки из пропуска, пока в outbox есть пишущие транзакции.
+     * Пропуск, забытый по таймауту, считается в bank_outbox_gap_timeouts_total: если пишущая транзакция все же
+     * закоммитится позже, ее строка не будет опубликована до рестарта
+     */
+    public JdbcPartitionedOutboxRepository(DataSource dataSource, OutboxPartitions partitions, Duration gapTimeout,
+            MetricsRegistry metrics) {
+        super(dataSource);
+        this.partitions = partitions;
+        this.gapTimeoutNanos = gapTimeout.toNanos();
+        this.gapTimeouts = metrics.counter("bank_outbox_gap_timeouts_total");
+        this.insertSql = "INSERT INTO \"%s\" (\"seq\", \"idempotency_key\", \"transaction_id\", \"payload\", \"created_at\") VALUES ("
+                + OutboxPartitions.NEXT_SEQ + ", ?, ?, ?, ?)";
+        this.fetchSql = "SELECT \"seq\", \"payload\" FROM ("
+                + partitions.unionAll("(SELECT \"seq\", \"payload\" FROM \"%s\" WHERE \"seq\" > ? ORDER BY \"seq\" LIMIT ?)")
+                + ") \"rows\" ORDER BY \"seq\" LIMIT ?";
+        this.gapSeqSql = partitions.unionAll("SELECT \"seq\" FROM \"%s\" WHERE \"seq\" BETWEEN ? AND ?");
+        this.gapSql = partitions.unionAll("SELECT \"seq\", \"payload\" FROM \"%s\" WHERE \"seq\" = ANY (?)");
+        this.highest = partitions.readWatermark();
+        this.watermark = highest;
+        this.publishedWatermark = highest;
+    }
+
+    @Override
+    public boolean save(TransactionCommand command) {
+        int slot = partitions.beginWrite();
+        try {
+            return save(command, insertSql.replace("%s", partitions.table(slot)));
+        } finally {
+            partitions.endWrite(slot);
+        }
+    }
+
+    @Override
+    public boolean[] saveAll(List<TransactionCommand> commands) {
+        int slot = partitions.beginWrite();
+        try {
+            return saveAll(commands, insertSql.replace("%s", partitions.table(slot)));
+        } finally {
+            partitions.endWrite(slot);
+        }
+    }
+
+    /**
+     * Вызывается только потоком OutboxPoller; к началу вызова предыдущая выборка уже опубликована
+     */
+    @Override
+    public synchronized List<TransactionCommand> fetchAndLockUnprocessed(int batchSize) {
+        publishedWatermark = watermark;
+        List<TransactionCommand> commands = new ArrayList<>();
+        try (Connection conn = dataSource.getConnection()) {
+            if (!gaps.isEmpty()) {
+                boolean quiescent = partitions.writersInFlight() == 0;
+                recheckGaps(conn, commands, quiescent);
+            }
+            try (PreparedStatement stmt = conn.prepareStatement(fetchSql)) {
+                int index = 1;
+                for (int slot = 0; slot < partitions.slots(); slot++) {
+                    stmt.setLong(index++, highest);
+                    stmt.setInt(index++, batchSize);
+                }
+                stmt.setInt(index, batchSize);
+                try (ResultSet rs = stmt.executeQuery()) {
+                    while (rs.next()) {
+                        long seq = rs.getLong(1);
+                        if (seq > highest + 1) {
+                            trackGap(highest + 1, seq - 1);
+                        }
+                        highest = seq;
+                        commands.add(fromJson(rs.getString(2)));
+                    }
+                }
+            }
+        } catch (SQLException e) {
+            throw new DataAccessException("Failed to fetch partitioned outbox after seq " + highest, e);
+        }
+        watermark = gaps.isEmpty() ? highest : gaps.firstKey() - 1;
+        return commands;
+    }
+
+    /**
+     * Водяной знак выборок, которые поллер уже опубликовал в RingBuffer
+     */
+    public long getPublishedWatermark() {
+        return publishedWatermark;
+    }
+
+    synchronized int trackedGaps() {
+        return gaps.size();
+    }
+
+    /**
+     * Пропуск любой длины хранится одним диапазоном: строки пачки saveAll, закоммиченной позже строки с большим
+     * seq, тоже лежат в пропуске и не теряются
+     */
+    private void trackGap(long from, long to) {
+        gaps.put(from, new Gap(from, to, System.nanoTime()));
+    }
+
+    /**
+     * Сначала по индексу берутся только seq в окне от первого до последнего пропуска, затем payload тех,
+     * что попали в пропуски
+     */
+    private void recheckGaps(Connection conn, List<TransactionCommand> commands, boolean quiescent)
+            throws SQLException {
+        List<Long> found = new ArrayList<>();
+        try (PreparedStatement stmt = conn.prepareStatement(gapSeqSql)) {
+            int index = 1;
+            for (int slot = 0; slot < partitions.slots(); slot++) {
+                stmt.setLong(index++, gaps.firstKey());
+                stmt.setLong(index++, gaps.lastEntry().getValue().to());
+            }
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    long seq = rs.getLong(1);
+                    if (removeFromGap(seq)) {
+                        found.add(seq);
+                    }
+                }
+            }
+        }
+        if (!found.isEmpty()) {
+            Array seqs = conn.createArrayOf("BIGINT", found.toArray());
+            try (PreparedStatement stmt = conn.prepareStatement(gapSql)) {
+                for (int slot = 0; slot < partitions.slots(); slot++) {
+                    stmt.setArray(slot + 1, seqs);
+                }
+                try (ResultSet rs = stmt.executeQuery()) {
+                    while (rs.next()) {
+                        commands.add(fromJson(rs.getString(2)));
+                    }
+                }
+            }
+        }
+        long now = System.nanoTime();
+        for (Iterator<Gap> it = gaps.values().iterator(); it.hasNext();) {
+            Gap gap = it.next();
+            if (quiescent) {
+                it.remove();
+            } else if (now - gap.seenNanos() > gapTimeoutNanos) {
+                log.warn("Outbox seq {}..{} did not appear within {} ms, treating it as rolled back", gap.from(),
+                        gap.to(), TimeUnit.NANOSECONDS.toMillis(gapTimeoutNanos));
+                gapTimeouts.add(gap.to() - gap.from() + 1);
+                it.remove();
+            }
+        }
+    }
+
+    /**
+     * Вырезает seq из его пропуска; false, если seq не в пропуске
+     */
+    private boolean removeFromGap(long seq) {
+        Map.Entry<Long, Gap> entry = gaps.floorEntry(seq);
+        if (entry == null || entry.getValue().to() < seq) {
+            return false;
+        }
+        Gap gap = entry.getValue();
+        gaps.remove(gap.from());
+        if (gap.from() < seq) {
+            gaps.put(gap.from(), new Gap(gap.from(), seq - 1, gap.seenNanos()));
+        }
+        if (seq < gap.to()) {
+            gaps.put(seq + 1, new Gap(seq + 1, gap.to(), gap.seenNanos()));
+        }
+        return true;
+    }
+
+    private record Gap(long from, long to, long seenNanos) {
+    }
+
+    @Override
+    public void resetProcessingToPending() {
+        log.info("Partitioned outbox resumes after watermark {}", highest);
+    }
+}
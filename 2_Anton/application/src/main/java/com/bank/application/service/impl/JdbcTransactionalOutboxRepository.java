@@ -1,9 +1,7 @@
 package com.bank.application.service.impl;
 
-import com.bank.application.port.out.TransactionalOutboxRepository;
+import com.bank.application.port.out.OutboxRowRepository;
 import com.bank.core.command.TransactionCommand;
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.jdbc.core.JdbcTemplate;
@@ -24,68 +22,28 @@ import java.util.stream.Collectors;
  * JDBC-реализация репозитория Outbox с поддержкой DLQ и счетчика ошибок
  */
 
-public class JdbcTransactionalOutboxRepository implements TransactionalOutboxRepository {
+public class JdbcTransactionalOutboxRepository extends AbstractJdbcOutboxRepository implements OutboxRowRepository {
     private static final Logger log = LoggerFactory.getLogger(JdbcTransactionalOutboxRepository.class);
+    private static final String INSERT_SQL =
+            "INSERT INTO \"transaction_outbox\" (\"idempotency_key\", \"transaction_id\", \"payload\", \"created_at\") VALUES (?, ?, ?, ?)";
 
-    private final DataSource dataSource;
     private final JdbcTemplate jdbcTemplate;
     private final TransactionTemplate transactionTemplate;
-    private final ObjectMapper objectMapper;
 
     public JdbcTransactionalOutboxRepository(DataSource dataSource, TransactionTemplate transactionTemplate) {
-        this.dataSource = dataSource;
+        super(dataSource);
         this.jdbcTemplate = new JdbcTemplate(dataSource);
         this.transactionTemplate = transactionTemplate;
-        this.objectMapper = new ObjectMapper();
-        this.objectMapper.registerModule(new JavaTimeModule());
     }
 
     @Override
     public boolean save(TransactionCommand command) {
-        final String idempotencySql = "MERGE INTO \"idempotency_keys\" (\"key\", \"created_at\") KEY(\"key\") VALUES (?, ?)";
-        final String outboxSql = "INSERT INTO \"transaction_outbox\" (\"idempotency_key\", \"transaction_id\", \"payload\", \"created_at\") VALUES (?, ?, ?, ?)";
-
-        try (Connection conn = dataSource.getConnection()) {
-            try {
-                conn.setAutoCommit(false);
-
-                try (PreparedStatement idempotencyStmt = conn.prepareStatement(idempotencySql)) {
-                    idempotencyStmt.setObject(1, command.getIdempotencyKey());
-                    idempotencyStmt.setTimestamp(2, Timestamp.from(Instant.now()));
-                    if (idempotencyStmt.executeUpdate() == 0) {
-                        log.warn("Idempotency key {} already exists. Assuming duplicate submission.",
-                                command.getIdempotencyKey());
-                        conn.rollback();
-                        return false;
-                    }
-                }
-
-                try (PreparedStatement outboxStmt = conn.prepareStatement(outboxSql)) {
-                    outboxStmt.setObject(1, command.getIdempotencyKey());
-                    outboxStmt.setObject(2, command.getTransactionId());
-                    outboxStmt.setString(3, toJson(command));
-                    outboxStmt.setTimestamp(4, Timestamp.from(Instant.now()));
-                    outboxStmt.executeUpdate();
-                }
-
-                conn.commit();
-                return true;
+        return save(command, INSERT_SQL);
+    }
 
-            } catch (SQLException e) {
-                conn.rollback();
-                if ("23505".equals(e.getSQLState())) {
-                    log.warn("Attempted to save a duplicate transaction to outbox with key: {}. Ignoring.",
-                            command.getIdempotencyKey());
-                    return false;
-                } else {
-                    log.error("Transaction failed for idempotency key {}. SQLState: {}, ErrorCode: {}",
-                            command.getIdempotencyKey(), e.getSQLState(), e.getErrorCode(), e);
-                    throw new RuntimeException("Failed to save transaction to outbox due to a database error.", e);
-                }
-            }
-        } catch (SQLException ex) {
-            throw new RuntimeException("Database connection error.", ex);
-        }
+    @Override
+    public boolean[] saveAll(List<TransactionCommand> commands) {
+        return saveAll(commands, INSERT_SQL);
     }
 
     @Override
@@ -191,22 +149,6 @@ public class JdbcTransactionalOutboxRepository implements TransactionalOutboxRep
         }
     }
 
-    private String toJson(TransactionCommand command) {
-        try {
-            return objectMapper.writeValueAsString(command);
-        } catch (Exception e) {
-            throw new RuntimeException("Failed to serialize command to JSON", e);
-        }
-    }
-
-    private TransactionCommand fromJson(String json) {
-        try {
-            return objectMapper.readValue(json, TransactionCommand.class);
-        } catch (Exception e) {
-            throw new RuntimeException("Failed to deserialize command from JSON", e);
-        }
-    }
-
     @Override
     public void resetProcessingToPending() {
         final String sql = "UPDATE \"transaction_outbox\" SET \"status\" = 'PENDING' WHERE \"status\" = 'PROCESSING'";
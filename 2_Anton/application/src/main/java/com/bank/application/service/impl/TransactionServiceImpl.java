@@ -9,6 +9,8 @@ import com.bank.core.command.TransactionCommand;
 import com.bank.core.exception.AccountNotFoundException;
 import com.bank.core.state.AccountStateProvider;
 import com.bank.domain.Account;
+import com.bank.persistence.repository.StatementRepository;
+import com.bank.persistence.statement.StatementPage;
 import java.math.BigDecimal;
 import java.util.Objects;
 import java.util.UUID;
@@ -22,14 +24,24 @@ public final class TransactionServiceImpl implements TransactionService {
     private final AccountStateProvider stateProvider;
     private final TransactionStatusProvider statusProvider;
     private final TransactionalOutboxRepository outboxRepository;
+    private final StatementRepository statementRepository;
 
     public TransactionServiceImpl(
             AccountStateProvider stateProvider,
             TransactionStatusProvider statusProvider,
             TransactionalOutboxRepository outboxRepository) {
+        this(stateProvider, statusProvider, outboxRepository, null);
+    }
+
+    public TransactionServiceImpl(
+            AccountStateProvider stateProvider,
+            TransactionStatusProvider statusProvider,
+            TransactionalOutboxRepository outboxRepository,
+            StatementRepository statementRepository) {
         this.stateProvider = stateProvider;
         this.statusProvider = statusProvider;
         this.outboxRepository = outboxRepository;
+        this.statementRepository = statementRepository;
     }
 
     @Override
@@ -95,6 +107,15 @@ public final class TransactionServiceImpl implements TransactionService {
         return visitor.visit(account);
     }
 
+    @Override
+    public StatementPage getStatement(UUID accountId, Long cursor, int limit) {
+        validateAccountId(accountId);
+        if (statementRepository == null) {
+            throw new IllegalStateException("Statement index is not configured");
+        }
+        return statementRepository.findStatement(accountId, cursor, limit);
+    }
+
     private void validateAll(UUID key, UUID id, BigDecimal amount) {
         Objects.requireNonNull(key, "Idempotency key cannot be null");
         Objects.requireNonNull(id, "Account ID cannot be null");
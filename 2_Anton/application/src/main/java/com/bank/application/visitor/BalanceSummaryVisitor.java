@@ -0,0 +1,86 @@
+package com.bank.application.visitor;
+
+import com.bank.domain.Account;
+import com.bank.domain.AccountStatus;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Сумма балансов и число счетов по статусам; с listAccounts еще и строка id;balance;status на каждый счет
+ */
+
+public final class BalanceSummaryVisitor implements StreamingReportVisitor<Account, BalanceSummaryVisitor.Summary> {
+
+    private final boolean listAccounts;
+
+    public BalanceSummaryVisitor() {
+        this(false);
+    }
+
+    public BalanceSummaryVisitor(boolean listAccounts) {
+        this.listAccounts = listAccounts;
+    }
+
+    @Override
+    public Summary newPartial() {
+        return new Summary();
+    }
+
+    @Override
+    public void visit(Account account, Summary partial, StringBuilder rows) {
+        partial.accounts++;
+        partial.totalBalance = partial.totalBalance.add(account.getBalance());
+        partial.byStatus.merge(account.getStatus(), 1L, Long::sum);
+        if (listAccounts) {
+            rows.append(account.getId()).append(';')
+                    .append(account.getBalance().toPlainString()).append(';')
+                    .append(account.getStatus()).append('\n');
+        }
+    }
+
+    @Override
+    public Summary merge(Summary left, Summary right) {
+        left.accounts += right.accounts;
+        left.totalBalance = left.totalBalance.add(right.totalBalance);
+        right.byStatus.forEach((status, count) -> left.byStatus.merge(status, count, Long::sum));
+        return left;
+    }
+
+    @Override
+    public void writeHeader(Writer out) throws IOException {
+        if (listAccounts) {
+            out.write("id;balance;status\n");
+        }
+    }
+
+    @Override
+    public void writeSummary(Summary total, Writer out) throws IOException {
+        out.write("accounts;" + total.accounts + "\n");
+        out.write("total_balance;" + total.totalBalance.toPlainString() + "\n");
+        for (AccountStatus status : AccountStatus.values()) {
+            out.write("status_" + status + ";" + total.count(status) + "\n");
+        }
+    }
+
+    public static final class Summary {
+        private long accounts;
+        private BigDecimal totalBalance = BigDecimal.ZERO;
+        private final Map<AccountStatus, Long> byStatus = new EnumMap<>(AccountStatus.class);
+
+        public long getAccounts() {
+            return accounts;
+        }
+
+        public BigDecimal getTotalBalance() {
+            return totalBalance;
+        }
+
+        public long count(AccountStatus status) {
+            return byStatus.getOrDefault(status, 0L);
+        }
+    }
+}
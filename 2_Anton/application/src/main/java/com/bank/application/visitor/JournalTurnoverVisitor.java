@@ -0,0 +1,50 @@
+package com.bank.application.visitor;
+
+import com.bank.core.command.ActionType;
+import com.bank.persistence.archive.ArchivedJournalEntry;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Обороты журнала по типам команд: число команд и сумма amount
+ */
+
+public final class JournalTurnoverVisitor
+        implements StreamingReportVisitor<ArchivedJournalEntry, Map<ActionType, JournalTurnoverVisitor.Turnover>> {
+
+    @Override
+    public Map<ActionType, Turnover> newPartial() {
+        return new EnumMap<>(ActionType.class);
+    }
+
+    @Override
+    public void visit(ArchivedJournalEntry entry, Map<ActionType, Turnover> partial, StringBuilder rows) {
+        BigDecimal amount = entry.amount() != null ? entry.amount() : BigDecimal.ZERO;
+        partial.merge(entry.actionType(), new Turnover(1, amount), Turnover::plus);
+    }
+
+    @Override
+    public Map<ActionType, Turnover> merge(Map<ActionType, Turnover> left, Map<ActionType, Turnover> right) {
+        right.forEach((type, turnover) -> left.merge(type, turnover, Turnover::plus));
+        return left;
+    }
+
+    @Override
+    public void writeSummary(Map<ActionType, Turnover> total, Writer out) throws IOException {
+        out.write("type;count;amount\n");
+        for (Map.Entry<ActionType, Turnover> entry : total.entrySet()) {
+            out.write(entry.getKey() + ";" + entry.getValue().count() + ";"
+                    + entry.getValue().amount().toPlainString() + "\n");
+        }
+    }
+
+    public record Turnover(long count, BigDecimal amount) {
+        Turnover plus(Turnover other) {
+            return new Turnover(count + other.count, amount.add(other.amount));
+        }
+    }
+}
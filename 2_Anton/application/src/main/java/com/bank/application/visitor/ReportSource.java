@@ -0,0 +1,13 @@
+package com.bank.application.visitor;
+
+import java.util.function.Consumer;
+
+/**
+ * Источник элементов отчета: отдает их по одному в sink, ничего не держа в памяти
+ * (JdbcAccountRepository::forEachAccount, курсор журнала, JournalArchive.scan)
+ */
+
+@FunctionalInterface
+public interface ReportSource<T> {
+    void forEach(Consumer<T> sink);
+}
@@ -0,0 +1,160 @@
+package com.bank.application.visitor;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * Выполняет StreamingReportVisitor над ReportSource на пуле из parallelism потоков.
+ * Поток вызывающего читает источник и режет его на пачки по chunkSize, пачки обходятся параллельно,
+ * а результаты забираются строго по порядку: строки пачки пишутся в Writer, частичный результат сливается в итог.
+ * В полете не больше maxInFlight пачек, когда очередь полна, чтение источника ждет самую старую пачку,
+ * поэтому память ограничена maxInFlight * chunkSize элементами независимо от размера источника
+ */
+
+public final class StreamingReportRunner implements AutoCloseable {
+    public static final int DEFAULT_CHUNK_SIZE = 4096;
+
+    private final ExecutorService executor;
+    private final int chunkSize;
+    private final int maxInFlight;
+
+    public StreamingReportRunner() {
+        this(Runtime.getRuntime().availableProcessors(), DEFAULT_CHUNK_SIZE);
+    }
+
+    public StreamingReportRunner(int parallelism, int chunkSize) {
+        if (parallelism <= 0 || chunkSize <= 0) {
+            throw new IllegalArgumentException("parallelism and chunkSize must be positive");
+        }
+        AtomicInteger threads = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(parallelism, r -> {
+            Thread thread = new Thread(r, "bank-report-" + threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.chunkSize = chunkSize;
+        this.maxInFlight = parallelism * 2;
+    }
+
+    public <T, P> P run(ReportSource<T> source, StreamingReportVisitor<T, P> visitor, Writer out)
+            throws IOException {
+        visitor.writeHeader(out);
+        Pipeline<T, P> pipeline = new Pipeline<>(visitor, out);
+        try {
+            source.forEach(pipeline);
+            pipeline.finish();
+        } catch (UncheckedIOException e) {
+            pipeline.cancel();
+            throw e.getCause();
+        } catch (RuntimeException | Error e) {
+            pipeline.cancel();
+            throw e;
+        }
+        visitor.writeSummary(pipeline.total, out);
+        out.flush();
+        return pipeline.total;
+    }
+
+    @Override
+    public void close() {
+        executor.shutdownNow();
+    }
+
+    private record Chunk<P>(P partial, StringBuilder rows) {
+    }
+
+    private final class Pipeline<T, P> implements Consumer<T> {
+        private final StreamingReportVisitor<T, P> visitor;
+        private final Writer out;
+        private final Deque<Future<Chunk<P>>> inFlight = new ArrayDeque<>();
+        private List<T> buffer = new ArrayList<>(chunkSize);
+        private P total;
+
+        Pipeline(StreamingReportVisitor<T, P> visitor, Writer out) {
+            this.visitor = visitor;
+            this.out = out;
+            this.total = visitor.newPartial();
+        }
+
+        @Override
+        public void accept(T item) {
+            buffer.add(item);
+            if (buffer.size() == chunkSize) {
+                submit();
+            }
+        }
+
+        void finish() {
+            submit();
+            while (!inFlight.isEmpty()) {
+                drainOldest();
+            }
+        }
+
+        void cancel() {
+            for (Future<Chunk<P>> future : inFlight) {
+                future.cancel(true);
+            }
+            inFlight.clear();
+        }
+
+        private void submit() {
+            if (buffer.isEmpty()) {
+                return;
+            }
+            if (inFlight.size() == maxInFlight) {
+                drainOldest();
+            }
+            List<T> items = buffer;
+            buffer = new ArrayList<>(chunkSize);
+            inFlight.addLast(executor.submit(() -> {
+                P partial = visitor.newPartial();
+                StringBuilder rows = new StringBuilder();
+                for (T item : items) {
+                    visitor.visit(item, partial, rows);
+                }
+                return new Chunk<>(partial, rows);
+            }));
+        }
+
+        private void drainOldest() {
+            Chunk<P> chunk = await(inFlight.removeFirst());
+            try {
+                if (!chunk.rows().isEmpty()) {
+                    out.append(chunk.rows());
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            total = visitor.merge(total, chunk.partial());
+        }
+
+        private Chunk<P> await(Future<Chunk<P>> future) {
+            try {
+                return future.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Report interrupted", e);
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof RuntimeException runtime) {
+                    throw runtime;
+                }
+                if (e.getCause() instanceof Error error) {
+                    throw error;
+                }
+                throw new IllegalStateException("Report chunk failed", e.getCause());
+            }
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package com.bank.application.visitor;
+
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * Потоковый отчет по элементам T (счета, строки журнала) с частичным результатом P.
+ * StreamingReportRunner режет источник на пачки, каждая пачка обходится на своем потоке со своим newPartial(),
+ * частичные результаты сливаются через merge в порядке источника. Строки отчета по элементам пишутся в rows
+ * пачки и уходят в Writer сразу после ее обработки, итог — writeSummary по слитому результату
+ */
+
+public interface StreamingReportVisitor<T, P> {
+
+    P newPartial();
+
+    void visit(T item, P partial, StringBuilder rows);
+
+    /**
+     * Может изменить и вернуть left; right после вызова не используется
+     */
+    P merge(P left, P right);
+
+    default void writeHeader(Writer out) throws IOException {
+    }
+
+    void writeSummary(P total, Writer out) throws IOException;
+}
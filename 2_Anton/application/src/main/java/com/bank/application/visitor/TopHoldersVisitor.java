@@ -0,0 +1,85 @@
+package com.bank.application.visitor;
+
+import com.bank.domain.Account;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * N счетов с наибольшим балансом: в каждой пачке min-heap на N элементов, слияние — перекладывание кучи,
+ * так что память O(N) на пачку при любом числе счетов
+ */
+
+public final class TopHoldersVisitor implements StreamingReportVisitor<Account, TopHoldersVisitor.Top> {
+
+    private static final Comparator<Account> BY_BALANCE = Comparator.comparing(Account::getBalance)
+            .thenComparing(Account::getId);
+
+    private final int limit;
+
+    public TopHoldersVisitor(int limit) {
+        if (limit <= 0) {
+            throw new IllegalArgumentException("limit must be positive: " + limit);
+        }
+        this.limit = limit;
+    }
+
+    @Override
+    public Top newPartial() {
+        return new Top(limit);
+    }
+
+    @Override
+    public void visit(Account account, Top partial, StringBuilder rows) {
+        partial.offer(account);
+    }
+
+    @Override
+    public Top merge(Top left, Top right) {
+        for (Account account : right.heap) {
+            left.offer(account);
+        }
+        return left;
+    }
+
+    @Override
+    public void writeSummary(Top total, Writer out) throws IOException {
+        out.write("rank;id;balance\n");
+        int rank = 1;
+        for (Account account : total.holders()) {
+            out.write(rank++ + ";" + account.getId() + ";" + account.getBalance().toPlainString() + "\n");
+        }
+    }
+
+    public static final class Top {
+        private final int limit;
+        private final PriorityQueue<Account> heap;
+
+        private Top(int limit) {
+            this.limit = limit;
+            this.heap = new PriorityQueue<>(limit + 1, BY_BALANCE);
+        }
+
+        private void offer(Account account) {
+            if (heap.size() < limit) {
+                heap.add(account);
+            } else if (BY_BALANCE.compare(account, heap.peek()) > 0) {
+                heap.poll();
+                heap.add(account);
+            }
+        }
+
+        /**
+         * От большего баланса к меньшему
+         */
+        public List<Account> holders() {
+            List<Account> sorted = new ArrayList<>(heap);
+            sorted.sort(BY_BALANCE.reversed());
+            return sorted;
+        }
+    }
+}
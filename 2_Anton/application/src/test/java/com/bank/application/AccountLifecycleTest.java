@@ -16,6 +16,7 @@ import java.util.UUID;
 import java.util.concurrent.TimeUnit;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.awaitility.Awaitility.await;
 
 @TestInstance(TestInstance.Lifecycle.PER_CLASS)
@@ -111,6 +112,49 @@ class AccountLifecycleTest {
         });
     }
 
+    @Test
+    void should_keepRejectedWithdrawalTerminalAndRedriveItOnlyOnRequest() {
+        UUID accountId = createAccountInDb(new BigDecimal("50.00"));
+
+        UUID withdrawKey = UUID.randomUUID();
+        transactionService.withdraw(withdrawKey, accountId, new BigDecimal("100.00"));
+
+        await().atMost(5, TimeUnit.SECONDS)
+                .untilAsserted(() -> assertThat(getRowCount("\"transaction_outbox_dlq\"", withdrawKey)).isOne());
+        assertThat(jdbcTemplate.queryForObject(
+                "SELECT \"retryable\" FROM \"transaction_outbox_dlq\" WHERE \"idempotency_key\" = ?",
+                Boolean.class, withdrawKey)).isFalse();
+        assertThat(bankApplication.getDlqRedriver().redriveAll(null)).isZero();
+
+        transactionService.deposit(UUID.randomUUID(), accountId, new BigDecimal("100.00"));
+        await().atMost(5, TimeUnit.SECONDS)
+                .untilAsserted(() -> assertThat(getBalanceFromDb(accountId)).isEqualByComparingTo("150.00"));
+
+        assertThat(bankApplication.getDlqRedriver().redriveAll("InsufficientFundsException")).isOne();
+
+        await().atMost(5, TimeUnit.SECONDS).untilAsserted(() -> {
+            assertThat(getBalanceFromDb(accountId)).isEqualByComparingTo("50.00");
+            assertThat(getRowCount("\"transaction_outbox_dlq\"", withdrawKey)).isZero();
+            assertThat(getRowCount("\"transaction_outbox\"", withdrawKey)).isZero();
+        });
+    }
+
+    @Test
+    void should_openAccountThroughPollerWhenOnlyPollerPublishes() {
+        assertThat(bankApplication.isDirectIngressEnabled()).isFalse();
+        assertThatThrownBy(() -> bankApplication.getDirectIngress()).isInstanceOf(IllegalStateException.class);
+
+        UUID accountId = UUID.randomUUID();
+        jdbcTemplate.update("INSERT INTO \"accounts\" (\"id\", \"balance\", \"status\") VALUES (?, 0, 'ACTIVE')",
+                accountId);
+        bankApplication.openAccount(accountId);
+        transactionService.deposit(UUID.randomUUID(), accountId, new BigDecimal("250.00"));
+
+        await().atMost(5, TimeUnit.SECONDS)
+                .untilAsserted(() -> assertThat(getBalanceFromDb(accountId)).isEqualByComparingTo("250.00"));
+        assertThat(AccountState.INSTANCE.containsAccount(accountId)).isTrue();
+    }
+
     private void cleanAllTables() {
         jdbcTemplate.execute("TRUNCATE TABLE \"processed_transactions\" RESTART IDENTITY");
         jdbcTemplate.execute("TRUNCATE TABLE \"transaction_journal\" RESTART IDENTITY");
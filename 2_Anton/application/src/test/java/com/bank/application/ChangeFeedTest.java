@@ -0,0 +1,107 @@
+package com.bank.application;
+
+import com.bank.application.service.TransactionService;
+import com.bank.persistence.cdc.CdcLogReader;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class ChangeFeedTest {
+
+    @TempDir
+    Path cdcDir;
+
+    private EmbeddedDatabase dataSource;
+    private JdbcTemplate jdbcTemplate;
+    private BankApplication bankApplication;
+
+    @BeforeAll
+    void setupDatabase() {
+        this.dataSource = new EmbeddedDatabaseBuilder()
+                .setType(EmbeddedDatabaseType.H2)
+                .setName("testdb_change_feed;MODE=PostgreSQL;DATABASE_TO_UPPER=false")
+                .addScript("classpath:schema.sql")
+                .build();
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+    }
+
+    @AfterAll
+    void shutdownDatabase() {
+        System.clearProperty("bank.cdc.dir");
+        System.clearProperty("bank.cdc.segmentRecords");
+        this.dataSource.shutdown();
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (bankApplication != null) {
+            bankApplication.stop();
+        }
+    }
+
+    @Test
+    void should_streamAccountChangesToTailerAcrossSegmentsAndRestart() throws Exception {
+        System.setProperty("bank.cdc.dir", cdcDir.toString());
+        System.setProperty("bank.cdc.segmentRecords", "8");
+        UUID source = UUID.randomUUID();
+        UUID target = UUID.randomUUID();
+        jdbcTemplate.update("INSERT INTO \"accounts\" (\"id\", \"balance\", \"status\") VALUES (?, 100, 'ACTIVE')",
+                source);
+        jdbcTemplate.update("INSERT INTO \"accounts\" (\"id\", \"balance\", \"status\") VALUES (?, 0, 'ACTIVE')",
+                target);
+        startApplication();
+        TransactionService transactionService = bankApplication.getTransactionService();
+        for (int i = 0; i < 10; i++) {
+            transactionService.transfer(UUID.randomUUID(), source, target, BigDecimal.ONE);
+        }
+        CdcLogReader reader = new CdcLogReader(cdcDir, "test");
+        List<String> changes = new ArrayList<>();
+        // поллер не упорядочивает команды внутри выборки: заморозка не должна обогнать переводы
+        await().atMost(10, TimeUnit.SECONDS).untilAsserted(() -> {
+            reader.poll(record -> changes.add(record.accountId() + " " + record.balance().stripTrailingZeros()
+                    .toPlainString() + " " + record.status()), 100);
+            assertThat(changes).hasSize(20);
+        });
+        transactionService.freezeAccount(UUID.randomUUID(), source);
+
+        await().atMost(10, TimeUnit.SECONDS).untilAsserted(() -> {
+            reader.poll(record -> changes.add(record.accountId() + " " + record.balance().stripTrailingZeros()
+                    .toPlainString() + " " + record.status()), 100);
+            assertThat(changes).hasSize(21);
+        });
+        assertThat(changes.get(18)).isEqualTo(source + " 90 ACTIVE");
+        assertThat(changes.get(19)).isEqualTo(target + " 10 ACTIVE");
+        assertThat(changes.get(20)).isEqualTo(source + " 90 FROZEN");
+        reader.commit();
+
+        bankApplication.stop();
+        startApplication();
+        bankApplication.getTransactionService().unfreezeAccount(UUID.randomUUID(), source);
+
+        CdcLogReader resumed = new CdcLogReader(cdcDir, "test");
+        List<Long> positions = new ArrayList<>();
+        await().atMost(10, TimeUnit.SECONDS).untilAsserted(() -> {
+            resumed.poll(record -> positions.add(record.position()), 100);
+            assertThat(positions).containsExactly(21L);
+        });
+    }
+
+    private void startApplication() {
+        bankApplication = new BankApplication(dataSource);
+        bankApplication.start();
+    }
+}
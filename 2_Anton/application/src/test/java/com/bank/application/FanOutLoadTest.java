@@ -1,7 +1,11 @@
 package com.bank.application;
 
 import com.bank.application.service.TransactionService;
+import com.bank.core.engine.consumers.BalanceAuditConsumer;
+import com.bank.core.engine.EngineConfig;
 import org.junit.jupiter.api.*;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
 import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
@@ -62,8 +66,10 @@ class FanOutLoadTest {
         }
     }
 
-    @Test
-    void should_processAllTransactionsCorrectly_underDistributedLoad() throws InterruptedException {
+    @ParameterizedTest(name = "businessWorkers={0}")
+    @ValueSource(ints = {0, 4})
+    void should_processAllTransactionsCorrectly_underDistributedLoad(int businessWorkers)
+            throws InterruptedException {
         BigDecimal senderInitialBalance = new BigDecimal(TRANSACTIONS_PER_SENDER);
         BigDecimal receiverInitialBalance = BigDecimal.ZERO;
 
@@ -71,7 +77,8 @@ class FanOutLoadTest {
         List<UUID> receiverIds = createAccountsInDb(RECEIVER_COUNT, receiverInitialBalance);
 
         this.bankApplication.stop();
-        this.bankApplication = new BankApplication(this.dataSource);
+        this.bankApplication = new BankApplication(this.dataSource,
+                EngineConfig.load().withBusinessWorkers(businessWorkers));
         this.bankApplication.start();
         TransactionService transactionService = this.bankApplication.getTransactionService();
 
@@ -112,6 +119,11 @@ class FanOutLoadTest {
                         totalInitialBalance, totalFinalBalance)
                 .isEqualByComparingTo(totalInitialBalance);
 
+        BalanceAuditConsumer audit = this.bankApplication.getBalanceAudit();
+        await().atMost(5, TimeUnit.SECONDS)
+                .until(() -> audit.getStateCents() == totalFinalBalance.movePointRight(2).longValueExact());
+        assertThat(audit.getDivergences()).isZero();
+
         for (UUID senderId : senderIds) {
             assertThat(getBalanceFromDb(senderId))
                     .withFailMessage("У отправителя %s остался неверный баланс", senderId)
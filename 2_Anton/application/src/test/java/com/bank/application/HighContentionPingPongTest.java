@@ -1,7 +1,11 @@
 package com.bank.application;
 
 import com.bank.application.service.TransactionService;
+import com.bank.core.engine.consumers.BalanceAuditConsumer;
+import com.bank.core.engine.EngineConfig;
 import org.junit.jupiter.api.*;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
 import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
@@ -61,13 +65,15 @@ class HighContentionPingPongTest {
         }
     }
 
-    @Test
-    void should_maintainCorrectBalances_underHighContention() throws InterruptedException {
+    @ParameterizedTest(name = "businessWorkers={0}")
+    @ValueSource(ints = {0, 4})
+    void should_maintainCorrectBalances_underHighContention(int businessWorkers) throws InterruptedException {
         UUID accountIdA = createAccountInDb(INITIAL_BALANCE);
         UUID accountIdB = createAccountInDb(INITIAL_BALANCE);
 
         this.bankApplication.stop();
-        this.bankApplication = new BankApplication(this.dataSource);
+        this.bankApplication = new BankApplication(this.dataSource,
+                EngineConfig.load().withBusinessWorkers(businessWorkers));
         this.bankApplication.start();
         TransactionService transactionService = this.bankApplication.getTransactionService();
 
@@ -118,6 +124,11 @@ class HighContentionPingPongTest {
 
         assertThat(totalFinalBalance)
                 .isEqualByComparingTo(totalInitialBalance);
+
+        BalanceAuditConsumer audit = this.bankApplication.getBalanceAudit();
+        await().atMost(5, TimeUnit.SECONDS)
+                .until(() -> audit.getStateCents() == totalFinalBalance.movePointRight(2).longValueExact());
+        assertThat(audit.getDivergences()).isZero();
     }
 
     private UUID createAccountInDb(BigDecimal initialBalance) {
@@ -0,0 +1,90 @@
+package com.bank.application;
+
+import com.bank.application.config.BankDataSources;
+import com.bank.application.config.ReplicationConfig;
+import com.bank.core.engine.EngineConfig;
+import com.bank.core.state.AccountState;
+import org.junit.jupiter.api.*;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class HotStandbyTest {
+
+    private EmbeddedDatabase dataSource;
+    private JdbcTemplate jdbcTemplate;
+    private BankApplication primary;
+    private BankApplication standby;
+
+    @BeforeAll
+    void setupDatabase() {
+        this.dataSource = new EmbeddedDatabaseBuilder()
+                .setType(EmbeddedDatabaseType.H2)
+                .setName("testdb_hot_standby;MODE=PostgreSQL;DATABASE_TO_UPPER=false")
+                .addScript("classpath:schema.sql")
+                .build();
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+    }
+
+    @AfterAll
+    void shutdownDatabase() {
+        this.dataSource.shutdown();
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (standby != null) {
+            standby.stop();
+        }
+        if (primary != null) {
+            primary.stop();
+        }
+    }
+
+    @Test
+    void should_mirrorPrimaryAndTakeOverWhenItStops() {
+        UUID source = UUID.randomUUID();
+        UUID target = UUID.randomUUID();
+        jdbcTemplate.update("INSERT INTO \"accounts\" (\"id\", \"balance\", \"status\") VALUES (?, 100, 'ACTIVE')",
+                source);
+        jdbcTemplate.update("INSERT INTO \"accounts\" (\"id\", \"balance\", \"status\") VALUES (?, 0, 'ACTIVE')",
+                target);
+        BankDataSources dataSources = BankDataSources.single(dataSource);
+        primary = new BankApplication(dataSources, EngineConfig.defaults(), ReplicationConfig.primary(0, true),
+                AccountState.INSTANCE);
+        primary.start();
+        standby = new BankApplication(dataSources, EngineConfig.defaults(),
+                ReplicationConfig.standby("localhost", primary.getReplicationPort(), 1000), new AccountState());
+        standby.start();
+        assertThat(standby.isStandby()).isTrue();
+
+        for (int i = 0; i < 20; i++) {
+            primary.getTransactionService().transfer(UUID.randomUUID(), source, target, BigDecimal.ONE);
+        }
+        await().atMost(10, TimeUnit.SECONDS).untilAsserted(() -> {
+            assertThat(standby.getTransactionService().getBalance(source)).isEqualByComparingTo("80");
+            assertThat(standby.getTransactionService().getBalance(target)).isEqualByComparingTo("20");
+        });
+        assertThat(standby.getMetrics().counter("bank_replication_received_total").sum()).isEqualTo(20);
+
+        primary.stop();
+        primary = null;
+        await().atMost(10, TimeUnit.SECONDS).until(() -> !standby.isStandby());
+
+        standby.getTransactionService().deposit(UUID.randomUUID(), target, BigDecimal.TEN);
+        await().atMost(10, TimeUnit.SECONDS).untilAsserted(() -> assertThat(jdbcTemplate.queryForObject(
+                "SELECT \"balance\" FROM \"accounts\" WHERE \"id\" = ?", BigDecimal.class, target))
+                .isEqualByComparingTo("30"));
+        assertThat(jdbcTemplate.queryForObject("SELECT \"balance\" FROM \"accounts\" WHERE \"id\" = ?",
+                BigDecimal.class, source)).isEqualByComparingTo("80");
+    }
+}
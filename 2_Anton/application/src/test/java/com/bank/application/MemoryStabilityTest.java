@@ -114,9 +114,11 @@ class MemoryStabilityTest {
                 .until(() -> getRowCount("transaction_outbox") == 0);
 
         jdbcTemplate.execute("TRUNCATE TABLE \"transaction_journal\"");
+        jdbcTemplate.execute("TRUNCATE TABLE \"account_postings\"");
         jdbcTemplate.execute("TRUNCATE TABLE \"processed_transactions\"");
         jdbcTemplate.execute("TRUNCATE TABLE \"idempotency_keys\"");
         jdbcTemplate.execute("TRUNCATE TABLE \"transaction_outbox_dlq\"");
+        jdbcTemplate.execute("TRUNCATE TABLE \"transaction_outbox_dlq_archive\"");
     }
 
     private List<UUID> createAccounts(int count) {
@@ -0,0 +1,125 @@
+package com.bank.application;
+
+import com.bank.application.service.TransactionService;
+import com.bank.core.state.AccountState;
+import com.bank.persistence.outbox.OutboxPartitions;
+import org.junit.jupiter.api.*;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class PartitionedOutboxTest {
+    private static final int PARTITIONS = 3;
+    private static final int THREADS = 4;
+    private static final int DEPOSITS_PER_THREAD = 50;
+    private static final int FAILING_WITHDRAWALS = 5;
+
+    private EmbeddedDatabase dataSource;
+    private JdbcTemplate jdbcTemplate;
+    private BankApplication bankApplication;
+
+    @BeforeAll
+    void setupDatabase() {
+        System.setProperty("bank.outbox.partitions", String.valueOf(PARTITIONS));
+        System.setProperty("bank.outbox.sliceSeconds", "1");
+        this.dataSource = new EmbeddedDatabaseBuilder()
+                .setType(EmbeddedDatabaseType.H2)
+                .setName("testdb_partitioned_outbox_e2e;MODE=PostgreSQL;DATABASE_TO_UPPER=false")
+                .addScript("classpath:schema.sql")
+                .build();
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+    }
+
+    @AfterAll
+    void shutdownDatabase() {
+        System.clearProperty("bank.outbox.partitions");
+        System.clearProperty("bank.outbox.sliceSeconds");
+        this.dataSource.shutdown();
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (bankApplication != null) {
+            bankApplication.stop();
+        }
+    }
+
+    @Test
+    void should_processThroughPartitionsTruncateThemAndNotReplayAfterRestart() throws Exception {
+        UUID accountId = UUID.randomUUID();
+        jdbcTemplate.update("INSERT INTO \"accounts\" (\"id\", \"balance\", \"status\") VALUES (?, 0, 'ACTIVE')",
+                accountId);
+        startApplication();
+        TransactionService transactionService = bankApplication.getTransactionService();
+
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            futures.add(executor.submit(() -> {
+                for (int i = 0; i < DEPOSITS_PER_THREAD; i++) {
+                    transactionService.deposit(UUID.randomUUID(), accountId, BigDecimal.ONE);
+                }
+            }));
+        }
+        for (int i = 0; i < FAILING_WITHDRAWALS; i++) {
+            transactionService.withdraw(UUID.randomUUID(), accountId, new BigDecimal("1000.00"));
+        }
+        for (Future<?> future : futures) {
+            future.get(30, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+
+        long rows = (long) THREADS * DEPOSITS_PER_THREAD + FAILING_WITHDRAWALS;
+        await().atMost(10, TimeUnit.SECONDS).untilAsserted(() -> {
+            assertThat(getBalanceFromDb(accountId)).isEqualByComparingTo(String.valueOf(THREADS * DEPOSITS_PER_THREAD));
+            assertThat(countRows("transaction_outbox_dlq")).isEqualTo(FAILING_WITHDRAWALS);
+        });
+        await().atMost(15, TimeUnit.SECONDS).untilAsserted(() -> {
+            assertThat(bankApplication.getOutboxCompactor().getConfirmedWatermark()).isEqualTo(rows);
+            assertThat(countPartitionRows()).isZero();
+        });
+        assertThat(countRows("transaction_outbox")).isZero();
+
+        bankApplication.stop();
+        startApplication();
+        bankApplication.getTransactionService().deposit(UUID.randomUUID(), accountId, BigDecimal.ONE);
+
+        await().atMost(5, TimeUnit.SECONDS).untilAsserted(() -> assertThat(getBalanceFromDb(accountId))
+                .isEqualByComparingTo(String.valueOf(THREADS * DEPOSITS_PER_THREAD + 1)));
+        assertThat(countRows("transaction_outbox_dlq")).isEqualTo(FAILING_WITHDRAWALS);
+    }
+
+    private void startApplication() {
+        bankApplication = new BankApplication(dataSource);
+        bankApplication.start();
+    }
+
+    private BigDecimal getBalanceFromDb(UUID accountId) {
+        return jdbcTemplate.queryForObject("SELECT \"balance\" FROM \"accounts\" WHERE \"id\" = ?", BigDecimal.class,
+                accountId);
+    }
+
+    private int countRows(String table) {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM \"" + table + "\"", Integer.class);
+    }
+
+    private int countPartitionRows() {
+        OutboxPartitions partitions = new OutboxPartitions(dataSource, PARTITIONS);
+        return jdbcTemplate.queryForObject("SELECT SUM(\"rows\") FROM ("
+                + partitions.unionAll("SELECT COUNT(*) AS \"rows\" FROM \"%s\"") + ") \"counts\"", Integer.class);
+    }
+}
@@ -0,0 +1,119 @@
+package com.bank.application.reconciliation;
+
+import com.bank.core.metrics.MetricsRegistry;
+import com.bank.core.state.AccountState;
+import com.bank.domain.Account;
+import com.bank.domain.AccountStatus;
+import com.bank.persistence.repository.impl.JdbcAccountRepository;
+import org.junit.jupiter.api.*;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class LedgerReconcilerTest {
+
+    private static final int ACCOUNTS = 3000;
+
+    private EmbeddedDatabase dataSource;
+    private JdbcTemplate jdbcTemplate;
+    private LedgerReconciler reconciler;
+    private List<UUID> ids;
+
+    @BeforeAll
+    void setupDatabase() {
+        this.dataSource = new EmbeddedDatabaseBuilder()
+                .setType(EmbeddedDatabaseType.H2)
+                .setName("testdb_reconcile;MODE=PostgreSQL;DATABASE_TO_UPPER=false")
+                .addScript("classpath:schema.sql")
+                .build();
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.reconciler = new LedgerReconciler(new JdbcAccountRepository(dataSource), AccountState.INSTANCE,
+                AccountState.INSTANCE::forEach, new MetricsRegistry(), 500, Duration.ZERO, Duration.ofMillis(500), 64);
+    }
+
+    @AfterAll
+    void shutdownDatabase() {
+        AccountState.INSTANCE.loadAll(Collections.emptyMap());
+        this.dataSource.shutdown();
+    }
+
+    @BeforeEach
+    void seed() {
+        jdbcTemplate.execute("DELETE FROM \"accounts\"");
+        ids = new ArrayList<>(ACCOUNTS);
+        Map<UUID, Account> memory = new HashMap<>();
+        List<Object[]> rows = new ArrayList<>(ACCOUNTS);
+        for (int i = 0; i < ACCOUNTS; i++) {
+            UUID id = UUID.randomUUID();
+            BigDecimal balance = BigDecimal.valueOf(i * 7L, 2);
+            ids.add(id);
+            memory.put(id, new Account(id, balance, AccountStatus.ACTIVE));
+            rows.add(new Object[] { id, balance, "ACTIVE" });
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO \"accounts\" (\"id\", \"balance\", \"status\") VALUES (?, ?, ?)", rows);
+        AccountState.INSTANCE.loadAll(memory);
+    }
+
+    @Test
+    void identical_state_and_table_should_produce_clean_report() {
+        ReconciliationReport report = reconciler.reconcile();
+
+        assertThat(report.memoryAccounts()).isEqualTo(ACCOUNTS);
+        assertThat(report.dbAccounts()).isEqualTo(ACCOUNTS);
+        assertThat(report.mismatchedRanges()).isZero();
+        assertThat(report.isClean()).isTrue();
+    }
+
+    @Test
+    void should_report_only_persistent_drift_and_ignore_lagging_rows() throws Exception {
+        UUID changedInDb = ids.get(10);
+        UUID deletedFromDb = ids.get(20);
+        UUID frozenInMemory = ids.get(30);
+        UUID lagging = ids.get(40);
+        UUID memoryOnly = UUID.randomUUID();
+        UUID dbOnly = UUID.randomUUID();
+
+        jdbcTemplate.update("UPDATE \"accounts\" SET \"balance\" = 1 WHERE \"id\" = ?", changedInDb);
+        jdbcTemplate.update("DELETE FROM \"accounts\" WHERE \"id\" = ?", deletedFromDb);
+        jdbcTemplate.update("INSERT INTO \"accounts\" (\"id\", \"balance\", \"status\") VALUES (?, 5, 'ACTIVE')",
+                dbOnly);
+        AccountState.INSTANCE.getAccount(frozenInMemory).freeze();
+        AccountState.INSTANCE.createOrUpdateAccount(new Account(memoryOnly, BigDecimal.TEN));
+        Account laggingAccount = AccountState.INSTANCE.getAccount(lagging);
+        laggingAccount.deposit(new BigDecimal("3.00"));
+        BigDecimal laggingBalance = laggingAccount.getBalance();
+        CompletableFuture<Void> persister = CompletableFuture.runAsync(() -> jdbcTemplate.update(
+                "UPDATE \"accounts\" SET \"balance\" = ? WHERE \"id\" = ?", laggingBalance, lagging),
+                CompletableFuture.delayedExecutor(100, TimeUnit.MILLISECONDS));
+
+        ReconciliationReport report = reconciler.reconcile();
+        persister.get();
+
+        assertThat(report.mismatchedRanges()).isBetween(1, 6);
+        assertThat(report.isClean()).isFalse();
+        assertThat(report.drifts()).extracting(AccountDrift::accountId)
+                .containsExactlyInAnyOrder(changedInDb, deletedFromDb, frozenInMemory, memoryOnly, dbOnly);
+        assertThat(report.drifts()).filteredOn(d -> d.accountId().equals(deletedFromDb)).singleElement()
+                .satisfies(d -> assertThat(d.dbBalance()).isNull());
+        assertThat(report.drifts()).filteredOn(d -> d.accountId().equals(frozenInMemory)).singleElement()
+                .satisfies(d -> {
+                    assertThat(d.memoryStatus()).isEqualTo(AccountStatus.FROZEN);
+                    assertThat(d.dbStatus()).isEqualTo(AccountStatus.ACTIVE);
+                });
+    }
+}
@@ -0,0 +1,140 @@
+package com.bank.application.replay;
+
+import com.bank.application.BankApplication;
+import com.bank.application.service.TransactionService;
+import com.bank.core.command.factory.TransactionActionFactory;
+import com.bank.core.engine.consumers.BusinessLogicConsumer;
+import com.bank.core.engine.consumers.NettingBusinessLogicConsumer;
+import com.bank.core.engine.consumers.ParallelBusinessLogicConsumer;
+import com.bank.core.metrics.MetricsRegistry;
+import com.bank.domain.Account;
+import com.bank.domain.AccountStatus;
+import org.junit.jupiter.api.*;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+
+import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class JournalReplayTest {
+
+    private static final int ACCOUNTS = 50;
+    private static final int COMMANDS = 3000;
+    private static final BigDecimal INITIAL_BALANCE = new BigDecimal("100.00");
+
+    private EmbeddedDatabase dataSource;
+    private JdbcTemplate jdbcTemplate;
+    private final Map<UUID, Account> snapshot = new HashMap<>();
+
+    @BeforeAll
+    void captureJournal() {
+        this.dataSource = new EmbeddedDatabaseBuilder()
+                .setType(EmbeddedDatabaseType.H2)
+                .setName("testdb_replay;MODE=PostgreSQL;DATABASE_TO_UPPER=false")
+                .addScript("classpath:schema.sql")
+                .build();
+        this.jdbcTemplate = new JdbcTemplate(this.dataSource);
+
+        UUID[] ids = new UUID[ACCOUNTS];
+        for (int i = 0; i < ACCOUNTS; i++) {
+            ids[i] = UUID.randomUUID();
+            jdbcTemplate.update("INSERT INTO \"accounts\" (\"id\", \"balance\", \"status\") VALUES (?, ?, 'ACTIVE')",
+                    ids[i], INITIAL_BALANCE);
+            snapshot.put(ids[i], new Account(ids[i], INITIAL_BALANCE, AccountStatus.ACTIVE));
+        }
+
+        BankApplication application = new BankApplication(dataSource);
+        application.start();
+        try {
+            TransactionService service = application.getTransactionService();
+            Random random = new Random(11);
+            for (int i = 0; i < COMMANDS; i++) {
+                // первые пять счетов горячие: на них приходится половина команд
+                UUID account = ids[random.nextBoolean() ? random.nextInt(5) : random.nextInt(ACCOUNTS)];
+                UUID target = ids[random.nextInt(ACCOUNTS)];
+                BigDecimal amount = BigDecimal.valueOf(1 + random.nextInt(20));
+                switch (random.nextInt(3)) {
+                    case 0 -> service.deposit(UUID.randomUUID(), account, amount);
+                    case 1 -> service.withdraw(UUID.randomUUID(), account, amount);
+                    default -> {
+                        if (!target.equals(account)) {
+                            service.transfer(UUID.randomUUID(), account, target, amount);
+                        }
+                    }
+                }
+            }
+            await().atMost(30, TimeUnit.SECONDS).pollInterval(200, TimeUnit.MILLISECONDS)
+                    .until(() -> jdbcTemplate.queryForObject("SELECT COUNT(*) FROM \"transaction_outbox\"",
+                            Integer.class) == 0);
+        } finally {
+            application.stop();
+        }
+    }
+
+    @AfterAll
+    void shutdownDatabase() {
+        this.dataSource.shutdown();
+    }
+
+    @Test
+    void shouldReproduceAccountsTableFromJournal() {
+        JournalReplay replay = JournalReplay.fromDatabase(dataSource);
+
+        ReplayResult sequential = replay.run(
+                state -> new BusinessLogicConsumer(state, new TransactionActionFactory()), 256);
+        ReplayResult explicit = JournalReplay.fromDatabase(dataSource, snapshot).run(
+                state -> new BusinessLogicConsumer(state, new TransactionActionFactory()), 256);
+
+        assertThat(replay.size()).isGreaterThan(COMMANDS / 2);
+        assertThat(sequential.divergences()).isEmpty();
+        assertThat(sequential.isConsistent()).isTrue();
+        assertThat(explicit.divergences()).isEmpty();
+    }
+
+    @Test
+    void shouldServeAsOracleForParallelConsumer() {
+        ParallelBusinessLogicConsumer[] consumer = new ParallelBusinessLogicConsumer[1];
+        ReplayResult result = JournalReplay.fromDatabase(dataSource, snapshot).run(state -> {
+            consumer[0] = new ParallelBusinessLogicConsumer(state, new TransactionActionFactory(),
+                    new MetricsRegistry(), 4);
+            return consumer[0];
+        }, 256);
+        consumer[0].onShutdown();
+
+        assertThat(result.divergences()).isEmpty();
+    }
+
+    @Test
+    void shouldServeAsOracleForNettingConsumer() {
+        ReplayResult result = JournalReplay.fromDatabase(dataSource, snapshot).run(
+                state -> new NettingBusinessLogicConsumer(state, new TransactionActionFactory(),
+                        new MetricsRegistry()), 256);
+
+        assertThat(result.divergences()).isEmpty();
+    }
+
+    @Test
+    void shouldReportDivergenceWhenAccountsTableDrifts() {
+        UUID drifted = snapshot.keySet().iterator().next();
+        jdbcTemplate.update("UPDATE \"accounts\" SET \"balance\" = \"balance\" + 1 WHERE \"id\" = ?", drifted);
+        try {
+            ReplayResult result = JournalReplay.fromDatabase(dataSource, snapshot).run(
+                    state -> new BusinessLogicConsumer(state, new TransactionActionFactory()), 256);
+
+            assertThat(result.isConsistent()).isFalse();
+            assertThat(result.divergences()).singleElement().asString().startsWith(drifted.toString());
+        } finally {
+            jdbcTemplate.update("UPDATE \"accounts\" SET \"balance\" = \"balance\" - 1 WHERE \"id\" = ?", drifted);
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package com.bank.application.replication;
+
+import com.bank.core.command.TransactionCommand;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ReplicationProtocolTest {
+
+    @Test
+    void shouldRoundTripAmountsAndStripScaleThatDoesNotFitByte() {
+        ByteBuffer buffer = ByteBuffer.allocate(3 * ReplicationProtocol.RECORD_BYTES);
+        TransactionCommand cents = deposit(new BigDecimal("500.25"));
+        TransactionCommand wideScale = deposit(new BigDecimal("7").setScale(200));
+        TransactionCommand freeze = TransactionCommand.createFreezeCommand(UUID.randomUUID(), UUID.randomUUID());
+
+        ReplicationProtocol.writeCommand(buffer, cents);
+        ReplicationProtocol.writeCommand(buffer, wideScale);
+        ReplicationProtocol.writeCommand(buffer, freeze);
+        buffer.flip();
+
+        assertThat(ReplicationProtocol.readCommand(buffer).getAmount()).isEqualTo(new BigDecimal("500.25"));
+        assertThat(ReplicationProtocol.readCommand(buffer).getAmount()).isEqualByComparingTo("7");
+        TransactionCommand read = ReplicationProtocol.readCommand(buffer);
+        assertThat(read.getAmount()).isNull();
+        assertThat(read.getIdempotencyKey()).isEqualTo(freeze.getIdempotencyKey());
+    }
+
+    @Test
+    void shouldRejectUnencodableAmountBeforeWritingAnyByte() {
+        ByteBuffer buffer = ByteBuffer.allocate(2 * ReplicationProtocol.RECORD_BYTES);
+        TransactionCommand overflowing = deposit(new BigDecimal(Long.MAX_VALUE).add(BigDecimal.ONE));
+        TransactionCommand tooPrecise = deposit(new BigDecimal("1E-200"));
+
+        assertThatThrownBy(() -> ReplicationProtocol.writeCommand(buffer, overflowing))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> ReplicationProtocol.writeCommand(buffer, tooPrecise))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThat(buffer.position()).isZero();
+    }
+
+    private static TransactionCommand deposit(BigDecimal amount) {
+        return TransactionCommand.createDepositCommand(UUID.randomUUID(), UUID.randomUUID(), amount);
+    }
+}
@@ -0,0 +1,62 @@
+package com.bank.application.replication;
+
+import com.bank.core.metrics.MetricsRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.Socket;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ReplicationServerTest {
+
+    @Test
+    void shouldAttachOnlyStandbyThatKnowsTheSecret() throws Exception {
+        MetricsRegistry metrics = new MetricsRegistry();
+        try (ReplicationServer server = new ReplicationServer("127.0.0.1", 0, "s3cret", false, 1000, metrics)) {
+            server.start();
+            ReplicationClient intruder = new ReplicationClient("127.0.0.1", server.getPort(), "guess", 0,
+                    new MetricsRegistry());
+
+            assertThatThrownBy(() -> intruder.connect(200)).isInstanceOf(IOException.class);
+            assertThat(server.hasStandby()).isFalse();
+            assertThat(metrics.counter("bank_replication_rejected_total").sum()).isPositive();
+
+            ReplicationClient standby = new ReplicationClient("127.0.0.1", server.getPort(), "s3cret", 0,
+                    new MetricsRegistry());
+            standby.connect(1000);
+            assertThat(server.hasStandby()).isTrue();
+            standby.close();
+        }
+    }
+
+    @Test
+    void shouldCloseConnectionStillInHandshakeWhenServerCloses() throws Exception {
+        ReplicationServer server = new ReplicationServer("127.0.0.1", 0, "s3cret", false, 1000,
+                new MetricsRegistry());
+        server.start();
+        try (Socket socket = new Socket("127.0.0.1", server.getPort())) {
+            socket.setSoTimeout(2000);
+            DataOutputStream out = new DataOutputStream(socket.getOutputStream());
+            DataInputStream in = new DataInputStream(socket.getInputStream());
+            out.writeInt(ReplicationProtocol.MAGIC);
+            out.writeInt(ReplicationProtocol.VERSION);
+            out.flush();
+            in.readFully(new byte[ReplicationProtocol.NONCE_BYTES]);
+
+            server.close();
+
+            assertThat(in.read()).isEqualTo(-1);
+            assertThat(server.hasStandby()).isFalse();
+        }
+    }
+
+    @Test
+    void shouldRefuseToListenBeyondLoopbackWithoutSecret() {
+        assertThatThrownBy(() -> new ReplicationServer("0.0.0.0", 0, null, false, 1000, new MetricsRegistry()))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,177 @@
+package com.bank.application.service.impl;
+
+import com.bank.core.command.TransactionCommand;
+import com.bank.core.metrics.MetricsRegistry;
+import com.bank.persistence.outbox.OutboxPartitions;
+import org.junit.jupiter.api.*;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class JdbcPartitionedOutboxRepositoryTest {
+
+    private EmbeddedDatabase dataSource;
+    private JdbcTemplate jdbcTemplate;
+    private OutboxPartitions partitions;
+    private JdbcPartitionedOutboxRepository repository;
+
+    @BeforeAll
+    void setupDatabase() {
+        this.dataSource = new EmbeddedDatabaseBuilder()
+                .setType(EmbeddedDatabaseType.H2)
+                .setName("testdb_partitioned_outbox;MODE=PostgreSQL;DATABASE_TO_UPPER=false")
+                .addScript("classpath:schema.sql")
+                .build();
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.partitions = new OutboxPartitions(dataSource, 2);
+        this.repository = new JdbcPartitionedOutboxRepository(dataSource, partitions, Duration.ofMinutes(1),
+                new MetricsRegistry());
+    }
+
+    @AfterAll
+    void shutdownDatabase() {
+        this.dataSource.shutdown();
+    }
+
+    @Test
+    void should_publish_late_commits_and_hold_watermark_below_open_gaps() {
+        TransactionCommand saved = deposit();
+        assertThat(repository.save(saved)).isTrue();
+        assertThat(keys(repository.fetchAndLockUnprocessed(10))).containsExactly(saved.getIdempotencyKey());
+
+        TransactionCommand second = deposit();
+        TransactionCommand late = deposit();
+        TransactionCommand fourth = deposit();
+        insertRow(2, second);
+        insertRow(4, fourth);
+        assertThat(keys(repository.fetchAndLockUnprocessed(10)))
+                .containsExactly(second.getIdempotencyKey(), fourth.getIdempotencyKey());
+        assertThat(repository.trackedGaps()).isOne();
+
+        insertRow(3, late);
+        assertThat(keys(repository.fetchAndLockUnprocessed(10))).containsExactly(late.getIdempotencyKey());
+        assertThat(repository.getPublishedWatermark()).isEqualTo(2);
+        assertThat(repository.fetchAndLockUnprocessed(10)).isEmpty();
+        assertThat(repository.getPublishedWatermark()).isEqualTo(4);
+
+        TransactionCommand sixth = deposit();
+        insertRow(6, sixth);
+        assertThat(keys(repository.fetchAndLockUnprocessed(10))).containsExactly(sixth.getIdempotencyKey());
+        int writer = partitions.beginWrite();
+        assertThat(repository.fetchAndLockUnprocessed(10)).isEmpty();
+        assertThat(repository.trackedGaps()).isOne();
+        partitions.endWrite(writer);
+        repository.fetchAndLockUnprocessed(10);
+        assertThat(repository.trackedGaps()).isZero();
+        repository.fetchAndLockUnprocessed(10);
+        assertThat(repository.getPublishedWatermark()).isEqualTo(6);
+
+        assertThat(partitions.rotate()).isTrue();
+        assertThat(partitions.truncateBelow(5)).isZero();
+        assertThat(partitions.truncateBelow(6)).isOne();
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM \"transaction_outbox_p0\"", Integer.class))
+                .isZero();
+        assertThat(partitions.rotate()).isTrue();
+        assertThat(partitions.activeSlot()).isZero();
+    }
+
+    @Test
+    void should_count_gaps_dropped_by_timeout_while_writer_is_in_flight() {
+        EmbeddedDatabase db = new EmbeddedDatabaseBuilder()
+                .setType(EmbeddedDatabaseType.H2)
+                .setName("testdb_partitioned_outbox_gaps;MODE=PostgreSQL;DATABASE_TO_UPPER=false")
+                .addScript("classpath:schema.sql")
+                .build();
+        try {
+            OutboxPartitions gapPartitions = new OutboxPartitions(db, 2);
+            MetricsRegistry metrics = new MetricsRegistry();
+            JdbcPartitionedOutboxRepository gapRepository = new JdbcPartitionedOutboxRepository(db, gapPartitions,
+                    Duration.ZERO, metrics);
+            TransactionCommand second = deposit();
+            new JdbcTemplate(db).update("INSERT INTO \"transaction_outbox_p0\" (\"seq\", \"idempotency_key\", "
+                    + "\"transaction_id\", \"payload\", \"created_at\") VALUES (2, ?, ?, ?, ?)",
+                    second.getIdempotencyKey(), second.getTransactionId(), gapRepository.toJson(second),
+                    Timestamp.from(Instant.now()));
+
+            int writer = gapPartitions.beginWrite();
+            assertThat(keys(gapRepository.fetchAndLockUnprocessed(10))).containsExactly(second.getIdempotencyKey());
+            assertThat(gapRepository.trackedGaps()).isOne();
+            gapRepository.fetchAndLockUnprocessed(10);
+            gapPartitions.endWrite(writer);
+
+            assertThat(gapRepository.trackedGaps()).isZero();
+            assertThat(metrics.counter("bank_outbox_gap_timeouts_total").sum()).isOne();
+        } finally {
+            db.shutdown();
+        }
+    }
+
+    @Test
+    void should_track_gap_wider_than_any_batch_and_publish_its_rows_when_they_commit() {
+        EmbeddedDatabase db = new EmbeddedDatabaseBuilder()
+                .setType(EmbeddedDatabaseType.H2)
+                .setName("testdb_partitioned_outbox_wide_gap;MODE=PostgreSQL;DATABASE_TO_UPPER=false")
+                .addScript("classpath:schema.sql")
+                .build();
+        try {
+            OutboxPartitions widePartitions = new OutboxPartitions(db, 2);
+            JdbcPartitionedOutboxRepository wideRepository = new JdbcPartitionedOutboxRepository(db, widePartitions,
+                    Duration.ofMinutes(1), new MetricsRegistry());
+            JdbcTemplate wideTemplate = new JdbcTemplate(db);
+            TransactionCommand single = deposit();
+            TransactionCommand first = deposit();
+            TransactionCommand last = deposit();
+
+            int writer = widePartitions.beginWrite();
+            insertRow(wideTemplate, wideRepository, 5000, single);
+            assertThat(keys(wideRepository.fetchAndLockUnprocessed(10))).containsExactly(single.getIdempotencyKey());
+            assertThat(wideRepository.trackedGaps()).isOne();
+
+            insertRow(wideTemplate, wideRepository, 1, first);
+            insertRow(wideTemplate, wideRepository, 4999, last);
+            assertThat(keys(wideRepository.fetchAndLockUnprocessed(10)))
+                    .containsExactly(first.getIdempotencyKey(), last.getIdempotencyKey());
+            assertThat(wideRepository.trackedGaps()).isOne();
+            wideRepository.fetchAndLockUnprocessed(10);
+            assertThat(wideRepository.getPublishedWatermark()).isEqualTo(1);
+
+            widePartitions.endWrite(writer);
+            wideRepository.fetchAndLockUnprocessed(10);
+            wideRepository.fetchAndLockUnprocessed(10);
+            assertThat(wideRepository.trackedGaps()).isZero();
+            assertThat(wideRepository.getPublishedWatermark()).isEqualTo(5000);
+        } finally {
+            db.shutdown();
+        }
+    }
+
+    private List<UUID> keys(List<TransactionCommand> commands) {
+        return commands.stream().map(TransactionCommand::getIdempotencyKey).toList();
+    }
+
+    private TransactionCommand deposit() {
+        return TransactionCommand.createDepositCommand(UUID.randomUUID(), UUID.randomUUID(), BigDecimal.TEN);
+    }
+
+    private void insertRow(long seq, TransactionCommand command) {
+        insertRow(jdbcTemplate, repository, seq, command);
+    }
+
+    private static void insertRow(JdbcTemplate jdbcTemplate, JdbcPartitionedOutboxRepository repository, long seq,
+            TransactionCommand command) {
+        jdbcTemplate.update("INSERT INTO \"transaction_outbox_p0\" (\"seq\", \"idempotency_key\", \"transaction_id\", "
+                + "\"payload\", \"created_at\") VALUES (?, ?, ?, ?, ?)", seq, command.getIdempotencyKey(),
+                command.getTransactionId(), repository.toJson(command), Timestamp.from(Instant.now()));
+    }
+}
@@ -0,0 +1,112 @@
+package com.bank.application.visitor;
+
+import com.bank.core.command.ActionType;
+import com.bank.domain.Account;
+import com.bank.domain.AccountStatus;
+import com.bank.persistence.archive.ArchivedJournalEntry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.StringWriter;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class StreamingReportRunnerTest {
+
+    private final StreamingReportRunner runner = new StreamingReportRunner(4, 100);
+
+    @AfterEach
+    void tearDown() {
+        runner.close();
+    }
+
+    @Test
+    void parallel_account_reports_should_match_sequential_totals_and_keep_row_order() throws Exception {
+        List<Account> accounts = accounts(10_007);
+        StringWriter out = new StringWriter();
+
+        BalanceSummaryVisitor.Summary summary = runner.run(accounts::forEach, new BalanceSummaryVisitor(true), out);
+
+        BigDecimal expectedTotal = accounts.stream().map(Account::getBalance).reduce(BigDecimal.ZERO, BigDecimal::add);
+        assertThat(summary.getAccounts()).isEqualTo(accounts.size());
+        assertThat(summary.getTotalBalance()).isEqualByComparingTo(expectedTotal);
+        for (AccountStatus status : AccountStatus.values()) {
+            assertThat(summary.count(status))
+                    .isEqualTo(accounts.stream().filter(a -> a.getStatus() == status).count());
+        }
+        String[] lines = out.toString().split("\n");
+        assertThat(lines[0]).isEqualTo("id;balance;status");
+        for (int i = 0; i < accounts.size(); i++) {
+            assertThat(lines[i + 1]).startsWith(accounts.get(i).getId() + ";");
+        }
+        assertThat(lines[accounts.size() + 2]).isEqualTo("total_balance;" + expectedTotal.toPlainString());
+
+        TopHoldersVisitor.Top top = runner.run(accounts::forEach, new TopHoldersVisitor(5), new StringWriter());
+        List<Account> expectedTop = new ArrayList<>(accounts);
+        expectedTop.sort(Comparator.comparing(Account::getBalance).thenComparing(Account::getId).reversed());
+        assertThat(top.holders()).extracting(Account::getId)
+                .containsExactlyElementsOf(expectedTop.subList(0, 5).stream().map(Account::getId).toList());
+    }
+
+    @Test
+    void journal_turnover_should_aggregate_by_type_and_failures_should_propagate() throws Exception {
+        List<ArchivedJournalEntry> journal = new ArrayList<>();
+        UUID account = UUID.randomUUID();
+        for (int i = 0; i < 1_000; i++) {
+            ActionType type = i % 2 == 0 ? ActionType.DEPOSIT : ActionType.WITHDRAW;
+            journal.add(new ArchivedJournalEntry(i + 1, i, UUID.randomUUID(), UUID.randomUUID(), type, account, null,
+                    new BigDecimal("1.50")));
+        }
+
+        Map<ActionType, JournalTurnoverVisitor.Turnover> turnover = runner.run(journal::forEach,
+                new JournalTurnoverVisitor(), new StringWriter());
+
+        assertThat(turnover.get(ActionType.DEPOSIT).count()).isEqualTo(500);
+        assertThat(turnover.get(ActionType.WITHDRAW).amount()).isEqualByComparingTo("750.00");
+
+        assertThatThrownBy(() -> runner.run(journal::forEach, new StreamingReportVisitor<ArchivedJournalEntry, long[]>() {
+            @Override
+            public long[] newPartial() {
+                return new long[1];
+            }
+
+            @Override
+            public void visit(ArchivedJournalEntry entry, long[] partial, StringBuilder rows) {
+                if (entry.sequenceId() == 777) {
+                    throw new IllegalStateException("bad row");
+                }
+                partial[0]++;
+            }
+
+            @Override
+            public long[] merge(long[] left, long[] right) {
+                left[0] += right[0];
+                return left;
+            }
+
+            @Override
+            public void writeSummary(long[] total, Writer out) {
+            }
+        }, new StringWriter())).isInstanceOf(IllegalStateException.class).hasMessage("bad row");
+    }
+
+    private static List<Account> accounts(int count) {
+        Random random = new Random(42);
+        AccountStatus[] statuses = AccountStatus.values();
+        List<Account> accounts = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            accounts.add(new Account(UUID.randomUUID(), BigDecimal.valueOf(random.nextInt(1_000_000), 2),
+                    statuses[random.nextInt(statuses.length)]));
+        }
+        return accounts;
+    }
+}
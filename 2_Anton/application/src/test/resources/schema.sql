@@ -1,5 +1,7 @@
+DROP TABLE IF EXISTS "account_postings";
 DROP TABLE IF EXISTS "transaction_journal";
 DROP TABLE IF EXISTS "processed_transactions";
+DROP TABLE IF EXISTS "transaction_outbox_dlq_archive";
 DROP TABLE IF EXISTS "transaction_outbox_dlq";
 DROP TABLE IF EXISTS "transaction_outbox";
 DROP TABLE IF EXISTS "idempotency_keys";
@@ -28,11 +30,29 @@ CREATE TABLE "transaction_outbox" (
 
 CREATE TABLE "transaction_outbox_dlq" (
     "id" UUID PRIMARY KEY,
+    "idempotency_key" UUID,
     "payload" VARCHAR(2048) NOT NULL,
     "reason" VARCHAR(1024),
+    "error_type" VARCHAR(100),
+    "retryable" BOOLEAN DEFAULT FALSE NOT NULL,
+    "attempts" INT DEFAULT 0 NOT NULL,
+    "next_attempt_at" TIMESTAMP,
     "moved_at" TIMESTAMP NOT NULL
 );
 
+CREATE INDEX "transaction_outbox_dlq_due" ON "transaction_outbox_dlq" ("retryable", "next_attempt_at");
+
+CREATE TABLE "transaction_outbox_dlq_archive" (
+    "id" UUID PRIMARY KEY,
+    "idempotency_key" UUID,
+    "payload" VARCHAR(2048) NOT NULL,
+    "reason" VARCHAR(1024),
+    "error_type" VARCHAR(100),
+    "attempts" INT NOT NULL,
+    "moved_at" TIMESTAMP NOT NULL,
+    "archived_at" TIMESTAMP NOT NULL
+);
+
 CREATE TABLE "processed_transactions" (
     "idempotency_key" UUID PRIMARY KEY,
     "processed_at" TIMESTAMP NOT NULL
@@ -48,3 +68,15 @@ CREATE TABLE "transaction_journal" (
     "account_id_to" UUID,
     "amount" DECIMAL(19, 2)
 );
+
+CREATE TABLE "account_postings" (
+    "account_id" UUID NOT NULL,
+    "posting_no" BIGINT NOT NULL,
+    "transaction_id" UUID NOT NULL,
+    "command_type" VARCHAR(50) NOT NULL,
+    "counterparty_id" UUID,
+    "amount" DECIMAL(19, 2) NOT NULL,
+    "balance_after" DECIMAL(19, 2) NOT NULL,
+    "posted_at" TIMESTAMP NOT NULL,
+    PRIMARY KEY ("account_id", "posting_no")
+);
@@ -0,0 +1,71 @@
+package com.bank.benchmarks;
+
+import com.bank.core.exception.AccountNotFoundException;
+import com.bank.core.state.AccountState;
+import com.bank.domain.Account;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Поиск счетов в AccountState: попадания в случайном порядке и промахи containsAccount
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 2, jvmArgsAppend = {"-Xms1g", "-Xmx1g"})
+@State(Scope.Thread)
+public class AccountStateBenchmark {
+
+    private static final int LOOKUPS = 1 << 16;
+
+    @Param({"1000", "100000", "1000000"})
+    public int accounts;
+
+    private UUID[] hits;
+    private UUID[] misses;
+    private int index;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        UUID[] ids = BenchmarkData.accountIds(accounts);
+        AccountState.INSTANCE.loadAll(BenchmarkData.accounts(ids));
+
+        Random random = new Random(BenchmarkData.SEED + 2);
+        hits = new UUID[LOOKUPS];
+        misses = new UUID[LOOKUPS];
+        for (int i = 0; i < LOOKUPS; i++) {
+            UUID id = ids[random.nextInt(ids.length)];
+            hits[i] = new UUID(id.getMostSignificantBits(), id.getLeastSignificantBits());
+            misses[i] = new UUID(random.nextLong(), random.nextLong());
+        }
+    }
+
+    @Benchmark
+    public Account getAccount() throws AccountNotFoundException {
+        int i = index;
+        index = (i + 1) & (LOOKUPS - 1);
+        return AccountState.INSTANCE.getAccount(hits[i]);
+    }
+
+    @Benchmark
+    public boolean containsAccountMiss() {
+        int i = index;
+        index = (i + 1) & (LOOKUPS - 1);
+        return AccountState.INSTANCE.containsAccount(misses[i]);
+    }
+}
@@ -0,0 +1,67 @@
+package com.bank.benchmarks;
+
+import com.bank.core.command.TransactionCommand;
+import com.bank.domain.Account;
+import com.bank.domain.AccountStatus;
+
+import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
+
+/**
+ * Детерминированные наборы данных для бенчмарков: фиксированный seed,
+ * чтобы прогоны были сравнимы между собой
+ */
+final class BenchmarkData {
+
+    static final long SEED = 42L;
+    static final BigDecimal INITIAL_BALANCE = new BigDecimal("1000000000.00");
+    static final BigDecimal AMOUNT = new BigDecimal("1.00");
+
+    private BenchmarkData() {
+    }
+
+    static UUID[] accountIds(int count) {
+        Random random = new Random(SEED);
+        UUID[] ids = new UUID[count];
+        for (int i = 0; i < count; i++) {
+            ids[i] = new UUID(random.nextLong(), random.nextLong());
+        }
+        return ids;
+    }
+
+    static Map<UUID, Account> accounts(UUID[] ids) {
+        Map<UUID, Account> accounts = new HashMap<>(ids.length * 2);
+        for (UUID id : ids) {
+            accounts.put(id, new Account(id, INITIAL_BALANCE, AccountStatus.ACTIVE));
+        }
+        return accounts;
+    }
+
+    /**
+     * Смесь депозитов, списаний и переводов примерно 40/20/40 по случайным счетам
+     */
+    static TransactionCommand[] mixedCommands(UUID[] ids, int count) {
+        Random random = new Random(SEED + 1);
+        TransactionCommand[] commands = new TransactionCommand[count];
+        for (int i = 0; i < count; i++) {
+            UUID key = new UUID(random.nextLong(), random.nextLong());
+            UUID account = ids[random.nextInt(ids.length)];
+            int kind = random.nextInt(10);
+            if (kind < 4) {
+                commands[i] = TransactionCommand.createDepositCommand(key, account, AMOUNT);
+            } else if (kind < 6) {
+                commands[i] = TransactionCommand.createWithdrawCommand(key, account, AMOUNT);
+            } else {
+                UUID target = ids[random.nextInt(ids.length)];
+                while (target.equals(account)) {
+                    target = ids[random.nextInt(ids.length)];
+                }
+                commands[i] = TransactionCommand.createTransferCommand(key, account, target, AMOUNT);
+            }
+        }
+        return commands;
+    }
+}
@@ -0,0 +1,62 @@
+package com.bank.benchmarks;
+
+import com.bank.core.command.TransactionCommand;
+import com.bank.core.command.factory.TransactionActionFactory;
+import com.bank.core.engine.TransactionEvent;
+import com.bank.core.engine.consumers.BusinessLogicConsumer;
+import com.bank.core.state.AccountState;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * BusinessLogicConsumer.onEvent на смеси депозитов, списаний и переводов
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 2, jvmArgsAppend = {"-Xms1g", "-Xmx1g"})
+@State(Scope.Thread)
+public class BusinessLogicConsumerBenchmark {
+
+    private static final int COMMANDS = 1 << 16;
+
+    @Param({"1000", "100000"})
+    public int accounts;
+
+    private BusinessLogicConsumer consumer;
+    private TransactionCommand[] commands;
+    private final TransactionEvent event = new TransactionEvent();
+    private long sequence;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        UUID[] ids = BenchmarkData.accountIds(accounts);
+        AccountState.INSTANCE.loadAll(BenchmarkData.accounts(ids));
+        commands = BenchmarkData.mixedCommands(ids, COMMANDS);
+        consumer = new BusinessLogicConsumer(AccountState.INSTANCE, new TransactionActionFactory());
+    }
+
+    @Benchmark
+    public TransactionEvent onEvent() {
+        long seq = sequence++;
+        event.clear();
+        event.setCommand(commands[(int) (seq & (COMMANDS - 1))]);
+        event.setShouldProcess(true);
+        consumer.onEvent(event, seq, true);
+        return event;
+    }
+}
@@ -0,0 +1,155 @@
+package com.bank.benchmarks;
+
+import com.bank.core.command.ActionType;
+import com.bank.core.command.TransactionCommand;
+import com.bank.persistence.archive.ArchivedJournalEntry;
+import com.bank.persistence.columnar.AccountFlow;
+import com.bank.persistence.columnar.ColumnarJournalReader;
+import com.bank.persistence.columnar.ColumnarJournalWriter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Обороты по счету и по всем счетам за интервал: колоночный файл против построчного чтения того же файла
+ * и против SQL по transaction_journal в H2 (без индекса по счетам, как в схеме)
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+@State(Scope.Benchmark)
+public class ColumnarJournalBenchmark {
+
+    private static final long START = Instant.parse("2026-01-01T00:00:00Z").toEpochMilli();
+    private static final String ACCOUNT_FLOW_SQL = "SELECT "
+            + "SUM(CASE WHEN (\"command_type\" = 'DEPOSIT' AND \"account_id_from\" = ?) OR (\"command_type\" = 'TRANSFER' AND \"account_id_to\" = ?) THEN \"amount\" ELSE 0 END), "
+            + "SUM(CASE WHEN \"command_type\" IN ('WITHDRAW', 'TRANSFER') AND \"account_id_from\" = ? THEN \"amount\" ELSE 0 END), "
+            + "COUNT(*) FROM \"transaction_journal\" "
+            + "WHERE (\"account_id_from\" = ? OR \"account_id_to\" = ?) AND \"timestamp\" >= ? AND \"timestamp\" < ?";
+
+    @Param({"200000"})
+    public int rows;
+
+    private Path file;
+    private ColumnarJournalReader reader;
+    private DriverManagerDataSource dataSource;
+    private JdbcTemplate jdbcTemplate;
+    private UUID account;
+    private Instant from;
+    private Instant to;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        UUID[] ids = BenchmarkData.accountIds(1000);
+        TransactionCommand[] commands = BenchmarkData.mixedCommands(ids, rows);
+        account = ids[7];
+        from = Instant.ofEpochMilli(START + rows / 4);
+        to = Instant.ofEpochMilli(START + rows * 3L / 4);
+
+        dataSource = new DriverManagerDataSource("jdbc:h2:mem:columnar_bench;MODE=PostgreSQL;DATABASE_TO_UPPER=false;DB_CLOSE_DELAY=-1");
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("CREATE TABLE \"transaction_journal\" (\"sequence_id\" BIGSERIAL PRIMARY KEY, "
+                + "\"idempotency_key\" UUID NOT NULL UNIQUE, \"transaction_id\" UUID NOT NULL, \"timestamp\" TIMESTAMP NOT NULL, "
+                + "\"command_type\" VARCHAR(50) NOT NULL, \"account_id_from\" UUID NOT NULL, \"account_id_to\" UUID, "
+                + "\"amount\" DECIMAL(19, 2))");
+
+        file = Files.createTempFile("journal", ".bcol");
+        try (ColumnarJournalWriter writer = new ColumnarJournalWriter(file)) {
+            for (int i = 0; i < rows; i++) {
+                TransactionCommand c = commands[i];
+                writer.append(new ArchivedJournalEntry(i + 1, START + i, c.getIdempotencyKey(), c.getTransactionId(),
+                        c.getActionType(), c.getAccountId(), c.getTargetAccountId(), c.getAmount()));
+            }
+            writer.commit();
+        }
+        reader = new ColumnarJournalReader(file);
+
+        String insert = "INSERT INTO \"transaction_journal\" (\"idempotency_key\", \"transaction_id\", \"timestamp\", "
+                + "\"command_type\", \"account_id_from\", \"account_id_to\", \"amount\") VALUES (?, ?, ?, ?, ?, ?, ?)";
+        for (int offset = 0; offset < rows; offset += 10_000) {
+            int base = offset;
+            jdbcTemplate.batchUpdate(insert, new BatchPreparedStatementSetter() {
+                @Override
+                public void setValues(PreparedStatement ps, int i) throws SQLException {
+                    TransactionCommand c = commands[base + i];
+                    ps.setObject(1, c.getIdempotencyKey());
+                    ps.setObject(2, c.getTransactionId());
+                    ps.setTimestamp(3, new Timestamp(START + base + i));
+                    ps.setString(4, c.getActionType().name());
+                    ps.setObject(5, c.getAccountId());
+                    ps.setObject(6, c.getTargetAccountId());
+                    ps.setBigDecimal(7, c.getAmount());
+                }
+
+                @Override
+                public int getBatchSize() {
+                    return Math.min(10_000, rows - base);
+                }
+            });
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        reader.close();
+        Files.deleteIfExists(file);
+        jdbcTemplate.execute("SHUTDOWN");
+    }
+
+    @Benchmark
+    public AccountFlow columnarAccount() {
+        return reader.aggregate(account, from, to);
+    }
+
+    @Benchmark
+    public Map<UUID, AccountFlow> columnarAllAccounts() {
+        return reader.aggregateByAccount(from, to);
+    }
+
+    @Benchmark
+    public BigDecimal rowScanAccount() {
+        BigDecimal[] net = { BigDecimal.ZERO };
+        reader.scan(from, to, e -> {
+            if (!e.touches(account) || e.amount() == null) {
+                return;
+            }
+            boolean credit = e.actionType() == ActionType.DEPOSIT
+                    || (e.actionType() == ActionType.TRANSFER && account.equals(e.targetAccountId()));
+            net[0] = credit ? net[0].add(e.amount()) : net[0].subtract(e.amount());
+        });
+        return net[0];
+    }
+
+    @Benchmark
+    public Map<String, Object> h2Account() {
+        return jdbcTemplate.queryForMap(ACCOUNT_FLOW_SQL, account, account, account, account, account,
+                Timestamp.from(from), Timestamp.from(to));
+    }
+}
@@ -0,0 +1,141 @@
+package com.bank.benchmarks;
+
+import com.bank.application.engine.IdempotencyCheckConsumer;
+import com.bank.core.command.TransactionCommand;
+import com.bank.core.command.factory.TransactionActionFactory;
+import com.bank.core.engine.EngineConfig;
+import com.bank.core.engine.TransactionEvent;
+import com.bank.core.engine.TransactionEventProducer;
+import com.bank.core.engine.TransactionRingBuffer;
+import com.bank.core.engine.WaitStrategyType;
+import com.bank.core.engine.consumers.BatchDatabasePersistenceConsumer;
+import com.bank.core.engine.consumers.BusinessLogicConsumer;
+import com.bank.core.metrics.LatencySnapshot;
+import com.bank.core.metrics.LatencyStage;
+import com.bank.core.metrics.LatencyTracker;
+import com.bank.core.state.AccountState;
+import com.lmax.disruptor.RingBuffer;
+
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+import java.util.UUID;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Матрица настроек движка: каждая стратегия ожидания на каждом размере RingBuffer.
+ * Конвейер тот же, что в приложении (идемпотентность -> бизнес-логика -> пакетная запись),
+ * только запись в БД заменена заглушкой, чтобы измерялся сам движок.
+ * Для каждой комбинации печатается предельная пропускная способность, а при фиксированной
+ * нагрузке — перцентили PUBLISH_TO_COMMIT и загрузка CPU процессом (в ядрах)
+ */
+public class EngineConfigMatrix {
+
+    private static final int PUBLISH_BATCH = 256;
+    private static final int PACED_BATCH = 100;
+
+    public static void main(String[] args) {
+        int throughputCommands = Integer.getInteger("bank.matrix.commands", 500_000);
+        int pacedRate = Integer.getInteger("bank.matrix.rate", 100_000);
+        int pacedSeconds = Integer.getInteger("bank.matrix.seconds", 2);
+        int[] ringSizes = Arrays.stream(System.getProperty("bank.matrix.ringSizes", "1024,16384,131072").split(","))
+                .mapToInt(s -> Integer.parseInt(s.trim()))
+                .toArray();
+
+        UUID[] ids = BenchmarkData.accountIds(10_000);
+        AccountState.INSTANCE.loadAll(BenchmarkData.accounts(ids));
+        TransactionCommand[] commands = BenchmarkData.mixedCommands(ids,
+                Math.max(throughputCommands, pacedRate * pacedSeconds));
+
+        System.out.printf("%-15s %8s %12s %10s %10s %10s %10s%n", "strategy", "ring", "max cmd/s", "p50 us",
+                "p99 us", "p99.9 us", "CPU cores");
+        for (WaitStrategyType strategy : WaitStrategyType.values()) {
+            for (int ringSize : ringSizes) {
+                EngineConfig config = EngineConfig.load().withWaitStrategy(strategy).withRingSize(ringSize);
+                double throughput = runThroughput(config, commands, throughputCommands);
+                Paced paced = runPaced(config, commands, pacedRate, pacedSeconds);
+                System.out.printf("%-15s %8d %12.0f %10.1f %10.1f %10.1f %10.2f%n", strategy, ringSize, throughput,
+                        paced.latency.p50() / 1e3, paced.latency.p99() / 1e3, paced.latency.p999() / 1e3,
+                        paced.cpuCores);
+            }
+        }
+    }
+
+    private static double runThroughput(EngineConfig config, TransactionCommand[] commands, int count) {
+        Pipeline pipeline = new Pipeline(config);
+        try {
+            long start = System.nanoTime();
+            for (int offset = 0; offset < count; offset += PUBLISH_BATCH) {
+                int from = offset;
+                pipeline.producer.publishBatch(Math.min(PUBLISH_BATCH, count - offset), i -> commands[from + i]);
+            }
+            pipeline.awaitDrained();
+            return count / ((System.nanoTime() - start) / 1e9);
+        } finally {
+            pipeline.stop();
+        }
+    }
+
+    private static Paced runPaced(EngineConfig config, TransactionCommand[] commands, int rate, int seconds) {
+        Pipeline pipeline = new Pipeline(config);
+        try {
+            int count = rate * seconds;
+            long intervalNanos = 1_000_000_000L * PACED_BATCH / rate;
+            pipeline.latencyTracker.intervalSnapshot();
+            long cpuStart = processCpuTime();
+            long start = System.nanoTime();
+            long next = start;
+            for (int offset = 0; offset < count; offset += PACED_BATCH) {
+                long wait = next - System.nanoTime();
+                if (wait > 0) {
+                    LockSupport.parkNanos(wait);
+                }
+                int from = offset;
+                pipeline.producer.publishBatch(Math.min(PACED_BATCH, count - offset), i -> commands[from + i]);
+                next += intervalNanos;
+            }
+            pipeline.awaitDrained();
+            long elapsed = System.nanoTime() - start;
+            double cpuCores = (double) (processCpuTime() - cpuStart) / elapsed;
+            LatencySnapshot latency = pipeline.latencyTracker.intervalSnapshot().get(LatencyStage.PUBLISH_TO_COMMIT);
+            return new Paced(latency, cpuCores);
+        } finally {
+            pipeline.stop();
+        }
+    }
+
+    private static long processCpuTime() {
+        return ((com.sun.management.OperatingSystemMXBean) ManagementFactory.getOperatingSystemMXBean())
+                .getProcessCpuTime();
+    }
+
+    private record Paced(LatencySnapshot latency, double cpuCores) {
+    }
+
+    private static final class Pipeline {
+        private final TransactionRingBuffer ringBuffer;
+        private final TransactionEventProducer producer;
+        private final LatencyTracker latencyTracker = new LatencyTracker();
+
+        Pipeline(EngineConfig config) {
+            ringBuffer = new TransactionRingBuffer(config);
+            ringBuffer.getDisruptor()
+                    .handleEventsWith(new IdempotencyCheckConsumer())
+                    .then(new BusinessLogicConsumer(AccountState.INSTANCE, new TransactionActionFactory()))
+                    .then(new BatchDatabasePersistenceConsumer(unitOfWork -> {
+                    }, latencyTracker));
+            ringBuffer.start();
+            producer = new TransactionEventProducer(ringBuffer.getRingBuffer());
+        }
+
+        void awaitDrained() {
+            RingBuffer<TransactionEvent> ring = ringBuffer.getRingBuffer();
+            while (ring.remainingCapacity() < ring.getBufferSize()) {
+                Thread.onSpinWait();
+            }
+        }
+
+        void stop() {
+            ringBuffer.stop();
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package com.bank.benchmarks;
+
+import com.bank.application.engine.IdempotencyCheckConsumer;
+import com.bank.core.command.TransactionCommand;
+import com.bank.core.engine.TransactionEvent;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * IdempotencyCheckConsumer: новые ключи (промах кеша и вставка) и повторы (попадание).
+ * Для новых ключей один вызов прогоняет весь набор через свежий кеш,
+ * который пересобирается вне замера, так что размер кеша не растет между итерациями
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 2, jvmArgsAppend = {"-Xms1g", "-Xmx1g"})
+@State(Scope.Thread)
+public class IdempotencyCheckConsumerBenchmark {
+
+    private static final int KEYS = 1 << 16;
+
+    @Param({"100000", "1000000"})
+    public int cachedKeys;
+
+    private TransactionCommand[] commands;
+    private Set<UUID> existingKeys;
+    private IdempotencyCheckConsumer duplicateConsumer;
+    private final TransactionEvent event = new TransactionEvent();
+    private int duplicateIndex;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        Random random = new Random(BenchmarkData.SEED);
+        existingKeys = new HashSet<>(cachedKeys * 2);
+        while (existingKeys.size() < cachedKeys) {
+            existingKeys.add(new UUID(random.nextLong(), random.nextLong()));
+        }
+        UUID account = new UUID(random.nextLong(), random.nextLong());
+        commands = new TransactionCommand[KEYS];
+        for (int i = 0; i < KEYS; i++) {
+            commands[i] = TransactionCommand.createDepositCommand(new UUID(random.nextLong(), random.nextLong()),
+                    account, BigDecimal.ONE);
+        }
+
+        duplicateConsumer = new IdempotencyCheckConsumer();
+        duplicateConsumer.initializeCache(existingKeys);
+        for (int i = 0; i < KEYS; i++) {
+            event.clear();
+            event.setCommand(commands[i]);
+            duplicateConsumer.onEvent(event, i, true);
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class FreshCache {
+        IdempotencyCheckConsumer consumer;
+
+        @Setup(Level.Invocation)
+        public void reset(IdempotencyCheckConsumerBenchmark data) {
+            consumer = new IdempotencyCheckConsumer();
+            consumer.initializeCache(data.existingKeys);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(KEYS)
+    public int freshKeys(FreshCache cache) throws Exception {
+        int accepted = 0;
+        for (int i = 0; i < KEYS; i++) {
+            event.clear();
+            event.setCommand(commands[i]);
+            cache.consumer.onEvent(event, i, true);
+            if (event.shouldProcess()) {
+                accepted++;
+            }
+        }
+        return accepted;
+    }
+
+    @Benchmark
+    public boolean duplicateKey() throws Exception {
+        event.clear();
+        event.setCommand(commands[duplicateIndex]);
+        duplicateConsumer.onEvent(event, duplicateIndex, true);
+        duplicateIndex = (duplicateIndex + 1) & (KEYS - 1);
+        return event.shouldProcess();
+    }
+}
@@ -0,0 +1,62 @@
+package com.bank.benchmarks;
+
+import com.bank.application.replay.JournalReplay;
+import com.bank.application.replay.ReplayResult;
+import com.bank.core.command.factory.TransactionActionFactory;
+import com.bank.core.engine.consumers.BusinessLogicConsumer;
+import com.bank.core.engine.consumers.ParallelBusinessLogicConsumer;
+import com.bank.core.metrics.MetricsRegistry;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.util.Arrays;
+
+/**
+ * Повтор снятого transaction_journal на максимальной скорости.
+ * Читает журнал и accounts из БД (-Dbank.replay.url, по умолчанию файловая H2 сервера),
+ * прогоняет его несколько раз для каждого числа потоков бизнес-логики и печатает
+ * пропускную способность и результат сверки с accounts
+ */
+public class JournalReplayBenchmark {
+
+    public static void main(String[] args) {
+        String url = System.getProperty("bank.replay.url",
+                "jdbc:h2:./bank_storage;MODE=PostgreSQL;DATABASE_TO_UPPER=false;ACCESS_MODE_DATA=r");
+        int warmup = Integer.getInteger("bank.replay.warmup", 3);
+        int iterations = Integer.getInteger("bank.replay.iterations", 5);
+        int batchSize = Integer.getInteger("bank.replay.batchSize", 256);
+        int[] workers = Arrays.stream(System.getProperty("bank.replay.workers", "0,2,4").split(","))
+                .mapToInt(s -> Integer.parseInt(s.trim()))
+                .toArray();
+
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(url,
+                System.getProperty("bank.replay.user", "sa"), System.getProperty("bank.replay.password", ""));
+        JournalReplay replay = JournalReplay.fromDatabase(dataSource);
+        System.out.printf("Journal: %d commands, batch %d%n", replay.size(), batchSize);
+
+        for (int workerCount : workers) {
+            MetricsRegistry metrics = new MetricsRegistry();
+            ReplayResult last = null;
+            double best = 0;
+            for (int i = 0; i < warmup + iterations; i++) {
+                ParallelBusinessLogicConsumer[] parallel = new ParallelBusinessLogicConsumer[1];
+                last = replay.run(state -> {
+                    if (workerCount == 0) {
+                        return new BusinessLogicConsumer(state, new TransactionActionFactory(), metrics);
+                    }
+                    parallel[0] = new ParallelBusinessLogicConsumer(state, new TransactionActionFactory(), metrics,
+                            workerCount);
+                    return parallel[0];
+                }, batchSize);
+                if (parallel[0] != null) {
+                    parallel[0].onShutdown();
+                }
+                if (i >= warmup) {
+                    best = Math.max(best, last.commandsPerSecond());
+                }
+            }
+            System.out.printf("workers=%d: best %.0f cmd/s, consistent=%s, rejected=%d%n", workerCount, best,
+                    last.isConsistent(), last.rejected());
+            last.divergences().forEach(d -> System.out.println("  " + d));
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package com.bank.benchmarks;
+
+import com.bank.core.command.TransactionCommand;
+import com.bank.core.command.factory.TransactionActionFactory;
+import com.bank.core.engine.TransactionEvent;
+import com.bank.core.engine.consumers.BusinessLogicConsumer;
+import com.bank.core.engine.consumers.NettingBusinessLogicConsumer;
+import com.bank.core.metrics.MetricsRegistry;
+import com.bank.core.state.AccountState;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Пачка пополнений, hotPercent процентов которых идет на один счет (расчетный счет мерчанта),
+ * через BusinessLogicConsumer и NettingBusinessLogicConsumer; результат — время на команду
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 2, jvmArgsAppend = {"-Xms1g", "-Xmx1g"})
+@State(Scope.Thread)
+public class NettingBusinessLogicBenchmark {
+
+    private static final int BATCH = 1024;
+
+    @Param({"false", "true"})
+    public boolean netting;
+
+    @Param({"0", "50", "95"})
+    public int hotPercent;
+
+    private BusinessLogicConsumer consumer;
+    private final TransactionCommand[] commands = new TransactionCommand[BATCH];
+    private final TransactionEvent[] events = new TransactionEvent[BATCH];
+    private long sequence;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        UUID[] ids = BenchmarkData.accountIds(1000);
+        AccountState.INSTANCE.loadAll(BenchmarkData.accounts(ids));
+        Random random = new Random(BenchmarkData.SEED);
+        for (int i = 0; i < BATCH; i++) {
+            UUID account = random.nextInt(100) < hotPercent ? ids[0] : ids[random.nextInt(ids.length)];
+            commands[i] = TransactionCommand.createDepositCommand(new UUID(random.nextLong(), random.nextLong()),
+                    account, BenchmarkData.AMOUNT);
+            events[i] = new TransactionEvent();
+        }
+        consumer = netting
+                ? new NettingBusinessLogicConsumer(AccountState.INSTANCE, new TransactionActionFactory(),
+                        new MetricsRegistry())
+                : new BusinessLogicConsumer(AccountState.INSTANCE, new TransactionActionFactory());
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public TransactionEvent[] onBatch() {
+        for (int i = 0; i < BATCH; i++) {
+            TransactionEvent event = events[i];
+            event.clear();
+            event.setCommand(commands[i]);
+            event.setShouldProcess(true);
+            consumer.onEvent(event, sequence++, i == BATCH - 1);
+        }
+        return events;
+    }
+}
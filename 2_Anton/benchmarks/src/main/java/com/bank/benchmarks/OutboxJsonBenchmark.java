@@ -0,0 +1,61 @@
+package com.bank.benchmarks;
+
+import com.bank.core.command.TransactionCommand;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * (Де)сериализация payload команды в outbox тем же ObjectMapper, что и в
+ * JdbcTransactionalOutboxRepository
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 2, jvmArgsAppend = {"-Xms1g", "-Xmx1g"})
+@State(Scope.Thread)
+public class OutboxJsonBenchmark {
+
+    private static final int PAYLOADS = 1 << 10;
+
+    private final ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+    private TransactionCommand[] commands;
+    private String[] payloads;
+    private int index;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        commands = BenchmarkData.mixedCommands(BenchmarkData.accountIds(1000), PAYLOADS);
+        payloads = new String[PAYLOADS];
+        for (int i = 0; i < PAYLOADS; i++) {
+            payloads[i] = objectMapper.writeValueAsString(commands[i]);
+        }
+    }
+
+    @Benchmark
+    public String serialize() throws Exception {
+        int i = index;
+        index = (i + 1) & (PAYLOADS - 1);
+        return objectMapper.writeValueAsString(commands[i]);
+    }
+
+    @Benchmark
+    public TransactionCommand deserialize() throws Exception {
+        int i = index;
+        index = (i + 1) & (PAYLOADS - 1);
+        return objectMapper.readValue(payloads[i], TransactionCommand.class);
+    }
+}
@@ -0,0 +1,87 @@
+package com.bank.benchmarks;
+
+import com.bank.core.command.TransactionCommand;
+import com.bank.core.command.factory.TransactionActionFactory;
+import com.bank.core.engine.TransactionEvent;
+import com.bank.core.engine.consumers.BusinessLogicConsumer;
+import com.bank.core.engine.consumers.ParallelBusinessLogicConsumer;
+import com.bank.core.metrics.MetricsRegistry;
+import com.bank.core.state.AccountState;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Одна пачка Disruptor из BATCH команд через BusinessLogicConsumer (workers = 0)
+ * и ParallelBusinessLogicConsumer. На 1000 счетов группы почти не пересекаются (fan-out),
+ * на 2 счетах вся пачка — одна группа и выполняется последовательно; результат — время на команду
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 2, jvmArgsAppend = {"-Xms1g", "-Xmx1g"})
+@State(Scope.Thread)
+public class ParallelBusinessLogicBenchmark {
+
+    private static final int BATCH = 1024;
+
+    @Param({"0", "2", "4"})
+    public int workers;
+
+    @Param({"2", "1000"})
+    public int accounts;
+
+    private BusinessLogicConsumer consumer;
+    private TransactionCommand[] commands;
+    private final TransactionEvent[] events = new TransactionEvent[BATCH];
+    private long sequence;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        UUID[] ids = BenchmarkData.accountIds(accounts);
+        AccountState.INSTANCE.loadAll(BenchmarkData.accounts(ids));
+        commands = BenchmarkData.mixedCommands(ids, BATCH);
+        for (int i = 0; i < BATCH; i++) {
+            events[i] = new TransactionEvent();
+        }
+        consumer = workers == 0
+                ? new BusinessLogicConsumer(AccountState.INSTANCE, new TransactionActionFactory())
+                : new ParallelBusinessLogicConsumer(AccountState.INSTANCE, new TransactionActionFactory(),
+                        new MetricsRegistry(), workers);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        if (consumer instanceof ParallelBusinessLogicConsumer parallel) {
+            parallel.onShutdown();
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public TransactionEvent[] onBatch() {
+        for (int i = 0; i < BATCH; i++) {
+            TransactionEvent event = events[i];
+            event.clear();
+            event.setCommand(commands[i]);
+            event.setShouldProcess(true);
+            consumer.onEvent(event, sequence++, i == BATCH - 1);
+        }
+        return events;
+    }
+}
@@ -0,0 +1,134 @@
+package com.bank.benchmarks;
+
+import com.bank.application.config.BankDataSources;
+import com.bank.application.config.DataSourceConfig;
+import com.bank.application.service.impl.JdbcTransactionalOutboxRepository;
+import com.bank.core.command.TransactionCommand;
+import com.bank.core.port.out.BatchUnitOfWork;
+import com.bank.domain.Account;
+import com.bank.domain.AccountStatus;
+import com.bank.persistence.repository.impl.JdbcBatchPersister;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Батч персистера и запись в outbox на H2 и на PostgreSQL: тот же код, разный диалект и пулы.
+ * Локальный PostgreSQL: -p url=jdbc:postgresql://localhost:5432/bank -p user=bank -p password=...
+ * (таблицы пересоздаются)
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms1g", "-Xmx1g"})
+@State(Scope.Benchmark)
+public class PersistenceDialectBenchmark {
+
+    private static final String[] SCHEMA = {
+            "DROP TABLE IF EXISTS \"transaction_journal\"",
+            "DROP TABLE IF EXISTS \"processed_transactions\"",
+            "DROP TABLE IF EXISTS \"transaction_outbox\"",
+            "DROP TABLE IF EXISTS \"idempotency_keys\"",
+            "DROP TABLE IF EXISTS \"accounts\"",
+            "CREATE TABLE \"accounts\" (\"id\" UUID PRIMARY KEY, \"balance\" DECIMAL(19, 2) NOT NULL, \"status\" VARCHAR(20) NOT NULL)",
+            "CREATE TABLE \"idempotency_keys\" (\"key\" UUID PRIMARY KEY, \"created_at\" TIMESTAMP NOT NULL)",
+            "CREATE TABLE \"transaction_outbox\" (\"idempotency_key\" UUID PRIMARY KEY, \"transaction_id\" UUID NOT NULL UNIQUE, \"payload\" VARCHAR(2048) NOT NULL, \"status\" VARCHAR(20) DEFAULT 'PENDING' NOT NULL, \"attempts\" INT DEFAULT 0 NOT NULL, \"failure_count\" INT DEFAULT 0 NOT NULL, \"created_at\" TIMESTAMP NOT NULL)",
+            "CREATE TABLE \"processed_transactions\" (\"idempotency_key\" UUID PRIMARY KEY, \"processed_at\" TIMESTAMP NOT NULL)",
+            "CREATE TABLE \"transaction_journal\" (\"sequence_id\" BIGSERIAL PRIMARY KEY, \"idempotency_key\" UUID NOT NULL UNIQUE, \"transaction_id\" UUID NOT NULL, \"timestamp\" TIMESTAMP NOT NULL, \"command_type\" VARCHAR(50) NOT NULL, \"account_id_from\" UUID NOT NULL, \"account_id_to\" UUID, \"amount\" DECIMAL(19, 2))"
+    };
+
+    @Param({"jdbc:h2:mem:dialect_bench;MODE=PostgreSQL;DATABASE_TO_UPPER=false;DB_CLOSE_DELAY=-1"})
+    public String url;
+
+    @Param({"bank"})
+    public String user;
+
+    @Param({""})
+    public String password;
+
+    @Param({"100", "1000"})
+    public int batch;
+
+    private BankDataSources dataSources;
+    private JdbcBatchPersister persister;
+    private JdbcTransactionalOutboxRepository outbox;
+    private UUID[] ids;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        dataSources = url.startsWith("jdbc:postgresql:")
+                ? DataSourceConfig.postgres(url, user, password)
+                : BankDataSources.single(new DriverManagerDataSource(url));
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSources.query());
+        for (String ddl : SCHEMA) {
+            jdbcTemplate.execute(ddl);
+        }
+        ids = BenchmarkData.accountIds(10_000);
+        jdbcTemplate.batchUpdate("INSERT INTO \"accounts\" (\"id\", \"balance\", \"status\") VALUES (?, ?, 'ACTIVE')",
+                Arrays.asList(ids), 1000, (ps, id) -> {
+                    ps.setObject(1, id);
+                    ps.setBigDecimal(2, BenchmarkData.INITIAL_BALANCE);
+                });
+        persister = new JdbcBatchPersister(dataSources.persister());
+        outbox = new JdbcTransactionalOutboxRepository(dataSources.ingest(),
+                new TransactionTemplate(new DataSourceTransactionManager(dataSources.ingest())));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        persister.close();
+        dataSources.close();
+    }
+
+    /**
+     * Батч депозитов: ключи, журнал, UPDATE счетов и удаление строк outbox одной транзакцией
+     */
+    @Benchmark
+    public BatchUnitOfWork persistBatch() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        BatchUnitOfWork uow = new BatchUnitOfWork();
+        for (int i = 0; i < batch; i++) {
+            UUID key = UUID.randomUUID();
+            UUID accountId = ids[random.nextInt(ids.length)];
+            TransactionCommand command = TransactionCommand.createDepositCommand(key, accountId, BenchmarkData.AMOUNT);
+            uow.keysToInsert.add(key);
+            uow.commandsToJournal.add(command);
+            uow.successfulOutboxKeysToRemove.add(key);
+            uow.accountsToUpdate.put(accountId, new Account(accountId,
+                    BenchmarkData.INITIAL_BALANCE.add(BigDecimal.valueOf(i)), AccountStatus.ACTIVE));
+        }
+        persister.persistBatch(uow);
+        return uow;
+    }
+
+    /**
+     * Вход одной команды: ключ идемпотентности и строка outbox одной транзакцией
+     */
+    @Benchmark
+    public boolean saveToOutbox() {
+        UUID accountId = ids[ThreadLocalRandom.current().nextInt(ids.length)];
+        return outbox.save(TransactionCommand.createDepositCommand(UUID.randomUUID(), accountId,
+                BenchmarkData.AMOUNT));
+    }
+}
@@ -0,0 +1,94 @@
+package com.bank.benchmarks;
+
+import com.bank.core.command.TransactionCommand;
+import com.bank.core.engine.TransactionEvent;
+import com.bank.core.engine.TransactionEventProducer;
+import com.bank.core.engine.WaitStrategyType;
+import com.lmax.disruptor.EventHandler;
+import com.lmax.disruptor.TimeoutException;
+import com.lmax.disruptor.dsl.Disruptor;
+import com.lmax.disruptor.dsl.ProducerType;
+import com.lmax.disruptor.util.DaemonThreadFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * TransactionEventProducer.publishBatch в RingBuffer той же конфигурации, что и в движке,
+ * с одним потребителем-заглушкой. Сравниваются стратегии ожидания, размер пачки
+ * и тип секвенсора (SINGLE — режим, когда пишет только OutboxPoller);
+ * результат — время публикации одной пачки
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 2, jvmArgsAppend = {"-Xms1g", "-Xmx1g"})
+@State(Scope.Thread)
+public class PublishBatchBenchmark {
+
+    private static final int RING_SIZE = 1024 * 16;
+
+    @Param({"blocking", "sleeping", "yielding", "busy-spin", "phased-backoff"})
+    public String waitStrategy;
+
+    @Param({"1", "16", "256"})
+    public int batchSize;
+
+    @Param({"SINGLE", "MULTI"})
+    public ProducerType producerType;
+
+    private Disruptor<TransactionEvent> disruptor;
+    private TransactionEventProducer producer;
+    private List<TransactionCommand> batch;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        disruptor = new Disruptor<>(TransactionEvent::new, RING_SIZE, DaemonThreadFactory.INSTANCE,
+                producerType, WaitStrategyType.parse(waitStrategy).create());
+        disruptor.handleEventsWith(new DrainingHandler());
+        disruptor.start();
+        producer = new TransactionEventProducer(disruptor.getRingBuffer(), producerType == ProducerType.SINGLE);
+
+        UUID[] ids = BenchmarkData.accountIds(Math.max(2, batchSize));
+        batch = Arrays.asList(BenchmarkData.mixedCommands(ids, batchSize));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        try {
+            disruptor.shutdown(5, TimeUnit.SECONDS);
+        } catch (TimeoutException e) {
+            disruptor.halt();
+        }
+    }
+
+    @Benchmark
+    public void publishBatch() {
+        producer.publishBatch(batch);
+    }
+
+    private static final class DrainingHandler implements EventHandler<TransactionEvent> {
+        private long checksum;
+
+        @Override
+        public void onEvent(TransactionEvent event, long sequence, boolean endOfBatch) {
+            checksum += event.getCommand().getTimestamp();
+        }
+    }
+}
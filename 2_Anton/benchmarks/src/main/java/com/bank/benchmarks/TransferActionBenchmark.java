@@ -0,0 +1,61 @@
+package com.bank.benchmarks;
+
+import com.bank.core.command.TransactionCommand;
+import com.bank.core.command.action.TransferActionImpl;
+import com.bank.core.exception.InsufficientFundsException;
+import com.bank.domain.Account;
+import com.bank.domain.AccountStatus;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * TransferActionImpl.execute между двумя счетами, направление чередуется,
+ * чтобы балансы не уходили в ноль
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 2, jvmArgsAppend = {"-Xms1g", "-Xmx1g"})
+@State(Scope.Thread)
+public class TransferActionBenchmark {
+
+    private final TransferActionImpl action = new TransferActionImpl();
+    private Account first;
+    private Account second;
+    private TransactionCommand forward;
+    private TransactionCommand backward;
+    private boolean flip;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        UUID[] ids = BenchmarkData.accountIds(2);
+        first = new Account(ids[0], BenchmarkData.INITIAL_BALANCE, AccountStatus.ACTIVE);
+        second = new Account(ids[1], BenchmarkData.INITIAL_BALANCE, AccountStatus.ACTIVE);
+        forward = TransactionCommand.createTransferCommand(UUID.randomUUID(), ids[0], ids[1], BenchmarkData.AMOUNT);
+        backward = TransactionCommand.createTransferCommand(UUID.randomUUID(), ids[1], ids[0], BenchmarkData.AMOUNT);
+    }
+
+    @Benchmark
+    public Account execute() throws InsufficientFundsException {
+        flip = !flip;
+        if (flip) {
+            action.execute(first, second, forward);
+            return second;
+        }
+        action.execute(second, first, backward);
+        return first;
+    }
+}
@@ -10,5 +10,6 @@ public enum ActionType {
     FREEZE,
     TRANSFER,
     UNFREEZE,
-    CLOSE 
+    CLOSE,
+    OPEN
 }
@@ -69,6 +69,10 @@ public final class TransactionCommand {
         return new TransactionCommand(UUID.randomUUID(), idempotencyKey, accountId, ActionType.CLOSE, null, null);
     }
 
+    public static TransactionCommand createOpenCommand(UUID idempotencyKey, UUID accountId) {
+        return new TransactionCommand(UUID.randomUUID(), idempotencyKey, accountId, ActionType.OPEN, null, null);
+    }
+
     public UUID getTransactionId() {
         return transactionId;
     }
@@ -0,0 +1,24 @@
+package com.bank.core.command.action;
+
+import com.bank.core.command.TransactionCommand;
+import com.bank.core.state.AccountStateProvider;
+import com.bank.domain.Account;
+
+import java.math.BigDecimal;
+
+/**
+ * Для открытия нового счета. Счет добавляется в состояние инкрементально
+ */
+
+public class OpenAction {
+
+    public Account execute(AccountStateProvider accountState, TransactionCommand command) {
+        if (accountState.containsAccount(command.getAccountId())) {
+            throw new IllegalStateException("Счет уже существует: " + command.getAccountId());
+        }
+
+        Account account = new Account(command.getAccountId(), BigDecimal.ZERO);
+        accountState.createOrUpdateAccount(account);
+        return account;
+    }
+}
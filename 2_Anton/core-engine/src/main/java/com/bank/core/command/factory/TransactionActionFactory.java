@@ -14,6 +14,7 @@ public class TransactionActionFactory {
 
     private final Map<ActionType, SingleAccountAction> singleAccountActionMap;
     private final TransferAction transferAction;
+    private final OpenAction openAction;
 
     public TransactionActionFactory() {
         this.singleAccountActionMap = new EnumMap<>(ActionType.class);
@@ -24,6 +25,7 @@ public class TransactionActionFactory {
         this.singleAccountActionMap.put(ActionType.CLOSE, new CloseAction());
 
         this.transferAction = new TransferActionImpl();
+        this.openAction = new OpenAction();
     }
 
     public SingleAccountAction getSingleAccountAction(ActionType actionType) {
@@ -37,4 +39,8 @@ public class TransactionActionFactory {
     public TransferAction getTransferAction() {
         return transferAction;
     }
+
+    public OpenAction getOpenAction() {
+        return openAction;
+    }
 }
@@ -0,0 +1,64 @@
+package com.bank.core.engine;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Фабрика потоков потребителей: именует потоки и, если заданы CPU, привязывает
+ * i-й поток к cpus[i % cpus.length]. В JDK нет API привязки, поэтому на Linux поток
+ * при старте узнает свой tid через /proc/thread-self и вызывает taskset;
+ * при неудаче поток продолжает работу без привязки
+ */
+public class AffinityThreadFactory implements ThreadFactory {
+    private static final Logger log = LoggerFactory.getLogger(AffinityThreadFactory.class);
+
+    private final String prefix;
+    private final int[] cpus;
+    private final AtomicInteger counter = new AtomicInteger();
+
+    public AffinityThreadFactory(String prefix, int[] cpus) {
+        this.prefix = prefix;
+        this.cpus = cpus.clone();
+    }
+
+    @Override
+    public Thread newThread(Runnable r) {
+        int index = counter.getAndIncrement();
+        String name = prefix + "-" + index;
+        Runnable task = cpus.length == 0 ? r : () -> {
+            pinCurrentThread(cpus[index % cpus.length]);
+            r.run();
+        };
+        Thread thread = new Thread(task, name);
+        thread.setDaemon(true);
+        return thread;
+    }
+
+    static boolean pinCurrentThread(int cpu) {
+        String name = Thread.currentThread().getName();
+        try {
+            Path self = Path.of("/proc/thread-self").toRealPath();
+            String tid = self.getFileName().toString();
+            Process process = new ProcessBuilder("taskset", "-p", "-c", String.valueOf(cpu), tid)
+                    .redirectErrorStream(true)
+                    .start();
+            process.getInputStream().readAllBytes();
+            if (process.waitFor(5, TimeUnit.SECONDS) && process.exitValue() == 0) {
+                log.info("Pinned thread {} (tid {}) to CPU {}", name, tid, cpu);
+                return true;
+            }
+            log.warn("taskset failed to pin thread {} to CPU {}", name, cpu);
+        } catch (IOException e) {
+            log.warn("CPU pinning is unavailable for thread {}: {}", name, e.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return false;
+    }
+}
@@ -0,0 +1,208 @@
+package com.bank.core.engine;
+
+import com.lmax.disruptor.dsl.ProducerType;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.Properties;
+
+/**
+ * Настройки движка: размер RingBuffer, стратегия ожидания, тип производителя
+ * и привязка потоков потребителей к CPU. Значения читаются из bank-engine.properties
+ * (classpath или путь в -Dbank.engine.config), системные свойства bank.engine.* имеют приоритет.
+ * Пока прямой вход (directIngress) выключен, в RingBuffer пишет только OutboxPoller,
+ * поэтому по умолчанию выбирается ProducerType.SINGLE
+ */
+public final class EngineConfig {
+
+    public static final String CONFIG_PATH_PROPERTY = "bank.engine.config";
+    public static final String DEFAULT_RESOURCE = "bank-engine.properties";
+
+    private static final String RING_SIZE = "bank.engine.ringSize";
+    private static final String WAIT_STRATEGY = "bank.engine.waitStrategy";
+    private static final String PRODUCER_TYPE = "bank.engine.producerType";
+    private static final String CPUS = "bank.engine.cpus";
+    private static final String THREAD_PREFIX = "bank.engine.threadPrefix";
+    private static final String DIRECT_INGRESS = "bank.engine.directIngress";
+    private static final String BUSINESS_WORKERS = "bank.engine.businessWorkers";
+    private static final String NETTING = "bank.engine.netting";
+
+    private final int ringSize;
+    private final WaitStrategyType waitStrategy;
+    private final ProducerType producerType;
+    private final int[] consumerCpus;
+    private final String threadNamePrefix;
+    private final boolean directIngress;
+    private final int businessWorkers;
+    private final boolean netting;
+
+    public EngineConfig(int ringSize, WaitStrategyType waitStrategy, ProducerType producerType, int[] consumerCpus,
+            String threadNamePrefix, boolean directIngress, int businessWorkers, boolean netting) {
+        if (ringSize <= 0 || Integer.bitCount(ringSize) != 1) {
+            throw new IllegalArgumentException("Ring size must be a positive power of two: " + ringSize);
+        }
+        if (directIngress && producerType == ProducerType.SINGLE) {
+            throw new IllegalArgumentException("Direct ingress publishes from many threads and requires MULTI producer");
+        }
+        if (businessWorkers < 0) {
+            throw new IllegalArgumentException("Business worker count must not be negative: " + businessWorkers);
+        }
+        if (netting && businessWorkers > 0) {
+            throw new IllegalArgumentException("Deposit netting is not supported with parallel business workers");
+        }
+        this.ringSize = ringSize;
+        this.waitStrategy = waitStrategy;
+        this.producerType = producerType;
+        this.consumerCpus = consumerCpus.clone();
+        this.threadNamePrefix = threadNamePrefix;
+        this.directIngress = directIngress;
+        this.businessWorkers = businessWorkers;
+        this.netting = netting;
+    }
+
+    public static EngineConfig defaults() {
+        return new EngineConfig(1024 * 16, WaitStrategyType.SLEEPING, ProducerType.SINGLE, new int[0], "bank-engine",
+                false, 0, false);
+    }
+
+    public static EngineConfig load() {
+        Properties properties = new Properties();
+        String path = System.getProperty(CONFIG_PATH_PROPERTY);
+        try {
+            if (path != null) {
+                try (InputStream in = Files.newInputStream(Path.of(path))) {
+                    properties.load(in);
+                }
+            } else {
+                try (InputStream in = EngineConfig.class.getClassLoader().getResourceAsStream(DEFAULT_RESOURCE)) {
+                    if (in != null) {
+                        properties.load(in);
+                    }
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read engine config " + (path != null ? path : DEFAULT_RESOURCE), e);
+        }
+        for (String key : System.getProperties().stringPropertyNames()) {
+            if (key.startsWith("bank.engine.")) {
+                properties.setProperty(key, System.getProperty(key));
+            }
+        }
+        return fromProperties(properties);
+    }
+
+    public static EngineConfig fromProperties(Properties properties) {
+        EngineConfig defaults = defaults();
+        String ringSize = properties.getProperty(RING_SIZE);
+        String waitStrategy = properties.getProperty(WAIT_STRATEGY);
+        String producerType = properties.getProperty(PRODUCER_TYPE);
+        String cpus = properties.getProperty(CPUS);
+        boolean directIngress = Boolean.parseBoolean(properties.getProperty(DIRECT_INGRESS, "false").trim());
+        String businessWorkers = properties.getProperty(BUSINESS_WORKERS);
+        return new EngineConfig(
+                ringSize != null ? Integer.parseInt(ringSize.trim()) : defaults.ringSize,
+                waitStrategy != null ? WaitStrategyType.parse(waitStrategy) : defaults.waitStrategy,
+                producerType != null ? ProducerType.valueOf(producerType.trim().toUpperCase(Locale.ROOT))
+                        : producerTypeFor(directIngress),
+                cpus != null && !cpus.isBlank() ? parseCpus(cpus) : defaults.consumerCpus,
+                properties.getProperty(THREAD_PREFIX, defaults.threadNamePrefix),
+                directIngress,
+                businessWorkers != null ? Integer.parseInt(businessWorkers.trim()) : defaults.businessWorkers,
+                Boolean.parseBoolean(properties.getProperty(NETTING, "false").trim()));
+    }
+
+    private static ProducerType producerTypeFor(boolean directIngress) {
+        return directIngress ? ProducerType.MULTI : ProducerType.SINGLE;
+    }
+
+    private static int[] parseCpus(String value) {
+        return Arrays.stream(value.split(","))
+                .map(String::trim)
+                .filter(s -> !s.isEmpty())
+                .mapToInt(Integer::parseInt)
+                .toArray();
+    }
+
+    public EngineConfig withWaitStrategy(WaitStrategyType waitStrategy) {
+        return new EngineConfig(ringSize, waitStrategy, producerType, consumerCpus, threadNamePrefix, directIngress,
+                businessWorkers, netting);
+    }
+
+    public EngineConfig withRingSize(int ringSize) {
+        return new EngineConfig(ringSize, waitStrategy, producerType, consumerCpus, threadNamePrefix, directIngress,
+                businessWorkers, netting);
+    }
+
+    public EngineConfig withProducerType(ProducerType producerType) {
+        return new EngineConfig(ringSize, waitStrategy, producerType, consumerCpus, threadNamePrefix, directIngress,
+                businessWorkers, netting);
+    }
+
+    public EngineConfig withBusinessWorkers(int businessWorkers) {
+        return new EngineConfig(ringSize, waitStrategy, producerType, consumerCpus, threadNamePrefix, directIngress,
+                businessWorkers, netting);
+    }
+
+    public EngineConfig withNetting(boolean netting) {
+        return new EngineConfig(ringSize, waitStrategy, producerType, consumerCpus, threadNamePrefix, directIngress,
+                businessWorkers, netting);
+    }
+
+    /**
+     * Включает или выключает прямой вход; тип производителя выбирается заново
+     */
+    public EngineConfig withDirectIngress(boolean directIngress) {
+        return new EngineConfig(ringSize, waitStrategy, producerTypeFor(directIngress), consumerCpus,
+                threadNamePrefix, directIngress, businessWorkers, netting);
+    }
+
+    public int getRingSize() {
+        return ringSize;
+    }
+
+    public WaitStrategyType getWaitStrategy() {
+        return waitStrategy;
+    }
+
+    public ProducerType getProducerType() {
+        return producerType;
+    }
+
+    public int[] getConsumerCpus() {
+        return consumerCpus.clone();
+    }
+
+    public String getThreadNamePrefix() {
+        return threadNamePrefix;
+    }
+
+    public boolean isDirectIngress() {
+        return directIngress;
+    }
+
+    /**
+     * Число потоков ParallelBusinessLogicConsumer; 0 — обычный последовательный BusinessLogicConsumer
+     */
+    public int getBusinessWorkers() {
+        return businessWorkers;
+    }
+
+    /**
+     * Неттинг пополнений горячих счетов внутри пачки (NettingBusinessLogicConsumer)
+     */
+    public boolean isNetting() {
+        return netting;
+    }
+
+    @Override
+    public String toString() {
+        return "EngineConfig{ringSize=" + ringSize + ", waitStrategy=" + waitStrategy + ", producerType="
+                + producerType + ", consumerCpus=" + Arrays.toString(consumerCpus) + ", threadNamePrefix='"
+                + threadNamePrefix + "', directIngress=" + directIngress + ", businessWorkers=" + businessWorkers + ", netting=" + netting + "}";
+    }
+}
@@ -2,7 +2,9 @@ package com.bank.core.engine;
 
 import com.bank.core.command.TransactionCommand;
 import com.bank.domain.Account;
+import com.bank.domain.AccountStatus;
 
+import java.math.BigDecimal;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.UUID;
@@ -18,7 +20,16 @@ public class TransactionEvent {
     private UUID idempotencyKeyToPersist;
     private Exception businessException;
 
+    private long publishedEpochMillis;
+    private long publishedNanos;
+    private long idempotencyNanos;
+    private long businessNanos;
+
     private final List<Account> modifiedAccounts = new ArrayList<>();
+    private final BigDecimal[] balancesBefore = new BigDecimal[2];
+    private final BigDecimal[] balancesAfter = new BigDecimal[2];
+    private final AccountStatus[] statusesAfter = new AccountStatus[2];
+    private int balanceChanges;
 
     public void setCommand(TransactionCommand command) {
         this.command = command;
@@ -52,8 +63,43 @@ public class TransactionEvent {
         return businessException;
     }
 
+    public void stampPublished(long epochMillis, long nanos) {
+        this.publishedEpochMillis = epochMillis;
+        this.publishedNanos = nanos;
+    }
+
+    public long getPublishedEpochMillis() {
+        return publishedEpochMillis;
+    }
+
+    public long getPublishedNanos() {
+        return publishedNanos;
+    }
+
+    public void stampIdempotency(long nanos) {
+        this.idempotencyNanos = nanos;
+    }
+
+    public long getIdempotencyNanos() {
+        return idempotencyNanos;
+    }
+
+    public void stampBusiness(long nanos) {
+        this.businessNanos = nanos;
+    }
+
+    public long getBusinessNanos() {
+        return businessNanos;
+    }
+
+    /**
+     * Счет, измененный командой; статус снимается в момент добавления, то есть уже после команды
+     */
     public void addModifiedAccount(Account account) {
         if (account != null) {
+            if (modifiedAccounts.size() < statusesAfter.length) {
+                statusesAfter[modifiedAccounts.size()] = account.getStatus();
+            }
             this.modifiedAccounts.add(account);
         }
     }
@@ -62,11 +108,48 @@ public class TransactionEvent {
         return modifiedAccounts;
     }
 
+    /**
+     * Баланс счета до и после команды, как его видел бизнес-поток; BigDecimal неизменяем,
+     * так что аудитор читает эти ссылки после барьера без гонок с последующими командами
+     */
+    public void recordBalanceChange(BigDecimal before, BigDecimal after) {
+        balancesBefore[balanceChanges] = before;
+        balancesAfter[balanceChanges] = after;
+        balanceChanges++;
+    }
+
+    public int getBalanceChanges() {
+        return balanceChanges;
+    }
+
+    public BigDecimal getBalanceBefore(int index) {
+        return balancesBefore[index];
+    }
+
+    public BigDecimal getBalanceAfter(int index) {
+        return balancesAfter[index];
+    }
+
+    public AccountStatus getStatusAfter(int index) {
+        return statusesAfter[index];
+    }
+
     public void clear() {
         this.command = null;
         this.shouldProcess = false;
         this.idempotencyKeyToPersist = null;
         this.businessException = null;
+        this.publishedEpochMillis = 0;
+        this.publishedNanos = 0;
+        this.idempotencyNanos = 0;
+        this.businessNanos = 0;
         this.modifiedAccounts.clear();
+        this.balancesBefore[0] = null;
+        this.balancesBefore[1] = null;
+        this.balancesAfter[0] = null;
+        this.balancesAfter[1] = null;
+        this.statusesAfter[0] = null;
+        this.statusesAfter[1] = null;
+        this.balanceChanges = 0;
     }
 }
@@ -4,26 +4,40 @@ import com.bank.core.command.TransactionCommand;
 import com.lmax.disruptor.RingBuffer;
 import java.util.List;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.IntFunction;
 
 /**
- * Публикует транзакционные команды в RingBuffer
+ * Публикует транзакционные команды в RingBuffer.
+ * Для RingBuffer с ProducerType.SINGLE производитель создается с singleWriter = true:
+ * первый публикующий поток становится владельцем, публикация из любого другого
+ * потока отклоняется, иначе однопоточный секвенсор молча выдал бы один слот дважды
  */
 
 public class TransactionEventProducer {
 
     private final RingBuffer<TransactionEvent> ringBuffer;
+    private final boolean singleWriter;
+    private final AtomicReference<Thread> owner = new AtomicReference<>();
 
     public TransactionEventProducer(RingBuffer<TransactionEvent> ringBuffer) {
+        this(ringBuffer, false);
+    }
+
+    public TransactionEventProducer(RingBuffer<TransactionEvent> ringBuffer, boolean singleWriter) {
         this.ringBuffer = ringBuffer;
+        this.singleWriter = singleWriter;
     }
 
     public CompletableFuture<Void> publish(TransactionCommand command) {
+        checkWriter();
         long sequence = ringBuffer.next();
         try {
             TransactionEvent event = ringBuffer.get(sequence);
             event.clear();
             event.setCommand(command);
             event.setShouldProcess(true);
+            event.stampPublished(System.currentTimeMillis(), System.nanoTime());
         } finally {
             ringBuffer.publish(sequence);
         }
@@ -34,22 +48,72 @@ public class TransactionEventProducer {
         if (commands == null || commands.isEmpty()) {
             return;
         }
+        publishBatch(commands.size(), commands::get);
+    }
+
+    /**
+     * Публикует count команд, создавая каждую прямо в захваченном слоте.
+     * Пачка больше RingBuffer публикуется частями по размеру буфера: next(n) не захватывает больше слотов,
+     * чем в нем есть. decoder не должен бросать исключений: слоты уже захвачены
+     */
+    public void publishBatch(int count, IntFunction<TransactionCommand> decoder) {
+        if (count <= 0) {
+            return;
+        }
+        checkWriter();
 
-        int batchSize = commands.size();
-        long hi = ringBuffer.next(batchSize);
-        long lo = hi - batchSize + 1;
+        int chunk = ringBuffer.getBufferSize();
+        for (int offset = 0; offset < count; offset += chunk) {
+            publishChunk(offset, Math.min(chunk, count - offset), decoder);
+        }
+    }
+
+    private void publishChunk(int offset, int count, IntFunction<TransactionCommand> decoder) {
+        long hi = ringBuffer.next(count);
+        long lo = hi - count + 1;
+        long epochMillis = System.currentTimeMillis();
+        long nanos = System.nanoTime();
 
         try {
             for (long sequence = lo; sequence <= hi; sequence++) {
                 TransactionEvent event = ringBuffer.get(sequence);
                 event.clear();
 
-                TransactionCommand command = commands.get((int) (sequence - lo));
+                TransactionCommand command = decoder.apply(offset + (int) (sequence - lo));
                 event.setCommand(command);
                 event.setShouldProcess(true);
+                event.stampPublished(epochMillis, nanos);
             }
         } finally {
             ringBuffer.publish(lo, hi);
         }
     }
+
+    private void checkWriter() {
+        if (!singleWriter) {
+            return;
+        }
+        Thread current = Thread.currentThread();
+        Thread writer = owner.get();
+        if (writer == current) {
+            return;
+        }
+        if (writer == null && owner.compareAndSet(null, current)) {
+            return;
+        }
+        throw new IllegalStateException("Single-producer ring buffer is owned by thread " + owner.get().getName()
+                + ", publish from " + current.getName() + " rejected");
+    }
+
+    public boolean isSingleWriter() {
+        return singleWriter;
+    }
+
+    public long remainingCapacity() {
+        return ringBuffer.remainingCapacity();
+    }
+
+    public int getBufferSize() {
+        return ringBuffer.getBufferSize();
+    }
 }
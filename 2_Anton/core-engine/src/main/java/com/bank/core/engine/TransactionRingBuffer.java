@@ -1,10 +1,11 @@
 package com.bank.core.engine;
 
+import com.bank.core.metrics.MetricsRegistry;
+import com.lmax.disruptor.EventHandler;
 import com.lmax.disruptor.RingBuffer;
 import com.lmax.disruptor.WaitStrategy;
 import com.lmax.disruptor.dsl.Disruptor;
 import com.lmax.disruptor.dsl.ProducerType;
-import com.lmax.disruptor.util.DaemonThreadFactory;
 import com.bank.core.engine.consumers.BusinessLogicConsumer;
 import com.bank.core.engine.consumers.JournalingConsumer;
 import com.bank.core.engine.consumers.ReplicationConsumer;
@@ -17,18 +18,27 @@ public class TransactionRingBuffer {
 
     private final Disruptor<TransactionEvent> disruptor;
     private final RingBuffer<TransactionEvent> ringBuffer;
+    private final EngineConfig config;
 
     public TransactionRingBuffer(
             WaitStrategy waitStrategy,
             JournalingConsumer journalingConsumer,
             ReplicationConsumer replicationConsumer,
             BusinessLogicConsumer businessLogicConsumer) {
+        this(EngineConfig.defaults(), waitStrategy);
+    }
+
+    public TransactionRingBuffer(EngineConfig config) {
+        this(config, config.getWaitStrategy().create());
+    }
 
+    private TransactionRingBuffer(EngineConfig config, WaitStrategy waitStrategy) {
+        this.config = config;
         this.disruptor = new Disruptor<>(
                 TransactionEvent::new,
-                1024 * 16,
-                DaemonThreadFactory.INSTANCE,
-                ProducerType.MULTI,
+                config.getRingSize(),
+                new AffinityThreadFactory(config.getThreadNamePrefix(), config.getConsumerCpus()),
+                config.getProducerType(),
                 waitStrategy);
 
         this.disruptor.setDefaultExceptionHandler(new Slf4jExceptionHandler());
@@ -44,6 +54,22 @@ public class TransactionRingBuffer {
         disruptor.shutdown();
     }
 
+    public void registerMetrics(MetricsRegistry metrics) {
+        metrics.gauge("bank_ringbuffer_capacity", ringBuffer::getBufferSize);
+        metrics.gauge("bank_ringbuffer_remaining", ringBuffer::remainingCapacity);
+        metrics.gauge("bank_ringbuffer_occupancy", () -> ringBuffer.getBufferSize() - ringBuffer.remainingCapacity());
+        metrics.gauge("bank_ringbuffer_cursor", ringBuffer::getCursor);
+    }
+
+    public void registerConsumerLag(MetricsRegistry metrics, String consumer, EventHandler<TransactionEvent> handler) {
+        metrics.gauge("bank_consumer_" + consumer + "_lag",
+                () -> ringBuffer.getCursor() - disruptor.getSequenceValueFor(handler));
+    }
+
+    public EngineConfig getConfig() {
+        return config;
+    }
+
     public RingBuffer<TransactionEvent> getRingBuffer() {
         return ringBuffer;
     }
@@ -0,0 +1,36 @@
+package com.bank.core.engine;
+
+import com.lmax.disruptor.BlockingWaitStrategy;
+import com.lmax.disruptor.BusySpinWaitStrategy;
+import com.lmax.disruptor.PhasedBackoffWaitStrategy;
+import com.lmax.disruptor.SleepingWaitStrategy;
+import com.lmax.disruptor.WaitStrategy;
+import com.lmax.disruptor.YieldingWaitStrategy;
+
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Стратегии ожидания потребителей, от минимальной задержки (и полного ядра CPU) до экономии CPU
+ */
+public enum WaitStrategyType {
+    BUSY_SPIN,
+    YIELDING,
+    SLEEPING,
+    BLOCKING,
+    PHASED_BACKOFF;
+
+    public WaitStrategy create() {
+        return switch (this) {
+            case BUSY_SPIN -> new BusySpinWaitStrategy();
+            case YIELDING -> new YieldingWaitStrategy();
+            case SLEEPING -> new SleepingWaitStrategy();
+            case BLOCKING -> new BlockingWaitStrategy();
+            case PHASED_BACKOFF -> PhasedBackoffWaitStrategy.withLiteLock(10, 100, TimeUnit.MICROSECONDS);
+        };
+    }
+
+    public static WaitStrategyType parse(String value) {
+        return valueOf(value.trim().toUpperCase(Locale.ROOT).replace('-', '_'));
+    }
+}
@@ -0,0 +1,165 @@
+package com.bank.core.engine.consumers;
+
+import com.bank.core.command.ActionType;
+import com.bank.core.command.TransactionCommand;
+import com.bank.core.engine.TransactionEvent;
+import com.bank.core.metrics.MetricsRegistry;
+import com.bank.domain.Account;
+import com.lmax.disruptor.EventHandler;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Онлайн-аудит сохранения денег, стоит после бизнес-логики параллельно с персистенцией.
+ * Ведет две суммы в копейках: ledger — начальный итог плюс пополнения минус списания по командам,
+ * state — начальный итог плюс изменения балансов, которые бизнес-поток записал в событие (до/после).
+ * Раз в checkInterval событий или в конце пачки суммы сверяются, расхождение — error в лог и
+ * bank_audit_divergences_total, после чего ledger выравнивается по state, чтобы следующая сверка
+ * ловила только новые ошибки. Бизнес-поток платит только за сохранение двух ссылок на BigDecimal
+ */
+
+public class BalanceAuditConsumer implements EventHandler<TransactionEvent> {
+    public static final int DEFAULT_CHECK_INTERVAL = 4096;
+
+    private static final Logger log = LoggerFactory.getLogger(BalanceAuditConsumer.class);
+    private static final ActionType[] TYPES = ActionType.values();
+    private static final int SCALE = 2;
+
+    private final int checkInterval;
+    private final long[] counts = new long[TYPES.length];
+    private final long[] amounts = new long[TYPES.length];
+    private final LongAdder divergences;
+    private final LongAdder unaudited;
+
+    private long ledger;
+    private long state;
+    private long sinceCheck;
+    private volatile BigDecimal pendingRebase;
+    private volatile long[] published;
+
+    public BalanceAuditConsumer(BigDecimal initialTotal, MetricsRegistry metrics) {
+        this(initialTotal, metrics, DEFAULT_CHECK_INTERVAL);
+    }
+
+    public BalanceAuditConsumer(BigDecimal initialTotal, MetricsRegistry metrics, int checkInterval) {
+        this.checkInterval = checkInterval;
+        this.ledger = cents(initialTotal);
+        this.state = ledger;
+        this.divergences = metrics.counter("bank_audit_divergences_total");
+        this.unaudited = metrics.counter("bank_audit_unaudited_total");
+        publish();
+        metrics.gauge("bank_audit_ledger_cents", () -> published[0]);
+        metrics.gauge("bank_audit_state_cents", () -> published[1]);
+        for (ActionType type : TYPES) {
+            String name = "bank_audit_" + type.name().toLowerCase(Locale.ROOT);
+            int index = type.ordinal();
+            metrics.gauge(name + "_total", () -> published[2 + index]);
+            metrics.gauge(name + "_amount_cents", () -> published[2 + TYPES.length + index]);
+        }
+    }
+
+    public static BigDecimal totalBalance(Map<?, Account> accounts) {
+        BigDecimal total = BigDecimal.ZERO;
+        for (Account account : accounts.values()) {
+            total = total.add(account.getBalance());
+        }
+        return total;
+    }
+
+    /**
+     * Новый начальный итог после перезагрузки состояния в обход движка; применяется потоком аудита на следующем событии
+     */
+    public void rebase(BigDecimal total) {
+        this.pendingRebase = total;
+    }
+
+    @Override
+    public void onEvent(TransactionEvent event, long sequence, boolean endOfBatch) {
+        BigDecimal rebaseTo = pendingRebase;
+        if (rebaseTo != null) {
+            pendingRebase = null;
+            ledger = cents(rebaseTo);
+            state = ledger;
+        }
+        if (event.shouldProcess() && event.getBusinessException() == null) {
+            audit(event);
+        }
+        if (++sinceCheck >= checkInterval || endOfBatch) {
+            check(sequence);
+        }
+    }
+
+    private void audit(TransactionEvent event) {
+        TransactionCommand command = event.getCommand();
+        ActionType type = command.getActionType();
+        long amount;
+        long stateDelta = 0;
+        try {
+            amount = command.getAmount() != null ? cents(command.getAmount()) : 0;
+            for (int i = 0; i < event.getBalanceChanges(); i++) {
+                stateDelta += cents(event.getBalanceAfter(i)) - cents(event.getBalanceBefore(i));
+            }
+        } catch (ArithmeticException e) {
+            unaudited.increment();
+            return;
+        }
+        counts[type.ordinal()]++;
+        amounts[type.ordinal()] += amount;
+        if (type == ActionType.DEPOSIT) {
+            ledger += amount;
+        } else if (type == ActionType.WITHDRAW) {
+            ledger -= amount;
+        }
+        state += stateDelta;
+    }
+
+    private void check(long sequence) {
+        sinceCheck = 0;
+        if (ledger != state) {
+            divergences.increment();
+            log.error("Balance conservation violated at sequence {}: ledger {} != state {} (diff {} cents)",
+                    sequence, ledger, state, state - ledger);
+            ledger = state;
+        }
+        publish();
+    }
+
+    private void publish() {
+        long[] snapshot = new long[2 + 2 * TYPES.length];
+        snapshot[0] = ledger;
+        snapshot[1] = state;
+        System.arraycopy(counts, 0, snapshot, 2, TYPES.length);
+        System.arraycopy(amounts, 0, snapshot, 2 + TYPES.length, TYPES.length);
+        published = snapshot;
+    }
+
+    public long getLedgerCents() {
+        return published[0];
+    }
+
+    public long getStateCents() {
+        return published[1];
+    }
+
+    public long getCount(ActionType type) {
+        return published[2 + type.ordinal()];
+    }
+
+    public long getAmountCents(ActionType type) {
+        return published[2 + TYPES.length + type.ordinal()];
+    }
+
+    public long getDivergences() {
+        return divergences.sum();
+    }
+
+    private static long cents(BigDecimal value) {
+        return value.setScale(SCALE, RoundingMode.UNNECESSARY).unscaledValue().longValueExact();
+    }
+}
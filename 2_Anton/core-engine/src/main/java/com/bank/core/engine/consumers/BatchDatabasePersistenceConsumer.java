@@ -1,13 +1,22 @@
 package com.bank.core.engine.consumers;
 
 import com.bank.core.engine.TransactionEvent;
+import com.bank.core.metrics.BatchMeter;
+import com.bank.core.metrics.LatencyHistogram;
+import com.bank.core.metrics.LatencyStage;
+import com.bank.core.metrics.LatencyTracker;
+import com.bank.core.metrics.MetricsRegistry;
 import com.bank.core.port.out.BatchPersister;
 import com.bank.core.port.out.BatchUnitOfWork;
+import com.bank.core.port.out.FailureReason;
 import com.bank.domain.Account;
 import com.lmax.disruptor.EventHandler;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.Arrays;
+import java.util.concurrent.atomic.LongAdder;
+
 /**
  * Обработчик, выполняющий пакетное сохранение изменений в БД.
  */
@@ -15,21 +24,47 @@ import org.slf4j.LoggerFactory;
 public class BatchDatabasePersistenceConsumer implements EventHandler<TransactionEvent> {
     private static final Logger log = LoggerFactory.getLogger(BatchDatabasePersistenceConsumer.class);
     private final BatchPersister persister;
+    private final LatencyTracker latencyTracker;
+    private final BatchMeter batchMeter;
+    private final LatencyHistogram persistNanos;
+    private final LongAdder persistFailures;
     private BatchUnitOfWork unitOfWork = new BatchUnitOfWork();
 
+    private long[] batchPublishedNanos = new long[256];
+    private long[] batchHandoffNanos = new long[256];
+    private int batchSize;
+
     public BatchDatabasePersistenceConsumer(BatchPersister persister) {
+        this(persister, null);
+    }
+
+    public BatchDatabasePersistenceConsumer(BatchPersister persister, LatencyTracker latencyTracker) {
+        this(persister, latencyTracker, new MetricsRegistry());
+    }
+
+    public BatchDatabasePersistenceConsumer(BatchPersister persister, LatencyTracker latencyTracker,
+            MetricsRegistry metrics) {
         this.persister = persister;
+        this.latencyTracker = latencyTracker;
+        this.batchMeter = new BatchMeter(metrics, "persistence");
+        this.persistNanos = metrics.histogram("bank_persistence_persist_batch_nanos");
+        this.persistFailures = metrics.counter("bank_persistence_failures_total");
     }
 
     @Override
     public void onEvent(TransactionEvent event, long sequence, boolean endOfBatch) throws Exception {
+        batchMeter.onEvent(endOfBatch);
+        if (latencyTracker != null) {
+            recordHandoff(event, System.nanoTime());
+        }
+
         if (!event.shouldProcess()) {
             log.trace("Duplicate transaction detected. Marking for removal from outbox: {}",
                     event.getCommand().getIdempotencyKey());
             unitOfWork.successfulOutboxKeysToRemove.add(event.getCommand().getIdempotencyKey());
         } else if (event.getBusinessException() != null) {
-            String errorMessage = event.getBusinessException().getMessage();
-            unitOfWork.failedOutboxKeysToDlq.put(event.getCommand().getIdempotencyKey(), errorMessage);
+            unitOfWork.failedOutboxKeysToDlq.put(event.getCommand().getIdempotencyKey(),
+                    FailureReason.of(event.getBusinessException()));
         } else {
             if (event.getIdempotencyKeyToPersist() != null) {
                 unitOfWork.keysToInsert.add(event.getIdempotencyKeyToPersist());
@@ -44,16 +79,56 @@ public class BatchDatabasePersistenceConsumer implements EventHandler<Transactio
         }
 
         if (endOfBatch && !unitOfWork.isEmpty()) {
+            long started = System.nanoTime();
             try {
                 persister.persistBatch(unitOfWork);
+                long committed = System.nanoTime();
+                persistNanos.record(committed - started);
+                if (latencyTracker != null) {
+                    recordCommit(committed);
+                }
                 log.trace("Persisted a batch: {} successful, {} failed.",
                         unitOfWork.successfulOutboxKeysToRemove.size(), unitOfWork.failedOutboxKeysToDlq.size());
             } catch (Exception e) {
+                persistFailures.increment();
                 log.error("CRITICAL: Failed to persist a batch.", e);
                 throw e;
             } finally {
                 this.unitOfWork = new BatchUnitOfWork();
+                this.batchSize = 0;
             }
         }
     }
+
+    private void recordHandoff(TransactionEvent event, long now) {
+        long published = event.getPublishedNanos();
+        if (published == 0) {
+            return;
+        }
+        long ingressMillis = event.getPublishedEpochMillis() - event.getCommand().getTimestamp();
+        latencyTracker.record(LatencyStage.INGRESS_TO_PUBLISH, Math.max(0, ingressMillis) * 1_000_000L);
+        if (event.getIdempotencyNanos() != 0) {
+            latencyTracker.record(LatencyStage.PUBLISH_TO_IDEMPOTENCY, event.getIdempotencyNanos() - published);
+        }
+        if (event.getBusinessNanos() != 0) {
+            latencyTracker.record(LatencyStage.IDEMPOTENCY_TO_BUSINESS,
+                    event.getBusinessNanos() - event.getIdempotencyNanos());
+            latencyTracker.record(LatencyStage.BUSINESS_TO_PERSIST, now - event.getBusinessNanos());
+        }
+
+        if (batchSize == batchPublishedNanos.length) {
+            batchPublishedNanos = Arrays.copyOf(batchPublishedNanos, batchSize * 2);
+            batchHandoffNanos = Arrays.copyOf(batchHandoffNanos, batchSize * 2);
+        }
+        batchPublishedNanos[batchSize] = published;
+        batchHandoffNanos[batchSize] = now;
+        batchSize++;
+    }
+
+    private void recordCommit(long now) {
+        for (int i = 0; i < batchSize; i++) {
+            latencyTracker.record(LatencyStage.PERSIST_TO_COMMIT, now - batchHandoffNanos[i]);
+            latencyTracker.record(LatencyStage.PUBLISH_TO_COMMIT, now - batchPublishedNanos[i]);
+        }
+    }
 }
@@ -8,12 +8,17 @@ import com.bank.core.command.factory.TransactionActionFactory;
 import com.bank.core.engine.TransactionEvent;
 import com.bank.core.exception.AccountNotFoundException;
 import com.bank.core.exception.InsufficientFundsException;
+import com.bank.core.metrics.BatchMeter;
+import com.bank.core.metrics.MetricsRegistry;
 import com.bank.core.state.AccountStateProvider;
 import com.bank.domain.Account;
 import com.lmax.disruptor.EventHandler;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.math.BigDecimal;
+import java.util.concurrent.atomic.LongAdder;
+
 /**
  * Обработчик, выполняющий бизнес-логику
  */
@@ -24,18 +29,44 @@ public class BusinessLogicConsumer implements EventHandler<TransactionEvent> {
 
     private final AccountStateProvider accountState;
     private final TransactionActionFactory actionFactory;
+    private final BatchMeter batchMeter;
+    private final LongAdder rejected;
+    private final LongAdder failed;
 
     public BusinessLogicConsumer(AccountStateProvider accountState,
             TransactionActionFactory actionFactory) {
+        this(accountState, actionFactory, new MetricsRegistry());
+    }
+
+    public BusinessLogicConsumer(AccountStateProvider accountState,
+            TransactionActionFactory actionFactory, MetricsRegistry metrics) {
         this.accountState = accountState;
         this.actionFactory = actionFactory;
+        MetricsRegistry registry = metrics != null ? metrics : new MetricsRegistry();
+        this.batchMeter = new BatchMeter(registry, "business");
+        this.rejected = registry.counter("bank_business_rejected_total");
+        this.failed = registry.counter("bank_business_failed_total");
     }
 
     @Override
     public void onEvent(TransactionEvent event, long sequence, boolean endOfBatch) {
+        batchMeter.onEvent(endOfBatch);
         if (!event.shouldProcess()) {
             return;
         }
+        execute(event, sequence);
+    }
+
+    void meterBatch(boolean endOfBatch) {
+        batchMeter.onEvent(endOfBatch);
+    }
+
+    /**
+     * Выполняет одну команду; безопасен для вызова из разных потоков,
+     * если одновременно выполняемые команды не касаются общих счетов
+     */
+    final void execute(TransactionEvent event, long sequence) {
+        event.stampBusiness(System.nanoTime());
 
         try {
             TransactionCommand command = event.getCommand();
@@ -45,30 +76,56 @@ public class BusinessLogicConsumer implements EventHandler<TransactionEvent> {
                 TransferAction action = actionFactory.getTransferAction();
                 Account sourceAccount = accountState.getAccount(command.getAccountId());
                 Account targetAccount = accountState.getAccount(command.getTargetAccountId());
+                BigDecimal sourceBefore = sourceAccount.getBalance();
+                BigDecimal targetBefore = targetAccount.getBalance();
 
                 action.execute(sourceAccount, targetAccount, command);
 
                 event.addModifiedAccount(sourceAccount);
                 event.addModifiedAccount(targetAccount);
+                event.recordBalanceChange(sourceBefore, sourceAccount.getBalance());
+                event.recordBalanceChange(targetBefore, targetAccount.getBalance());
+
+            } else if (type == ActionType.OPEN) {
+                Account account = actionFactory.getOpenAction().execute(accountState, command);
+
+                event.addModifiedAccount(account);
+                event.recordBalanceChange(BigDecimal.ZERO, account.getBalance());
 
             } else {
                 SingleAccountAction action = actionFactory.getSingleAccountAction(type);
                 Account account = accountState.getAccount(command.getAccountId());
+                BigDecimal before = account.getBalance();
 
                 action.execute(account, command);
 
                 event.addModifiedAccount(account);
+                event.recordBalanceChange(before, account.getBalance());
             }
 
-        } catch (AccountNotFoundException | InsufficientFundsException | IllegalStateException
-                | IllegalArgumentException e) {
+        } catch (Exception e) {
+            reject(event, sequence, e);
+        }
+    }
+
+    /**
+     * Записывает отказ в событие: нарушение бизнес-правила — warn, прочее — error
+     */
+    final void reject(TransactionEvent event, long sequence, Exception e) {
+        if (e instanceof AccountNotFoundException || e instanceof InsufficientFundsException
+                || e instanceof IllegalStateException || e instanceof IllegalArgumentException) {
             log.warn("Business rule violation for transaction {}: {}", event.getCommand().getTransactionId(),
                     e.getMessage());
-            event.setBusinessException(e);
-        } catch (Exception e) {
+            rejected.increment();
+        } else {
             log.error("CRITICAL: Unhandled exception during business logic execution for transaction {}. Sequence: {}.",
                     event.getCommand().getTransactionId(), sequence, e);
-            event.setBusinessException(e);
+            failed.increment();
         }
+        event.setBusinessException(e);
+    }
+
+    final AccountStateProvider accountState() {
+        return accountState;
     }
 }
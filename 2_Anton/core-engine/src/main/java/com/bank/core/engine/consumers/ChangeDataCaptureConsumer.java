@@ -0,0 +1,64 @@
+package com.bank.core.engine.consumers;
+
+import com.bank.core.engine.TransactionEvent;
+import com.bank.core.metrics.MetricsRegistry;
+import com.bank.core.port.out.ChangeFeed;
+import com.bank.domain.Account;
+import com.lmax.disruptor.EventHandler;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Публикует изменения счетов в ChangeFeed, стоит после бизнес-логики параллельно с персистенцией и аудитом.
+ * Берет только снимки из события (баланс и статус после команды), живые балансы Account не читает.
+ * Записи становятся видны читателям в конце пачки. Ошибка ленты не останавливает конвейер:
+ * событие пропускается и считается в bank_cdc_failures_total
+ */
+
+public class ChangeDataCaptureConsumer implements EventHandler<TransactionEvent> {
+    private static final Logger log = LoggerFactory.getLogger(ChangeDataCaptureConsumer.class);
+
+    private final ChangeFeed feed;
+    private final LongAdder records;
+    private final LongAdder failures;
+
+    public ChangeDataCaptureConsumer(ChangeFeed feed, MetricsRegistry metrics) {
+        this.feed = feed;
+        this.records = metrics.counter("bank_cdc_records_total");
+        this.failures = metrics.counter("bank_cdc_failures_total");
+    }
+
+    @Override
+    public void onEvent(TransactionEvent event, long sequence, boolean endOfBatch) {
+        if (event.shouldProcess() && event.getBusinessException() == null) {
+            try {
+                append(event);
+            } catch (RuntimeException e) {
+                failures.increment();
+                log.error("Failed to append change records for transaction {}. Sequence: {}.",
+                        event.getCommand().getTransactionId(), sequence, e);
+            }
+        }
+        if (endOfBatch) {
+            try {
+                feed.publish();
+            } catch (RuntimeException e) {
+                failures.increment();
+                log.error("Failed to publish change records. Sequence: {}.", sequence, e);
+            }
+        }
+    }
+
+    private void append(TransactionEvent event) {
+        List<Account> accounts = event.getModifiedAccounts();
+        int changes = event.getBalanceChanges();
+        for (int i = 0; i < changes; i++) {
+            feed.append(event.getCommand().getTransactionId(), accounts.get(i).getId(), event.getBalanceAfter(i),
+                    event.getStatusAfter(i));
+            records.increment();
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package com.bank.core.engine.consumers;
+
+import com.bank.core.command.ActionType;
+import com.bank.core.command.TransactionCommand;
+import com.bank.core.engine.TransactionEvent;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Разбиение пачки событий на независимые группы: события, которые касаются общего счета
+ * (accountId или targetAccountId перевода), попадают в одну группу (union-find).
+ * order перечисляет индексы событий группа за группой, внутри группы — в исходном порядке
+ */
+final class ConflictGroups {
+
+    private final Map<UUID, Integer> lastTouch = new HashMap<>();
+    private final int[] parent;
+    private final int[] groupOf;
+    private final int[] order;
+    private final int[] groupStart;
+    private int groupCount;
+
+    ConflictGroups(int capacity) {
+        parent = new int[capacity];
+        groupOf = new int[capacity];
+        order = new int[capacity];
+        groupStart = new int[capacity + 1];
+    }
+
+    int build(TransactionEvent[] events, int size) {
+        lastTouch.clear();
+        for (int i = 0; i < size; i++) {
+            parent[i] = i;
+            TransactionCommand command = events[i].getCommand();
+            touch(i, command.getAccountId());
+            if (command.getActionType() == ActionType.TRANSFER) {
+                touch(i, command.getTargetAccountId());
+            }
+        }
+
+        groupCount = 0;
+        for (int i = 0; i < size; i++) {
+            int root = find(i);
+            groupOf[i] = root == i ? groupCount++ : groupOf[root];
+        }
+
+        Arrays.fill(groupStart, 0, groupCount + 1, 0);
+        for (int i = 0; i < size; i++) {
+            groupStart[groupOf[i] + 1]++;
+        }
+        for (int g = 0; g < groupCount; g++) {
+            groupStart[g + 1] += groupStart[g];
+        }
+        int[] next = Arrays.copyOf(groupStart, groupCount);
+        for (int i = 0; i < size; i++) {
+            order[next[groupOf[i]]++] = i;
+        }
+        return groupCount;
+    }
+
+    /** Начало группы g в order; конец — groupStart(g + 1) */
+    int groupStart(int g) {
+        return groupStart[g];
+    }
+
+    int eventAt(int position) {
+        return order[position];
+    }
+
+    private void touch(int index, UUID accountId) {
+        Integer previous = lastTouch.put(accountId, index);
+        if (previous != null) {
+            union(previous, index);
+        }
+    }
+
+    private int find(int i) {
+        while (parent[i] != i) {
+            parent[i] = parent[parent[i]];
+            i = parent[i];
+        }
+        return i;
+    }
+
+    private void union(int a, int b) {
+        int rootA = find(a);
+        int rootB = find(b);
+        if (rootA != rootB) {
+            // корень — меньший индекс, тогда при нумерации групп корень встречается раньше остальных членов
+            if (rootA < rootB) {
+                parent[rootB] = rootA;
+            } else {
+                parent[rootA] = rootB;
+            }
+        }
+    }
+}
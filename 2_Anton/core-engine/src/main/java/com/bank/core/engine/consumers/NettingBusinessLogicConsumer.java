@@ -0,0 +1,200 @@
+package com.bank.core.engine.consumers;
+
+import com.bank.core.command.ActionType;
+import com.bank.core.command.TransactionCommand;
+import com.bank.core.command.factory.TransactionActionFactory;
+import com.bank.core.engine.TransactionEvent;
+import com.bank.core.metrics.MetricsRegistry;
+import com.bank.core.state.AccountStateProvider;
+import com.bank.domain.Account;
+
+import java.math.BigDecimal;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Вариант BusinessLogicConsumer с неттингом пополнений горячих счетов.
+ * Внутри пачки Disruptor подряд идущие DEPOSIT на один счет (без других команд по этому
+ * счету между ними) откладываются и применяются одним deposit на сумму. Любая другая
+ * команда по счету (в том числе как получателю перевода) сначала сбрасывает его отложенные
+ * пополнения, в конце пачки сбрасывается все. Каждое событие получает свой результат
+ * и попадает в журнал как обычно
+ */
+public class NettingBusinessLogicConsumer extends BusinessLogicConsumer {
+
+    static final int MAX_DEFERRED = 4096;
+
+    private final Map<UUID, CreditRun> runs = new HashMap<>();
+    private final ArrayDeque<CreditRun> spare = new ArrayDeque<>();
+    private final LongAdder netted;
+    private int deferred;
+
+    public NettingBusinessLogicConsumer(AccountStateProvider accountState, TransactionActionFactory actionFactory,
+            MetricsRegistry metrics) {
+        super(accountState, actionFactory, metrics);
+        MetricsRegistry registry = metrics != null ? metrics : new MetricsRegistry();
+        this.netted = registry.counter("bank_business_netted_total");
+    }
+
+    @Override
+    public void onEvent(TransactionEvent event, long sequence, boolean endOfBatch) {
+        meterBatch(endOfBatch);
+        if (event.shouldProcess()) {
+            TransactionCommand command = event.getCommand();
+            if (command.getActionType() == ActionType.DEPOSIT) {
+                defer(command.getAccountId(), event, sequence);
+            } else {
+                flush(command.getAccountId());
+                if (command.getActionType() == ActionType.TRANSFER) {
+                    flush(command.getTargetAccountId());
+                }
+                execute(event, sequence);
+            }
+        }
+        if (endOfBatch || deferred >= MAX_DEFERRED) {
+            flushAll();
+        }
+    }
+
+    private void defer(UUID accountId, TransactionEvent event, long sequence) {
+        CreditRun run = runs.get(accountId);
+        if (run == null) {
+            run = spare.isEmpty() ? new CreditRun() : spare.poll();
+            run.accountId = accountId;
+            runs.put(accountId, run);
+        }
+        run.add(event, sequence);
+        deferred++;
+    }
+
+    private void flush(UUID accountId) {
+        if (runs.isEmpty()) {
+            return;
+        }
+        CreditRun run = runs.remove(accountId);
+        if (run != null) {
+            apply(run);
+        }
+    }
+
+    private void flushAll() {
+        if (runs.isEmpty()) {
+            return;
+        }
+        for (CreditRun run : runs.values()) {
+            apply(run);
+        }
+        runs.clear();
+    }
+
+    private void apply(CreditRun run) {
+        deferred -= run.size;
+        try {
+            if (run.size == 1) {
+                execute(run.events[0], run.sequences[0]);
+            } else {
+                applyNetted(run);
+            }
+        } finally {
+            run.clear();
+            spare.push(run);
+        }
+    }
+
+    /**
+     * Отказы совпадают с последовательным выполнением: неактивный или отсутствующий счет
+     * отклоняет все пополнения серии, неположительная сумма — только свое
+     */
+    private void applyNetted(CreditRun run) {
+        long now = System.nanoTime();
+        for (int i = 0; i < run.size; i++) {
+            run.events[i].stampBusiness(now);
+        }
+
+        Account account;
+        try {
+            account = accountState().getAccount(run.accountId);
+        } catch (Exception e) {
+            rejectAll(run, e);
+            return;
+        }
+
+        BigDecimal total = BigDecimal.ZERO;
+        int valid = 0;
+        for (int i = 0; i < run.size; i++) {
+            BigDecimal amount = run.events[i].getCommand().getAmount();
+            if (amount != null && amount.signum() > 0) {
+                total = total.add(amount);
+                valid++;
+            }
+        }
+        if (valid == 0) {
+            for (int i = 0; i < run.size; i++) {
+                execute(run.events[i], run.sequences[i]);
+            }
+            return;
+        }
+
+        BigDecimal before = account.getBalance();
+        try {
+            account.deposit(total);
+        } catch (Exception e) {
+            rejectAll(run, e);
+            return;
+        }
+        netted.add(valid - 1);
+
+        // для аудитора серия раскладывается по событиям: промежуточные балансы расчетные, у последнего фактический
+        BigDecimal running = before;
+        int seen = 0;
+        for (int i = 0; i < run.size; i++) {
+            TransactionEvent event = run.events[i];
+            BigDecimal amount = event.getCommand().getAmount();
+            if (amount != null && amount.signum() > 0) {
+                event.addModifiedAccount(account);
+                BigDecimal after = ++seen == valid ? account.getBalance() : running.add(amount);
+                event.recordBalanceChange(running, after);
+                running = after;
+            } else {
+                try {
+                    account.deposit(amount);
+                } catch (Exception e) {
+                    reject(event, run.sequences[i], e);
+                }
+            }
+        }
+    }
+
+    private void rejectAll(CreditRun run, Exception e) {
+        for (int i = 0; i < run.size; i++) {
+            reject(run.events[i], run.sequences[i], e);
+        }
+    }
+
+    private static final class CreditRun {
+        private UUID accountId;
+        private TransactionEvent[] events = new TransactionEvent[4];
+        private long[] sequences = new long[4];
+        private int size;
+
+        void add(TransactionEvent event, long sequence) {
+            if (size == events.length) {
+                events = Arrays.copyOf(events, size * 2);
+                sequences = Arrays.copyOf(sequences, size * 2);
+            }
+            events[size] = event;
+            sequences[size] = sequence;
+            size++;
+        }
+
+        void clear() {
+            Arrays.fill(events, 0, size, null);
+            accountId = null;
+            size = 0;
+        }
+    }
+}
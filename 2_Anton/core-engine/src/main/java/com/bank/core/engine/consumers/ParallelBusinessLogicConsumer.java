@@ -0,0 +1,126 @@
+package com.bank.core.engine.consumers;
+
+import com.bank.core.command.factory.TransactionActionFactory;
+import com.bank.core.engine.TransactionEvent;
+import com.bank.core.metrics.MetricsRegistry;
+import com.bank.core.state.AccountStateProvider;
+import com.lmax.disruptor.LifecycleAware;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Вариант BusinessLogicConsumer для пачек с непересекающимися счетами.
+ * События копятся до конца пачки Disruptor, затем делятся на группы по общим счетам
+ * (ConflictGroups), и независимые группы выполняются на ForkJoinPool.
+ * Внутри группы порядок исходный, поэтому порядок команд по каждому счету сохраняется.
+ * Следующий обработчик увидит пачку только после возврата из onEvent с endOfBatch,
+ * то есть после завершения всех задач
+ */
+public class ParallelBusinessLogicConsumer extends BusinessLogicConsumer implements LifecycleAware {
+
+    static final int MAX_PENDING = 4096;
+    static final int MIN_PARALLEL_BATCH = 64;
+    private static final int SPLIT_THRESHOLD = 32;
+
+    private final ForkJoinPool pool;
+    private final TransactionEvent[] pending = new TransactionEvent[MAX_PENDING];
+    private final long[] sequences = new long[MAX_PENDING];
+    private final ConflictGroups groups = new ConflictGroups(MAX_PENDING);
+    private int size;
+
+    public ParallelBusinessLogicConsumer(AccountStateProvider accountState, TransactionActionFactory actionFactory,
+            MetricsRegistry metrics, int workers) {
+        super(accountState, actionFactory, metrics);
+        if (workers <= 0) {
+            throw new IllegalArgumentException("Worker count must be positive: " + workers);
+        }
+        this.pool = new ForkJoinPool(workers, pool -> {
+            ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+            thread.setName("bank-business-" + thread.getPoolIndex());
+            thread.setDaemon(true);
+            return thread;
+        }, null, false);
+    }
+
+    @Override
+    public void onEvent(TransactionEvent event, long sequence, boolean endOfBatch) {
+        meterBatch(endOfBatch);
+        if (event.shouldProcess()) {
+            pending[size] = event;
+            sequences[size] = sequence;
+            size++;
+        }
+        if (endOfBatch || size == MAX_PENDING) {
+            flush();
+        }
+    }
+
+    private void flush() {
+        if (size == 0) {
+            return;
+        }
+        if (size < MIN_PARALLEL_BATCH) {
+            executeSequentially();
+        } else {
+            int groupCount = groups.build(pending, size);
+            if (groupCount == 1) {
+                executeSequentially();
+            } else {
+                pool.invoke(new GroupTask(0, groupCount));
+            }
+        }
+        Arrays.fill(pending, 0, size, null);
+        size = 0;
+    }
+
+    private void executeSequentially() {
+        for (int i = 0; i < size; i++) {
+            execute(pending[i], sequences[i]);
+        }
+    }
+
+    @Override
+    public void onStart() {
+    }
+
+    @Override
+    public void onShutdown() {
+        pool.shutdown();
+        try {
+            pool.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Диапазон групп [from, to); делится пополам, пока в нем больше SPLIT_THRESHOLD событий
+     */
+    private final class GroupTask extends RecursiveAction {
+        private final int from;
+        private final int to;
+
+        GroupTask(int from, int to) {
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            int events = groups.groupStart(to) - groups.groupStart(from);
+            if (to - from == 1 || events <= SPLIT_THRESHOLD) {
+                for (int position = groups.groupStart(from); position < groups.groupStart(to); position++) {
+                    int index = groups.eventAt(position);
+                    execute(pending[index], sequences[index]);
+                }
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            invokeAll(new GroupTask(from, middle), new GroupTask(middle, to));
+        }
+    }
+}
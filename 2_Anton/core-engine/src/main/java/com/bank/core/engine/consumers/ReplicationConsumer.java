@@ -1,21 +1,48 @@
 package com.bank.core.engine.consumers;
 
 import com.bank.core.engine.TransactionEvent;
+import com.bank.core.metrics.MetricsRegistry;
+import com.bank.core.port.out.ReplicationLink;
 import com.lmax.disruptor.EventHandler;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.atomic.LongAdder;
 
 /**
- * Обработчик, отправляющий транзакцию на реплику
+ * Обработчик, отправляющий транзакцию на реплику. Стоит после персистенции, так что на реплику уходят
+ * только команды, уже записанные в журнал, и в том же порядке. Пачка Disruptor — пачка репликации:
+ * ReplicationLink отправляет ее по endOfBatch и в синхронном режиме там же ждет подтверждения.
+ * Ошибка канала не останавливает конвейер, реплика догоняет по журналу
  */
 
 public class ReplicationConsumer implements EventHandler<TransactionEvent> {
+    private static final Logger log = LoggerFactory.getLogger(ReplicationConsumer.class);
+
+    private final ReplicationLink link;
+    private final LongAdder failures;
 
     public ReplicationConsumer() {
+        this(ReplicationLink.NONE, new MetricsRegistry());
+    }
+
+    public ReplicationConsumer(ReplicationLink link, MetricsRegistry metrics) {
+        this.link = link;
+        this.failures = metrics.counter("bank_replication_failures_total");
     }
 
     @Override
     public void onEvent(TransactionEvent event, long sequence, boolean endOfBatch) throws Exception {
-        if (!event.shouldProcess()) {
-            return;
+        try {
+            if (event.shouldProcess() && event.getBusinessException() == null) {
+                link.send(event.getCommand());
+            }
+            if (endOfBatch) {
+                link.endOfBatch();
+            }
+        } catch (RuntimeException e) {
+            failures.increment();
+            log.error("Failed to replicate batch ending at sequence {}", sequence, e);
         }
     }
 
@@ -0,0 +1,28 @@
+package com.bank.core.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Счетчик событий потребителя и размеров пачек, которые Disruptor отдает до endOfBatch.
+ * Вызывается из единственного потока потребителя
+ */
+public final class BatchMeter {
+
+    private final LongAdder events;
+    private final LatencyHistogram batchSizes;
+    private int pending;
+
+    public BatchMeter(MetricsRegistry registry, String consumer) {
+        this.events = registry.counter("bank_consumer_" + consumer + "_events_total");
+        this.batchSizes = registry.histogram("bank_consumer_" + consumer + "_batch_size");
+    }
+
+    public void onEvent(boolean endOfBatch) {
+        pending++;
+        if (endOfBatch) {
+            events.add(pending);
+            batchSizes.record(pending);
+            pending = 0;
+        }
+    }
+}
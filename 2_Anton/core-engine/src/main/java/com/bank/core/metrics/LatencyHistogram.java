@@ -0,0 +1,86 @@
+package com.bank.core.metrics;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Лог-линейная гистограмма задержек в наносекундах в духе HdrHistogram:
+ * 64 поддиапазона на каждую степень двойки, относительная погрешность до ~1.6%.
+ * Значения выше MAX_VALUE попадают в последний поддиапазон
+ */
+public final class LatencyHistogram {
+
+    private static final int SUB_BUCKET_BITS = 7;
+    private static final int SUB_BUCKET_HALF = 1 << (SUB_BUCKET_BITS - 1);
+    private static final int MAX_VALUE_BITS = 40;
+
+    public static final long MAX_VALUE = (1L << MAX_VALUE_BITS) - 1;
+
+    private final AtomicLongArray counts =
+            new AtomicLongArray((MAX_VALUE_BITS - SUB_BUCKET_BITS + 2) * SUB_BUCKET_HALF);
+
+    public void record(long value) {
+        counts.getAndIncrement(indexOf(Math.min(Math.max(value, 0L), MAX_VALUE)));
+    }
+
+    public void reset() {
+        for (int i = 0; i < counts.length(); i++) {
+            counts.lazySet(i, 0L);
+        }
+    }
+
+    public LatencySnapshot snapshot() {
+        long[] copy = new long[counts.length()];
+        long total = 0;
+        double sum = 0;
+        int last = -1;
+        for (int i = 0; i < copy.length; i++) {
+            long c = counts.get(i);
+            copy[i] = c;
+            if (c > 0) {
+                total += c;
+                sum += (double) c * midpointOf(i);
+                last = i;
+            }
+        }
+        if (total == 0) {
+            return LatencySnapshot.EMPTY;
+        }
+        return new LatencySnapshot(total,
+                valueAtPercentile(copy, total, 50.0),
+                valueAtPercentile(copy, total, 99.0),
+                valueAtPercentile(copy, total, 99.9),
+                highestEquivalentValue(last),
+                sum / total);
+    }
+
+    private static long valueAtPercentile(long[] counts, long total, double percentile) {
+        long target = Math.max(1L, (long) Math.ceil(percentile / 100.0 * total));
+        long seen = 0;
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen >= target) {
+                return highestEquivalentValue(i);
+            }
+        }
+        return highestEquivalentValue(counts.length - 1);
+    }
+
+    static int indexOf(long value) {
+        int bucket = Math.max(0, 63 - Long.numberOfLeadingZeros(value) - (SUB_BUCKET_BITS - 1));
+        return bucket * SUB_BUCKET_HALF + (int) (value >>> bucket);
+    }
+
+    static long lowestEquivalentValue(int index) {
+        int bucket = Math.max(0, index / SUB_BUCKET_HALF - 1);
+        return (long) (index - bucket * SUB_BUCKET_HALF) << bucket;
+    }
+
+    static long highestEquivalentValue(int index) {
+        int bucket = Math.max(0, index / SUB_BUCKET_HALF - 1);
+        return lowestEquivalentValue(index) + (1L << bucket) - 1;
+    }
+
+    private static double midpointOf(int index) {
+        return (lowestEquivalentValue(index) + highestEquivalentValue(index)) / 2.0;
+    }
+}
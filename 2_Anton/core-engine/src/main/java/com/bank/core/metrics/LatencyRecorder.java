@@ -0,0 +1,55 @@
+package com.bank.core.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Запись задержек с переключением интервалов без блокировки писателей.
+ * Писатели пишут в активную гистограмму внутри "эпохи" (фазер писатель/читатель,
+ * как Recorder в HdrHistogram); читатель подменяет активную гистограмму и дожидается,
+ * пока завершатся записи, начатые до подмены
+ */
+public final class LatencyRecorder {
+
+    private final AtomicLong startEpoch = new AtomicLong(0);
+    private final AtomicLong evenEndEpoch = new AtomicLong(0);
+    private final AtomicLong oddEndEpoch = new AtomicLong(Long.MIN_VALUE);
+
+    private volatile LatencyHistogram active = new LatencyHistogram();
+    private LatencyHistogram inactive = new LatencyHistogram();
+
+    public void record(long nanos) {
+        long epoch = startEpoch.getAndIncrement();
+        try {
+            active.record(nanos);
+        } finally {
+            if (epoch < 0) {
+                oddEndEpoch.getAndIncrement();
+            } else {
+                evenEndEpoch.getAndIncrement();
+            }
+        }
+    }
+
+    /**
+     * Возвращает сводку за интервал с предыдущего вызова и начинает новый интервал
+     */
+    public synchronized LatencySnapshot intervalSnapshot() {
+        inactive.reset();
+        LatencyHistogram finished = active;
+        active = inactive;
+        flipPhase();
+        inactive = finished;
+        return finished.snapshot();
+    }
+
+    private void flipPhase() {
+        boolean nextPhaseIsEven = startEpoch.get() < 0;
+        long initialStartValue = nextPhaseIsEven ? 0 : Long.MIN_VALUE;
+        (nextPhaseIsEven ? evenEndEpoch : oddEndEpoch).set(initialStartValue);
+        long startValueAtFlip = startEpoch.getAndSet(initialStartValue);
+        AtomicLong previousEnd = nextPhaseIsEven ? oddEndEpoch : evenEndEpoch;
+        while (previousEnd.get() != startValueAtFlip) {
+            Thread.onSpinWait();
+        }
+    }
+}
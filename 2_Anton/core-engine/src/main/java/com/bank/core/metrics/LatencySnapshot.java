@@ -0,0 +1,9 @@
+package com.bank.core.metrics;
+
+/**
+ * Сводка гистограммы задержек за интервал, значения в наносекундах
+ */
+public record LatencySnapshot(long count, long p50, long p99, long p999, long max, double mean) {
+
+    public static final LatencySnapshot EMPTY = new LatencySnapshot(0, 0, 0, 0, 0, 0.0);
+}
@@ -0,0 +1,14 @@
+package com.bank.core.metrics;
+
+/**
+ * Участки пути команды, для которых снимается задержка
+ */
+public enum LatencyStage {
+    /** от создания команды (сохранения в outbox) до публикации в RingBuffer, точность — миллисекунды */
+    INGRESS_TO_PUBLISH,
+    PUBLISH_TO_IDEMPOTENCY,
+    IDEMPOTENCY_TO_BUSINESS,
+    BUSINESS_TO_PERSIST,
+    PERSIST_TO_COMMIT,
+    PUBLISH_TO_COMMIT
+}
@@ -0,0 +1,28 @@
+package com.bank.core.metrics;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Набор регистраторов задержек по участкам конвейера
+ */
+public class LatencyTracker {
+
+    private final EnumMap<LatencyStage, LatencyRecorder> recorders = new EnumMap<>(LatencyStage.class);
+
+    public LatencyTracker() {
+        for (LatencyStage stage : LatencyStage.values()) {
+            recorders.put(stage, new LatencyRecorder());
+        }
+    }
+
+    public void record(LatencyStage stage, long nanos) {
+        recorders.get(stage).record(nanos);
+    }
+
+    public Map<LatencyStage, LatencySnapshot> intervalSnapshot() {
+        EnumMap<LatencyStage, LatencySnapshot> snapshot = new EnumMap<>(LatencyStage.class);
+        recorders.forEach((stage, recorder) -> snapshot.put(stage, recorder.intervalSnapshot()));
+        return snapshot;
+    }
+}
@@ -0,0 +1,120 @@
+package com.bank.core.metrics;
+
+import java.lang.management.ManagementFactory;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * Реестр метрик: счетчики, датчики и гистограммы.
+ * Значения доступны как текст в формате Prometheus и через JMX (один MBean на реестр).
+ * Единица гистограммы задается суффиксом имени: _nanos, _rows, _size
+ */
+public class MetricsRegistry {
+
+    private final Map<String, Object> metrics = new ConcurrentSkipListMap<>();
+    private ObjectName registeredName;
+
+    public LongAdder counter(String name) {
+        return get(name, LongAdder.class, new LongAdder());
+    }
+
+    public void gauge(String name, LongSupplier supplier) {
+        Object existing = metrics.putIfAbsent(name, supplier);
+        if (existing != null && existing != supplier) {
+            throw new IllegalArgumentException("Metric already registered: " + name);
+        }
+    }
+
+    public LatencyHistogram histogram(String name) {
+        return get(name, LatencyHistogram.class, new LatencyHistogram());
+    }
+
+    private <T> T get(String name, Class<T> type, T candidate) {
+        Object metric = metrics.computeIfAbsent(name, n -> candidate);
+        if (!type.isInstance(metric)) {
+            throw new IllegalArgumentException("Metric " + name + " is registered with another type");
+        }
+        return type.cast(metric);
+    }
+
+    /**
+     * Плоский снимок всех значений; гистограмма раскладывается в _count, _p50, _p99, _p999, _max, _mean
+     */
+    public Map<String, Number> values() {
+        Map<String, Number> values = new LinkedHashMap<>();
+        metrics.forEach((name, metric) -> {
+            if (metric instanceof LongAdder counter) {
+                values.put(name, counter.sum());
+            } else if (metric instanceof LongSupplier gauge) {
+                values.put(name, gauge.getAsLong());
+            } else if (metric instanceof LatencyHistogram histogram) {
+                LatencySnapshot s = histogram.snapshot();
+                values.put(name + "_count", s.count());
+                values.put(name + "_p50", s.p50());
+                values.put(name + "_p99", s.p99());
+                values.put(name + "_p999", s.p999());
+                values.put(name + "_max", s.max());
+                values.put(name + "_mean", s.mean());
+            }
+        });
+        return values;
+    }
+
+    public String renderText() {
+        StringBuilder out = new StringBuilder(4096);
+        metrics.forEach((name, metric) -> {
+            if (metric instanceof LongAdder counter) {
+                out.append("# TYPE ").append(name).append(" counter\n");
+                out.append(name).append(' ').append(counter.sum()).append('\n');
+            } else if (metric instanceof LongSupplier gauge) {
+                out.append("# TYPE ").append(name).append(" gauge\n");
+                out.append(name).append(' ').append(gauge.getAsLong()).append('\n');
+            } else if (metric instanceof LatencyHistogram histogram) {
+                LatencySnapshot s = histogram.snapshot();
+                out.append("# TYPE ").append(name).append(" summary\n");
+                out.append(name).append("{quantile=\"0.5\"} ").append(s.p50()).append('\n');
+                out.append(name).append("{quantile=\"0.99\"} ").append(s.p99()).append('\n');
+                out.append(name).append("{quantile=\"0.999\"} ").append(s.p999()).append('\n');
+                out.append(name).append("_max ").append(s.max()).append('\n');
+                out.append(name).append("_count ").append(s.count()).append('\n');
+            }
+        });
+        return out.toString();
+    }
+
+    public synchronized void registerMBean(String objectName) {
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName name = new ObjectName(objectName);
+            if (server.isRegistered(name)) {
+                server.unregisterMBean(name);
+            }
+            server.registerMBean(new MetricsMBean(this), name);
+            registeredName = name;
+        } catch (JMException e) {
+            throw new IllegalStateException("Failed to register metrics MBean " + objectName, e);
+        }
+    }
+
+    public synchronized void unregisterMBean() {
+        if (registeredName == null) {
+            return;
+        }
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            if (server.isRegistered(registeredName)) {
+                server.unregisterMBean(registeredName);
+            }
+        } catch (JMException e) {
+            throw new IllegalStateException("Failed to unregister metrics MBean " + registeredName, e);
+        } finally {
+            registeredName = null;
+        }
+    }
+}
@@ -17,7 +17,7 @@ public class BatchUnitOfWork {
 
     public final Set<UUID> successfulOutboxKeysToRemove = new HashSet<>();
 
-    public final Map<UUID, String> failedOutboxKeysToDlq = new HashMap<>();
+    public final Map<UUID, FailureReason> failedOutboxKeysToDlq = new HashMap<>();
 
     public boolean isEmpty() {
         return keysToInsert.isEmpty() && commandsToJournal.isEmpty() &&
@@ -0,0 +1,16 @@
+package com.bank.core.port.out;
+
+import com.bank.domain.AccountStatus;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+/**
+ * порт для потока изменений состояния счетов (CDC): записи копятся и становятся видны читателям по publish()
+ */
+
+public interface ChangeFeed {
+    void append(UUID transactionId, UUID accountId, BigDecimal balance, AccountStatus status);
+
+    void publish();
+}
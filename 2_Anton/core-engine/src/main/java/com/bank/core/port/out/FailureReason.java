@@ -0,0 +1,24 @@
+package com.bank.core.port.out;
+
+import com.bank.core.exception.AccountNotFoundException;
+import com.bank.core.exception.InsufficientFundsException;
+
+/**
+ * Причина отказа команды для DLQ. Отказы по бизнес-правилам окончательны: нет средств, счета нет,
+ * счет заморожен или закрыт, повторное открытие, неверные аргументы — автоматический повтор их не исправит,
+ * а отклоненное списание не должно пройти само спустя минуты. Повторяемы только непредвиденные сбои;
+ * окончательные оператор может вернуть вручную через redriveAll(errorType)
+ */
+public record FailureReason(String errorType, String message, boolean retryable) {
+
+    public static FailureReason of(Exception e) {
+        return new FailureReason(e.getClass().getSimpleName(), e.getMessage(), !isBusinessRejection(e));
+    }
+
+    static boolean isBusinessRejection(Exception e) {
+        return e instanceof InsufficientFundsException
+                || e instanceof AccountNotFoundException
+                || e instanceof IllegalArgumentException
+                || e instanceof IllegalStateException;
+    }
+}
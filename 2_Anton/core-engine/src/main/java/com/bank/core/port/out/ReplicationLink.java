@@ -0,0 +1,23 @@
+package com.bank.core.port.out;
+
+import com.bank.core.command.TransactionCommand;
+
+/**
+ * порт для отправки записей журнала на реплику: команды копятся в пачку и уходят по endOfBatch()
+ */
+
+public interface ReplicationLink {
+    ReplicationLink NONE = new ReplicationLink() {
+        @Override
+        public void send(TransactionCommand command) {
+        }
+
+        @Override
+        public void endOfBatch() {
+        }
+    };
+
+    void send(TransactionCommand command);
+
+    void endOfBatch();
+}
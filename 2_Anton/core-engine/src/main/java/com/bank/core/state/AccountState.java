@@ -6,13 +6,15 @@ import com.bank.core.exception.AccountNotFoundException;
 import java.util.Map;
 import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
 
 /**
- * In-memory реализация хранилища состояний счетов
+ * In-memory реализация хранилища состояний счетов. Процесс использует общий INSTANCE;
+ * отдельный экземпляр нужен, когда в одной JVM работают два движка (основной и резервный)
  */
 
-public enum AccountState implements AccountStateProvider {
-    INSTANCE;
+public final class AccountState implements AccountStateProvider {
+    public static final AccountState INSTANCE = new AccountState();
 
     private final Map<UUID, Account> accounts = new ConcurrentHashMap<>();
 
@@ -30,6 +32,18 @@ public enum AccountState implements AccountStateProvider {
         accounts.put(account.getId(), account);
     }
 
+    @Override
+    public boolean containsAccount(UUID accountId) {
+        return accounts.containsKey(accountId);
+    }
+
+    /**
+     * Обход без блокировок: слабо согласован с параллельными изменениями, как итератор ConcurrentHashMap
+     */
+    public void forEach(Consumer<Account> action) {
+        accounts.values().forEach(action);
+    }
+
     public void loadAll(Map<UUID, Account> initialAccounts) {
         accounts.clear();
         accounts.putAll(initialAccounts);
@@ -11,4 +11,5 @@ import java.util.UUID;
 public interface AccountStateProvider {
     Account getAccount(UUID accountId) throws AccountNotFoundException;
     void createOrUpdateAccount(Account account);
+    boolean containsAccount(UUID accountId);
 }
@@ -0,0 +1,62 @@
+package com.bank.core.command.action;
+
+import com.bank.core.command.TransactionCommand;
+import com.bank.core.state.AccountStateProvider;
+import com.bank.domain.Account;
+import com.bank.domain.AccountStatus;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class OpenActionTest {
+
+    @Mock
+    private AccountStateProvider accountState;
+
+    private AutoCloseable closeable;
+    private final OpenAction openAction = new OpenAction();
+
+    @BeforeEach
+    void setUp() {
+        closeable = MockitoAnnotations.openMocks(this);
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        closeable.close();
+    }
+
+    @Test
+    void should_register_new_active_account_with_zero_balance() {
+        UUID accountId = UUID.randomUUID();
+        TransactionCommand command = TransactionCommand.createOpenCommand(UUID.randomUUID(), accountId);
+        when(accountState.containsAccount(accountId)).thenReturn(false);
+
+        Account opened = openAction.execute(accountState, command);
+
+        assertThat(opened.getId()).isEqualTo(accountId);
+        assertThat(opened.getBalance()).isEqualByComparingTo(BigDecimal.ZERO);
+        assertThat(opened.getStatus()).isEqualTo(AccountStatus.ACTIVE);
+        verify(accountState).createOrUpdateAccount(opened);
+    }
+
+    @Test
+    void should_reject_opening_existing_account() {
+        UUID accountId = UUID.randomUUID();
+        TransactionCommand command = TransactionCommand.createOpenCommand(UUID.randomUUID(), accountId);
+        when(accountState.containsAccount(accountId)).thenReturn(true);
+
+        assertThrows(IllegalStateException.class, () -> openAction.execute(accountState, command));
+        verify(accountState, never()).createOrUpdateAccount(any());
+    }
+}
@@ -0,0 +1,64 @@
+package com.bank.core.engine;
+
+import com.lmax.disruptor.dsl.ProducerType;
+import org.junit.jupiter.api.Test;
+
+import java.util.Properties;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class EngineConfigTest {
+
+    @Test
+    void shouldReadAllSettingsFromProperties() {
+        Properties properties = new Properties();
+        properties.setProperty("bank.engine.ringSize", "4096");
+        properties.setProperty("bank.engine.waitStrategy", "phased-backoff");
+        properties.setProperty("bank.engine.producerType", "single");
+        properties.setProperty("bank.engine.cpus", "2, 3,5");
+        properties.setProperty("bank.engine.threadPrefix", "core");
+
+        EngineConfig config = EngineConfig.fromProperties(properties);
+
+        assertThat(config.getRingSize()).isEqualTo(4096);
+        assertThat(config.getWaitStrategy()).isEqualTo(WaitStrategyType.PHASED_BACKOFF);
+        assertThat(config.getProducerType()).isEqualTo(ProducerType.SINGLE);
+        assertThat(config.getConsumerCpus()).containsExactly(2, 3, 5);
+        assertThat(config.getThreadNamePrefix()).isEqualTo("core");
+    }
+
+    @Test
+    void shouldFallBackToDefaultsAndRejectNonPowerOfTwoRing() {
+        EngineConfig config = EngineConfig.fromProperties(new Properties());
+
+        assertThat(config.getRingSize()).isEqualTo(1024 * 16);
+        assertThat(config.getWaitStrategy()).isEqualTo(WaitStrategyType.SLEEPING);
+        assertThat(config.getProducerType()).isEqualTo(ProducerType.SINGLE);
+        assertThat(config.isDirectIngress()).isFalse();
+        assertThat(config.getConsumerCpus()).isEmpty();
+        assertThatThrownBy(() -> config.withRingSize(1000)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void shouldLetSystemPropertiesOverrideConfig() {
+        System.setProperty("bank.engine.waitStrategy", "busy_spin");
+        try {
+            assertThat(EngineConfig.load().getWaitStrategy()).isEqualTo(WaitStrategyType.BUSY_SPIN);
+        } finally {
+            System.clearProperty("bank.engine.waitStrategy");
+        }
+    }
+
+    @Test
+    void shouldNameConsumerThreadsWithPrefix() {
+        AffinityThreadFactory factory = new AffinityThreadFactory("core", new int[0]);
+
+        Thread first = factory.newThread(() -> { });
+        Thread second = factory.newThread(() -> { });
+
+        assertThat(first.getName()).isEqualTo("core-0");
+        assertThat(second.getName()).isEqualTo("core-1");
+        assertThat(first.isDaemon()).isTrue();
+    }
+}
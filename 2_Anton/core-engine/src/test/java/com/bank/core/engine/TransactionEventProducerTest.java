@@ -0,0 +1,79 @@
+package com.bank.core.engine;
+
+import com.bank.core.command.TransactionCommand;
+import com.lmax.disruptor.RingBuffer;
+import com.lmax.disruptor.dsl.ProducerType;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class TransactionEventProducerTest {
+
+    private static TransactionCommand deposit() {
+        return TransactionCommand.createDepositCommand(UUID.randomUUID(), UUID.randomUUID(), BigDecimal.ONE);
+    }
+
+    @Test
+    void shouldRejectSecondWriterOnSingleProducerRing() {
+        RingBuffer<TransactionEvent> ring = RingBuffer.createSingleProducer(TransactionEvent::new, 64);
+        TransactionEventProducer producer = new TransactionEventProducer(ring, true);
+
+        producer.publishBatch(List.of(deposit(), deposit()));
+        producer.publish(deposit());
+
+        assertThatThrownBy(() -> CompletableFuture.runAsync(() -> producer.publish(deposit())).join())
+                .isInstanceOf(CompletionException.class)
+                .hasCauseInstanceOf(IllegalStateException.class);
+        assertThatThrownBy(() -> CompletableFuture.runAsync(() -> producer.publishBatch(List.of(deposit()))).join())
+                .hasCauseInstanceOf(IllegalStateException.class);
+        assertThat(ring.getCursor()).isEqualTo(2);
+    }
+
+    @Test
+    void shouldAllowAnyThreadOnMultiProducerRing() {
+        RingBuffer<TransactionEvent> ring = RingBuffer.createMultiProducer(TransactionEvent::new, 64);
+        TransactionEventProducer producer = new TransactionEventProducer(ring);
+
+        producer.publish(deposit());
+        CompletableFuture.runAsync(() -> producer.publish(deposit())).join();
+
+        assertThat(producer.isSingleWriter()).isFalse();
+        assertThat(ring.getCursor()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldSplitBatchLargerThanRingIntoBufferSizedChunks() {
+        RingBuffer<TransactionEvent> ring = RingBuffer.createSingleProducer(TransactionEvent::new, 8);
+        TransactionEventProducer producer = new TransactionEventProducer(ring, true);
+        List<TransactionCommand> commands = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            commands.add(deposit());
+        }
+
+        producer.publishBatch(commands);
+
+        assertThat(ring.getCursor()).isEqualTo(19);
+        for (long sequence = 12; sequence <= 19; sequence++) {
+            assertThat(ring.get(sequence).getCommand()).isSameAs(commands.get((int) sequence));
+        }
+    }
+
+    @Test
+    void shouldDeriveProducerTypeFromDirectIngress() {
+        EngineConfig pollerOnly = EngineConfig.defaults();
+        EngineConfig direct = pollerOnly.withDirectIngress(true);
+
+        assertThat(pollerOnly.getProducerType()).isEqualTo(ProducerType.SINGLE);
+        assertThat(direct.getProducerType()).isEqualTo(ProducerType.MULTI);
+        assertThatThrownBy(() -> direct.withProducerType(ProducerType.SINGLE))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
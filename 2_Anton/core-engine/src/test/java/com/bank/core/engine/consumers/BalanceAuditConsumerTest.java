@@ -0,0 +1,104 @@
+package com.bank.core.engine.consumers;
+
+import com.bank.core.command.ActionType;
+import com.bank.core.command.TransactionCommand;
+import com.bank.core.command.factory.TransactionActionFactory;
+import com.bank.core.engine.TransactionEvent;
+import com.bank.core.metrics.MetricsRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.Random;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BalanceAuditConsumerTest {
+
+    @Test
+    void shouldSeeNoDivergenceBehindSequentialAndNettingConsumers() {
+        UUID[] ids = new UUID[10];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = UUID.randomUUID();
+        }
+        TransactionCommand[] commands = mixedCommands(ids, new Random(11), 20_000);
+
+        for (boolean netting : new boolean[] { false, true }) {
+            MapAccountState state = new MapAccountState(ids, new BigDecimal("50.00"));
+            BusinessLogicConsumer business = netting
+                    ? new NettingBusinessLogicConsumer(state, new TransactionActionFactory(), new MetricsRegistry())
+                    : new BusinessLogicConsumer(state, new TransactionActionFactory());
+            BalanceAuditConsumer audit = new BalanceAuditConsumer(
+                    BalanceAuditConsumer.totalBalance(state.accounts), new MetricsRegistry(), 97);
+
+            TransactionEvent[] batch = new TransactionEvent[200];
+            for (int i = 0; i < commands.length; i++) {
+                TransactionEvent event = new TransactionEvent();
+                event.setCommand(commands[i]);
+                event.setShouldProcess(true);
+                boolean endOfBatch = (i + 1) % batch.length == 0 || i == commands.length - 1;
+                business.onEvent(event, i, endOfBatch);
+                batch[i % batch.length] = event;
+                if (endOfBatch) {
+                    int first = i - i % batch.length;
+                    for (int j = first; j <= i; j++) {
+                        audit.onEvent(batch[j % batch.length], j, j == i);
+                    }
+                }
+            }
+
+            BigDecimal finalTotal = BalanceAuditConsumer.totalBalance(state.accounts);
+            assertThat(audit.getDivergences()).as("netting=%s", netting).isZero();
+            assertThat(audit.getStateCents()).isEqualTo(finalTotal.movePointRight(2).longValueExact());
+            assertThat(audit.getLedgerCents()).isEqualTo(audit.getStateCents());
+            assertThat(audit.getCount(ActionType.TRANSFER)).isPositive();
+        }
+    }
+
+    @Test
+    void shouldRaiseDivergenceWhenStateChangeDoesNotMatchCommand() {
+        UUID id = UUID.randomUUID();
+        MetricsRegistry metrics = new MetricsRegistry();
+        BalanceAuditConsumer audit = new BalanceAuditConsumer(new BigDecimal("100.00"), metrics, 1);
+
+        TransactionEvent broken = new TransactionEvent();
+        broken.setCommand(TransactionCommand.createDepositCommand(UUID.randomUUID(), id, new BigDecimal("10.00")));
+        broken.setShouldProcess(true);
+        broken.recordBalanceChange(new BigDecimal("100.00"), new BigDecimal("109.99"));
+        audit.onEvent(broken, 0, true);
+
+        TransactionEvent ok = new TransactionEvent();
+        ok.setCommand(TransactionCommand.createWithdrawCommand(UUID.randomUUID(), id, new BigDecimal("9.99")));
+        ok.setShouldProcess(true);
+        ok.recordBalanceChange(new BigDecimal("109.99"), new BigDecimal("100.00"));
+        audit.onEvent(ok, 1, true);
+
+        assertThat(audit.getDivergences()).isEqualTo(1);
+        assertThat(audit.getStateCents()).isEqualTo(10_000);
+        assertThat(metrics.values()).containsEntry("bank_audit_divergences_total", 1L)
+                .containsEntry("bank_audit_deposit_amount_cents", 1_000L)
+                .containsEntry("bank_audit_withdraw_total", 1L);
+    }
+
+    private static TransactionCommand[] mixedCommands(UUID[] ids, Random random, int count) {
+        TransactionCommand[] commands = new TransactionCommand[count];
+        for (int i = 0; i < count; i++) {
+            UUID account = random.nextInt(3) == 0 ? ids[0] : ids[random.nextInt(ids.length)];
+            BigDecimal amount = BigDecimal.valueOf(random.nextInt(2_000) + 1, 2);
+            int kind = random.nextInt(20);
+            if (kind < 8) {
+                commands[i] = TransactionCommand.createDepositCommand(UUID.randomUUID(), account, amount);
+            } else if (kind < 12) {
+                commands[i] = TransactionCommand.createWithdrawCommand(UUID.randomUUID(), account, amount);
+            } else if (kind < 18) {
+                UUID target = ids[random.nextInt(ids.length)];
+                commands[i] = TransactionCommand.createTransferCommand(UUID.randomUUID(), account, target, amount);
+            } else if (kind == 18) {
+                commands[i] = TransactionCommand.createFreezeCommand(UUID.randomUUID(), account);
+            } else {
+                commands[i] = TransactionCommand.createUnfreezeCommand(UUID.randomUUID(), account);
+            }
+        }
+        return commands;
+    }
+}
@@ -0,0 +1,76 @@
+package com.bank.core.engine.consumers;
+
+import com.bank.core.command.TransactionCommand;
+import com.bank.core.command.factory.TransactionActionFactory;
+import com.bank.core.engine.TransactionEvent;
+import com.bank.core.metrics.MetricsRegistry;
+import com.bank.core.port.out.ChangeFeed;
+import com.bank.domain.Account;
+import com.bank.domain.AccountStatus;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ChangeDataCaptureConsumerTest {
+
+    @Test
+    void should_publishSnapshotsTakenByBusinessStageAtEndOfBatch() {
+        UUID source = UUID.randomUUID();
+        UUID target = UUID.randomUUID();
+        MapAccountState state = new MapAccountState(new UUID[] { source }, new BigDecimal("100.00"));
+        state.createOrUpdateAccount(new Account(target, new BigDecimal("0.00")));
+        BusinessLogicConsumer business = new BusinessLogicConsumer(state, new TransactionActionFactory());
+        RecordingFeed feed = new RecordingFeed();
+        MetricsRegistry metrics = new MetricsRegistry();
+        ChangeDataCaptureConsumer consumer = new ChangeDataCaptureConsumer(feed, metrics);
+
+        TransactionEvent transfer = event(TransactionCommand.createTransferCommand(UUID.randomUUID(), source, target,
+                new BigDecimal("30.00")));
+        TransactionEvent freeze = event(TransactionCommand.createFreezeCommand(UUID.randomUUID(), source));
+        TransactionEvent rejected = event(TransactionCommand.createWithdrawCommand(UUID.randomUUID(), source,
+                BigDecimal.ONE));
+        business.onEvent(transfer, 0, false);
+        business.onEvent(freeze, 1, false);
+        business.onEvent(rejected, 2, true);
+        state.accounts.get(source).activate();
+
+        consumer.onEvent(transfer, 0, false);
+        consumer.onEvent(freeze, 1, false);
+        assertThat(feed.published).isEmpty();
+        consumer.onEvent(rejected, 2, true);
+
+        assertThat(feed.published).containsExactly(
+                source + " 70.00 ACTIVE",
+                target + " 30.00 ACTIVE",
+                source + " 70.00 FROZEN");
+        assertThat(metrics.counter("bank_cdc_records_total").sum()).isEqualTo(3);
+    }
+
+    private static TransactionEvent event(TransactionCommand command) {
+        TransactionEvent event = new TransactionEvent();
+        event.setCommand(command);
+        event.setShouldProcess(true);
+        return event;
+    }
+
+    private static final class RecordingFeed implements ChangeFeed {
+        private final List<String> pending = new ArrayList<>();
+        private final List<String> published = new ArrayList<>();
+
+        @Override
+        public void append(UUID transactionId, UUID accountId, BigDecimal balance, AccountStatus status) {
+            pending.add(accountId + " " + balance + " " + status);
+        }
+
+        @Override
+        public void publish() {
+            published.addAll(pending);
+            pending.clear();
+        }
+    }
+}
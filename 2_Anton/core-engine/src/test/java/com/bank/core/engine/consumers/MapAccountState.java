@@ -0,0 +1,44 @@
+package com.bank.core.engine.consumers;
+
+import com.bank.core.exception.AccountNotFoundException;
+import com.bank.core.state.AccountStateProvider;
+import com.bank.domain.Account;
+import com.bank.domain.AccountStatus;
+
+import java.math.BigDecimal;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Независимое состояние счетов для сравнения вариантов BusinessLogicConsumer между собой
+ */
+final class MapAccountState implements AccountStateProvider {
+
+    final Map<UUID, Account> accounts = new ConcurrentHashMap<>();
+
+    MapAccountState(UUID[] ids, BigDecimal balance) {
+        for (UUID id : ids) {
+            accounts.put(id, new Account(id, balance, AccountStatus.ACTIVE));
+        }
+    }
+
+    @Override
+    public Account getAccount(UUID accountId) throws AccountNotFoundException {
+        Account account = accounts.get(accountId);
+        if (account == null) {
+            throw new AccountNotFoundException("Account " + accountId + " not found");
+        }
+        return account;
+    }
+
+    @Override
+    public void createOrUpdateAccount(Account account) {
+        accounts.put(account.getId(), account);
+    }
+
+    @Override
+    public boolean containsAccount(UUID accountId) {
+        return accounts.containsKey(accountId);
+    }
+}
@@ -0,0 +1,121 @@
+package com.bank.core.engine.consumers;
+
+import com.bank.core.command.TransactionCommand;
+import com.bank.core.command.factory.TransactionActionFactory;
+import com.bank.core.engine.TransactionEvent;
+import com.bank.core.metrics.MetricsRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.Random;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class NettingBusinessLogicConsumerTest {
+
+    @Test
+    void shouldApplyConsecutiveDepositsAsOneMutationAndReportEachResult() {
+        UUID merchant = UUID.randomUUID();
+        MapAccountState state = new MapAccountState(new UUID[] { merchant }, BigDecimal.ZERO);
+        MetricsRegistry metrics = new MetricsRegistry();
+        NettingBusinessLogicConsumer consumer = new NettingBusinessLogicConsumer(state,
+                new TransactionActionFactory(), metrics);
+        TransactionEvent[] events = {
+                event(TransactionCommand.createDepositCommand(UUID.randomUUID(), merchant, new BigDecimal("10"))),
+                event(TransactionCommand.createDepositCommand(UUID.randomUUID(), merchant, new BigDecimal("-1"))),
+                event(TransactionCommand.createDepositCommand(UUID.randomUUID(), merchant, new BigDecimal("5"))),
+                event(TransactionCommand.createWithdrawCommand(UUID.randomUUID(), merchant, new BigDecimal("15"))),
+                event(TransactionCommand.createDepositCommand(UUID.randomUUID(), merchant, new BigDecimal("7"))),
+        };
+
+        for (int i = 0; i < events.length; i++) {
+            consumer.onEvent(events[i], i, i == events.length - 1);
+        }
+
+        assertThat(state.accounts.get(merchant).getBalance()).isEqualByComparingTo("7");
+        assertThat(events[0].getBusinessException()).isNull();
+        assertThat(events[0].getModifiedAccounts()).containsExactly(state.accounts.get(merchant));
+        assertThat(events[1].getBusinessException()).isInstanceOf(IllegalArgumentException.class);
+        assertThat(events[2].getBusinessException()).isNull();
+        assertThat(events[3].getBusinessException()).isNull();
+        assertThat(events[4].getBusinessException()).isNull();
+        assertThat(metrics.values()).containsEntry("bank_business_netted_total", 1L);
+    }
+
+    @Test
+    void shouldMatchSequentialConsumerOnHotAccountWorkload() {
+        UUID[] ids = new UUID[20];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = UUID.randomUUID();
+        }
+        UUID unknown = UUID.randomUUID();
+        TransactionCommand[] commands = hotAccountCommands(ids, unknown, new Random(3), 20_000);
+        MapAccountState sequentialState = new MapAccountState(ids, new BigDecimal("5.00"));
+        MapAccountState nettingState = new MapAccountState(ids, new BigDecimal("5.00"));
+
+        TransactionEvent[] sequential = run(new BusinessLogicConsumer(sequentialState,
+                new TransactionActionFactory()), commands);
+        TransactionEvent[] netting = run(new NettingBusinessLogicConsumer(nettingState,
+                new TransactionActionFactory(), new MetricsRegistry()), commands);
+
+        for (int i = 0; i < commands.length; i++) {
+            Exception expected = sequential[i].getBusinessException();
+            Exception actual = netting[i].getBusinessException();
+            assertThat(actual == null ? null : actual.getClass())
+                    .as("event %d %s", i, commands[i].getActionType())
+                    .isEqualTo(expected == null ? null : expected.getClass());
+        }
+        for (UUID id : ids) {
+            assertThat(nettingState.accounts.get(id).getBalance())
+                    .isEqualByComparingTo(sequentialState.accounts.get(id).getBalance());
+            assertThat(nettingState.accounts.get(id).getStatus())
+                    .isEqualTo(sequentialState.accounts.get(id).getStatus());
+        }
+    }
+
+    private static TransactionEvent[] run(BusinessLogicConsumer consumer, TransactionCommand[] commands) {
+        TransactionEvent[] events = new TransactionEvent[commands.length];
+        for (int i = 0; i < commands.length; i++) {
+            events[i] = event(commands[i]);
+            consumer.onEvent(events[i], i, (i + 1) % 300 == 0 || i == commands.length - 1);
+        }
+        return events;
+    }
+
+    /**
+     * Первый счет горячий: на него идет большинство пополнений, изредка он замораживается
+     * и размораживается; часть сумм неположительна, часть команд — на несуществующий счет
+     */
+    private static TransactionCommand[] hotAccountCommands(UUID[] ids, UUID unknown, Random random, int count) {
+        UUID hot = ids[0];
+        TransactionCommand[] commands = new TransactionCommand[count];
+        for (int i = 0; i < count; i++) {
+            UUID account = random.nextInt(4) == 0 ? ids[random.nextInt(ids.length)] : hot;
+            BigDecimal amount = BigDecimal.valueOf(random.nextInt(12) - 1);
+            int kind = random.nextInt(100);
+            if (kind < 70) {
+                commands[i] = TransactionCommand.createDepositCommand(UUID.randomUUID(), account, amount);
+            } else if (kind < 80) {
+                commands[i] = TransactionCommand.createWithdrawCommand(UUID.randomUUID(), account, amount);
+            } else if (kind < 90) {
+                UUID source = ids[random.nextInt(ids.length)];
+                commands[i] = TransactionCommand.createTransferCommand(UUID.randomUUID(), source, account, amount);
+            } else if (kind < 94) {
+                commands[i] = TransactionCommand.createFreezeCommand(UUID.randomUUID(), account);
+            } else if (kind < 98) {
+                commands[i] = TransactionCommand.createUnfreezeCommand(UUID.randomUUID(), account);
+            } else {
+                commands[i] = TransactionCommand.createDepositCommand(UUID.randomUUID(), unknown, amount);
+            }
+        }
+        return commands;
+    }
+
+    private static TransactionEvent event(TransactionCommand command) {
+        TransactionEvent event = new TransactionEvent();
+        event.setCommand(command);
+        event.setShouldProcess(true);
+        return event;
+    }
+}
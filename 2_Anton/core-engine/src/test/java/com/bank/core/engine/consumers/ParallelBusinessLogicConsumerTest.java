@@ -0,0 +1,115 @@
+package com.bank.core.engine.consumers;
+
+import com.bank.core.command.TransactionCommand;
+import com.bank.core.command.factory.TransactionActionFactory;
+import com.bank.core.engine.TransactionEvent;
+import com.bank.core.metrics.MetricsRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.Random;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ParallelBusinessLogicConsumerTest {
+
+    private static final int ACCOUNTS = 200;
+    private static final int COMMANDS = 10_000;
+
+    @Test
+    void shouldGroupEventsThatShareAnAccount() {
+        UUID a = UUID.randomUUID();
+        UUID b = UUID.randomUUID();
+        UUID c = UUID.randomUUID();
+        UUID d = UUID.randomUUID();
+        TransactionEvent[] events = {
+                event(TransactionCommand.createDepositCommand(UUID.randomUUID(), a, BigDecimal.ONE)),
+                event(TransactionCommand.createDepositCommand(UUID.randomUUID(), c, BigDecimal.ONE)),
+                event(TransactionCommand.createTransferCommand(UUID.randomUUID(), b, a, BigDecimal.ONE)),
+                event(TransactionCommand.createWithdrawCommand(UUID.randomUUID(), d, BigDecimal.ONE)),
+                event(TransactionCommand.createWithdrawCommand(UUID.randomUUID(), b, BigDecimal.ONE)),
+        };
+        ConflictGroups groups = new ConflictGroups(events.length);
+
+        int count = groups.build(events, events.length);
+
+        assertThat(count).isEqualTo(3);
+        assertThat(groupOrder(groups, 0)).containsExactly(0, 2, 4);
+        assertThat(groupOrder(groups, 1)).containsExactly(1);
+        assertThat(groupOrder(groups, 2)).containsExactly(3);
+    }
+
+    @Test
+    void shouldMatchSequentialConsumerOnMixedWorkload() {
+        UUID[] ids = new UUID[ACCOUNTS];
+        for (int i = 0; i < ACCOUNTS; i++) {
+            ids[i] = UUID.randomUUID();
+        }
+        TransactionCommand[] commands = commands(ids, new Random(7));
+        MapAccountState sequentialState = new MapAccountState(ids, new BigDecimal("3.00"));
+        MapAccountState parallelState = new MapAccountState(ids, new BigDecimal("3.00"));
+
+        boolean[] sequentialRejected = run(new BusinessLogicConsumer(sequentialState, new TransactionActionFactory()),
+                commands, 512);
+        ParallelBusinessLogicConsumer parallel = new ParallelBusinessLogicConsumer(parallelState,
+                new TransactionActionFactory(), new MetricsRegistry(), 4);
+        boolean[] parallelRejected = run(parallel, commands, 512);
+        parallel.onShutdown();
+
+        assertThat(parallelRejected).containsExactly(sequentialRejected);
+        for (UUID id : ids) {
+            assertThat(parallelState.accounts.get(id).getBalance())
+                    .isEqualByComparingTo(sequentialState.accounts.get(id).getBalance());
+        }
+    }
+
+    private static boolean[] run(BusinessLogicConsumer consumer, TransactionCommand[] commands, int batchSize) {
+        boolean[] rejected = new boolean[commands.length];
+        TransactionEvent[] events = new TransactionEvent[commands.length];
+        for (int i = 0; i < commands.length; i++) {
+            events[i] = event(commands[i]);
+            consumer.onEvent(events[i], i, (i + 1) % batchSize == 0 || i == commands.length - 1);
+        }
+        for (int i = 0; i < commands.length; i++) {
+            rejected[i] = events[i].getBusinessException() != null;
+        }
+        return rejected;
+    }
+
+    /**
+     * Малые балансы и частые списания: результат зависит от порядка команд по каждому счету
+     */
+    private static TransactionCommand[] commands(UUID[] ids, Random random) {
+        TransactionCommand[] commands = new TransactionCommand[COMMANDS];
+        for (int i = 0; i < COMMANDS; i++) {
+            UUID account = ids[random.nextInt(ids.length)];
+            BigDecimal amount = BigDecimal.valueOf(1 + random.nextInt(5));
+            int kind = random.nextInt(3);
+            if (kind == 0) {
+                commands[i] = TransactionCommand.createDepositCommand(UUID.randomUUID(), account, amount);
+            } else if (kind == 1) {
+                commands[i] = TransactionCommand.createWithdrawCommand(UUID.randomUUID(), account, amount);
+            } else {
+                UUID target = ids[random.nextInt(ids.length)];
+                commands[i] = TransactionCommand.createTransferCommand(UUID.randomUUID(), account, target, amount);
+            }
+        }
+        return commands;
+    }
+
+    private static int[] groupOrder(ConflictGroups groups, int group) {
+        int[] result = new int[groups.groupStart(group + 1) - groups.groupStart(group)];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = groups.eventAt(groups.groupStart(group) + i);
+        }
+        return result;
+    }
+
+    private static TransactionEvent event(TransactionCommand command) {
+        TransactionEvent event = new TransactionEvent();
+        event.setCommand(command);
+        event.setShouldProcess(true);
+        return event;
+    }
+}
@@ -0,0 +1,83 @@
+package com.bank.core.metrics;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class LatencyRecorderTest {
+
+    @Test
+    void shouldReportPercentilesWithinHistogramPrecision() {
+        LatencyRecorder recorder = new LatencyRecorder();
+        for (long v = 1; v <= 100_000; v++) {
+            recorder.record(v * 1_000);
+        }
+
+        LatencySnapshot snapshot = recorder.intervalSnapshot();
+
+        assertThat(snapshot.count()).isEqualTo(100_000);
+        assertThat((double) snapshot.p50()).isCloseTo(50_000_000, within(50_000_000 * 0.02));
+        assertThat((double) snapshot.p99()).isCloseTo(99_000_000, within(99_000_000 * 0.02));
+        assertThat((double) snapshot.p999()).isCloseTo(99_900_000, within(99_900_000 * 0.02));
+        assertThat(snapshot.max()).isGreaterThanOrEqualTo(100_000_000);
+    }
+
+    @Test
+    void shouldStartNewIntervalAfterSnapshot() {
+        LatencyRecorder recorder = new LatencyRecorder();
+        recorder.record(10);
+        recorder.record(20);
+
+        assertThat(recorder.intervalSnapshot().count()).isEqualTo(2);
+        assertThat(recorder.intervalSnapshot()).isEqualTo(LatencySnapshot.EMPTY);
+
+        recorder.record(30);
+        assertThat(recorder.intervalSnapshot().count()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldNotLoseRecordsWhileIntervalsAreSwapped() throws Exception {
+        LatencyRecorder recorder = new LatencyRecorder();
+        AtomicBoolean running = new AtomicBoolean(true);
+        AtomicLong written = new AtomicLong();
+        List<Thread> writers = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            Thread writer = new Thread(() -> {
+                long n = 0;
+                while (running.get()) {
+                    recorder.record(n++ & 0xFFFF);
+                }
+                written.addAndGet(n);
+            });
+            writers.add(writer);
+            writer.start();
+        }
+
+        long collected = 0;
+        for (int i = 0; i < 200; i++) {
+            collected += recorder.intervalSnapshot().count();
+        }
+        running.set(false);
+        for (Thread writer : writers) {
+            writer.join();
+        }
+        collected += recorder.intervalSnapshot().count();
+
+        assertThat(collected).isEqualTo(written.get());
+    }
+
+    @Test
+    void shouldMapValuesIntoBucketsThatContainThem() {
+        for (long v : new long[] {0, 1, 63, 64, 127, 128, 129, 1_000, 123_456_789, LatencyHistogram.MAX_VALUE}) {
+            int index = LatencyHistogram.indexOf(v);
+            assertThat(LatencyHistogram.lowestEquivalentValue(index)).isLessThanOrEqualTo(v);
+            assertThat(LatencyHistogram.highestEquivalentValue(index)).isGreaterThanOrEqualTo(v);
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package com.bank.core.metrics;
+
+import org.junit.jupiter.api.Test;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class MetricsRegistryTest {
+
+    @Test
+    void shouldRenderCountersGaugesAndHistogramsAsText() {
+        MetricsRegistry registry = new MetricsRegistry();
+        AtomicLong depth = new AtomicLong(7);
+        registry.counter("bank_test_total").add(3);
+        registry.gauge("bank_test_depth", depth::get);
+        LatencyHistogram sizes = registry.histogram("bank_test_batch_size");
+        sizes.record(1);
+        sizes.record(100);
+
+        String text = registry.renderText();
+
+        assertThat(text).contains("# TYPE bank_test_total counter\nbank_test_total 3\n");
+        assertThat(text).contains("bank_test_depth 7\n");
+        assertThat(text).contains("bank_test_batch_size_count 2\n");
+        assertThat(text).contains("bank_test_batch_size{quantile=\"0.5\"} 1\n");
+    }
+
+    @Test
+    void shouldReturnSameMetricForSameNameAndRejectTypeClash() {
+        MetricsRegistry registry = new MetricsRegistry();
+
+        assertThat(registry.counter("bank_a")).isSameAs(registry.counter("bank_a"));
+        assertThatThrownBy(() -> registry.histogram("bank_a")).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void shouldExposeValuesThroughJmx() throws Exception {
+        MetricsRegistry registry = new MetricsRegistry();
+        registry.counter("bank_jmx_total").add(42);
+        registry.registerMBean("com.bank.test:type=Metrics");
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName name = new ObjectName("com.bank.test:type=Metrics");
+
+            assertThat(server.getAttribute(name, "bank_jmx_total")).isEqualTo(42L);
+            assertThat(server.getMBeanInfo(name).getAttributes()).hasSize(1);
+        } finally {
+            registry.unregisterMBean();
+        }
+    }
+
+    @Test
+    void shouldRecordBatchSizesAtEndOfBatch() {
+        MetricsRegistry registry = new MetricsRegistry();
+        BatchMeter meter = new BatchMeter(registry, "test");
+
+        meter.onEvent(false);
+        meter.onEvent(false);
+        meter.onEvent(true);
+        meter.onEvent(true);
+
+        assertThat(registry.values())
+                .containsEntry("bank_consumer_test_events_total", 4L)
+                .containsEntry("bank_consumer_test_batch_size_count", 2L)
+                .containsEntry("bank_consumer_test_batch_size_max", 3L);
+    }
+}
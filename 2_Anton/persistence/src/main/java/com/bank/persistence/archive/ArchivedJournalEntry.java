@@ -0,0 +1,93 @@
+package com.bank.persistence.archive;
+
+import com.bank.core.command.ActionType;
+import com.bank.core.command.TransactionCommand;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.UUID;
+
+/**
+ * Строка transaction_journal, вынесенная в архив
+ */
+public record ArchivedJournalEntry(long sequenceId, long timestamp, UUID idempotencyKey, UUID transactionId,
+        ActionType actionType, UUID accountId, UUID targetAccountId, BigDecimal amount) {
+
+    private static final ActionType[] ACTION_TYPES = ActionType.values();
+
+    /**
+     * Текущая строка transaction_journal
+     */
+    public static ArchivedJournalEntry fromRow(ResultSet rs) throws SQLException {
+        return new ArchivedJournalEntry(
+                rs.getLong("sequence_id"),
+                rs.getTimestamp("timestamp").getTime(),
+                rs.getObject("idempotency_key", UUID.class),
+                rs.getObject("transaction_id", UUID.class),
+                ActionType.valueOf(rs.getString("command_type")),
+                rs.getObject("account_id_from", UUID.class),
+                rs.getObject("account_id_to", UUID.class),
+                rs.getBigDecimal("amount"));
+    }
+
+    public TransactionCommand toCommand() {
+        return new TransactionCommand(transactionId, idempotencyKey, accountId, actionType, amount, targetAccountId);
+    }
+
+    public boolean touches(UUID account) {
+        return account.equals(accountId) || account.equals(targetAccountId);
+    }
+
+    void writeTo(DataOutput out) throws IOException {
+        out.writeLong(sequenceId);
+        out.writeLong(timestamp);
+        writeUuid(out, idempotencyKey);
+        writeUuid(out, transactionId);
+        out.writeByte(actionType.ordinal());
+        writeUuid(out, accountId);
+        out.writeBoolean(targetAccountId != null);
+        if (targetAccountId != null) {
+            writeUuid(out, targetAccountId);
+        }
+        out.writeBoolean(amount != null);
+        if (amount != null) {
+            byte[] unscaled = amount.unscaledValue().toByteArray();
+            out.writeByte(amount.scale());
+            out.writeByte(unscaled.length);
+            out.write(unscaled);
+        }
+    }
+
+    static ArchivedJournalEntry readFrom(DataInput in) throws IOException {
+        long sequenceId = in.readLong();
+        long timestamp = in.readLong();
+        UUID idempotencyKey = readUuid(in);
+        UUID transactionId = readUuid(in);
+        ActionType actionType = ACTION_TYPES[in.readByte()];
+        UUID accountId = readUuid(in);
+        UUID targetAccountId = in.readBoolean() ? readUuid(in) : null;
+        BigDecimal amount = null;
+        if (in.readBoolean()) {
+            int scale = in.readByte();
+            byte[] unscaled = new byte[in.readUnsignedByte()];
+            in.readFully(unscaled);
+            amount = new BigDecimal(new BigInteger(unscaled), scale);
+        }
+        return new ArchivedJournalEntry(sequenceId, timestamp, idempotencyKey, transactionId, actionType, accountId,
+                targetAccountId, amount);
+    }
+
+    static void writeUuid(DataOutput out, UUID id) throws IOException {
+        out.writeLong(id.getMostSignificantBits());
+        out.writeLong(id.getLeastSignificantBits());
+    }
+
+    static UUID readUuid(DataInput in) throws IOException {
+        return new UUID(in.readLong(), in.readLong());
+    }
+}
@@ -0,0 +1,80 @@
+package com.bank.persistence.archive;
+
+import com.bank.core.command.ActionType;
+import com.bank.persistence.statement.StatementLine;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Строка account_postings, вынесенная в архив
+ */
+public record ArchivedPosting(UUID accountId, long postingNo, UUID transactionId, ActionType actionType,
+        UUID counterpartyId, BigDecimal amount, BigDecimal balanceAfter, long postedAt) {
+
+    private static final ActionType[] ACTION_TYPES = ActionType.values();
+
+    static ArchivedPosting fromRow(ResultSet rs) throws SQLException {
+        return new ArchivedPosting(
+                rs.getObject("account_id", UUID.class),
+                rs.getLong("posting_no"),
+                rs.getObject("transaction_id", UUID.class),
+                ActionType.valueOf(rs.getString("command_type")),
+                rs.getObject("counterparty_id", UUID.class),
+                rs.getBigDecimal("amount"),
+                rs.getBigDecimal("balance_after"),
+                rs.getTimestamp("posted_at").getTime());
+    }
+
+    public StatementLine toStatementLine() {
+        return new StatementLine(postingNo, transactionId, actionType, counterpartyId, amount, balanceAfter,
+                Instant.ofEpochMilli(postedAt));
+    }
+
+    void writeTo(DataOutput out) throws IOException {
+        ArchivedJournalEntry.writeUuid(out, accountId);
+        out.writeLong(postingNo);
+        ArchivedJournalEntry.writeUuid(out, transactionId);
+        out.writeByte(actionType.ordinal());
+        out.writeBoolean(counterpartyId != null);
+        if (counterpartyId != null) {
+            ArchivedJournalEntry.writeUuid(out, counterpartyId);
+        }
+        writeDecimal(out, amount);
+        writeDecimal(out, balanceAfter);
+        out.writeLong(postedAt);
+    }
+
+    static ArchivedPosting readFrom(DataInput in) throws IOException {
+        UUID accountId = ArchivedJournalEntry.readUuid(in);
+        long postingNo = in.readLong();
+        UUID transactionId = ArchivedJournalEntry.readUuid(in);
+        ActionType actionType = ACTION_TYPES[in.readByte()];
+        UUID counterpartyId = in.readBoolean() ? ArchivedJournalEntry.readUuid(in) : null;
+        BigDecimal amount = readDecimal(in);
+        BigDecimal balanceAfter = readDecimal(in);
+        return new ArchivedPosting(accountId, postingNo, transactionId, actionType, counterpartyId, amount,
+                balanceAfter, in.readLong());
+    }
+
+    private static void writeDecimal(DataOutput out, BigDecimal value) throws IOException {
+        byte[] unscaled = value.unscaledValue().toByteArray();
+        out.writeByte(value.scale());
+        out.writeByte(unscaled.length);
+        out.write(unscaled);
+    }
+
+    private static BigDecimal readDecimal(DataInput in) throws IOException {
+        int scale = in.readByte();
+        byte[] unscaled = new byte[in.readUnsignedByte()];
+        in.readFully(unscaled);
+        return new BigDecimal(new BigInteger(unscaled), scale);
+    }
+}
@@ -0,0 +1,201 @@
+package com.bank.persistence.archive;
+
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * Чтение архива, который пишет JournalArchiver.
+ * Раскладка: journal/yyyy/MM/dd/journal-<first>-<last>.seg, processed/yyyy/MM/dd/keys-*.seg
+ * и postings/yyyy/MM/dd/postings-*.seg (дни в UTC).
+ * Запрос по интервалу сначала отсекает каталоги дней, потом блоки по min/max времени из их заголовков
+ */
+public final class JournalArchive {
+    private final Path root;
+
+    public JournalArchive(Path root) {
+        this.root = root;
+    }
+
+    /**
+     * Строки журнала с timestamp в [from, to), опционально только по одному счету (отправитель или получатель).
+     * Порядок: по дням, внутри дня по sequence_id
+     */
+    public long scan(Instant from, Instant to, UUID accountId, Consumer<ArchivedJournalEntry> consumer) {
+        long fromMillis = millis(from);
+        long toMillis = millis(to);
+        long matched = 0;
+        try {
+            for (Path file : segments(root.resolve(JournalArchiver.JOURNAL_DIR), from, to)) {
+                try (SegmentReader reader = new SegmentReader(file)) {
+                    while (reader.nextBlock()) {
+                        if (!reader.overlaps(fromMillis, toMillis)) {
+                            continue;
+                        }
+                        DataInputStream block = reader.openBlock();
+                        for (int i = 0; i < reader.rows(); i++) {
+                            ArchivedJournalEntry entry = ArchivedJournalEntry.readFrom(block);
+                            if (entry.timestamp() >= fromMillis && entry.timestamp() < toMillis
+                                    && (accountId == null || entry.touches(accountId))) {
+                                consumer.accept(entry);
+                                matched++;
+                            }
+                        }
+                    }
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read journal archive under " + root, e);
+        }
+        return matched;
+    }
+
+    public List<ArchivedJournalEntry> query(Instant from, Instant to, UUID accountId) {
+        List<ArchivedJournalEntry> result = new ArrayList<>();
+        scan(from, to, accountId, result::add);
+        return result;
+    }
+
+    /**
+     * Был ли ключ идемпотентности обработан и уже вынесен из processed_transactions.
+     * Полный просмотр архива ключей, для разбора спорных повторов, а не для горячего пути
+     */
+    public boolean containsProcessedKey(UUID key) {
+        long most = key.getMostSignificantBits();
+        long least = key.getLeastSignificantBits();
+        try {
+            for (Path file : segments(root.resolve(JournalArchiver.PROCESSED_DIR), Instant.MIN, Instant.MAX)) {
+                try (SegmentReader reader = new SegmentReader(file)) {
+                    while (reader.nextBlock()) {
+                        DataInputStream block = reader.openBlock();
+                        for (int i = 0; i < reader.rows(); i++) {
+                            long readMost = block.readLong();
+                            long readLeast = block.readLong();
+                            if (readMost == most && readLeast == least) {
+                                return true;
+                            }
+                        }
+                    }
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read processed keys archive under " + root, e);
+        }
+        return false;
+    }
+
+    /**
+     * Архивные проводки счета с posted_at в [from, to) — старая часть выписки, которой уже нет в account_postings.
+     * Порядок: по дням; повторы после прерванного прохода архивации отбрасываются
+     */
+    public List<ArchivedPosting> postings(UUID accountId, Instant from, Instant to) {
+        long fromMillis = millis(from);
+        long toMillis = millis(to);
+        List<ArchivedPosting> result = new ArrayList<>();
+        Set<Long> seen = new HashSet<>();
+        try {
+            for (Path file : segments(root.resolve(JournalArchiver.POSTINGS_DIR), from, to)) {
+                try (SegmentReader reader = new SegmentReader(file)) {
+                    while (reader.nextBlock()) {
+                        if (!reader.overlaps(fromMillis, toMillis)) {
+                            continue;
+                        }
+                        DataInputStream block = reader.openBlock();
+                        for (int i = 0; i < reader.rows(); i++) {
+                            ArchivedPosting posting = ArchivedPosting.readFrom(block);
+                            if (posting.accountId().equals(accountId) && posting.postedAt() >= fromMillis
+                                    && posting.postedAt() < toMillis && seen.add(posting.postingNo())) {
+                                result.add(posting);
+                            }
+                        }
+                    }
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read postings archive under " + root, e);
+        }
+        return result;
+    }
+
+    /**
+     * Последний sequence_id, перенесенный в архив, 0 если архив пуст
+     */
+    public long getWatermark() {
+        try {
+            return JournalArchiver.readWatermark(root);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read archive watermark under " + root, e);
+        }
+    }
+
+    private static List<Path> segments(Path base, Instant from, Instant to) throws IOException {
+        List<Path> result = new ArrayList<>();
+        if (!Files.isDirectory(base)) {
+            return result;
+        }
+        LocalDate first = from.equals(Instant.MIN) ? LocalDate.MIN : LocalDate.ofInstant(from, ZoneOffset.UTC);
+        LocalDate last = to.equals(Instant.MAX) ? LocalDate.MAX : LocalDate.ofInstant(to, ZoneOffset.UTC);
+        for (Path year : sorted(base)) {
+            for (Path month : sorted(year)) {
+                for (Path day : sorted(month)) {
+                    LocalDate date = LocalDate.of(Integer.parseInt(year.getFileName().toString()),
+                            Integer.parseInt(month.getFileName().toString()),
+                            Integer.parseInt(day.getFileName().toString()));
+                    if (date.isBefore(first) || date.isAfter(last)) {
+                        continue;
+                    }
+                    for (Path file : sorted(day)) {
+                        if (file.getFileName().toString().endsWith(".seg")) {
+                            result.add(file);
+                        }
+                    }
+                }
+            }
+        }
+        return result;
+    }
+
+    private static List<Path> sorted(Path dir) throws IOException {
+        try (Stream<Path> children = Files.list(dir)) {
+            return children.sorted().toList();
+        }
+    }
+
+    private static long millis(Instant instant) {
+        if (instant.isBefore(Instant.ofEpochMilli(Long.MIN_VALUE))) {
+            return Long.MIN_VALUE;
+        }
+        if (instant.isAfter(Instant.ofEpochMilli(Long.MAX_VALUE))) {
+            return Long.MAX_VALUE;
+        }
+        return instant.toEpochMilli();
+    }
+
+    static Path partition(Path base, long timestamp) {
+        LocalDate date = LocalDate.ofInstant(Instant.ofEpochMilli(timestamp), ZoneOffset.UTC);
+        return base.resolve(String.format("%04d", date.getYear()))
+                .resolve(String.format("%02d", date.getMonthValue()))
+                .resolve(String.format("%02d", date.getDayOfMonth()));
+    }
+
+    static String journalSegmentName(long firstSequence, long lastSequence) {
+        return String.format("journal-%019d-%019d.seg", firstSequence, lastSequence);
+    }
+
+    static long firstSequenceOf(Path segment) {
+        String name = segment.getFileName().toString();
+        return Long.parseLong(name.substring("journal-".length(), name.indexOf('-', "journal-".length())));
+    }
+}
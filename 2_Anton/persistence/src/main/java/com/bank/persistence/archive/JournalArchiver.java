@@ -0,0 +1,375 @@
+package com.bank.persistence.archive;
+
+import com.bank.persistence.exception.DataAccessException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+/**
+ * Переносит строки transaction_journal, processed_transactions и account_postings старше горизонта хранения
+ * в сжатые сегменты по дням (см. JournalArchive), в БД остается только горячее окно.
+ * Последняя проводка каждого счета остается в БД: от нее JdbcPostingIndex продолжает нумерацию и баланс.
+ * Журнал уходит префиксом по sequence_id: до первой строки, которая моложе горизонта.
+ * Последний перенесенный sequence_id пишется в journal.watermark уже после rename сегментов,
+ * и только потом строки удаляются, поэтому после падения на любом шаге повторный запуск
+ * не теряет и не дублирует строки журнала
+ */
+public final class JournalArchiver {
+    private static final Logger log = LoggerFactory.getLogger(JournalArchiver.class);
+
+    static final String JOURNAL_DIR = "journal";
+    static final String PROCESSED_DIR = "processed";
+    static final String POSTINGS_DIR = "postings";
+    static final String WATERMARK_FILE = "journal.watermark";
+
+    private static final int CHUNK_ROWS = 50_000;
+
+    private static final String FIRST_HOT_SEQUENCE_SQL = "SELECT MIN(\"sequence_id\") FROM \"transaction_journal\" WHERE \"timestamp\" >= ?";
+    private static final String SELECT_JOURNAL_SQL = "SELECT * FROM \"transaction_journal\" WHERE \"sequence_id\" > ? AND \"sequence_id\" < ? ORDER BY \"sequence_id\" ASC LIMIT ?";
+    private static final String DELETE_JOURNAL_SQL = "DELETE FROM \"transaction_journal\" WHERE \"sequence_id\" <= ?";
+    private static final String SELECT_PROCESSED_SQL = "SELECT \"idempotency_key\", \"processed_at\" FROM \"processed_transactions\" WHERE \"processed_at\" < ? ORDER BY \"processed_at\" ASC LIMIT ?";
+    private static final String DELETE_PROCESSED_SQL = "DELETE FROM \"processed_transactions\" WHERE \"idempotency_key\" = ?";
+    private static final String SELECT_POSTINGS_SQL = "SELECT * FROM \"account_postings\" p WHERE \"posted_at\" < ? AND \"posting_no\" < (SELECT MAX(\"posting_no\") FROM \"account_postings\" l WHERE l.\"account_id\" = p.\"account_id\") ORDER BY \"posted_at\" ASC LIMIT ?";
+    private static final String DELETE_POSTING_SQL = "DELETE FROM \"account_postings\" WHERE \"account_id\" = ? AND \"posting_no\" = ?";
+
+    private final DataSource dataSource;
+    private final Path root;
+    private final Duration retention;
+
+    public JournalArchiver(DataSource dataSource, Path root, Duration retention) {
+        if (retention.isNegative()) {
+            throw new IllegalArgumentException("retention must not be negative: " + retention);
+        }
+        this.dataSource = dataSource;
+        this.root = root;
+        this.retention = retention;
+    }
+
+    public Path getRoot() {
+        return root;
+    }
+
+    public Duration getRetention() {
+        return retention;
+    }
+
+    /**
+     * Один проход архивации с горизонтом now - retention
+     */
+    public ArchiveStats archive() {
+        return archiveOlderThan(Instant.now().minus(retention));
+    }
+
+    public ArchiveStats archiveOlderThan(Instant horizon) {
+        try {
+            long watermark = recover();
+            long journalRows = 0;
+            long bytes = 0;
+
+            long limit = firstHotSequence(horizon);
+            while (true) {
+                Chunk chunk = archiveJournalChunk(watermark, limit);
+                if (chunk.rows == 0) {
+                    break;
+                }
+                writeWatermark(chunk.lastSequence);
+                deleteJournal(chunk.lastSequence);
+                watermark = chunk.lastSequence;
+                journalRows += chunk.rows;
+                bytes += chunk.bytes;
+            }
+
+            long processedKeys = 0;
+            while (true) {
+                Chunk chunk = archiveProcessedChunk(horizon);
+                if (chunk.rows == 0) {
+                    break;
+                }
+                processedKeys += chunk.rows;
+                bytes += chunk.bytes;
+            }
+
+            long postings = 0;
+            while (true) {
+                Chunk chunk = archivePostingsChunk(horizon);
+                if (chunk.rows == 0) {
+                    break;
+                }
+                postings += chunk.rows;
+                bytes += chunk.bytes;
+            }
+
+            if (journalRows > 0 || processedKeys > 0 || postings > 0) {
+                log.info("Archived {} journal rows, {} processed keys and {} postings older than {} ({} bytes)",
+                        journalRows, processedKeys, postings, horizon, bytes);
+            }
+            return new ArchiveStats(journalRows, processedKeys, postings, bytes);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to write archive under " + root, e);
+        }
+    }
+
+    /**
+     * Доводит до конца прерванный проход: сегменты после watermark удаляются (их строки еще в БД),
+     * строки до watermark удаляются из БД (они уже в архиве)
+     */
+    long recover() throws IOException {
+        long watermark = readWatermark(root);
+        Path journalDir = root.resolve(JOURNAL_DIR);
+        if (Files.isDirectory(journalDir)) {
+            try (Stream<Path> files = Files.walk(journalDir)) {
+                for (Path file : (Iterable<Path>) files::iterator) {
+                    String name = file.getFileName().toString();
+                    if (name.endsWith(".tmp")
+                            || (name.endsWith(".seg") && JournalArchive.firstSequenceOf(file) > watermark)) {
+                        log.warn("Removing incomplete archive segment {}", file);
+                        Files.delete(file);
+                    }
+                }
+            }
+        }
+        if (watermark > 0) {
+            deleteJournal(watermark);
+        }
+        return watermark;
+    }
+
+    private long firstHotSequence(Instant horizon) {
+        try (Connection conn = dataSource.getConnection();
+                PreparedStatement stmt = conn.prepareStatement(FIRST_HOT_SEQUENCE_SQL)) {
+            stmt.setTimestamp(1, Timestamp.from(horizon));
+            try (ResultSet rs = stmt.executeQuery()) {
+                rs.next();
+                long first = rs.getLong(1);
+                return rs.wasNull() ? Long.MAX_VALUE : first;
+            }
+        } catch (SQLException e) {
+            throw new DataAccessException("Failed to find archive horizon in journal", e);
+        }
+    }
+
+    private Chunk archiveJournalChunk(long after, long before) throws IOException {
+        Map<Path, SegmentWriter> writers = new HashMap<>();
+        Map<Path, long[]> ranges = new HashMap<>();
+        Chunk chunk = new Chunk();
+        try (Connection conn = dataSource.getConnection();
+                PreparedStatement stmt = conn.prepareStatement(SELECT_JOURNAL_SQL)) {
+            stmt.setLong(1, after);
+            stmt.setLong(2, before);
+            stmt.setInt(3, CHUNK_ROWS);
+            stmt.setFetchSize(SegmentWriter.BLOCK_ROWS);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    ArchivedJournalEntry entry = ArchivedJournalEntry.fromRow(rs);
+
+                    Path day = JournalArchive.partition(root.resolve(JOURNAL_DIR), entry.timestamp());
+                    SegmentWriter writer = writers.get(day);
+                    if (writer == null) {
+                        writer = new SegmentWriter(day.resolve("journal-" + entry.sequenceId() + ".seg.tmp"));
+                        writers.put(day, writer);
+                        ranges.put(day, new long[] { entry.sequenceId(), entry.sequenceId() });
+                    }
+                    ranges.get(day)[1] = entry.sequenceId();
+                    entry.writeTo(writer.beginRow(entry.sequenceId(), entry.timestamp()));
+                    writer.endRow();
+
+                    chunk.rows++;
+                    chunk.lastSequence = entry.sequenceId();
+                }
+            }
+            for (Map.Entry<Path, SegmentWriter> e : writers.entrySet()) {
+                long[] range = ranges.get(e.getKey());
+                chunk.bytes += e.getValue().commit(e.getKey().resolve(JournalArchive.journalSegmentName(range[0], range[1])));
+            }
+        } catch (SQLException e) {
+            throw new DataAccessException("Failed to read journal for archiving", e);
+        } finally {
+            for (SegmentWriter writer : writers.values()) {
+                writer.close();
+            }
+        }
+        return chunk;
+    }
+
+    private Chunk archiveProcessedChunk(Instant horizon) throws IOException {
+        List<UUID> keys = new ArrayList<>();
+        Map<Path, SegmentWriter> writers = new HashMap<>();
+        Chunk chunk = new Chunk();
+        String name = "keys-" + System.currentTimeMillis() + "-" + System.nanoTime() + ".seg";
+        try (Connection conn = dataSource.getConnection()) {
+            try (PreparedStatement stmt = conn.prepareStatement(SELECT_PROCESSED_SQL)) {
+                stmt.setTimestamp(1, Timestamp.from(horizon));
+                stmt.setInt(2, CHUNK_ROWS);
+                stmt.setFetchSize(SegmentWriter.BLOCK_ROWS);
+                try (ResultSet rs = stmt.executeQuery()) {
+                    while (rs.next()) {
+                        UUID key = rs.getObject("idempotency_key", UUID.class);
+                        long processedAt = rs.getTimestamp("processed_at").getTime();
+
+                        Path day = JournalArchive.partition(root.resolve(PROCESSED_DIR), processedAt);
+                        SegmentWriter writer = writers.get(day);
+                        if (writer == null) {
+                            writer = new SegmentWriter(day.resolve(name + ".tmp"));
+                            writers.put(day, writer);
+                        }
+                        ArchivedJournalEntry.writeUuid(writer.beginRow(0, processedAt), key);
+                        writer.endRow();
+                        keys.add(key);
+                    }
+                }
+            }
+            for (Map.Entry<Path, SegmentWriter> e : writers.entrySet()) {
+                chunk.bytes += e.getValue().commit(e.getKey().resolve(name));
+            }
+            // Повтор после падения до DELETE допишет те же ключи еще раз: для проверки ключа это безвредно
+            deleteProcessed(conn, keys);
+            chunk.rows = keys.size();
+        } catch (SQLException e) {
+            throw new DataAccessException("Failed to archive processed transactions", e);
+        } finally {
+            for (SegmentWriter writer : writers.values()) {
+                writer.close();
+            }
+        }
+        return chunk;
+    }
+
+    private Chunk archivePostingsChunk(Instant horizon) throws IOException {
+        List<ArchivedPosting> postings = new ArrayList<>();
+        Map<Path, SegmentWriter> writers = new HashMap<>();
+        Chunk chunk = new Chunk();
+        String name = "postings-" + System.currentTimeMillis() + "-" + System.nanoTime() + ".seg";
+        try (Connection conn = dataSource.getConnection()) {
+            try (PreparedStatement stmt = conn.prepareStatement(SELECT_POSTINGS_SQL)) {
+                stmt.setTimestamp(1, Timestamp.from(horizon));
+                stmt.setInt(2, CHUNK_ROWS);
+                stmt.setFetchSize(SegmentWriter.BLOCK_ROWS);
+                try (ResultSet rs = stmt.executeQuery()) {
+                    while (rs.next()) {
+                        ArchivedPosting posting = ArchivedPosting.fromRow(rs);
+
+                        Path day = JournalArchive.partition(root.resolve(POSTINGS_DIR), posting.postedAt());
+                        SegmentWriter writer = writers.get(day);
+                        if (writer == null) {
+                            writer = new SegmentWriter(day.resolve(name + ".tmp"));
+                            writers.put(day, writer);
+                        }
+                        posting.writeTo(writer.beginRow(posting.postingNo(), posting.postedAt()));
+                        writer.endRow();
+                        postings.add(posting);
+                    }
+                }
+            }
+            for (Map.Entry<Path, SegmentWriter> e : writers.entrySet()) {
+                chunk.bytes += e.getValue().commit(e.getKey().resolve(name));
+            }
+            // как и ключи: повтор после падения до DELETE допишет те же проводки, читатель отбрасывает повторы
+            deleteRows(conn, DELETE_POSTING_SQL, postings, (stmt, posting) -> {
+                stmt.setObject(1, posting.accountId());
+                stmt.setLong(2, posting.postingNo());
+            });
+            chunk.rows = postings.size();
+        } catch (SQLException e) {
+            throw new DataAccessException("Failed to archive account postings", e);
+        } finally {
+            for (SegmentWriter writer : writers.values()) {
+                writer.close();
+            }
+        }
+        return chunk;
+    }
+
+    private void deleteProcessed(Connection conn, List<UUID> keys) throws SQLException {
+        deleteRows(conn, DELETE_PROCESSED_SQL, keys, (stmt, key) -> stmt.setObject(1, key));
+    }
+
+    private static <T> void deleteRows(Connection conn, String sql, List<T> rows, RowBinder<T> binder)
+            throws SQLException {
+        if (rows.isEmpty()) {
+            return;
+        }
+        boolean autoCommit = conn.getAutoCommit();
+        conn.setAutoCommit(false);
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            for (T row : rows) {
+                binder.bind(stmt, row);
+                stmt.addBatch();
+            }
+            stmt.executeBatch();
+            conn.commit();
+        } catch (SQLException e) {
+            conn.rollback();
+            throw e;
+        } finally {
+            conn.setAutoCommit(autoCommit);
+        }
+    }
+
+    private void deleteJournal(long upToSequence) {
+        try (Connection conn = dataSource.getConnection();
+                PreparedStatement stmt = conn.prepareStatement(DELETE_JOURNAL_SQL)) {
+            stmt.setLong(1, upToSequence);
+            stmt.executeUpdate();
+        } catch (SQLException e) {
+            throw new DataAccessException("Failed to delete archived journal rows up to " + upToSequence, e);
+        }
+    }
+
+    private void writeWatermark(long sequence) throws IOException {
+        Files.createDirectories(root);
+        Path tmp = root.resolve(WATERMARK_FILE + ".tmp");
+        try (FileChannel channel = FileChannel.open(tmp, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(Long.toString(sequence).getBytes(StandardCharsets.US_ASCII)));
+            channel.force(true);
+        }
+        Files.move(tmp, root.resolve(WATERMARK_FILE), StandardCopyOption.ATOMIC_MOVE,
+                StandardCopyOption.REPLACE_EXISTING);
+        SegmentWriter.syncDirectory(root);
+    }
+
+    static long readWatermark(Path root) throws IOException {
+        Path file = root.resolve(WATERMARK_FILE);
+        if (!Files.exists(file)) {
+            return 0;
+        }
+        return Long.parseLong(Files.readString(file, StandardCharsets.US_ASCII).trim());
+    }
+
+    @FunctionalInterface
+    private interface RowBinder<T> {
+        void bind(PreparedStatement stmt, T row) throws SQLException;
+    }
+
+    private static final class Chunk {
+        long rows;
+        long lastSequence;
+        long bytes;
+    }
+
+    public record ArchiveStats(long journalRows, long processedKeys, long postings, long bytesWritten) {
+    }
+}
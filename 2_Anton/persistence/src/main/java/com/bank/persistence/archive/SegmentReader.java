@@ -0,0 +1,112 @@
+package com.bank.persistence.archive;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.zip.CRC32;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+/**
+ * Последовательное чтение сегмента по блокам, формат в SegmentWriter
+ */
+final class SegmentReader implements Closeable {
+    private final Path path;
+    private final DataInputStream in;
+    private final Inflater inflater = new Inflater();
+    private final CRC32 crc = new CRC32();
+
+    private int rows;
+    private long minTimestamp;
+    private long maxTimestamp;
+    private long minSequence;
+    private long maxSequence;
+    private int rawLength;
+    private int compressedLength;
+    private int checksum;
+    private boolean pending;
+
+    SegmentReader(Path path) throws IOException {
+        this.path = path;
+        this.in = new DataInputStream(new BufferedInputStream(Files.newInputStream(path), 64 * 1024));
+        if (in.readInt() != SegmentWriter.MAGIC) {
+            in.close();
+            throw new IOException("Not an archive segment: " + path);
+        }
+    }
+
+    boolean nextBlock() throws IOException {
+        if (pending) {
+            skipBlock();
+        }
+        try {
+            rows = in.readInt();
+        } catch (EOFException e) {
+            return false;
+        }
+        minTimestamp = in.readLong();
+        maxTimestamp = in.readLong();
+        minSequence = in.readLong();
+        maxSequence = in.readLong();
+        rawLength = in.readInt();
+        compressedLength = in.readInt();
+        checksum = in.readInt();
+        pending = true;
+        return true;
+    }
+
+    int rows() {
+        return rows;
+    }
+
+    boolean overlaps(long fromTimestamp, long toTimestamp) {
+        return maxTimestamp >= fromTimestamp && minTimestamp < toTimestamp;
+    }
+
+    long minSequence() {
+        return minSequence;
+    }
+
+    long maxSequence() {
+        return maxSequence;
+    }
+
+    void skipBlock() throws IOException {
+        in.skipNBytes(compressedLength);
+        pending = false;
+    }
+
+    DataInputStream openBlock() throws IOException {
+        byte[] compressed = new byte[compressedLength];
+        in.readFully(compressed);
+        pending = false;
+        crc.reset();
+        crc.update(compressed);
+        if ((int) crc.getValue() != checksum) {
+            throw new IOException("Corrupted archive block in " + path);
+        }
+        byte[] raw = new byte[rawLength];
+        inflater.reset();
+        inflater.setInput(compressed);
+        try {
+            int length = 0;
+            while (length < rawLength && !inflater.finished()) {
+                length += inflater.inflate(raw, length, rawLength - length);
+            }
+        } catch (DataFormatException e) {
+            throw new IOException("Corrupted archive block in " + path, e);
+        }
+        return new DataInputStream(new ByteArrayInputStream(raw));
+    }
+
+    @Override
+    public void close() throws IOException {
+        inflater.end();
+        in.close();
+    }
+}
@@ -0,0 +1,138 @@
+package com.bank.persistence.archive;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+/**
+ * Пишет сегмент архива: заголовок и блоки по BLOCK_ROWS строк, каждый сжат Deflater.
+ * В заголовке блока диапазоны времени и sequence_id, чтобы читатель мог пропускать блоки не распаковывая.
+ * Файл пишется во временный *.tmp, в commit() fsync и атомарный rename в итоговое имя
+ */
+final class SegmentWriter implements Closeable {
+    static final int MAGIC = 0x424A5331;
+    static final int BLOCK_ROWS = 4096;
+
+    private final Path tmp;
+    private final FileChannel channel;
+    private final DataOutputStream out;
+    private final ByteArrayOutputStream raw = new ByteArrayOutputStream(64 * 1024);
+    private final DataOutputStream rows = new DataOutputStream(raw);
+    private final Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+    private final CRC32 crc = new CRC32();
+    private byte[] compressed = new byte[64 * 1024];
+
+    private int blockRows;
+    private long minTimestamp;
+    private long maxTimestamp;
+    private long minSequence;
+    private long maxSequence;
+    private long totalRows;
+    private boolean committed;
+
+    SegmentWriter(Path tmp) throws IOException {
+        this.tmp = tmp;
+        Files.createDirectories(tmp.getParent());
+        this.channel = FileChannel.open(tmp, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.WRITE);
+        this.out = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(channel), 64 * 1024));
+        out.writeInt(MAGIC);
+    }
+
+    DataOutput beginRow(long sequence, long timestamp) {
+        if (blockRows == 0) {
+            minTimestamp = maxTimestamp = timestamp;
+            minSequence = maxSequence = sequence;
+        } else {
+            minTimestamp = Math.min(minTimestamp, timestamp);
+            maxTimestamp = Math.max(maxTimestamp, timestamp);
+            minSequence = Math.min(minSequence, sequence);
+            maxSequence = Math.max(maxSequence, sequence);
+        }
+        return rows;
+    }
+
+    void endRow() throws IOException {
+        totalRows++;
+        if (++blockRows == BLOCK_ROWS) {
+            flushBlock();
+        }
+    }
+
+    long rowCount() {
+        return totalRows;
+    }
+
+    long commit(Path target) throws IOException {
+        flushBlock();
+        out.flush();
+        long size = channel.size();
+        channel.force(true);
+        channel.close();
+        Files.move(tmp, target, StandardCopyOption.ATOMIC_MOVE);
+        syncDirectory(target.getParent());
+        committed = true;
+        return size;
+    }
+
+    static void syncDirectory(Path dir) {
+        try (FileChannel channel = FileChannel.open(dir, StandardOpenOption.READ)) {
+            channel.force(true);
+        } catch (IOException e) {
+            // не все ФС позволяют fsync каталога, rename при этом все равно атомарен
+        }
+    }
+
+    private void flushBlock() throws IOException {
+        if (blockRows == 0) {
+            return;
+        }
+        byte[] input = raw.toByteArray();
+        deflater.reset();
+        deflater.setInput(input);
+        deflater.finish();
+        int length = 0;
+        while (!deflater.finished()) {
+            if (length == compressed.length) {
+                compressed = Arrays.copyOf(compressed, compressed.length * 2);
+            }
+            length += deflater.deflate(compressed, length, compressed.length - length);
+        }
+        crc.reset();
+        crc.update(compressed, 0, length);
+
+        out.writeInt(blockRows);
+        out.writeLong(minTimestamp);
+        out.writeLong(maxTimestamp);
+        out.writeLong(minSequence);
+        out.writeLong(maxSequence);
+        out.writeInt(input.length);
+        out.writeInt(length);
+        out.writeInt((int) crc.getValue());
+        out.write(compressed, 0, length);
+
+        raw.reset();
+        blockRows = 0;
+    }
+
+    @Override
+    public void close() throws IOException {
+        deflater.end();
+        if (!committed) {
+            channel.close();
+            Files.deleteIfExists(tmp);
+        }
+    }
+}
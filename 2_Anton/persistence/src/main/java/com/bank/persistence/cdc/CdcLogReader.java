@@ -0,0 +1,117 @@
+package com.bank.persistence.cdc;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Читатель ленты изменений с именованной позицией: сегменты отображаются в память только на чтение,
+ * позиция хранится в offsets/&lt;consumer&gt;.offset и сохраняется commit(). Может работать в другом процессе,
+ * чем писатель; писателя не блокирует. Если сегмент с сохраненной позицией уже удален, чтение
+ * продолжается с самого старого оставшегося, пропущенное видно по skipped()
+ */
+public class CdcLogReader {
+    private final Path dir;
+    private final MappedByteBuffer offset;
+    private final CdcRecord record = new CdcRecord();
+    private CdcSegment segment;
+    private long position;
+    private long skipped;
+
+    public CdcLogReader(Path dir, String consumer) throws IOException {
+        this.dir = dir;
+        this.offset = CdcSegment.mapOffset(CdcSegment.offsetFile(dir, consumer));
+        this.position = CdcSegment.readOffset(offset);
+    }
+
+    /**
+     * Передает обработчику до maxRecords опубликованных записей начиная с текущей позиции
+     * и возвращает их число; 0 — новых записей пока нет
+     */
+    public int poll(Consumer<CdcRecord> handler, int maxRecords) throws IOException {
+        int read = 0;
+        while (read < maxRecords) {
+            if (segment == null || position >= segment.end()) {
+                if (!locate()) {
+                    break;
+                }
+            }
+            long committed = segment.committed();
+            long index = position - segment.base;
+            if (index >= committed) {
+                if (committed < segment.capacity || !segment.sealed()) {
+                    break;
+                }
+                continue;
+            }
+            long available = Math.min(committed - index, maxRecords - read);
+            for (long i = 0; i < available; i++) {
+                record.wrap(segment.buffer, CdcSegment.recordOffset(index + i));
+                handler.accept(record);
+                position++;
+                read++;
+            }
+        }
+        return read;
+    }
+
+    /**
+     * Сохраняет текущую позицию; после перезапуска читатель продолжит с нее
+     */
+    public void commit() {
+        CdcSegment.writeOffset(offset, position);
+    }
+
+    public long position() {
+        return position;
+    }
+
+    public long skipped() {
+        return skipped;
+    }
+
+    /**
+     * Сколько опубликованных записей еще не прочитано
+     */
+    public long lag() throws IOException {
+        List<Long> bases = CdcSegment.bases(dir);
+        if (bases.isEmpty()) {
+            return 0;
+        }
+        long last = bases.get(bases.size() - 1);
+        CdcSegment head = segment != null && segment.base == last ? segment
+                : CdcSegment.open(dir.resolve(CdcSegment.name(last)), false);
+        return Math.max(0, head.base + head.committed() - position);
+    }
+
+    private boolean locate() throws IOException {
+        List<Long> bases = CdcSegment.bases(dir);
+        if (bases.isEmpty()) {
+            return false;
+        }
+        long base = -1;
+        for (long candidate : bases) {
+            if (candidate <= position) {
+                base = candidate;
+            }
+        }
+        if (base < 0) {
+            base = bases.get(0);
+            skipped += base - position;
+            position = base;
+        }
+        Path file = dir.resolve(CdcSegment.name(base));
+        if (!Files.exists(file)) {
+            return false;
+        }
+        CdcSegment located = CdcSegment.open(file, false);
+        if (position >= located.end()) {
+            return false;
+        }
+        segment = located;
+        return true;
+    }
+}
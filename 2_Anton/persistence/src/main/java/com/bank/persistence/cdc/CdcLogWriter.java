@@ -0,0 +1,132 @@
+package com.bank.persistence.cdc;
+
+import com.bank.core.port.out.ChangeFeed;
+import com.bank.domain.AccountStatus;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.MappedByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Пишет ленту изменений счетов в каталог сегментов (формат в CdcSegment). Запись — это put в отображенную
+ * память без системных вызовов и fsync; publish() одной release-записью делает видимой всю пачку.
+ * Читатели никак не тормозят писателя: они читают те же страницы из своих процессов и только отстают.
+ * При заполнении сегмента создается следующий, и удаляются старые сегменты сверх retainSegments,
+ * которые уже прочитали все зарегистрированные читатели. После перезапуска запись продолжается
+ * с последней опубликованной позиции. Используется одним потоком
+ */
+public class CdcLogWriter implements ChangeFeed, Closeable {
+    public static final int DEFAULT_SEGMENT_RECORDS = 1 << 20;
+    public static final int DEFAULT_RETAIN_SEGMENTS = 8;
+
+    private static final Logger log = LoggerFactory.getLogger(CdcLogWriter.class);
+
+    private final Path dir;
+    private final int segmentRecords;
+    private final int retainSegments;
+    private CdcSegment segment;
+    private long written;
+
+    public CdcLogWriter(Path dir) throws IOException {
+        this(dir, DEFAULT_SEGMENT_RECORDS, DEFAULT_RETAIN_SEGMENTS);
+    }
+
+    public CdcLogWriter(Path dir, int segmentRecords, int retainSegments) throws IOException {
+        if (segmentRecords <= 0 || segmentRecords > CdcSegment.MAX_CAPACITY) {
+            throw new IllegalArgumentException("segmentRecords must be in 1.." + CdcSegment.MAX_CAPACITY);
+        }
+        this.dir = dir;
+        this.segmentRecords = segmentRecords;
+        this.retainSegments = Math.max(1, retainSegments);
+        Files.createDirectories(dir);
+        List<Long> bases = CdcSegment.bases(dir);
+        if (bases.isEmpty()) {
+            this.segment = CdcSegment.create(dir, 0, segmentRecords);
+        } else {
+            this.segment = CdcSegment.open(dir.resolve(CdcSegment.name(bases.get(bases.size() - 1))), true);
+            this.written = segment.committed();
+            log.info("Change feed resumed at position {} in {}", position(), segment.path);
+        }
+    }
+
+    @Override
+    public void append(UUID transactionId, UUID accountId, BigDecimal balance, AccountStatus status) {
+        long unscaled = balance.unscaledValue().longValueExact();
+        if (written == segment.capacity) {
+            roll();
+        }
+        MappedByteBuffer buffer = segment.buffer;
+        int offset = CdcSegment.recordOffset(written);
+        buffer.putLong(offset + CdcSegment.RECORD_POSITION, segment.base + written);
+        buffer.putLong(offset + CdcSegment.RECORD_TRANSACTION, transactionId.getMostSignificantBits());
+        buffer.putLong(offset + CdcSegment.RECORD_TRANSACTION + 8, transactionId.getLeastSignificantBits());
+        buffer.putLong(offset + CdcSegment.RECORD_ACCOUNT, accountId.getMostSignificantBits());
+        buffer.putLong(offset + CdcSegment.RECORD_ACCOUNT + 8, accountId.getLeastSignificantBits());
+        buffer.putLong(offset + CdcSegment.RECORD_UNSCALED, unscaled);
+        buffer.put(offset + CdcSegment.RECORD_SCALE, (byte) balance.scale());
+        buffer.put(offset + CdcSegment.RECORD_STATUS, (byte) status.ordinal());
+        written++;
+    }
+
+    @Override
+    public void publish() {
+        if (segment.committed() != written) {
+            segment.commit(written);
+        }
+    }
+
+    /**
+     * Позиция следующей записи; опубликованы все записи до нее, если после последнего append был publish
+     */
+    public long position() {
+        return segment.base + written;
+    }
+
+    public Path getDir() {
+        return dir;
+    }
+
+    private void roll() {
+        segment.commit(written);
+        try {
+            CdcSegment next = CdcSegment.create(dir, segment.end(), segmentRecords);
+            segment.seal();
+            segment = next;
+            written = 0;
+            deleteConsumedSegments();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to roll change feed segment in " + dir, e);
+        }
+    }
+
+    private void deleteConsumedSegments() throws IOException {
+        List<Long> bases = CdcSegment.bases(dir);
+        long slowest = segment.base;
+        for (long offset : CdcSegment.offsets(dir)) {
+            slowest = Math.min(slowest, offset);
+        }
+        for (int i = 0; i < bases.size() - retainSegments; i++) {
+            long base = bases.get(i);
+            long end = i + 1 < bases.size() ? bases.get(i + 1) : segment.base;
+            if (end > slowest) {
+                return;
+            }
+            Files.deleteIfExists(dir.resolve(CdcSegment.name(base)));
+            log.debug("Deleted consumed change feed segment starting at {}", base);
+        }
+    }
+
+    @Override
+    public void close() {
+        publish();
+        segment.buffer.force();
+    }
+}
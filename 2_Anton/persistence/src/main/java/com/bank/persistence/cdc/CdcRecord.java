@@ -0,0 +1,50 @@
+package com.bank.persistence.cdc;
+
+import com.bank.domain.AccountStatus;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.util.UUID;
+
+/**
+ * Запись ленты изменений, читаемая прямо из отображенного сегмента; действительна только внутри
+ * обработчика CdcLogReader.poll, сохранять нужно значения, а не сам объект
+ */
+public final class CdcRecord {
+    private static final AccountStatus[] STATUSES = AccountStatus.values();
+
+    private ByteBuffer buffer;
+    private int offset;
+
+    void wrap(ByteBuffer buffer, int offset) {
+        this.buffer = buffer;
+        this.offset = offset;
+    }
+
+    /**
+     * Сквозной номер изменения в ленте, без пропусков и не сбрасывается при перезапуске
+     */
+    public long position() {
+        return buffer.getLong(offset + CdcSegment.RECORD_POSITION);
+    }
+
+    public UUID transactionId() {
+        return new UUID(buffer.getLong(offset + CdcSegment.RECORD_TRANSACTION),
+                buffer.getLong(offset + CdcSegment.RECORD_TRANSACTION + 8));
+    }
+
+    public UUID accountId() {
+        return new UUID(buffer.getLong(offset + CdcSegment.RECORD_ACCOUNT),
+                buffer.getLong(offset + CdcSegment.RECORD_ACCOUNT + 8));
+    }
+
+    public BigDecimal balance() {
+        return new BigDecimal(BigInteger.valueOf(buffer.getLong(offset + CdcSegment.RECORD_UNSCALED)),
+                buffer.get(offset + CdcSegment.RECORD_SCALE));
+    }
+
+    public AccountStatus status() {
+        return STATUSES[buffer.get(offset + CdcSegment.RECORD_STATUS)];
+    }
+}
@@ -0,0 +1,181 @@
+package com.bank.persistence.cdc;
+
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Сегмент ленты изменений: файл фиксированного размера, отображенный в память.
+ * Заголовок 64 байта: magic, версия, размер записи, емкость в записях, позиция первой записи,
+ * committed (сколько записей видно читателям) и sealed (писатель перешел в следующий сегмент).
+ * committed и sealed пишутся release и читаются acquire, поэтому читатель из другого процесса
+ * видит только записи целиком. Запись 56 байт, big-endian: позиция, id транзакции, id счета,
+ * баланс как unscaled long и scale, статус (ordinal AccountStatus)
+ */
+final class CdcSegment {
+    static final int MAGIC = 0x42434443;
+    static final int VERSION = 1;
+    static final int HEADER_BYTES = 64;
+    static final int RECORD_BYTES = 56;
+    static final String SUFFIX = ".cdc";
+    static final String OFFSETS_DIR = "offsets";
+    static final String OFFSET_SUFFIX = ".offset";
+
+    static final int RECORD_POSITION = 0;
+    static final int RECORD_TRANSACTION = 8;
+    static final int RECORD_ACCOUNT = 24;
+    static final int RECORD_UNSCALED = 40;
+    static final int RECORD_SCALE = 48;
+    static final int RECORD_STATUS = 49;
+    static final int MAX_CAPACITY = (Integer.MAX_VALUE - HEADER_BYTES) / RECORD_BYTES;
+
+    private static final int HEADER_MAGIC = 0;
+    private static final int HEADER_VERSION = 4;
+    private static final int HEADER_RECORD_BYTES = 8;
+    private static final int HEADER_CAPACITY = 12;
+    private static final int HEADER_BASE = 16;
+    private static final int HEADER_COMMITTED = 24;
+    private static final int HEADER_SEALED = 32;
+
+    private static final VarHandle LONGS = MethodHandles.byteBufferViewVarHandle(long[].class, ByteOrder.BIG_ENDIAN);
+
+    final Path path;
+    final MappedByteBuffer buffer;
+    final long base;
+    final int capacity;
+
+    private CdcSegment(Path path, MappedByteBuffer buffer) throws IOException {
+        if (buffer.getInt(HEADER_MAGIC) != MAGIC || buffer.getInt(HEADER_VERSION) != VERSION
+                || buffer.getInt(HEADER_RECORD_BYTES) != RECORD_BYTES) {
+            throw new IOException("Not a change feed segment: " + path);
+        }
+        this.path = path;
+        this.buffer = buffer;
+        this.base = buffer.getLong(HEADER_BASE);
+        this.capacity = buffer.getInt(HEADER_CAPACITY);
+    }
+
+    static CdcSegment create(Path dir, long base, int capacity) throws IOException {
+        Path path = dir.resolve(name(base));
+        Path tmp = dir.resolve(name(base) + ".tmp");
+        try (FileChannel channel = FileChannel.open(tmp, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0,
+                    HEADER_BYTES + (long) capacity * RECORD_BYTES);
+            buffer.putInt(HEADER_MAGIC, MAGIC);
+            buffer.putInt(HEADER_VERSION, VERSION);
+            buffer.putInt(HEADER_RECORD_BYTES, RECORD_BYTES);
+            buffer.putInt(HEADER_CAPACITY, capacity);
+            buffer.putLong(HEADER_BASE, base);
+            buffer.force();
+        }
+        // читатель не должен увидеть файл без заголовка
+        Files.move(tmp, path, StandardCopyOption.ATOMIC_MOVE);
+        return open(path, true);
+    }
+
+    static CdcSegment open(Path path, boolean writable) throws IOException {
+        StandardOpenOption[] options = writable
+                ? new StandardOpenOption[] { StandardOpenOption.READ, StandardOpenOption.WRITE }
+                : new StandardOpenOption[] { StandardOpenOption.READ };
+        try (FileChannel channel = FileChannel.open(path, options)) {
+            MappedByteBuffer buffer = channel.map(writable ? FileChannel.MapMode.READ_WRITE
+                    : FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            return new CdcSegment(path, buffer);
+        }
+    }
+
+    long committed() {
+        return (long) LONGS.getAcquire(buffer, HEADER_COMMITTED);
+    }
+
+    void commit(long records) {
+        LONGS.setRelease(buffer, HEADER_COMMITTED, records);
+    }
+
+    boolean sealed() {
+        return (long) LONGS.getAcquire(buffer, HEADER_SEALED) != 0;
+    }
+
+    void seal() {
+        LONGS.setRelease(buffer, HEADER_SEALED, 1L);
+    }
+
+    long end() {
+        return base + capacity;
+    }
+
+    static int recordOffset(long index) {
+        return HEADER_BYTES + (int) index * RECORD_BYTES;
+    }
+
+    static String name(long base) {
+        return String.format("%020d%s", base, SUFFIX);
+    }
+
+    /**
+     * Позиции начала сегментов в каталоге по возрастанию
+     */
+    static List<Long> bases(Path dir) throws IOException {
+        List<Long> bases = new ArrayList<>();
+        if (!Files.isDirectory(dir)) {
+            return bases;
+        }
+        try (Stream<Path> files = Files.list(dir)) {
+            files.map(file -> file.getFileName().toString())
+                    .filter(name -> name.endsWith(SUFFIX))
+                    .forEach(name -> bases.add(Long.parseLong(name.substring(0, name.length() - SUFFIX.length()))));
+        }
+        Collections.sort(bases);
+        return bases;
+    }
+
+    static Path offsetFile(Path dir, String consumer) {
+        return dir.resolve(OFFSETS_DIR).resolve(consumer + OFFSET_SUFFIX);
+    }
+
+    static MappedByteBuffer mapOffset(Path file) throws IOException {
+        Files.createDirectories(file.getParent());
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE)) {
+            return channel.map(FileChannel.MapMode.READ_WRITE, 0, Long.BYTES);
+        }
+    }
+
+    static long readOffset(ByteBuffer offset) {
+        return (long) LONGS.getAcquire(offset, 0);
+    }
+
+    static void writeOffset(ByteBuffer offset, long position) {
+        LONGS.setRelease(offset, 0, position);
+    }
+
+    /**
+     * Сохраненные позиции всех читателей
+     */
+    static List<Long> offsets(Path dir) throws IOException {
+        List<Long> offsets = new ArrayList<>();
+        Path offsetsDir = dir.resolve(OFFSETS_DIR);
+        if (!Files.isDirectory(offsetsDir)) {
+            return offsets;
+        }
+        try (Stream<Path> files = Files.list(offsetsDir)) {
+            for (Path file : (Iterable<Path>) files.filter(f -> f.toString().endsWith(OFFSET_SUFFIX))::iterator) {
+                offsets.add(readOffset(mapOffset(file)));
+            }
+        }
+        return offsets;
+    }
+}
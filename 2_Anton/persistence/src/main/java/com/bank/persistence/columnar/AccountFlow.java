@@ -0,0 +1,14 @@
+package com.bank.persistence.columnar;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+/**
+ * Обороты счета за интервал: зачисления (пополнения и входящие переводы), списания и число записей журнала
+ */
+public record AccountFlow(UUID accountId, BigDecimal credited, BigDecimal debited, long postings) {
+
+    public BigDecimal net() {
+        return credited.subtract(debited);
+    }
+}
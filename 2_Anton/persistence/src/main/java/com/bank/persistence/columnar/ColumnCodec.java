@@ -0,0 +1,152 @@
+package com.bank.persistence.columnar;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Кодирование колонок: varint/zigzag для дельт, упаковка кодов словаря в минимальное число бит, Deflate чанка
+ */
+final class ColumnCodec {
+
+    private ColumnCodec() {
+    }
+
+    static void writeVarLong(ByteArrayOutputStream out, long value) {
+        while ((value & ~0x7FL) != 0) {
+            out.write((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+
+    static long readVarLong(ByteBuffer in) {
+        long value = 0;
+        int shift = 0;
+        while (true) {
+            byte b = in.get();
+            value |= (long) (b & 0x7F) << shift;
+            if (b >= 0) {
+                return value;
+            }
+            shift += 7;
+        }
+    }
+
+    static long zigZag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    static long unZigZag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    /**
+     * Первое значение как есть, дальше zigzag-дельты: для sequence_id это в основном один байт на строку
+     */
+    static void writeDeltas(ByteArrayOutputStream out, long[] values, int count) {
+        long previous = 0;
+        for (int i = 0; i < count; i++) {
+            writeVarLong(out, zigZag(values[i] - previous));
+            previous = values[i];
+        }
+    }
+
+    static void readDeltas(ByteBuffer in, long[] values, int count) {
+        long previous = 0;
+        for (int i = 0; i < count; i++) {
+            previous += unZigZag(readVarLong(in));
+            values[i] = previous;
+        }
+    }
+
+    static int bitWidth(int maxValue) {
+        return Math.max(1, 32 - Integer.numberOfLeadingZeros(maxValue));
+    }
+
+    static void writePacked(ByteArrayOutputStream out, int[] values, int count, int width) {
+        long word = 0;
+        int bits = 0;
+        for (int i = 0; i < count; i++) {
+            word |= (long) values[i] << bits;
+            bits += width;
+            if (bits >= 32) {
+                writeInt(out, (int) word);
+                word >>>= 32;
+                bits -= 32;
+            }
+        }
+        if (bits > 0) {
+            writeInt(out, (int) word);
+        }
+    }
+
+    static void readPacked(ByteBuffer in, int[] values, int count, int width) {
+        long mask = (1L << width) - 1;
+        long word = 0;
+        int bits = 0;
+        for (int i = 0; i < count; i++) {
+            if (bits < width) {
+                word |= (in.getInt() & 0xFFFFFFFFL) << bits;
+                bits += 32;
+            }
+            values[i] = (int) (word & mask);
+            word >>>= width;
+            bits -= width;
+        }
+    }
+
+    static void writeLongs(ByteArrayOutputStream out, long[] values, int count) {
+        for (int i = 0; i < count; i++) {
+            writeInt(out, (int) (values[i] >>> 32));
+            writeInt(out, (int) values[i]);
+        }
+    }
+
+    static void readLongs(ByteBuffer in, long[] values, int count) {
+        for (int i = 0; i < count; i++) {
+            values[i] = in.getLong();
+        }
+    }
+
+    static void writeInt(ByteArrayOutputStream out, int value) {
+        out.write(value >>> 24);
+        out.write(value >>> 16);
+        out.write(value >>> 8);
+        out.write(value);
+    }
+
+    static byte[] deflate(Deflater deflater, byte[] raw) {
+        deflater.reset();
+        deflater.setInput(raw);
+        deflater.finish();
+        byte[] buffer = new byte[Math.max(64, raw.length / 2)];
+        int length = 0;
+        while (!deflater.finished()) {
+            if (length == buffer.length) {
+                buffer = Arrays.copyOf(buffer, buffer.length * 2);
+            }
+            length += deflater.deflate(buffer, length, buffer.length - length);
+        }
+        return Arrays.copyOf(buffer, length);
+    }
+
+    static ByteBuffer inflate(Inflater inflater, byte[] compressed, int rawLength) throws IOException {
+        byte[] raw = new byte[rawLength];
+        inflater.reset();
+        inflater.setInput(compressed);
+        try {
+            int length = 0;
+            while (length < rawLength && !inflater.finished()) {
+                length += inflater.inflate(raw, length, rawLength - length);
+            }
+        } catch (DataFormatException e) {
+            throw new IOException("Corrupted column chunk", e);
+        }
+        return ByteBuffer.wrap(raw);
+    }
+}
@@ -0,0 +1,69 @@
+package com.bank.persistence.columnar;
+
+import com.bank.persistence.archive.ArchivedJournalEntry;
+import com.bank.persistence.archive.JournalArchive;
+import com.bank.persistence.exception.DataAccessException;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Instant;
+
+/**
+ * Выгрузка журнала в колоночный файл: из горячего окна в БД одним проходом по sequence_id
+ * или из архива JournalArchive, чтобы аналитика вообще не ходила в OLTP базу
+ */
+public final class ColumnarJournalExporter {
+    private static final String SELECT_JOURNAL_SQL = "SELECT * FROM \"transaction_journal\" WHERE \"sequence_id\" > ? ORDER BY \"sequence_id\" ASC";
+
+    private final DataSource dataSource;
+
+    public ColumnarJournalExporter(DataSource dataSource) {
+        this.dataSource = dataSource;
+    }
+
+    /**
+     * Строки с sequence_id больше afterSequence; для инкрементальной выгрузки передается
+     * ColumnarJournalReader.maxSequence() предыдущего файла
+     */
+    public long exportJournal(Path target, long afterSequence) {
+        try (ColumnarJournalWriter writer = new ColumnarJournalWriter(target);
+                Connection conn = dataSource.getConnection();
+                PreparedStatement stmt = conn.prepareStatement(SELECT_JOURNAL_SQL)) {
+            stmt.setLong(1, afterSequence);
+            stmt.setFetchSize(ColumnarJournalWriter.ROW_GROUP_ROWS);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    writer.append(ArchivedJournalEntry.fromRow(rs));
+                }
+            }
+            writer.commit();
+            return writer.rowCount();
+        } catch (SQLException e) {
+            throw new DataAccessException("Failed to export transaction journal", e);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to write columnar journal " + target, e);
+        }
+    }
+
+    public static long exportArchive(JournalArchive archive, Instant from, Instant to, Path target) {
+        try (ColumnarJournalWriter writer = new ColumnarJournalWriter(target)) {
+            archive.scan(from, to, null, entry -> {
+                try {
+                    writer.append(entry);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            writer.commit();
+            return writer.rowCount();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to write columnar journal " + target, e);
+        }
+    }
+}
@@ -0,0 +1,358 @@
+package com.bank.persistence.columnar;
+
+import com.bank.core.command.ActionType;
+import com.bank.persistence.archive.ArchivedJournalEntry;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.zip.Inflater;
+
+/**
+ * Чтение файла ColumnarJournalWriter. Агрегации идут по группам строк: группы вне интервала отсекаются по индексу,
+ * в остальных читаются только нужные колонки, фильтр строится массивом выбранных строк над примитивными массивами
+ */
+public final class ColumnarJournalReader implements Closeable {
+    private static final ActionType[] ACTION_TYPES = ActionType.values();
+
+    private final Path file;
+    private final FileChannel channel;
+    private final List<RowGroupIndex> groups;
+    private final Inflater inflater = new Inflater();
+
+    public ColumnarJournalReader(Path file) throws IOException {
+        this.file = file;
+        this.channel = FileChannel.open(file, StandardOpenOption.READ);
+        try {
+            this.groups = readIndex();
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    public long rowCount() {
+        long rows = 0;
+        for (RowGroupIndex group : groups) {
+            rows += group.rows();
+        }
+        return rows;
+    }
+
+    public int rowGroupCount() {
+        return groups.size();
+    }
+
+    /**
+     * Последний sequence_id в файле, с него продолжается инкрементальная выгрузка
+     */
+    public long maxSequence() {
+        long max = 0;
+        for (RowGroupIndex group : groups) {
+            max = Math.max(max, group.maxSequence());
+        }
+        return max;
+    }
+
+    public AccountFlow aggregate(UUID accountId, Instant from, Instant to) {
+        long fromMillis = from.toEpochMilli();
+        long toMillis = to.toEpochMilli();
+        long credited = 0;
+        long debited = 0;
+        long postings = 0;
+        try {
+            for (RowGroupIndex group : groups) {
+                if (!group.overlaps(fromMillis, toMillis)) {
+                    continue;
+                }
+                int rows = group.rows();
+                ByteBuffer accounts = column(group, ColumnarJournalWriter.ACCOUNTS);
+                UUID[] dictionary = readAccountDictionary(accounts);
+                int code = 0;
+                for (int i = 0; i < dictionary.length && code == 0; i++) {
+                    if (dictionary[i].equals(accountId)) {
+                        code = i + 1;
+                    }
+                }
+                if (code == 0) {
+                    continue;
+                }
+                int width = ColumnCodec.bitWidth(dictionary.length);
+                int[] fromCodes = new int[rows];
+                int[] toCodes = new int[rows];
+                ColumnCodec.readPacked(accounts, fromCodes, rows, width);
+                ColumnCodec.readPacked(accounts, toCodes, rows, width);
+                long[] timestamps = readTimestamps(group);
+
+                int[] selection = new int[rows];
+                int selected = 0;
+                for (int i = 0; i < rows; i++) {
+                    if ((fromCodes[i] == code | toCodes[i] == code)
+                            & timestamps[i] >= fromMillis & timestamps[i] < toMillis) {
+                        selection[selected++] = i;
+                    }
+                }
+                if (selected == 0) {
+                    continue;
+                }
+                int[] types = readTypes(group);
+                long[] amounts = readAmounts(group);
+                for (int s = 0; s < selected; s++) {
+                    int i = selection[s];
+                    int type = types[i];
+                    if (type == ActionType.DEPOSIT.ordinal()) {
+                        credited += amounts[i];
+                    } else if (type == ActionType.WITHDRAW.ordinal()) {
+                        debited += amounts[i];
+                    } else if (type == ActionType.TRANSFER.ordinal()) {
+                        if (fromCodes[i] == code) {
+                            debited += amounts[i];
+                        } else {
+                            credited += amounts[i];
+                        }
+                    }
+                }
+                postings += selected;
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read columnar journal " + file, e);
+        }
+        return new AccountFlow(accountId, decimal(credited), decimal(debited), postings);
+    }
+
+    /**
+     * Обороты всех счетов за интервал. Суммы копятся в массивах по кодам словаря группы,
+     * в общую карту переносится одна запись на счет группы, а не на строку
+     */
+    public Map<UUID, AccountFlow> aggregateByAccount(Instant from, Instant to) {
+        long fromMillis = from.toEpochMilli();
+        long toMillis = to.toEpochMilli();
+        Map<UUID, long[]> totals = new HashMap<>();
+        try {
+            for (RowGroupIndex group : groups) {
+                if (!group.overlaps(fromMillis, toMillis)) {
+                    continue;
+                }
+                int rows = group.rows();
+                long[] timestamps = readTimestamps(group);
+                ByteBuffer accounts = column(group, ColumnarJournalWriter.ACCOUNTS);
+                UUID[] dictionary = readAccountDictionary(accounts);
+                int width = ColumnCodec.bitWidth(dictionary.length);
+                int[] fromCodes = new int[rows];
+                int[] toCodes = new int[rows];
+                ColumnCodec.readPacked(accounts, fromCodes, rows, width);
+                ColumnCodec.readPacked(accounts, toCodes, rows, width);
+                int[] types = readTypes(group);
+                long[] amounts = readAmounts(group);
+
+                long[] credited = new long[dictionary.length + 1];
+                long[] debited = new long[dictionary.length + 1];
+                long[] postings = new long[dictionary.length + 1];
+                for (int i = 0; i < rows; i++) {
+                    if (timestamps[i] < fromMillis | timestamps[i] >= toMillis) {
+                        continue;
+                    }
+                    int type = types[i];
+                    postings[fromCodes[i]]++;
+                    if (type == ActionType.DEPOSIT.ordinal()) {
+                        credited[fromCodes[i]] += amounts[i];
+                    } else if (type == ActionType.WITHDRAW.ordinal()) {
+                        debited[fromCodes[i]] += amounts[i];
+                    } else if (type == ActionType.TRANSFER.ordinal()) {
+                        debited[fromCodes[i]] += amounts[i];
+                        credited[toCodes[i]] += amounts[i];
+                        postings[toCodes[i]]++;
+                    }
+                }
+                for (int c = 1; c <= dictionary.length; c++) {
+                    if (postings[c] == 0) {
+                        continue;
+                    }
+                    long[] total = totals.computeIfAbsent(dictionary[c - 1], k -> new long[3]);
+                    total[0] += credited[c];
+                    total[1] += debited[c];
+                    total[2] += postings[c];
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read columnar journal " + file, e);
+        }
+        Map<UUID, AccountFlow> result = new HashMap<>(totals.size() * 2);
+        totals.forEach((account, total) -> result.put(account,
+                new AccountFlow(account, decimal(total[0]), decimal(total[1]), total[2])));
+        return result;
+    }
+
+    /**
+     * Построчное чтение со сборкой всех колонок, для выгрузки обратно и проверок
+     */
+    public long scan(Instant from, Instant to, Consumer<ArchivedJournalEntry> consumer) {
+        long fromMillis = from.toEpochMilli();
+        long toMillis = to.toEpochMilli();
+        long matched = 0;
+        try {
+            for (RowGroupIndex group : groups) {
+                if (!group.overlaps(fromMillis, toMillis)) {
+                    continue;
+                }
+                int rows = group.rows();
+                long[] sequences = new long[rows];
+                ColumnCodec.readDeltas(column(group, ColumnarJournalWriter.SEQUENCE), sequences, rows);
+                long[] timestamps = readTimestamps(group);
+                int[] types = readTypes(group);
+                ByteBuffer accounts = column(group, ColumnarJournalWriter.ACCOUNTS);
+                UUID[] dictionary = readAccountDictionary(accounts);
+                int width = ColumnCodec.bitWidth(dictionary.length);
+                int[] fromCodes = new int[rows];
+                int[] toCodes = new int[rows];
+                ColumnCodec.readPacked(accounts, fromCodes, rows, width);
+                ColumnCodec.readPacked(accounts, toCodes, rows, width);
+                ByteBuffer amountColumn = column(group, ColumnarJournalWriter.AMOUNT);
+                byte[] present = new byte[(rows + 7) / 8];
+                amountColumn.get(present);
+                long[] amounts = readAmounts(amountColumn, present, rows);
+                UUID[] idempotencyKeys = readUuids(column(group, ColumnarJournalWriter.IDEMPOTENCY_KEY), rows);
+                UUID[] transactionIds = readUuids(column(group, ColumnarJournalWriter.TRANSACTION_ID), rows);
+
+                for (int i = 0; i < rows; i++) {
+                    if (timestamps[i] < fromMillis || timestamps[i] >= toMillis) {
+                        continue;
+                    }
+                    boolean hasAmount = (present[i >>> 3] & (1 << (i & 7))) != 0;
+                    consumer.accept(new ArchivedJournalEntry(sequences[i], timestamps[i], idempotencyKeys[i],
+                            transactionIds[i], ACTION_TYPES[types[i]], dictionary[fromCodes[i] - 1],
+                            toCodes[i] == 0 ? null : dictionary[toCodes[i] - 1],
+                            hasAmount ? decimal(amounts[i]) : null));
+                    matched++;
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read columnar journal " + file, e);
+        }
+        return matched;
+    }
+
+    private List<RowGroupIndex> readIndex() throws IOException {
+        long size = channel.size();
+        if (size < 20) {
+            throw new IOException("Not a columnar journal file: " + file);
+        }
+        ByteBuffer head = read(0, 4);
+        ByteBuffer tail = read(size - 12, 12);
+        if (head.getInt() != ColumnarJournalWriter.MAGIC || tail.getInt(8) != ColumnarJournalWriter.MAGIC) {
+            throw new IOException("Not a columnar journal file: " + file);
+        }
+        long footerOffset = tail.getLong(0);
+        ByteBuffer footer = read(footerOffset, (int) (size - 12 - footerOffset));
+        int count = footer.getInt();
+        List<RowGroupIndex> result = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            result.add(RowGroupIndex.readFrom(footer));
+        }
+        return result;
+    }
+
+    private ByteBuffer column(RowGroupIndex group, int column) throws IOException {
+        ByteBuffer chunk = read(group.columnOffset(column), group.columnLengths()[column]);
+        int rawLength = chunk.getInt();
+        int compressedLength = chunk.getInt();
+        byte[] compressed = new byte[compressedLength];
+        chunk.get(compressed);
+        return ColumnCodec.inflate(inflater, compressed, rawLength);
+    }
+
+    private ByteBuffer read(long position, int length) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(length);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                throw new IOException("Unexpected end of columnar journal " + file);
+            }
+        }
+        return buffer.flip();
+    }
+
+    private long[] readTimestamps(RowGroupIndex group) throws IOException {
+        long[] timestamps = new long[group.rows()];
+        ColumnCodec.readDeltas(column(group, ColumnarJournalWriter.TIMESTAMP), timestamps, group.rows());
+        return timestamps;
+    }
+
+    /**
+     * Коды словаря группы переводятся в ordinal ActionType
+     */
+    private int[] readTypes(RowGroupIndex group) throws IOException {
+        ByteBuffer in = column(group, ColumnarJournalWriter.TYPE);
+        int[] ordinals = new int[in.get() & 0xFF];
+        for (int i = 0; i < ordinals.length; i++) {
+            byte[] name = new byte[in.get() & 0xFF];
+            in.get(name);
+            ordinals[i] = ActionType.valueOf(new String(name, StandardCharsets.US_ASCII)).ordinal();
+        }
+        int[] types = new int[group.rows()];
+        ColumnCodec.readPacked(in, types, group.rows(), ColumnCodec.bitWidth(ordinals.length - 1));
+        for (int i = 0; i < types.length; i++) {
+            types[i] = ordinals[types[i]];
+        }
+        return types;
+    }
+
+    private static UUID[] readAccountDictionary(ByteBuffer in) {
+        UUID[] dictionary = new UUID[in.getInt()];
+        for (int i = 0; i < dictionary.length; i++) {
+            dictionary[i] = new UUID(in.getLong(), in.getLong());
+        }
+        return dictionary;
+    }
+
+    private long[] readAmounts(RowGroupIndex group) throws IOException {
+        ByteBuffer in = column(group, ColumnarJournalWriter.AMOUNT);
+        byte[] present = new byte[(group.rows() + 7) / 8];
+        in.get(present);
+        return readAmounts(in, present, group.rows());
+    }
+
+    private static long[] readAmounts(ByteBuffer in, byte[] present, int rows) {
+        long[] amounts = new long[rows];
+        for (int i = 0; i < rows; i++) {
+            if ((present[i >>> 3] & (1 << (i & 7))) != 0) {
+                amounts[i] = ColumnCodec.unZigZag(ColumnCodec.readVarLong(in));
+            }
+        }
+        return amounts;
+    }
+
+    private static UUID[] readUuids(ByteBuffer in, int rows) {
+        long[] most = new long[rows];
+        long[] least = new long[rows];
+        ColumnCodec.readLongs(in, most, rows);
+        ColumnCodec.readLongs(in, least, rows);
+        UUID[] ids = new UUID[rows];
+        for (int i = 0; i < rows; i++) {
+            ids[i] = new UUID(most[i], least[i]);
+        }
+        return ids;
+    }
+
+    private static BigDecimal decimal(long unscaled) {
+        return BigDecimal.valueOf(unscaled, ColumnarJournalWriter.AMOUNT_SCALE);
+    }
+
+    @Override
+    public void close() throws IOException {
+        inflater.end();
+        channel.close();
+    }
+}
@@ -0,0 +1,268 @@
+package com.bank.persistence.columnar;
+
+import com.bank.core.command.ActionType;
+import com.bank.persistence.archive.ArchivedJournalEntry;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.zip.Deflater;
+
+/**
+ * Пишет журнал в колоночный файл для аналитики.
+ * Строки режутся на группы по ROW_GROUP_ROWS, внутри группы каждая колонка кодируется отдельно и сжимается Deflate:
+ * sequence_id и timestamp дельтами, command_type и счета словарем с битовой упаковкой кодов,
+ * amount как unscaled long, ключи идемпотентности и транзакций половинами UUID в двух подряд идущих массивах.
+ * В конце файла индекс групп с min/max sequence_id и времени, по нему читатель пропускает группы целиком.
+ * Файл пишется во временный и переименовывается в commit()
+ */
+public final class ColumnarJournalWriter implements Closeable {
+    static final int MAGIC = 0x42434A31;
+    static final int ROW_GROUP_ROWS = 8192;
+    static final int AMOUNT_SCALE = 2;
+
+    static final int SEQUENCE = 0;
+    static final int TIMESTAMP = 1;
+    static final int TYPE = 2;
+    static final int ACCOUNTS = 3;
+    static final int AMOUNT = 4;
+    static final int IDEMPOTENCY_KEY = 5;
+    static final int TRANSACTION_ID = 6;
+    static final int COLUMNS = 7;
+
+    private final Path target;
+    private final Path tmp;
+    private final FileChannel channel;
+    private final Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+    private final List<RowGroupIndex> index = new ArrayList<>();
+
+    private final long[] sequences = new long[ROW_GROUP_ROWS];
+    private final long[] timestamps = new long[ROW_GROUP_ROWS];
+    private final int[] types = new int[ROW_GROUP_ROWS];
+    private final UUID[] from = new UUID[ROW_GROUP_ROWS];
+    private final UUID[] to = new UUID[ROW_GROUP_ROWS];
+    private final long[] amounts = new long[ROW_GROUP_ROWS];
+    private final boolean[] hasAmount = new boolean[ROW_GROUP_ROWS];
+    private final UUID[] idempotencyKeys = new UUID[ROW_GROUP_ROWS];
+    private final UUID[] transactionIds = new UUID[ROW_GROUP_ROWS];
+
+    private int size;
+    private long rows;
+    private long position;
+    private boolean committed;
+
+    public ColumnarJournalWriter(Path target) throws IOException {
+        this.target = target;
+        this.tmp = target.resolveSibling(target.getFileName() + ".tmp");
+        Path parent = target.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        this.channel = FileChannel.open(tmp, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.WRITE);
+        write(ByteBuffer.allocate(4).putInt(0, MAGIC));
+    }
+
+    public void append(ArchivedJournalEntry entry) throws IOException {
+        sequences[size] = entry.sequenceId();
+        timestamps[size] = entry.timestamp();
+        types[size] = entry.actionType().ordinal();
+        from[size] = entry.accountId();
+        to[size] = entry.targetAccountId();
+        hasAmount[size] = entry.amount() != null;
+        amounts[size] = entry.amount() != null ? unscaled(entry.amount()) : 0;
+        idempotencyKeys[size] = entry.idempotencyKey();
+        transactionIds[size] = entry.transactionId();
+        rows++;
+        if (++size == ROW_GROUP_ROWS) {
+            flushRowGroup();
+        }
+    }
+
+    public long rowCount() {
+        return rows;
+    }
+
+    public void commit() throws IOException {
+        flushRowGroup();
+        long footerOffset = position;
+        ByteBuffer footer = ByteBuffer.allocate(4 + index.size() * RowGroupIndex.BYTES + 12);
+        footer.putInt(index.size());
+        for (RowGroupIndex group : index) {
+            group.writeTo(footer);
+        }
+        footer.putLong(footerOffset);
+        footer.putInt(MAGIC);
+        footer.flip();
+        write(footer);
+        channel.force(true);
+        channel.close();
+        Files.move(tmp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        committed = true;
+    }
+
+    private void flushRowGroup() throws IOException {
+        if (size == 0) {
+            return;
+        }
+        int[] lengths = new int[COLUMNS];
+        long offset = position;
+
+        ByteArrayOutputStream column = new ByteArrayOutputStream(size * 8);
+        ColumnCodec.writeDeltas(column, sequences, size);
+        lengths[SEQUENCE] = writeColumn(column);
+
+        ColumnCodec.writeDeltas(column, timestamps, size);
+        lengths[TIMESTAMP] = writeColumn(column);
+
+        writeTypes(column);
+        lengths[TYPE] = writeColumn(column);
+
+        writeAccounts(column);
+        lengths[ACCOUNTS] = writeColumn(column);
+
+        writeAmounts(column);
+        lengths[AMOUNT] = writeColumn(column);
+
+        writeUuids(column, idempotencyKeys);
+        lengths[IDEMPOTENCY_KEY] = writeColumn(column);
+
+        writeUuids(column, transactionIds);
+        lengths[TRANSACTION_ID] = writeColumn(column);
+
+        long minSequence = Long.MAX_VALUE, maxSequence = Long.MIN_VALUE;
+        long minTimestamp = Long.MAX_VALUE, maxTimestamp = Long.MIN_VALUE;
+        for (int i = 0; i < size; i++) {
+            minSequence = Math.min(minSequence, sequences[i]);
+            maxSequence = Math.max(maxSequence, sequences[i]);
+            minTimestamp = Math.min(minTimestamp, timestamps[i]);
+            maxTimestamp = Math.max(maxTimestamp, timestamps[i]);
+        }
+        index.add(new RowGroupIndex(offset, size, minSequence, maxSequence, minTimestamp, maxTimestamp, lengths));
+        size = 0;
+    }
+
+    private void writeTypes(ByteArrayOutputStream out) {
+        int[] codeOf = new int[ActionType.values().length];
+        List<ActionType> dictionary = new ArrayList<>();
+        int[] codes = new int[size];
+        for (int i = 0; i < size; i++) {
+            if (codeOf[types[i]] == 0) {
+                dictionary.add(ActionType.values()[types[i]]);
+                codeOf[types[i]] = dictionary.size();
+            }
+            codes[i] = codeOf[types[i]] - 1;
+        }
+        out.write(dictionary.size());
+        for (ActionType type : dictionary) {
+            byte[] name = type.name().getBytes(StandardCharsets.US_ASCII);
+            out.write(name.length);
+            out.writeBytes(name);
+        }
+        ColumnCodec.writePacked(out, codes, size, ColumnCodec.bitWidth(dictionary.size() - 1));
+    }
+
+    /**
+     * Общий словарь счетов группы для отправителя и получателя, код 0 у получателя значит null
+     */
+    private void writeAccounts(ByteArrayOutputStream out) {
+        Map<UUID, Integer> codeOf = new HashMap<>();
+        List<UUID> dictionary = new ArrayList<>();
+        int[] fromCodes = new int[size];
+        int[] toCodes = new int[size];
+        for (int i = 0; i < size; i++) {
+            fromCodes[i] = code(from[i], codeOf, dictionary);
+            toCodes[i] = to[i] != null ? code(to[i], codeOf, dictionary) : 0;
+        }
+        ColumnCodec.writeInt(out, dictionary.size());
+        for (UUID account : dictionary) {
+            ColumnCodec.writeInt(out, (int) (account.getMostSignificantBits() >>> 32));
+            ColumnCodec.writeInt(out, (int) account.getMostSignificantBits());
+            ColumnCodec.writeInt(out, (int) (account.getLeastSignificantBits() >>> 32));
+            ColumnCodec.writeInt(out, (int) account.getLeastSignificantBits());
+        }
+        int width = ColumnCodec.bitWidth(dictionary.size());
+        ColumnCodec.writePacked(out, fromCodes, size, width);
+        ColumnCodec.writePacked(out, toCodes, size, width);
+    }
+
+    private static int code(UUID account, Map<UUID, Integer> codeOf, List<UUID> dictionary) {
+        Integer code = codeOf.get(account);
+        if (code == null) {
+            dictionary.add(account);
+            code = dictionary.size();
+            codeOf.put(account, code);
+        }
+        return code;
+    }
+
+    private void writeAmounts(ByteArrayOutputStream out) {
+        byte[] present = new byte[(size + 7) / 8];
+        for (int i = 0; i < size; i++) {
+            if (hasAmount[i]) {
+                present[i >>> 3] |= (byte) (1 << (i & 7));
+            }
+        }
+        out.writeBytes(present);
+        for (int i = 0; i < size; i++) {
+            if (hasAmount[i]) {
+                ColumnCodec.writeVarLong(out, ColumnCodec.zigZag(amounts[i]));
+            }
+        }
+    }
+
+    private void writeUuids(ByteArrayOutputStream out, UUID[] ids) {
+        long[] half = new long[size];
+        for (int i = 0; i < size; i++) {
+            half[i] = ids[i].getMostSignificantBits();
+        }
+        ColumnCodec.writeLongs(out, half, size);
+        for (int i = 0; i < size; i++) {
+            half[i] = ids[i].getLeastSignificantBits();
+        }
+        ColumnCodec.writeLongs(out, half, size);
+    }
+
+    private int writeColumn(ByteArrayOutputStream column) throws IOException {
+        byte[] raw = column.toByteArray();
+        column.reset();
+        byte[] compressed = ColumnCodec.deflate(deflater, raw);
+        ByteBuffer chunk = ByteBuffer.allocate(8 + compressed.length);
+        chunk.putInt(raw.length).putInt(compressed.length).put(compressed).flip();
+        write(chunk);
+        return chunk.limit();
+    }
+
+    private void write(ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            position += channel.write(buffer);
+        }
+    }
+
+    private static long unscaled(BigDecimal amount) {
+        return amount.setScale(AMOUNT_SCALE, RoundingMode.UNNECESSARY).unscaledValue().longValueExact();
+    }
+
+    @Override
+    public void close() throws IOException {
+        deflater.end();
+        if (!committed) {
+            channel.close();
+            Files.deleteIfExists(tmp);
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package com.bank.persistence.columnar;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Запись индекса в хвосте колоночного файла: где лежит группа строк, длины ее колонок и min/max
+ */
+record RowGroupIndex(long offset, int rows, long minSequence, long maxSequence, long minTimestamp,
+        long maxTimestamp, int[] columnLengths) {
+
+    static final int BYTES = 8 + 4 + 4 * 8 + ColumnarJournalWriter.COLUMNS * 4;
+
+    boolean overlaps(long fromTimestamp, long toTimestamp) {
+        return maxTimestamp >= fromTimestamp && minTimestamp < toTimestamp;
+    }
+
+    long columnOffset(int column) {
+        long result = offset;
+        for (int i = 0; i < column; i++) {
+            result += columnLengths[i];
+        }
+        return result;
+    }
+
+    void writeTo(ByteBuffer out) {
+        out.putLong(offset).putInt(rows)
+                .putLong(minSequence).putLong(maxSequence)
+                .putLong(minTimestamp).putLong(maxTimestamp);
+        for (int length : columnLengths) {
+            out.putInt(length);
+        }
+    }
+
+    static RowGroupIndex readFrom(ByteBuffer in) {
+        long offset = in.getLong();
+        int rows = in.getInt();
+        long minSequence = in.getLong();
+        long maxSequence = in.getLong();
+        long minTimestamp = in.getLong();
+        long maxTimestamp = in.getLong();
+        int[] lengths = new int[ColumnarJournalWriter.COLUMNS];
+        for (int i = 0; i < lengths.length; i++) {
+            lengths[i] = in.getInt();
+        }
+        return new RowGroupIndex(offset, rows, minSequence, maxSequence, minTimestamp, maxTimestamp, lengths);
+    }
+}
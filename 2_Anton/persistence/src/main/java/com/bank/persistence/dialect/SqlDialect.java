@@ -0,0 +1,84 @@
+package com.bank.persistence.dialect;
+
+import com.bank.persistence.exception.DataAccessException;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * Различия SQL между H2 (тесты, локальный запуск) и PostgreSQL (прод). Общий SQL остается в репозиториях,
+ * здесь только то, что в H2 не работает или в PostgreSQL делается одним запросом вместо JDBC-батча
+ */
+public enum SqlDialect {
+    H2("MERGE INTO \"idempotency_keys\" (\"key\", \"created_at\") KEY(\"key\") VALUES (?, ?)",
+            null,
+            null),
+    /**
+     * Счета и outbox пишутся одним запросом по массивам: батч из сотни UPDATE/DELETE — это сотня Bind/Execute,
+     * а unnest и = ANY — один, и план готовится один раз на соединение
+     */
+    POSTGRES("INSERT INTO \"idempotency_keys\" (\"key\", \"created_at\") VALUES (?, ?) ON CONFLICT (\"key\") DO NOTHING",
+            "UPDATE \"accounts\" AS a SET \"balance\" = v.\"balance\", \"status\" = v.\"status\" FROM unnest(?::uuid[], ?::numeric[], ?::varchar[]) AS v(\"id\", \"balance\", \"status\") WHERE a.\"id\" = v.\"id\"",
+            "DELETE FROM \"transaction_outbox\" WHERE \"idempotency_key\" = ANY (?::uuid[])");
+
+    private final String insertIdempotencyKeySql;
+    private final String updateAccountsSql;
+    private final String deleteOutboxSql;
+
+    SqlDialect(String insertIdempotencyKeySql, String updateAccountsSql, String deleteOutboxSql) {
+        this.insertIdempotencyKeySql = insertIdempotencyKeySql;
+        this.updateAccountsSql = updateAccountsSql;
+        this.deleteOutboxSql = deleteOutboxSql;
+    }
+
+    public static SqlDialect detect(DataSource dataSource) {
+        try (Connection conn = dataSource.getConnection()) {
+            return of(conn.getMetaData().getDatabaseProductName());
+        } catch (SQLException e) {
+            throw new DataAccessException("Failed to detect database dialect", e);
+        }
+    }
+
+    /**
+     * H2 в режиме MODE=PostgreSQL все равно называет себя H2
+     */
+    public static SqlDialect of(String databaseProductName) {
+        return databaseProductName != null && databaseProductName.toLowerCase().contains("postgres")
+                ? POSTGRES
+                : H2;
+    }
+
+    /**
+     * Вставка ключа идемпотентности, которая для существующего ключа ничего не меняет
+     */
+    public String insertIdempotencyKeySql() {
+        return insertIdempotencyKeySql;
+    }
+
+    /**
+     * Обновление balance и status по массивам id, balance, status; null — только построчный батч
+     */
+    public String updateAccountsSql() {
+        return updateAccountsSql;
+    }
+
+    /**
+     * Удаление строк outbox по массиву ключей идемпотентности; null — только построчный батч
+     */
+    public String deleteOutboxSql() {
+        return deleteOutboxSql;
+    }
+
+    public boolean setBasedWrites() {
+        return updateAccountsSql != null;
+    }
+
+    /**
+     * Уровень изоляции, при котором все чтения транзакции видят один снимок: в PostgreSQL это уже
+     * REPEATABLE READ, в H2 на нем возможны фантомы, и снимок дает только SERIALIZABLE
+     */
+    public int snapshotIsolation() {
+        return this == POSTGRES ? Connection.TRANSACTION_REPEATABLE_READ : Connection.TRANSACTION_SERIALIZABLE;
+    }
+}
@@ -0,0 +1,45 @@
+package com.bank.persistence.dlq;
+
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * Экспоненциальная задержка повтора для строк DLQ: base * 2^attempts, не больше maxBackoff.
+ * После maxAttempts повторов отказ считается окончательным, даже если сам по себе повторяем
+ */
+public final class DlqRetryPolicy {
+    public static final DlqRetryPolicy DEFAULT = new DlqRetryPolicy(5, Duration.ofSeconds(5), Duration.ofHours(1));
+
+    private final int maxAttempts;
+    private final Duration baseBackoff;
+    private final Duration maxBackoff;
+
+    public DlqRetryPolicy(int maxAttempts, Duration baseBackoff, Duration maxBackoff) {
+        if (maxAttempts < 0 || baseBackoff.isNegative() || maxBackoff.compareTo(baseBackoff) < 0) {
+            throw new IllegalArgumentException("Invalid DLQ retry policy: maxAttempts=" + maxAttempts
+                    + ", baseBackoff=" + baseBackoff + ", maxBackoff=" + maxBackoff);
+        }
+        this.maxAttempts = maxAttempts;
+        this.baseBackoff = baseBackoff;
+        this.maxBackoff = maxBackoff;
+    }
+
+    public boolean retryable(boolean retryableFailure, int attempts) {
+        return retryableFailure && attempts < maxAttempts;
+    }
+
+    public Instant nextAttemptAt(Instant now, int attempts) {
+        Duration backoff = attempts >= 30 ? maxBackoff : baseBackoff.multipliedBy(1L << attempts);
+        return now.plus(backoff.compareTo(maxBackoff) > 0 ? maxBackoff : backoff);
+    }
+
+    public int getMaxAttempts() {
+        return maxAttempts;
+    }
+
+    @Override
+    public String toString() {
+        return "DlqRetryPolicy{maxAttempts=" + maxAttempts + ", baseBackoff=" + baseBackoff + ", maxBackoff="
+                + maxBackoff + "}";
+    }
+}
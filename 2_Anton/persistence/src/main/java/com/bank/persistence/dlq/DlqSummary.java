@@ -0,0 +1,7 @@
+package com.bank.persistence.dlq;
+
+/**
+ * Число строк DLQ с данным типом ошибки и классификацией
+ */
+public record DlqSummary(String errorType, boolean retryable, long rows) {
+}
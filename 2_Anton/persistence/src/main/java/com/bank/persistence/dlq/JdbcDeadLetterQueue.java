@@ -0,0 +1,187 @@
+package com.bank.persistence.dlq;
+
+import com.bank.persistence.exception.DataAccessException;
+import com.bank.persistence.outbox.OutboxPartitions;
+
+import javax.sql.DataSource;
+import java.sql.Array;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+/**
+ * Множественные операции над transaction_outbox_dlq. Строки переносятся порциями по chunkRows, порция — одна
+ * транзакция из трех запросов: выбор id с блокировкой, INSERT ... SELECT в outbox или архив, DELETE по тем же id.
+ * Повторно отправленная команда попадает в outbox как PENDING с attempts + 1 и идет в RingBuffer через
+ * OutboxPoller; если она снова упадет, персистер вернет ее в DLQ со следующей задержкой по DlqRetryPolicy
+ */
+public final class JdbcDeadLetterQueue {
+    public static final int DEFAULT_CHUNK_ROWS = 5000;
+
+    private static final String SELECT_DUE_SQL = "SELECT \"id\", \"idempotency_key\" FROM \"transaction_outbox_dlq\" WHERE \"retryable\" = TRUE AND \"next_attempt_at\" <= ? ORDER BY \"next_attempt_at\" ASC LIMIT ? FOR UPDATE SKIP LOCKED";
+    private static final String SELECT_RETRYABLE_SQL = "SELECT \"id\", \"idempotency_key\" FROM \"transaction_outbox_dlq\" WHERE \"retryable\" = TRUE AND \"moved_at\" <= ? ORDER BY \"moved_at\" ASC LIMIT ? FOR UPDATE SKIP LOCKED";
+    private static final String SELECT_BY_TYPE_SQL = "SELECT \"id\", \"idempotency_key\" FROM \"transaction_outbox_dlq\" WHERE \"error_type\" = ? AND \"idempotency_key\" IS NOT NULL AND \"moved_at\" <= ? ORDER BY \"moved_at\" ASC LIMIT ? FOR UPDATE SKIP LOCKED";
+    private static final String SELECT_TERMINAL_SQL = "SELECT \"id\", \"idempotency_key\" FROM \"transaction_outbox_dlq\" WHERE \"retryable\" = FALSE AND \"moved_at\" <= ? ORDER BY \"moved_at\" ASC LIMIT ? FOR UPDATE SKIP LOCKED";
+    private static final String REDRIVE_SQL = "INSERT INTO \"transaction_outbox\" (\"idempotency_key\", \"transaction_id\", \"payload\", \"status\", \"attempts\", \"created_at\") SELECT \"idempotency_key\", \"id\", \"payload\", 'PENDING', \"attempts\" + 1, ? FROM \"transaction_outbox_dlq\" WHERE \"id\" = ANY (?)";
+    private static final String REDRIVE_PARTITION_SQL = "INSERT INTO \"%s\" (\"seq\", \"idempotency_key\", \"transaction_id\", \"payload\", \"attempts\", \"created_at\") SELECT " + OutboxPartitions.NEXT_SEQ + ", \"idempotency_key\", \"id\", \"payload\", \"attempts\" + 1, ? FROM \"transaction_outbox_dlq\" WHERE \"id\" = ANY (?)";
+    private static final String ARCHIVE_SQL = "INSERT INTO \"transaction_outbox_dlq_archive\" (\"id\", \"idempotency_key\", \"payload\", \"reason\", \"error_type\", \"attempts\", \"moved_at\", \"archived_at\") SELECT \"id\", \"idempotency_key\", \"payload\", \"reason\", \"error_type\", \"attempts\", \"moved_at\", ? FROM \"transaction_outbox_dlq\" WHERE \"id\" = ANY (?)";
+    private static final String DELETE_SQL = "DELETE FROM \"transaction_outbox_dlq\" WHERE \"id\" = ANY (?)";
+    private static final String SUMMARY_SQL = "SELECT \"error_type\", \"retryable\", COUNT(*) AS \"rows\" FROM \"transaction_outbox_dlq\" GROUP BY \"error_type\", \"retryable\" ORDER BY \"error_type\"";
+
+    private final DataSource dataSource;
+    private final int chunkRows;
+    private final OutboxPartitions outboxPartitions;
+
+    public JdbcDeadLetterQueue(DataSource dataSource) {
+        this(dataSource, DEFAULT_CHUNK_ROWS);
+    }
+
+    public JdbcDeadLetterQueue(DataSource dataSource, int chunkRows) {
+        this(dataSource, chunkRows, null);
+    }
+
+    /**
+     * С outboxPartitions повтор пишет в активную таблицу-раздел outbox
+     */
+    public JdbcDeadLetterQueue(DataSource dataSource, int chunkRows, OutboxPartitions outboxPartitions) {
+        if (chunkRows <= 0) {
+            throw new IllegalArgumentException("chunkRows must be positive: " + chunkRows);
+        }
+        this.dataSource = dataSource;
+        this.chunkRows = chunkRows;
+        this.outboxPartitions = outboxPartitions;
+    }
+
+    /**
+     * Возвращает в outbox повторяемые строки, срок повтора которых наступил. onRedrive получает ключи
+     * идемпотентности порции до ее коммита, то есть до того, как OutboxPoller сможет их прочитать
+     */
+    public int redriveDue(Instant now, Consumer<List<UUID>> onRedrive) {
+        int total = 0;
+        int moved;
+        do {
+            moved = redriveChunk(SELECT_DUE_SQL, new Object[] { Timestamp.from(now), chunkRows }, now, onRedrive);
+            total += moved;
+        } while (moved == chunkRows);
+        return total;
+    }
+
+    /**
+     * Разбор после инцидента: возвращает в outbox все строки с типом ошибки errorType независимо от задержки
+     * и классификации, при errorType == null — все повторяемые. Строки, упавшие снова во время прохода,
+     * в него уже не попадают
+     */
+    public int redriveAll(String errorType, Consumer<List<UUID>> onRedrive) {
+        Timestamp started = Timestamp.from(Instant.now());
+        int total = 0;
+        int moved;
+        do {
+            Object[] params = errorType == null
+                    ? new Object[] { started, chunkRows }
+                    : new Object[] { errorType, started, chunkRows };
+            moved = redriveChunk(errorType == null ? SELECT_RETRYABLE_SQL : SELECT_BY_TYPE_SQL, params,
+                    started.toInstant(), onRedrive);
+            total += moved;
+        } while (moved == chunkRows);
+        return total;
+    }
+
+    /**
+     * Переносит окончательные отказы старше movedBefore в transaction_outbox_dlq_archive
+     */
+    public int archiveTerminal(Instant movedBefore) {
+        Instant now = Instant.now();
+        int total = 0;
+        int moved;
+        do {
+            moved = moveChunk(SELECT_TERMINAL_SQL, new Object[] { Timestamp.from(movedBefore), chunkRows },
+                    ARCHIVE_SQL, now, null);
+            total += moved;
+        } while (moved == chunkRows);
+        return total;
+    }
+
+    public List<DlqSummary> summary() {
+        List<DlqSummary> summary = new ArrayList<>();
+        try (Connection conn = dataSource.getConnection();
+                PreparedStatement stmt = conn.prepareStatement(SUMMARY_SQL);
+                ResultSet rs = stmt.executeQuery()) {
+            while (rs.next()) {
+                summary.add(new DlqSummary(rs.getString("error_type"), rs.getBoolean("retryable"),
+                        rs.getLong("rows")));
+            }
+        } catch (SQLException e) {
+            throw new DataAccessException("Failed to summarize DLQ", e);
+        }
+        return summary;
+    }
+
+    private int redriveChunk(String selectSql, Object[] params, Instant now, Consumer<List<UUID>> onRedrive) {
+        if (outboxPartitions == null) {
+            return moveChunk(selectSql, params, REDRIVE_SQL, now, onRedrive);
+        }
+        int slot = outboxPartitions.beginWrite();
+        try {
+            return moveChunk(selectSql, params, REDRIVE_PARTITION_SQL.replace("%s", outboxPartitions.table(slot)),
+                    now, onRedrive);
+        } finally {
+            outboxPartitions.endWrite(slot);
+        }
+    }
+
+    private int moveChunk(String selectSql, Object[] params, String moveSql, Instant now,
+            Consumer<List<UUID>> onMove) {
+        try (Connection conn = dataSource.getConnection()) {
+            boolean autoCommit = conn.getAutoCommit();
+            conn.setAutoCommit(false);
+            try {
+                List<UUID> ids = new ArrayList<>();
+                List<UUID> keys = new ArrayList<>();
+                try (PreparedStatement stmt = conn.prepareStatement(selectSql)) {
+                    for (int i = 0; i < params.length; i++) {
+                        stmt.setObject(i + 1, params[i]);
+                    }
+                    try (ResultSet rs = stmt.executeQuery()) {
+                        while (rs.next()) {
+                            ids.add(rs.getObject("id", UUID.class));
+                            keys.add(rs.getObject("idempotency_key", UUID.class));
+                        }
+                    }
+                }
+                if (ids.isEmpty()) {
+                    conn.commit();
+                    return 0;
+                }
+                Array idArray = conn.createArrayOf("UUID", ids.toArray());
+                try (PreparedStatement move = conn.prepareStatement(moveSql)) {
+                    move.setTimestamp(1, Timestamp.from(now));
+                    move.setArray(2, idArray);
+                    move.executeUpdate();
+                }
+                try (PreparedStatement delete = conn.prepareStatement(DELETE_SQL)) {
+                    delete.setArray(1, idArray);
+                    delete.executeUpdate();
+                }
+                if (onMove != null) {
+                    onMove.accept(keys);
+                }
+                conn.commit();
+                return ids.size();
+            } catch (SQLException | RuntimeException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(autoCommit);
+            }
+        } catch (SQLException e) {
+            throw new DataAccessException("Failed to move DLQ rows", e);
+        }
+    }
+}
@@ -0,0 +1,228 @@
+package com.bank.persistence.outbox;
+
+import com.bank.persistence.exception.DataAccessException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.StringJoiner;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * Outbox на вращающихся таблицах transaction_outbox_p0..pN-1 вместо одной таблицы с построчным DELETE.
+ * Запись идет в активную таблицу с номером строки из общей последовательности; обработанные строки не удаляются,
+ * их покрывает водяной знак: все seq <= watermark опубликованы в RingBuffer и сохранены персистером.
+ * Неактивная таблица, в которую больше никто не пишет и все строки которой ниже водяного знака, очищается
+ * целиком через TRUNCATE. Какая таблица активна и сколько в нее идет записей, знает только этот процесс:
+ * писатели outbox и поллер работают в одной JVM
+ */
+public final class OutboxPartitions {
+    private static final Logger log = LoggerFactory.getLogger(OutboxPartitions.class);
+
+    public static final String NEXT_SEQ = "nextval('transaction_outbox_seq')";
+
+    private static final String TABLE_PREFIX = "transaction_outbox_p";
+    private static final String CREATE_TABLE_SQL = "CREATE TABLE IF NOT EXISTS \"%s\" (\"seq\" BIGINT PRIMARY KEY, \"idempotency_key\" UUID NOT NULL, \"transaction_id\" UUID NOT NULL, \"payload\" VARCHAR(2048) NOT NULL, \"attempts\" INT DEFAULT 0 NOT NULL, \"created_at\" TIMESTAMP NOT NULL)";
+    private static final String CREATE_KEY_INDEX_SQL = "CREATE INDEX IF NOT EXISTS \"%s_key\" ON \"%s\" (\"idempotency_key\")";
+    private static final String CREATE_SEQUENCE_SQL = "CREATE SEQUENCE IF NOT EXISTS transaction_outbox_seq";
+    private static final String CREATE_WATERMARK_SQL = "CREATE TABLE IF NOT EXISTS \"transaction_outbox_watermark\" (\"id\" INT PRIMARY KEY, \"seq\" BIGINT NOT NULL)";
+    private static final String INIT_WATERMARK_SQL = "INSERT INTO \"transaction_outbox_watermark\" (\"id\", \"seq\") SELECT 1, 0 WHERE NOT EXISTS (SELECT 1 FROM \"transaction_outbox_watermark\")";
+    private static final String READ_WATERMARK_SQL = "SELECT \"seq\" FROM \"transaction_outbox_watermark\" WHERE \"id\" = 1";
+    private static final String WRITE_WATERMARK_SQL = "UPDATE \"transaction_outbox_watermark\" SET \"seq\" = ? WHERE \"id\" = 1";
+    private static final String MAX_SEQ_SQL = "SELECT MAX(\"seq\") FROM \"%s\"";
+    private static final String TRUNCATE_SQL = "TRUNCATE TABLE \"%s\"";
+    private static final String DELETE_ALL_SQL = "DELETE FROM \"%s\"";
+
+    private final DataSource dataSource;
+    private final int slots;
+    private final AtomicIntegerArray writers;
+    // только поток компактора
+    private final boolean[] free;
+    private volatile int active;
+    private volatile long activeSinceMillis;
+
+    public OutboxPartitions(DataSource dataSource, int slots) {
+        if (slots < 2) {
+            throw new IllegalArgumentException("At least two outbox partitions are required: " + slots);
+        }
+        this.dataSource = dataSource;
+        this.slots = slots;
+        this.writers = new AtomicIntegerArray(slots);
+        this.free = new boolean[slots];
+        createTables();
+        recoverSlots();
+    }
+
+    public int slots() {
+        return slots;
+    }
+
+    public String table(int slot) {
+        return TABLE_PREFIX + slot;
+    }
+
+    /**
+     * Склеивает запрос по всем таблицам через UNION ALL; %s в шаблоне — имя таблицы
+     */
+    public String unionAll(String template) {
+        StringJoiner sql = new StringJoiner(" UNION ALL ");
+        for (int slot = 0; slot < slots; slot++) {
+            sql.add(template.replace("%s", table(slot)));
+        }
+        return sql.toString();
+    }
+
+    /**
+     * Регистрирует писателя в активной таблице и возвращает ее номер; до endWrite таблица не будет очищена
+     */
+    public int beginWrite() {
+        while (true) {
+            int slot = active;
+            writers.incrementAndGet(slot);
+            if (active == slot) {
+                return slot;
+            }
+            writers.decrementAndGet(slot);
+        }
+    }
+
+    public void endWrite(int slot) {
+        writers.decrementAndGet(slot);
+    }
+
+    public int writersInFlight() {
+        int total = 0;
+        for (int slot = 0; slot < slots; slot++) {
+            total += writers.get(slot);
+        }
+        return total;
+    }
+
+    public int activeSlot() {
+        return active;
+    }
+
+    public long activeSinceMillis() {
+        return activeSinceMillis;
+    }
+
+    /**
+     * Переключает запись на следующую таблицу, если та уже очищена
+     */
+    public boolean rotate() {
+        int next = (active + 1) % slots;
+        if (!free[next]) {
+            return false;
+        }
+        free[next] = false;
+        activeSinceMillis = System.currentTimeMillis();
+        active = next;
+        return true;
+    }
+
+    /**
+     * Очищает неактивные таблицы без писателей, все строки которых не выше watermark; возвращает их число
+     */
+    public int truncateBelow(long watermark) {
+        int truncated = 0;
+        for (int slot = 0; slot < slots; slot++) {
+            if (free[slot] || slot == active || writers.get(slot) != 0) {
+                continue;
+            }
+            long maxSeq = maxSeq(slot);
+            if (maxSeq <= watermark) {
+                execute(String.format(TRUNCATE_SQL, table(slot)));
+                free[slot] = true;
+                truncated++;
+                log.debug("Truncated outbox partition {} (max seq {}, watermark {})", table(slot), maxSeq, watermark);
+            }
+        }
+        return truncated;
+    }
+
+    public long readWatermark() {
+        try (Connection conn = dataSource.getConnection();
+                PreparedStatement stmt = conn.prepareStatement(READ_WATERMARK_SQL);
+                ResultSet rs = stmt.executeQuery()) {
+            return rs.next() ? rs.getLong(1) : 0;
+        } catch (SQLException e) {
+            throw new DataAccessException("Failed to read outbox watermark", e);
+        }
+    }
+
+    public void writeWatermark(long seq) {
+        try (Connection conn = dataSource.getConnection();
+                PreparedStatement stmt = conn.prepareStatement(WRITE_WATERMARK_SQL)) {
+            stmt.setLong(1, seq);
+            stmt.executeUpdate();
+        } catch (SQLException e) {
+            throw new DataAccessException("Failed to write outbox watermark", e);
+        }
+    }
+
+    /**
+     * Удаляет строки из всех таблиц и сбрасывает водяной знак; для сброса системы администратором.
+     * DELETE, а не TRUNCATE: в активную таблицу в этот момент могут писать
+     */
+    public void clear() {
+        for (int slot = 0; slot < slots; slot++) {
+            execute(String.format(DELETE_ALL_SQL, table(slot)));
+        }
+        writeWatermark(0);
+    }
+
+    /**
+     * Наибольший seq в таблице, -1 для пустой
+     */
+    long maxSeq(int slot) {
+        try (Connection conn = dataSource.getConnection();
+                PreparedStatement stmt = conn.prepareStatement(String.format(MAX_SEQ_SQL, table(slot)));
+                ResultSet rs = stmt.executeQuery()) {
+            rs.next();
+            long max = rs.getLong(1);
+            return rs.wasNull() ? -1 : max;
+        } catch (SQLException e) {
+            throw new DataAccessException("Failed to read max seq of " + table(slot), e);
+        }
+    }
+
+    private void createTables() {
+        execute(CREATE_SEQUENCE_SQL);
+        execute(CREATE_WATERMARK_SQL);
+        execute(INIT_WATERMARK_SQL);
+        for (int slot = 0; slot < slots; slot++) {
+            execute(String.format(CREATE_TABLE_SQL, table(slot)));
+            execute(String.format(CREATE_KEY_INDEX_SQL, table(slot), table(slot)));
+        }
+    }
+
+    /**
+     * После рестарта активной становится таблица с самыми свежими строками, пустые считаются свободными
+     */
+    private void recoverSlots() {
+        long newest = -1;
+        for (int slot = 0; slot < slots; slot++) {
+            long maxSeq = maxSeq(slot);
+            free[slot] = maxSeq < 0;
+            if (maxSeq > newest) {
+                newest = maxSeq;
+                active = slot;
+            }
+        }
+        free[active] = false;
+        activeSinceMillis = System.currentTimeMillis();
+    }
+
+    private void execute(String sql) {
+        try (Connection conn = dataSource.getConnection(); Statement stmt = conn.createStatement()) {
+            stmt.execute(sql);
+        } catch (SQLException e) {
+            throw new DataAccessException("Failed to execute " + sql, e);
+        }
+    }
+}
@@ -1,8 +1,11 @@
 package com.bank.persistence.repository;
 
 import com.bank.domain.Account;
+import java.util.Collection;
+import java.util.List;
 import java.util.Map;
 import java.util.UUID;
+import java.util.function.Consumer;
 
 /**
  * Шаблон для AccountRepository
@@ -10,4 +13,16 @@ import java.util.UUID;
 
 public interface AccountRepository {
     Map<UUID, Account> loadAllAccounts();
+
+    /**
+     * Все счета потоком, без сборки в память
+     */
+    void forEachAccount(Consumer<? super Account> sink);
+
+    /**
+     * До limit счетов с id > after (null — с начала) и id <= upTo в порядке id
+     */
+    List<Account> loadChunk(UUID after, UUID upTo, int limit);
+
+    List<Account> findByIds(Collection<UUID> ids);
 }
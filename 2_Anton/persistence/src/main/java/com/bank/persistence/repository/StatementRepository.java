@@ -0,0 +1,12 @@
+package com.bank.persistence.repository;
+
+import com.bank.persistence.statement.StatementPage;
+import java.util.UUID;
+
+/**
+ * Выписка по счету постранично: beforePosting — курсор из предыдущей страницы, null для первой
+ */
+
+public interface StatementRepository {
+    StatementPage findStatement(UUID accountId, Long beforePosting, int limit);
+}
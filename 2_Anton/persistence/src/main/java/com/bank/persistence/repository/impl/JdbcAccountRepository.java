@@ -10,15 +10,20 @@ import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.UUID;
+import java.util.function.Consumer;
 
 /**
  * Интерфейс AccountRepository на базе JDBC
  */
 
 public final class JdbcAccountRepository implements AccountRepository {
+    private static final int FETCH_SIZE = 4096;
 
     private final DataSource dataSource;
     private final AccountMapper accountMapper;
@@ -46,4 +51,78 @@ public final class JdbcAccountRepository implements AccountRepository {
         }
         return accounts;
     }
+
+    /**
+     * Курсор с fetchSize вместо полной выборки; PostgreSQL отдает строки порциями только вне autocommit
+     */
+    @Override
+    public void forEachAccount(Consumer<? super Account> sink) {
+        final String sql = "SELECT \"id\", \"balance\", \"status\" FROM \"accounts\"";
+
+        try (Connection conn = dataSource.getConnection()) {
+            boolean autoCommit = conn.getAutoCommit();
+            conn.setAutoCommit(false);
+            try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+                stmt.setFetchSize(FETCH_SIZE);
+                try (ResultSet rs = stmt.executeQuery()) {
+                    while (rs.next()) {
+                        sink.accept(accountMapper.mapRow(rs));
+                    }
+                }
+            } finally {
+                conn.rollback();
+                conn.setAutoCommit(autoCommit);
+            }
+        } catch (SQLException e) {
+            throw new DataAccessException("Failed to stream accounts from the database", e);
+        }
+    }
+
+    @Override
+    public List<Account> loadChunk(UUID after, UUID upTo, int limit) {
+        final String sql = after == null
+                ? "SELECT \"id\", \"balance\", \"status\" FROM \"accounts\" WHERE \"id\" <= ? ORDER BY \"id\" LIMIT ?"
+                : "SELECT \"id\", \"balance\", \"status\" FROM \"accounts\" WHERE \"id\" > ? AND \"id\" <= ? ORDER BY \"id\" LIMIT ?";
+        List<Account> accounts = new ArrayList<>(Math.min(limit, FETCH_SIZE));
+
+        try (Connection conn = dataSource.getConnection();
+                PreparedStatement stmt = conn.prepareStatement(sql)) {
+            int index = 1;
+            if (after != null) {
+                stmt.setObject(index++, after);
+            }
+            stmt.setObject(index++, upTo);
+            stmt.setInt(index, limit);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    accounts.add(accountMapper.mapRow(rs));
+                }
+            }
+        } catch (SQLException e) {
+            throw new DataAccessException("Failed to load accounts after " + after, e);
+        }
+        return accounts;
+    }
+
+    @Override
+    public List<Account> findByIds(Collection<UUID> ids) {
+        List<Account> accounts = new ArrayList<>(ids.size());
+        if (ids.isEmpty()) {
+            return accounts;
+        }
+        final String sql = "SELECT \"id\", \"balance\", \"status\" FROM \"accounts\" WHERE \"id\" = ANY (?)";
+
+        try (Connection conn = dataSource.getConnection();
+                PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setArray(1, conn.createArrayOf("UUID", ids.toArray()));
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    accounts.add(accountMapper.mapRow(rs));
+                }
+            }
+        } catch (SQLException e) {
+            throw new DataAccessException("Failed to load accounts by id", e);
+        }
+        return accounts;
+    }
 }
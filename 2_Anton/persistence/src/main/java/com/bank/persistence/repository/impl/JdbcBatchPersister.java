@@ -1,121 +1,320 @@
 package com.bank.persistence.repository.impl;
 
+import com.bank.core.command.TransactionCommand;
+import com.bank.core.metrics.LatencyHistogram;
+import com.bank.core.metrics.MetricsRegistry;
 import com.bank.core.port.out.BatchPersister;
 import com.bank.core.port.out.BatchUnitOfWork;
+import com.bank.core.port.out.FailureReason;
+import com.bank.domain.Account;
+import com.bank.persistence.dialect.SqlDialect;
+import com.bank.persistence.dlq.DlqRetryPolicy;
 import com.bank.persistence.exception.DataAccessException;
-import org.springframework.jdbc.core.JdbcTemplate;
-import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
-import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
-import org.springframework.transaction.support.TransactionTemplate;
+import com.bank.persistence.outbox.OutboxPartitions;
 
 import javax.sql.DataSource;
+import java.sql.Array;
+import java.sql.Connection;
 import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
 import java.sql.Timestamp;
 import java.time.Instant;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.atomic.LongAdder;
 
 /**
- * JdbcBatchPersister Сохраняет батчами и обновляет счета и чистит Outbox
+ * JdbcBatchPersister Сохраняет батчами и обновляет счета и чистит Outbox. Батч пишется на собственном
+ * соединении персистера (PersisterConnection) заранее подготовленными запросами
  */
 
-public class JdbcBatchPersister implements BatchPersister {
-    private final JdbcTemplate jdbcTemplate;
-    private final NamedParameterJdbcTemplate namedParameterJdbcTemplate;
-    private final TransactionTemplate transactionTemplate;
+public class JdbcBatchPersister implements BatchPersister, AutoCloseable {
+    private static final long VALIDATE_AFTER_IDLE_MILLIS = 30_000;
+
+    private final PersisterConnection connection;
+    private final SqlDialect dialect;
+
+    private final LatencyHistogram commitNanos;
+    private final LongAdder rollbacks;
+    private final LongAdder processedKeyRows;
+    private final LongAdder journalRows;
+    private final LongAdder accountRows;
+    private final LongAdder outboxDeleteRows;
+    private final LongAdder dlqRows;
+    private final LongAdder postingRows;
+    private final JdbcPostingIndex postingIndex;
+    private final DlqRetryPolicy dlqRetryPolicy;
+    private final OutboxPartitions outboxPartitions;
+    private final String selectOutboxForDlqSql;
+    private final String updateAccountsSql;
+    private final String deleteOutboxSql;
 
     private static final String INSERT_PROCESSED_KEY_SQL = "INSERT INTO \"processed_transactions\" (\"idempotency_key\", \"processed_at\") VALUES (?, ?)";
     private static final String UPDATE_ACCOUNT_SQL = "UPDATE \"accounts\" SET \"balance\" = ?, \"status\" = ? WHERE \"id\" = ?";
     private static final String DELETE_OUTBOX_SQL = "DELETE FROM \"transaction_outbox\" WHERE \"idempotency_key\" = ?";
     private static final String INSERT_JOURNAL_SQL = "INSERT INTO \"transaction_journal\" (\"transaction_id\", \"idempotency_key\", \"command_type\", \"amount\", \"account_id_from\", \"account_id_to\", \"timestamp\") VALUES (?, ?, ?, ?, ?, ?, ?)";
 
-    private static final String SELECT_OUTBOX_FOR_DLQ_SQL_IN = "SELECT \"transaction_id\", \"payload\", \"idempotency_key\" FROM \"transaction_outbox\" WHERE \"idempotency_key\" IN (:keys)";
-    private static final String INSERT_DLQ_SQL = "INSERT INTO \"transaction_outbox_dlq\" (\"id\", \"payload\", \"reason\", \"moved_at\") VALUES (?, ?, ?, ?)";
+    private static final String SELECT_OUTBOX_FOR_DLQ_SQL = "SELECT \"transaction_id\", \"payload\", \"idempotency_key\", \"attempts\" FROM \"%s\" WHERE \"idempotency_key\" = ANY (?)";
+    private static final String SELECT_EXISTING_DLQ_SQL = "SELECT \"id\" FROM \"transaction_outbox_dlq\" WHERE \"id\" = ANY (?)";
+    private static final String INSERT_DLQ_SQL = "INSERT INTO \"transaction_outbox_dlq\" (\"id\", \"idempotency_key\", \"payload\", \"reason\", \"error_type\", \"retryable\", \"attempts\", \"next_attempt_at\", \"moved_at\") VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    public JdbcBatchPersister(DataSource dataSource) {
+        this(dataSource, new MetricsRegistry());
+    }
+
+    public JdbcBatchPersister(DataSource dataSource, MetricsRegistry metrics) {
+        this(dataSource, metrics, null);
+    }
+
+    public JdbcBatchPersister(DataSource dataSource, MetricsRegistry metrics, JdbcPostingIndex postingIndex) {
+        this(dataSource, metrics, postingIndex, DlqRetryPolicy.DEFAULT);
+    }
+
+    public JdbcBatchPersister(DataSource dataSource, MetricsRegistry metrics, JdbcPostingIndex postingIndex,
+            DlqRetryPolicy dlqRetryPolicy) {
+        this(dataSource, metrics, postingIndex, dlqRetryPolicy, null);
+    }
+
+    /**
+     * С outboxPartitions строки outbox не удаляются: их покрывает водяной знак, а таблицы очищаются целиком
+     */
+    public JdbcBatchPersister(DataSource dataSource, MetricsRegistry metrics, JdbcPostingIndex postingIndex,
+            DlqRetryPolicy dlqRetryPolicy, OutboxPartitions outboxPartitions) {
+        this.postingIndex = postingIndex;
+        this.dlqRetryPolicy = dlqRetryPolicy;
+        this.outboxPartitions = outboxPartitions;
+        this.selectOutboxForDlqSql = outboxPartitions != null
+                ? outboxPartitions.unionAll(SELECT_OUTBOX_FOR_DLQ_SQL)
+                : SELECT_OUTBOX_FOR_DLQ_SQL.replace("%s", "transaction_outbox");
+        this.dialect = SqlDialect.detect(dataSource);
+        this.updateAccountsSql = dialect.setBasedWrites() ? dialect.updateAccountsSql() : UPDATE_ACCOUNT_SQL;
+        this.deleteOutboxSql = dialect.setBasedWrites() ? dialect.deleteOutboxSql() : DELETE_OUTBOX_SQL;
+        List<String> preparedSql = new ArrayList<>(List.of(INSERT_PROCESSED_KEY_SQL, INSERT_JOURNAL_SQL,
+                updateAccountsSql));
+        if (outboxPartitions == null) {
+            preparedSql.add(deleteOutboxSql);
+        }
+        if (postingIndex != null) {
+            preparedSql.addAll(JdbcPostingIndex.PERSISTER_SQL);
+        }
+        this.connection = new PersisterConnection(dataSource, List.copyOf(preparedSql), VALIDATE_AFTER_IDLE_MILLIS,
+                metrics.counter("bank_persister_reconnects_total"));
+        this.commitNanos = metrics.histogram("bank_persister_commit_nanos");
+        this.rollbacks = metrics.counter("bank_persister_rollbacks_total");
+        this.processedKeyRows = metrics.counter("bank_persister_processed_key_rows_total");
+        this.journalRows = metrics.counter("bank_persister_journal_rows_total");
+        this.accountRows = metrics.counter("bank_persister_account_rows_total");
+        this.outboxDeleteRows = metrics.counter("bank_persister_outbox_delete_rows_total");
+        this.dlqRows = metrics.counter("bank_persister_dlq_rows_total");
+        this.postingRows = metrics.counter("bank_persister_posting_rows_total");
+    }
 
-    public JdbcBatchPersister(DataSource dataSource, TransactionTemplate transactionTemplate) {
-        this.jdbcTemplate = new JdbcTemplate(dataSource);
-        this.namedParameterJdbcTemplate = new NamedParameterJdbcTemplate(dataSource);
-        this.transactionTemplate = transactionTemplate;
+    @Override
+    public synchronized void persistBatch(BatchUnitOfWork uow) {
+        long started = System.nanoTime();
+        try {
+            executeBatch(uow);
+        } catch (RuntimeException e) {
+            if (postingIndex != null) {
+                postingIndex.onRollback();
+            }
+            rollbacks.increment();
+            throw e;
+        }
+        if (postingIndex != null) {
+            postingIndex.onCommit();
+        }
+        commitNanos.record(System.nanoTime() - started);
+        processedKeyRows.add(uow.keysToInsert.size());
+        journalRows.add(uow.commandsToJournal.size());
+        accountRows.add(uow.accountsToUpdate.size());
+        if (outboxPartitions == null) {
+            outboxDeleteRows.add(uow.successfulOutboxKeysToRemove.size() + uow.failedOutboxKeysToDlq.size());
+        }
+        dlqRows.add(uow.failedOutboxKeysToDlq.size());
     }
 
+    /**
+     * Закрывает соединение персистера; вызывается после остановки потока персистенции
+     */
     @Override
-    public void persistBatch(BatchUnitOfWork uow) {
-        transactionTemplate.execute(status -> {
+    public synchronized void close() {
+        connection.close();
+    }
+
+    private void executeBatch(BatchUnitOfWork uow) {
+        try {
+            Connection conn = connection.begin();
             try {
                 if (!uow.keysToInsert.isEmpty()) {
-                    jdbcTemplate.batchUpdate(INSERT_PROCESSED_KEY_SQL, uow.keysToInsert, 100, (ps, key) -> {
+                    Timestamp now = Timestamp.from(Instant.now());
+                    PreparedStatement ps = connection.statement(INSERT_PROCESSED_KEY_SQL);
+                    for (UUID key : uow.keysToInsert) {
                         ps.setObject(1, key);
-                        ps.setTimestamp(2, Timestamp.from(Instant.now()));
-                    });
+                        ps.setTimestamp(2, now);
+                        ps.addBatch();
+                    }
+                    ps.executeBatch();
                 }
                 if (!uow.commandsToJournal.isEmpty()) {
-                    jdbcTemplate.batchUpdate(INSERT_JOURNAL_SQL, uow.commandsToJournal, 100, (ps, cmd) -> {
+                    PreparedStatement ps = connection.statement(INSERT_JOURNAL_SQL);
+                    for (TransactionCommand cmd : uow.commandsToJournal) {
                         ps.setObject(1, cmd.getTransactionId());
                         ps.setObject(2, cmd.getIdempotencyKey());
                         ps.setString(3, cmd.getActionType().name());
                         ps.setBigDecimal(4, cmd.getAmount());
                         ps.setObject(5, cmd.getAccountId());
                         ps.setObject(6, cmd.getTargetAccountId());
-                        Instant timestampInstant = Instant.ofEpochMilli(cmd.getTimestamp());
-                        ps.setTimestamp(7, Timestamp.from(timestampInstant));
-                    });
+                        ps.setTimestamp(7, Timestamp.from(Instant.ofEpochMilli(cmd.getTimestamp())));
+                        ps.addBatch();
+                    }
+                    ps.executeBatch();
+                    if (postingIndex != null) {
+                        postingRows.add(postingIndex.append(uow.commandsToJournal, connection));
+                    }
                 }
                 if (!uow.accountsToUpdate.isEmpty()) {
-                    jdbcTemplate.batchUpdate(UPDATE_ACCOUNT_SQL, new ArrayList<>(uow.accountsToUpdate.values()), 100,
-                            (ps, account) -> {
-                                ps.setBigDecimal(1, account.getBalance());
-                                ps.setString(2, account.getStatus().name());
-                                ps.setObject(3, account.getId());
-                            });
+                    updateAccounts(conn, uow.accountsToUpdate.values());
                 }
-                if (!uow.successfulOutboxKeysToRemove.isEmpty()) {
-                    jdbcTemplate.batchUpdate(DELETE_OUTBOX_SQL, uow.successfulOutboxKeysToRemove, 100,
-                            (PreparedStatement ps, UUID key) -> ps.setObject(1, key));
+                if (!uow.successfulOutboxKeysToRemove.isEmpty() && outboxPartitions == null) {
+                    deleteOutbox(conn, uow.successfulOutboxKeysToRemove);
                 }
 
                 if (!uow.failedOutboxKeysToDlq.isEmpty()) {
-                    MapSqlParameterSource parameters = new MapSqlParameterSource();
-                    parameters.addValue("keys", uow.failedOutboxKeysToDlq.keySet());
-
-                    List<DlqTransferObject> itemsToMove = namedParameterJdbcTemplate.query(
-                            SELECT_OUTBOX_FOR_DLQ_SQL_IN,
-                            parameters,
-                            (rs, rowNum) -> new DlqTransferObject(
-                                    rs.getObject("transaction_id", UUID.class),
-                                    rs.getString("payload"),
-                                    uow.failedOutboxKeysToDlq.get(rs.getObject("idempotency_key", UUID.class))));
-
-                    if (!itemsToMove.isEmpty()) {
-                        jdbcTemplate.batchUpdate(INSERT_DLQ_SQL, itemsToMove, 100,
-                                (ps, item) -> {
-                                    ps.setObject(1, item.transactionId);
-                                    ps.setString(2, item.payload);
-                                    ps.setString(3, item.reason);
-                                    ps.setTimestamp(4, Timestamp.from(Instant.now()));
-                                });
+                    moveToDlq(conn, uow.failedOutboxKeysToDlq);
+                    if (outboxPartitions == null) {
+                        deleteOutbox(conn, uow.failedOutboxKeysToDlq.keySet());
                     }
+                }
+                connection.commit();
+            } catch (SQLException | RuntimeException e) {
+                connection.rollback();
+                throw e;
+            }
+        } catch (SQLException | RuntimeException e) {
+            throw new DataAccessException("Failed to persist batch unit of work", e);
+        }
+    }
+
+    private void updateAccounts(Connection conn, Collection<Account> accounts) throws SQLException {
+        PreparedStatement ps = connection.statement(updateAccountsSql);
+        if (!dialect.setBasedWrites()) {
+            for (Account account : accounts) {
+                ps.setBigDecimal(1, account.getBalance());
+                ps.setString(2, account.getStatus().name());
+                ps.setObject(3, account.getId());
+                ps.addBatch();
+            }
+            ps.executeBatch();
+            return;
+        }
+        Object[] ids = new Object[accounts.size()];
+        Object[] balances = new Object[accounts.size()];
+        Object[] statuses = new Object[accounts.size()];
+        int i = 0;
+        for (Account account : accounts) {
+            ids[i] = account.getId();
+            balances[i] = account.getBalance();
+            statuses[i++] = account.getStatus().name();
+        }
+        ps.setArray(1, conn.createArrayOf("uuid", ids));
+        ps.setArray(2, conn.createArrayOf("numeric", balances));
+        ps.setArray(3, conn.createArrayOf("varchar", statuses));
+        ps.executeUpdate();
+    }
 
-                    jdbcTemplate.batchUpdate(DELETE_OUTBOX_SQL, uow.failedOutboxKeysToDlq.keySet(), 100,
-                            (PreparedStatement ps, UUID key) -> ps.setObject(1, key));
+    private void deleteOutbox(Connection conn, Collection<UUID> keys) throws SQLException {
+        PreparedStatement ps = connection.statement(deleteOutboxSql);
+        if (!dialect.setBasedWrites()) {
+            for (UUID key : keys) {
+                ps.setObject(1, key);
+                ps.addBatch();
+            }
+            ps.executeBatch();
+            return;
+        }
+        ps.setArray(1, conn.createArrayOf("uuid", keys.toArray()));
+        ps.executeUpdate();
+    }
+
+    private void moveToDlq(Connection conn, Map<UUID, FailureReason> failed) throws SQLException {
+        Array keys = conn.createArrayOf("uuid", failed.keySet().toArray());
+        PreparedStatement select = connection.statement(selectOutboxForDlqSql);
+        int parts = outboxPartitions != null ? outboxPartitions.slots() : 1;
+        for (int i = 1; i <= parts; i++) {
+            select.setArray(i, keys);
+        }
+        List<DlqTransferObject> itemsToMove = new ArrayList<>();
+        try (ResultSet rs = select.executeQuery()) {
+            while (rs.next()) {
+                UUID key = rs.getObject("idempotency_key", UUID.class);
+                itemsToMove.add(new DlqTransferObject(rs.getObject("transaction_id", UUID.class), key,
+                        rs.getString("payload"), failed.get(key), rs.getInt("attempts")));
+            }
+        }
+        if (outboxPartitions != null) {
+            itemsToMove = newDlqItems(conn, itemsToMove);
+        }
+        if (itemsToMove.isEmpty()) {
+            return;
+        }
+        Instant movedAt = Instant.now();
+        PreparedStatement insert = connection.statement(INSERT_DLQ_SQL);
+        for (DlqTransferObject item : itemsToMove) {
+            insert.setObject(1, item.transactionId);
+            insert.setObject(2, item.idempotencyKey);
+            insert.setString(3, item.payload);
+            insert.setString(4, item.reason.message());
+            insert.setString(5, item.reason.errorType());
+            insert.setBoolean(6, dlqRetryPolicy.retryable(item.reason.retryable(), item.attempts));
+            insert.setInt(7, item.attempts);
+            insert.setTimestamp(8, Timestamp.from(dlqRetryPolicy.nextAttemptAt(movedAt, item.attempts)));
+            insert.setTimestamp(9, Timestamp.from(movedAt));
+            insert.addBatch();
+        }
+        insert.executeBatch();
+    }
+
+    /**
+     * В таблицах-разделах у повторенной команды рядом лежит и прежняя строка, а после рестарта выше водяного
+     * знака приходят команды, отказ которых уже в DLQ: берется последняя попытка, уже записанные пропускаются
+     */
+    private List<DlqTransferObject> newDlqItems(Connection conn, List<DlqTransferObject> items) throws SQLException {
+        Map<UUID, DlqTransferObject> latest = new LinkedHashMap<>();
+        for (DlqTransferObject item : items) {
+            latest.merge(item.transactionId, item, (a, b) -> a.attempts >= b.attempts ? a : b);
+        }
+        if (!latest.isEmpty()) {
+            PreparedStatement existing = connection.statement(SELECT_EXISTING_DLQ_SQL);
+            existing.setArray(1, conn.createArrayOf("uuid", latest.keySet().toArray()));
+            try (ResultSet rs = existing.executeQuery()) {
+                while (rs.next()) {
+                    latest.remove(rs.getObject(1, UUID.class));
                 }
-            } catch (Exception e) {
-                status.setRollbackOnly();
-                throw new DataAccessException("Failed to persist batch unit of work", e);
             }
-            return null;
-        });
+        }
+        return new ArrayList<>(latest.values());
     }
 
     private static class DlqTransferObject {
         final UUID transactionId;
+        final UUID idempotencyKey;
         final String payload;
-        final String reason;
+        final FailureReason reason;
+        final int attempts;
 
-        DlqTransferObject(UUID transactionId, String payload, String reason) {
+        DlqTransferObject(UUID transactionId, UUID idempotencyKey, String payload, FailureReason reason,
+                int attempts) {
             this.transactionId = transactionId;
+            this.idempotencyKey = idempotencyKey;
             this.payload = payload;
             this.reason = reason;
+            this.attempts = attempts;
         }
     }
 }
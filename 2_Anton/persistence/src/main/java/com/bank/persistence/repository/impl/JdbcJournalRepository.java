@@ -2,6 +2,7 @@ package com.bank.persistence.repository.impl;
 
 import com.bank.core.command.TransactionCommand;
 import com.bank.core.port.out.JournalingService;
+import com.bank.persistence.archive.ArchivedJournalEntry;
 import com.bank.persistence.exception.DataAccessException;
 import com.bank.core.command.ActionType;
 import java.util.ArrayList;
@@ -16,12 +17,14 @@ import java.math.BigDecimal;
 import java.sql.ResultSet;
 import java.sql.Statement;
 import java.util.UUID;
+import java.util.function.Consumer;
 
 /**
  * JournalRepository для регестрации команд транзакции в БД
  */
 
 public final class JdbcJournalRepository implements JournalingService {
+    private static final int FETCH_SIZE = 4096;
 
     private final DataSource dataSource;
 
@@ -54,12 +57,90 @@ public final class JdbcJournalRepository implements JournalingService {
     }
 
     public List<TransactionCommand> loadAllJournalEntries() {
-        final String SQL = "SELECT * FROM \"transaction_journal\" ORDER BY \"timestamp\" ASC";
+        return load("SELECT * FROM \"transaction_journal\" ORDER BY \"timestamp\" ASC");
+    }
+
+    /**
+     * Журнал в порядке записи (sequence_id), то есть в порядке выполнения движком
+     */
+    public List<TransactionCommand> loadJournalInCommitOrder() {
+        return load("SELECT * FROM \"transaction_journal\" ORDER BY \"sequence_id\" ASC");
+    }
+
+    /**
+     * Команды с sequence_id больше заданного в порядке записи: хвост журнала, которого еще нет у реплики
+     */
+    public List<TransactionCommand> loadJournalAfter(long sequenceId) {
+        return load("SELECT * FROM \"transaction_journal\" WHERE \"sequence_id\" > " + sequenceId
+                + " ORDER BY \"sequence_id\" ASC");
+    }
+
+    /**
+     * sequence_id записи с этим ключом идемпотентности или -1, если ее нет
+     */
+    public long sequenceIdOf(UUID idempotencyKey) {
+        return queryLong("SELECT \"sequence_id\" FROM \"transaction_journal\" WHERE \"idempotency_key\" = ?",
+                idempotencyKey);
+    }
+
+    /**
+     * Наибольший sequence_id журнала или -1 для пустого журнала
+     */
+    public long lastSequenceId() {
+        return queryLong("SELECT MAX(\"sequence_id\") FROM \"transaction_journal\"", null);
+    }
+
+    /**
+     * Строки журнала с from <= timestamp < to в порядке sequence_id, потоком через курсор
+     */
+    public void forEachEntry(Instant from, Instant to, Consumer<? super ArchivedJournalEntry> sink) {
+        final String sql = "SELECT * FROM \"transaction_journal\" WHERE \"timestamp\" >= ? AND \"timestamp\" < ? ORDER BY \"sequence_id\" ASC";
+
+        try (Connection conn = dataSource.getConnection()) {
+            boolean autoCommit = conn.getAutoCommit();
+            conn.setAutoCommit(false);
+            try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+                stmt.setTimestamp(1, Timestamp.from(from));
+                stmt.setTimestamp(2, Timestamp.from(to));
+                stmt.setFetchSize(FETCH_SIZE);
+                try (ResultSet rs = stmt.executeQuery()) {
+                    while (rs.next()) {
+                        sink.accept(ArchivedJournalEntry.fromRow(rs));
+                    }
+                }
+            } finally {
+                conn.rollback();
+                conn.setAutoCommit(autoCommit);
+            }
+        } catch (SQLException e) {
+            throw new DataAccessException("Failed to stream transaction journal", e);
+        }
+    }
+
+    private long queryLong(String sql, UUID parameter) {
+        try (Connection conn = dataSource.getConnection();
+                PreparedStatement stmt = conn.prepareStatement(sql)) {
+            if (parameter != null) {
+                stmt.setObject(1, parameter);
+            }
+            try (ResultSet rs = stmt.executeQuery()) {
+                if (!rs.next()) {
+                    return -1;
+                }
+                long value = rs.getLong(1);
+                return rs.wasNull() ? -1 : value;
+            }
+        } catch (SQLException e) {
+            throw new DataAccessException("Failed to read transaction journal position", e);
+        }
+    }
+
+    private List<TransactionCommand> load(String sql) {
         List<TransactionCommand> commands = new ArrayList<>();
 
         try (Connection conn = dataSource.getConnection();
                 Statement stmt = conn.createStatement();
-                ResultSet rs = stmt.executeQuery(SQL)) {
+                ResultSet rs = stmt.executeQuery(sql)) {
 
             while (rs.next()) {
                 UUID transactionId = rs.getObject("transaction_id", UUID.class);
@@ -0,0 +1,214 @@
+package com.bank.persistence.repository.impl;
+
+import com.bank.core.command.ActionType;
+import com.bank.core.command.TransactionCommand;
+import com.bank.persistence.exception.DataAccessException;
+import com.bank.persistence.repository.StatementRepository;
+import com.bank.persistence.statement.StatementLine;
+import com.bank.persistence.statement.StatementPage;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Индекс проводок по счетам для выписок: account_postings с ключом (account_id, posting_no),
+ * posting_no растет на единицу внутри счета, поэтому страница выписки — диапазон по первичному ключу.
+ * Пишется из JdbcBatchPersister в транзакции батча, баланс после проводки считается здесь же:
+ * последний номер и баланс счета кешируются, при первом обращении берутся из последней проводки
+ * или из accounts (она еще не обновлена этим батчем). Кеш ограничен maxCachedHeads счетами (LRU):
+ * вытесненный счет при следующей проводке снова читается из БД. Кеш трогает только поток персистенции
+ */
+
+public final class JdbcPostingIndex implements StatementRepository {
+    public static final int MAX_PAGE_SIZE = 1000;
+    public static final int DEFAULT_MAX_CACHED_HEADS = 100_000;
+
+    private static final String INSERT_POSTING_SQL = "INSERT INTO \"account_postings\" (\"account_id\", \"posting_no\", \"transaction_id\", \"command_type\", \"counterparty_id\", \"amount\", \"balance_after\", \"posted_at\") VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+    private static final String SELECT_LAST_POSTING_SQL = "SELECT \"posting_no\", \"balance_after\" FROM \"account_postings\" WHERE \"account_id\" = ? ORDER BY \"posting_no\" DESC LIMIT 1";
+    private static final String SELECT_BALANCE_SQL = "SELECT \"balance\" FROM \"accounts\" WHERE \"id\" = ?";
+    private static final String SELECT_PAGE_SQL = "SELECT * FROM \"account_postings\" WHERE \"account_id\" = ? AND \"posting_no\" < ? ORDER BY \"posting_no\" DESC LIMIT ?";
+
+    /**
+     * Запросы append на соединении персистера, готовятся при его открытии
+     */
+    static final List<String> PERSISTER_SQL = List.of(INSERT_POSTING_SQL, SELECT_LAST_POSTING_SQL, SELECT_BALANCE_SQL);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final Map<UUID, Head> heads;
+    private final Map<UUID, Head> pending = new HashMap<>();
+
+    public JdbcPostingIndex(DataSource dataSource) {
+        this(dataSource, DEFAULT_MAX_CACHED_HEADS);
+    }
+
+    public JdbcPostingIndex(DataSource dataSource, int maxCachedHeads) {
+        if (maxCachedHeads <= 0) {
+            throw new IllegalArgumentException("maxCachedHeads must be positive: " + maxCachedHeads);
+        }
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.heads = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<UUID, Head> eldest) {
+                return size() > maxCachedHeads;
+            }
+        };
+    }
+
+    /**
+     * Проводки по командам батча в порядке их выполнения; вызывается внутри транзакции батча до UPDATE accounts
+     */
+    public int append(List<TransactionCommand> commands) {
+        List<Posting> postings;
+        try {
+            postings = postings(commands, this::loadHead);
+        } catch (SQLException e) {
+            throw new DataAccessException("Failed to load posting heads", e);
+        }
+        jdbcTemplate.batchUpdate(INSERT_POSTING_SQL, postings, 100, JdbcPostingIndex::bind);
+        return postings.size();
+    }
+
+    /**
+     * То же на соединении персистера его подготовленными запросами
+     */
+    int append(List<TransactionCommand> commands, PersisterConnection connection) throws SQLException {
+        List<Posting> postings = postings(commands, accountId -> loadHead(connection, accountId));
+        PreparedStatement insert = connection.statement(INSERT_POSTING_SQL);
+        for (Posting posting : postings) {
+            bind(insert, posting);
+            insert.addBatch();
+        }
+        insert.executeBatch();
+        return postings.size();
+    }
+
+    public void onCommit() {
+        heads.putAll(pending);
+        pending.clear();
+    }
+
+    public void onRollback() {
+        pending.clear();
+    }
+
+    int cachedHeads() {
+        return heads.size();
+    }
+
+    @Override
+    public StatementPage findStatement(UUID accountId, Long beforePosting, int limit) {
+        if (limit <= 0 || limit > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("limit must be in 1.." + MAX_PAGE_SIZE + ": " + limit);
+        }
+        try {
+            List<StatementLine> lines = jdbcTemplate.query(SELECT_PAGE_SQL, (rs, rowNum) -> new StatementLine(
+                    rs.getLong("posting_no"),
+                    rs.getObject("transaction_id", UUID.class),
+                    ActionType.valueOf(rs.getString("command_type")),
+                    rs.getObject("counterparty_id", UUID.class),
+                    rs.getBigDecimal("amount"),
+                    rs.getBigDecimal("balance_after"),
+                    rs.getTimestamp("posted_at").toInstant()),
+                    accountId, beforePosting != null ? beforePosting : Long.MAX_VALUE, limit + 1);
+            Long next = null;
+            if (lines.size() > limit) {
+                lines = lines.subList(0, limit);
+                next = lines.get(limit - 1).postingNo();
+            }
+            return new StatementPage(accountId, List.copyOf(lines), next);
+        } catch (RuntimeException e) {
+            throw new DataAccessException("Failed to load statement for account " + accountId, e);
+        }
+    }
+
+    private List<Posting> postings(List<TransactionCommand> commands, HeadLoader loader) throws SQLException {
+        pending.clear();
+        List<Posting> postings = new ArrayList<>(commands.size() + commands.size() / 2);
+        for (TransactionCommand command : commands) {
+            BigDecimal amount = command.getAmount();
+            switch (command.getActionType()) {
+                case DEPOSIT -> postings.add(post(command, command.getAccountId(), null, amount, loader));
+                case WITHDRAW -> postings.add(post(command, command.getAccountId(), null, amount.negate(), loader));
+                case TRANSFER -> {
+                    postings.add(post(command, command.getAccountId(), command.getTargetAccountId(), amount.negate(),
+                            loader));
+                    postings.add(post(command, command.getTargetAccountId(), command.getAccountId(), amount, loader));
+                }
+                default -> postings.add(post(command, command.getAccountId(), null, BigDecimal.ZERO, loader));
+            }
+        }
+        return postings;
+    }
+
+    private Posting post(TransactionCommand command, UUID accountId, UUID counterpartyId, BigDecimal amount,
+            HeadLoader loader) throws SQLException {
+        Head head = pending.get(accountId);
+        if (head == null) {
+            head = heads.get(accountId);
+        }
+        if (head == null) {
+            head = loader.load(accountId);
+        }
+        Head next = new Head(head.postingNo() + 1, head.balance().add(amount));
+        pending.put(accountId, next);
+        return new Posting(command, accountId, counterpartyId, next.postingNo(), amount, next.balance());
+    }
+
+    private Head loadHead(UUID accountId) {
+        List<Head> last = jdbcTemplate.query(SELECT_LAST_POSTING_SQL,
+                (rs, rowNum) -> new Head(rs.getLong(1), rs.getBigDecimal(2)), accountId);
+        if (!last.isEmpty()) {
+            return last.get(0);
+        }
+        List<BigDecimal> balance = jdbcTemplate.queryForList(SELECT_BALANCE_SQL, BigDecimal.class, accountId);
+        return new Head(0, balance.isEmpty() ? BigDecimal.ZERO : balance.get(0));
+    }
+
+    private static Head loadHead(PersisterConnection connection, UUID accountId) throws SQLException {
+        PreparedStatement last = connection.statement(SELECT_LAST_POSTING_SQL);
+        last.setObject(1, accountId);
+        try (ResultSet rs = last.executeQuery()) {
+            if (rs.next()) {
+                return new Head(rs.getLong(1), rs.getBigDecimal(2));
+            }
+        }
+        PreparedStatement balance = connection.statement(SELECT_BALANCE_SQL);
+        balance.setObject(1, accountId);
+        try (ResultSet rs = balance.executeQuery()) {
+            return new Head(0, rs.next() ? rs.getBigDecimal(1) : BigDecimal.ZERO);
+        }
+    }
+
+    private static void bind(PreparedStatement ps, Posting posting) throws SQLException {
+        ps.setObject(1, posting.accountId());
+        ps.setLong(2, posting.postingNo());
+        ps.setObject(3, posting.command().getTransactionId());
+        ps.setString(4, posting.command().getActionType().name());
+        ps.setObject(5, posting.counterpartyId());
+        ps.setBigDecimal(6, posting.amount());
+        ps.setBigDecimal(7, posting.balanceAfter());
+        ps.setTimestamp(8, new Timestamp(posting.command().getTimestamp()));
+    }
+
+    private interface HeadLoader {
+        Head load(UUID accountId) throws SQLException;
+    }
+
+    private record Head(long postingNo, BigDecimal balance) {
+    }
+
+    private record Posting(TransactionCommand command, UUID accountId, UUID counterpartyId, long postingNo,
+            BigDecimal amount, BigDecimal balanceAfter) {
+    }
+}
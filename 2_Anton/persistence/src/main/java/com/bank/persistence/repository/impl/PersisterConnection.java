@@ -0,0 +1,150 @@
+package com.bank.persistence.repository.impl;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Собственное соединение потока персистенции: берется из пула один раз и держится, пока живо, запросы
+ * готовятся при открытии и переиспользуются между батчами, так что на батч остаются только execute и commit.
+ * После простоя дольше validateAfter соединение проверяется через isValid; после ошибки, которую не удалось
+ * откатить, или проваленной проверки оно закрывается и открывается заново при следующем батче.
+ * Используется только потоком персистенции
+ */
+final class PersisterConnection implements AutoCloseable {
+    private static final Logger log = LoggerFactory.getLogger(PersisterConnection.class);
+    private static final int VALIDATION_TIMEOUT_SECONDS = 2;
+
+    private final DataSource dataSource;
+    private final List<String> preparedSql;
+    private final long validateAfterNanos;
+    private final LongAdder reconnects;
+    private final Map<String, PreparedStatement> statements = new HashMap<>();
+    private Connection connection;
+    private long lastUsedNanos;
+
+    PersisterConnection(DataSource dataSource, List<String> preparedSql, long validateAfterMillis,
+            LongAdder reconnects) {
+        this.dataSource = dataSource;
+        this.preparedSql = preparedSql;
+        this.validateAfterNanos = TimeUnit.MILLISECONDS.toNanos(validateAfterMillis);
+        this.reconnects = reconnects;
+    }
+
+    /**
+     * Соединение для следующего батча, при необходимости проверенное или открытое заново; autoCommit выключен
+     */
+    Connection begin() throws SQLException {
+        long now = System.nanoTime();
+        if (connection != null && now - lastUsedNanos > validateAfterNanos && !isValid()) {
+            log.warn("Persister connection failed health check after {} ms idle, reconnecting",
+                    TimeUnit.NANOSECONDS.toMillis(now - lastUsedNanos));
+            discard();
+        }
+        if (connection == null) {
+            open();
+        }
+        lastUsedNanos = now;
+        return connection;
+    }
+
+    /**
+     * Подготовленный запрос на текущем соединении; запросы, не подготовленные при открытии, кешируются
+     * при первом использовании
+     */
+    PreparedStatement statement(String sql) throws SQLException {
+        PreparedStatement statement = statements.get(sql);
+        if (statement == null) {
+            statement = connection.prepareStatement(sql);
+            statements.put(sql, statement);
+        }
+        return statement;
+    }
+
+    void commit() throws SQLException {
+        connection.commit();
+    }
+
+    /**
+     * Откатывает батч и очищает накопленные addBatch в кешированных запросах, иначе они уйдут со следующим
+     * батчем; если откат или очистка не прошли или соединение больше не живо, закрывает его
+     */
+    void rollback() {
+        if (connection == null) {
+            return;
+        }
+        try {
+            connection.rollback();
+            for (PreparedStatement statement : statements.values()) {
+                statement.clearBatch();
+            }
+            if (isValid()) {
+                return;
+            }
+        } catch (SQLException e) {
+            log.warn("Persister rollback failed, dropping connection", e);
+        }
+        discard();
+    }
+
+    boolean isOpen() {
+        return connection != null;
+    }
+
+    @Override
+    public void close() {
+        discard();
+    }
+
+    private void open() throws SQLException {
+        if (lastUsedNanos != 0) {
+            reconnects.increment();
+        }
+        connection = dataSource.getConnection();
+        try {
+            connection.setAutoCommit(false);
+            for (String sql : preparedSql) {
+                statements.put(sql, connection.prepareStatement(sql));
+            }
+        } catch (SQLException e) {
+            discard();
+            throw e;
+        }
+    }
+
+    private boolean isValid() {
+        try {
+            return connection.isValid(VALIDATION_TIMEOUT_SECONDS);
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    private void discard() {
+        for (PreparedStatement statement : statements.values()) {
+            try {
+                statement.close();
+            } catch (SQLException ignored) {
+                // соединение все равно закрывается
+            }
+        }
+        statements.clear();
+        if (connection != null) {
+            try {
+                connection.close();
+            } catch (SQLException e) {
+                log.debug("Failed to close persister connection", e);
+            }
+            connection = null;
+        }
+    }
+}
@@ -0,0 +1,14 @@
+package com.bank.persistence.statement;
+
+import com.bank.core.command.ActionType;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Строка выписки: изменение баланса со знаком и баланс после него
+ */
+public record StatementLine(long postingNo, UUID transactionId, ActionType actionType, UUID counterpartyId,
+        BigDecimal amount, BigDecimal balanceAfter, Instant postedAt) {
+}
@@ -0,0 +1,14 @@
+package com.bank.persistence.statement;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Страница выписки от новых к старым; nextCursor передается в следующий запрос, null если страниц больше нет
+ */
+public record StatementPage(UUID accountId, List<StatementLine> lines, Long nextCursor) {
+
+    public boolean hasMore() {
+        return nextCursor != null;
+    }
+}
@@ -0,0 +1,181 @@
+package com.bank.persistence.archive;
+
+import com.bank.core.command.ActionType;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class JournalArchiverTest {
+
+    private static final Instant NOW = Instant.parse("2026-03-10T12:00:00Z");
+    private static final Instant HORIZON = NOW.minus(Duration.ofDays(1));
+
+    private EmbeddedDatabase dataSource;
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeAll
+    void setupDatabase() {
+        this.dataSource = new EmbeddedDatabaseBuilder()
+                .setType(EmbeddedDatabaseType.H2)
+                .setName("archivedb_test;MODE=PostgreSQL;DATABASE_TO_UPPER=false")
+                .addScript("classpath:schema.sql")
+                .build();
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+    }
+
+    @AfterAll
+    void shutdownDatabase() {
+        if (this.dataSource != null) {
+            this.dataSource.shutdown();
+        }
+    }
+
+    @BeforeEach
+    void cleanTables() {
+        jdbcTemplate.execute("TRUNCATE TABLE \"transaction_journal\"");
+        jdbcTemplate.execute("TRUNCATE TABLE \"processed_transactions\"");
+        jdbcTemplate.execute("TRUNCATE TABLE \"account_postings\"");
+    }
+
+    @Test
+    void should_archive_old_postings_but_keep_latest_posting_of_each_account(@TempDir Path archiveDir) {
+        UUID busy = UUID.randomUUID();
+        UUID quiet = UUID.randomUUID();
+        for (int i = 1; i <= 5; i++) {
+            insertPosting(busy, i, NOW.minus(Duration.ofDays(3)).plusSeconds(i), new BigDecimal(i * 10));
+        }
+        insertPosting(busy, 6, NOW.minusSeconds(60), new BigDecimal("60"));
+        insertPosting(quiet, 1, NOW.minus(Duration.ofDays(5)), new BigDecimal("7"));
+        insertPosting(quiet, 2, NOW.minus(Duration.ofDays(4)), new BigDecimal("8"));
+
+        JournalArchiver.ArchiveStats stats = new JournalArchiver(dataSource, archiveDir, Duration.ofDays(1))
+                .archiveOlderThan(HORIZON);
+
+        assertThat(stats.postings()).isEqualTo(6);
+        assertThat(jdbcTemplate.queryForList("SELECT \"posting_no\" FROM \"account_postings\" WHERE \"account_id\" = ?",
+                Long.class, busy)).containsExactly(6L);
+        assertThat(jdbcTemplate.queryForList("SELECT \"posting_no\" FROM \"account_postings\" WHERE \"account_id\" = ?",
+                Long.class, quiet)).containsExactly(2L);
+
+        List<ArchivedPosting> archived = new JournalArchive(archiveDir).postings(busy, Instant.EPOCH, NOW);
+        assertThat(archived).extracting(ArchivedPosting::postingNo).containsExactly(1L, 2L, 3L, 4L, 5L);
+        assertThat(archived.get(2).toStatementLine().balanceAfter()).isEqualByComparingTo("30");
+    }
+
+    @Test
+    void should_move_rows_older_than_horizon_to_archive_and_keep_hot_window(@TempDir Path archiveDir) {
+        UUID account = UUID.randomUUID();
+        UUID other = UUID.randomUUID();
+        List<UUID> oldKeys = new ArrayList<>();
+        for (int i = 0; i < 5000; i++) {
+            Instant at = NOW.minus(Duration.ofDays(3)).plusSeconds(i * 30L);
+            oldKeys.add(insertJournal(at, account, i % 2 == 0 ? other : null, new BigDecimal(i + ".25")));
+            insertProcessed(oldKeys.get(i), at);
+        }
+        UUID hotKey = insertJournal(NOW.minusSeconds(60), account, null, BigDecimal.ONE);
+        insertProcessed(hotKey, NOW.minusSeconds(60));
+
+        JournalArchiver archiver = new JournalArchiver(dataSource, archiveDir, Duration.ofDays(1));
+        JournalArchiver.ArchiveStats stats = archiver.archiveOlderThan(HORIZON);
+
+        assertThat(stats.journalRows()).isEqualTo(5000);
+        assertThat(stats.processedKeys()).isEqualTo(5000);
+        assertThat(count("transaction_journal")).isEqualTo(1);
+        assertThat(count("processed_transactions")).isEqualTo(1);
+        assertThat(Files.isDirectory(archiveDir.resolve("journal/2026/03/07"))).isTrue();
+        assertThat(Files.isDirectory(archiveDir.resolve("journal/2026/03/09"))).isTrue();
+
+        JournalArchive archive = new JournalArchive(archiveDir);
+        List<ArchivedJournalEntry> all = archive.query(Instant.EPOCH, NOW, null);
+        assertThat(all).hasSize(5000);
+        assertThat(all).extracting(ArchivedJournalEntry::idempotencyKey).containsExactlyElementsOf(oldKeys);
+        assertThat(all.get(7).amount()).isEqualByComparingTo("7.25");
+        assertThat(all.get(7).targetAccountId()).isNull();
+        assertThat(all.get(8).targetAccountId()).isEqualTo(other);
+        assertThat(all.get(8).toCommand().getActionType()).isEqualTo(ActionType.TRANSFER);
+
+        Instant from = NOW.minus(Duration.ofDays(3)).plusSeconds(100 * 30L);
+        assertThat(archive.query(from, from.plusSeconds(5 * 60L), other))
+                .extracting(ArchivedJournalEntry::idempotencyKey)
+                .containsExactly(oldKeys.get(100), oldKeys.get(102), oldKeys.get(104), oldKeys.get(106),
+                        oldKeys.get(108));
+        assertThat(archive.query(NOW.minus(Duration.ofDays(30)), NOW.minus(Duration.ofDays(10)), null)).isEmpty();
+
+        assertThat(archive.containsProcessedKey(oldKeys.get(4321))).isTrue();
+        assertThat(archive.containsProcessedKey(hotKey)).isFalse();
+        assertThat(archive.getWatermark()).isPositive();
+    }
+
+    @Test
+    void should_finish_interrupted_run_without_losing_or_duplicating_rows(@TempDir Path archiveDir) throws IOException {
+        UUID account = UUID.randomUUID();
+        for (int i = 0; i < 10; i++) {
+            insertJournal(NOW.minus(Duration.ofDays(2)).plusSeconds(i), account, null, BigDecimal.TEN);
+        }
+        JournalArchiver archiver = new JournalArchiver(dataSource, archiveDir, Duration.ofDays(1));
+        archiver.archiveOlderThan(HORIZON);
+        long watermark = new JournalArchive(archiveDir).getWatermark();
+
+        // падение между записью watermark и DELETE: строка уже в архиве, но еще в БД
+        jdbcTemplate.update("INSERT INTO \"transaction_journal\" (\"sequence_id\", \"idempotency_key\", \"transaction_id\", "
+                + "\"timestamp\", \"command_type\", \"account_id_from\", \"amount\") VALUES (?, ?, ?, ?, 'DEPOSIT', ?, 1)",
+                watermark, UUID.randomUUID(), UUID.randomUUID(), Timestamp.from(NOW.minus(Duration.ofDays(2))), account);
+        // падение до записи watermark: сегмент после watermark и недописанный .tmp
+        Path day = archiveDir.resolve("journal/2026/03/08");
+        Files.write(day.resolve(JournalArchive.journalSegmentName(watermark + 1, watermark + 5)), new byte[] { 1 });
+        Files.write(day.resolve("journal-99.seg.tmp"), new byte[] { 1 });
+
+        for (int i = 0; i < 3; i++) {
+            insertJournal(NOW.minus(Duration.ofDays(2)).plusSeconds(100 + i), account, null, BigDecimal.ONE);
+        }
+        JournalArchiver.ArchiveStats stats = archiver.archiveOlderThan(HORIZON);
+
+        assertThat(stats.journalRows()).isEqualTo(3);
+        assertThat(count("transaction_journal")).isZero();
+        assertThat(new JournalArchive(archiveDir).query(Instant.EPOCH, NOW, account)).hasSize(13);
+        try (Stream<Path> files = Files.list(day)) {
+            assertThat(files.filter(f -> f.toString().endsWith(".tmp"))).isEmpty();
+        }
+    }
+
+    private void insertPosting(UUID account, long postingNo, Instant at, BigDecimal balanceAfter) {
+        jdbcTemplate.update("INSERT INTO \"account_postings\" (\"account_id\", \"posting_no\", \"transaction_id\", "
+                + "\"command_type\", \"amount\", \"balance_after\", \"posted_at\") VALUES (?, ?, ?, 'DEPOSIT', 10, ?, ?)",
+                account, postingNo, UUID.randomUUID(), balanceAfter, Timestamp.from(at));
+    }
+
+    private UUID insertJournal(Instant at, UUID from, UUID to, BigDecimal amount) {
+        UUID key = UUID.randomUUID();
+        jdbcTemplate.update("INSERT INTO \"transaction_journal\" (\"idempotency_key\", \"transaction_id\", \"timestamp\", "
+                + "\"command_type\", \"account_id_from\", \"account_id_to\", \"amount\") VALUES (?, ?, ?, ?, ?, ?, ?)",
+                key, UUID.randomUUID(), Timestamp.from(at), to != null ? "TRANSFER" : "DEPOSIT", from, to, amount);
+        return key;
+    }
+
+    private void insertProcessed(UUID key, Instant at) {
+        jdbcTemplate.update("INSERT INTO \"processed_transactions\" (\"idempotency_key\", \"processed_at\") VALUES (?, ?)",
+                key, Timestamp.from(at));
+    }
+
+    private long count(String table) {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM \"" + table + "\"", Long.class);
+    }
+}
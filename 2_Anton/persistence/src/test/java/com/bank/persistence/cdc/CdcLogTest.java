@@ -0,0 +1,103 @@
+package com.bank.persistence.cdc;
+
+import com.bank.domain.AccountStatus;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CdcLogTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void should_showOnlyPublishedRecordsAndResumeReaderFromCommittedOffset() throws Exception {
+        UUID transactionId = UUID.randomUUID();
+        UUID accountId = UUID.randomUUID();
+        CdcLogWriter writer = new CdcLogWriter(dir, 4, 8);
+        CdcLogReader reader = new CdcLogReader(dir, "fraud");
+
+        writer.append(transactionId, accountId, new BigDecimal("10.50"), AccountStatus.ACTIVE);
+        assertThat(reader.poll(record -> { }, 100)).isZero();
+
+        writer.publish();
+        List<String> read = new ArrayList<>();
+        assertThat(reader.poll(record -> read.add(record.position() + " " + record.transactionId() + " "
+                + record.accountId() + " " + record.balance() + " " + record.status()), 100)).isOne();
+        assertThat(read).containsExactly("0 " + transactionId + " " + accountId + " 10.50 ACTIVE");
+
+        for (int i = 0; i < 9; i++) {
+            writer.append(transactionId, accountId, BigDecimal.valueOf(i), AccountStatus.FROZEN);
+        }
+        writer.publish();
+        assertThat(reader.lag()).isEqualTo(9);
+        assertThat(reader.poll(record -> { }, 5)).isEqualTo(5);
+        reader.commit();
+
+        List<Long> positions = new ArrayList<>();
+        CdcLogReader restarted = new CdcLogReader(dir, "fraud");
+        assertThat(restarted.poll(record -> positions.add(record.position()), 100)).isEqualTo(4);
+        assertThat(positions).containsExactly(6L, 7L, 8L, 9L);
+        assertThat(new CdcLogReader(dir, "analytics").poll(record -> { }, 100)).isEqualTo(10);
+        writer.close();
+    }
+
+    @Test
+    void should_continueAfterWriterRestartAndDropUnpublishedTail() throws Exception {
+        CdcLogWriter writer = new CdcLogWriter(dir, 4, 8);
+        for (int i = 0; i < 6; i++) {
+            writer.append(UUID.randomUUID(), UUID.randomUUID(), BigDecimal.valueOf(i), AccountStatus.ACTIVE);
+        }
+        writer.publish();
+        writer.append(UUID.randomUUID(), UUID.randomUUID(), BigDecimal.TEN, AccountStatus.ACTIVE);
+
+        CdcLogWriter restarted = new CdcLogWriter(dir, 4, 8);
+        assertThat(restarted.position()).isEqualTo(6);
+        restarted.append(UUID.randomUUID(), UUID.randomUUID(), new BigDecimal("6.00"), AccountStatus.CLOSED);
+        restarted.publish();
+
+        List<String> read = new ArrayList<>();
+        new CdcLogReader(dir, "tail").poll(record -> read.add(record.position() + ":" + record.balance()), 100);
+        assertThat(read).containsExactly("0:0", "1:1", "2:2", "3:3", "4:4", "5:5", "6:6.00");
+        restarted.close();
+    }
+
+    @Test
+    void should_deleteOnlySegmentsConsumedByEveryReader() throws Exception {
+        CdcLogWriter writer = new CdcLogWriter(dir, 2, 1);
+        CdcLogReader fast = new CdcLogReader(dir, "fast");
+        CdcLogReader slow = new CdcLogReader(dir, "slow");
+        slow.commit();
+
+        for (int i = 0; i < 10; i++) {
+            writer.append(UUID.randomUUID(), UUID.randomUUID(), BigDecimal.ONE, AccountStatus.ACTIVE);
+            writer.publish();
+            fast.poll(record -> { }, 100);
+            fast.commit();
+        }
+        assertThat(segments()).hasSize(5);
+        assertThat(slow.poll(record -> { }, 4)).isEqualTo(4);
+        slow.commit();
+
+        writer.append(UUID.randomUUID(), UUID.randomUUID(), BigDecimal.ONE, AccountStatus.ACTIVE);
+        writer.publish();
+        assertThat(segments()).hasSize(4);
+        assertThat(slow.poll(record -> { }, 100)).isEqualTo(7);
+        assertThat(slow.skipped()).isZero();
+        writer.close();
+    }
+
+    private List<Path> segments() throws Exception {
+        try (var files = Files.list(dir)) {
+            return files.filter(file -> file.toString().endsWith(".cdc")).toList();
+        }
+    }
+}
@@ -0,0 +1,145 @@
+package com.bank.persistence.columnar;
+
+import com.bank.core.command.ActionType;
+import com.bank.persistence.archive.ArchivedJournalEntry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ColumnarJournalTest {
+
+    private static final long START = Instant.parse("2026-01-01T00:00:00Z").toEpochMilli();
+    private static final ActionType[] TYPES = { ActionType.DEPOSIT, ActionType.WITHDRAW, ActionType.TRANSFER,
+            ActionType.TRANSFER, ActionType.FREEZE, ActionType.OPEN };
+
+    @Test
+    void should_read_back_every_column_and_aggregate_like_a_row_scan(@TempDir Path dir) throws IOException {
+        UUID[] accounts = new UUID[50];
+        for (int i = 0; i < accounts.length; i++) {
+            accounts[i] = UUID.randomUUID();
+        }
+        Random random = new Random(42);
+        List<ArchivedJournalEntry> entries = new ArrayList<>();
+        for (int i = 0; i < 20_000; i++) {
+            ActionType type = TYPES[random.nextInt(TYPES.length)];
+            UUID from = accounts[random.nextInt(accounts.length)];
+            UUID to = type == ActionType.TRANSFER
+                    ? accounts[(index(from, accounts) + 1 + random.nextInt(accounts.length - 1)) % accounts.length]
+                    : null;
+            BigDecimal amount = type == ActionType.FREEZE || type == ActionType.OPEN ? null
+                    : BigDecimal.valueOf(random.nextInt(1_000_000), 2);
+            entries.add(new ArchivedJournalEntry(i + 1, START + i * 1000L, UUID.randomUUID(), UUID.randomUUID(), type,
+                    from, to, amount));
+        }
+        Path file = dir.resolve("journal.bcol");
+        try (ColumnarJournalWriter writer = new ColumnarJournalWriter(file)) {
+            for (ArchivedJournalEntry entry : entries) {
+                writer.append(entry);
+            }
+            writer.commit();
+        }
+
+        try (ColumnarJournalReader reader = new ColumnarJournalReader(file)) {
+            assertThat(reader.rowCount()).isEqualTo(20_000);
+            assertThat(reader.rowGroupCount()).isEqualTo(3);
+            assertThat(reader.maxSequence()).isEqualTo(20_000);
+
+            List<ArchivedJournalEntry> all = new ArrayList<>();
+            reader.scan(Instant.EPOCH, Instant.ofEpochMilli(START).plusSeconds(1_000_000), all::add);
+            assertThat(all).isEqualTo(entries);
+
+            Instant from = Instant.ofEpochMilli(START).plusSeconds(5_000);
+            Instant to = Instant.ofEpochMilli(START).plusSeconds(15_000);
+            Map<UUID, AccountFlow> expected = rowScan(entries, from, to);
+            assertThat(reader.aggregateByAccount(from, to)).isEqualTo(expected);
+            assertThat(reader.aggregate(accounts[7], from, to)).isEqualTo(expected.get(accounts[7]));
+            assertThat(reader.aggregate(UUID.randomUUID(), from, to).postings()).isZero();
+        }
+    }
+
+    @Test
+    void should_export_journal_incrementally_from_database(@TempDir Path dir) throws IOException {
+        EmbeddedDatabase dataSource = new EmbeddedDatabaseBuilder()
+                .setType(EmbeddedDatabaseType.H2)
+                .setName("columnardb_test;MODE=PostgreSQL;DATABASE_TO_UPPER=false")
+                .addScript("classpath:schema.sql")
+                .build();
+        try {
+            JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+            UUID account = UUID.randomUUID();
+            for (int i = 0; i < 30; i++) {
+                jdbcTemplate.update("INSERT INTO \"transaction_journal\" (\"idempotency_key\", \"transaction_id\", "
+                        + "\"timestamp\", \"command_type\", \"account_id_from\", \"amount\") VALUES (?, ?, ?, 'DEPOSIT', ?, ?)",
+                        UUID.randomUUID(), UUID.randomUUID(), new Timestamp(START + i), account, new BigDecimal("1.50"));
+            }
+            ColumnarJournalExporter exporter = new ColumnarJournalExporter(dataSource);
+            assertThat(exporter.exportJournal(dir.resolve("first.bcol"), 0)).isEqualTo(30);
+
+            long after;
+            try (ColumnarJournalReader reader = new ColumnarJournalReader(dir.resolve("first.bcol"))) {
+                after = reader.maxSequence();
+                AccountFlow flow = reader.aggregate(account, Instant.EPOCH, Instant.ofEpochMilli(START + 1000));
+                assertThat(flow.credited()).isEqualByComparingTo("45.00");
+                assertThat(flow.postings()).isEqualTo(30);
+            }
+            jdbcTemplate.update("INSERT INTO \"transaction_journal\" (\"idempotency_key\", \"transaction_id\", "
+                    + "\"timestamp\", \"command_type\", \"account_id_from\", \"amount\") VALUES (?, ?, ?, 'WITHDRAW', ?, ?)",
+                    UUID.randomUUID(), UUID.randomUUID(), new Timestamp(START + 100), account, new BigDecimal("5.00"));
+            assertThat(exporter.exportJournal(dir.resolve("second.bcol"), after)).isEqualTo(1);
+        } finally {
+            dataSource.shutdown();
+        }
+    }
+
+    private static Map<UUID, AccountFlow> rowScan(List<ArchivedJournalEntry> entries, Instant from, Instant to) {
+        Map<UUID, BigDecimal[]> sums = new HashMap<>();
+        Map<UUID, Long> postings = new HashMap<>();
+        for (ArchivedJournalEntry e : entries) {
+            if (e.timestamp() < from.toEpochMilli() || e.timestamp() >= to.toEpochMilli()) {
+                continue;
+            }
+            postings.merge(e.accountId(), 1L, Long::sum);
+            BigDecimal[] own = sums.computeIfAbsent(e.accountId(), k -> new BigDecimal[] { zero(), zero() });
+            switch (e.actionType()) {
+                case DEPOSIT -> own[0] = own[0].add(e.amount());
+                case WITHDRAW -> own[1] = own[1].add(e.amount());
+                case TRANSFER -> {
+                    own[1] = own[1].add(e.amount());
+                    postings.merge(e.targetAccountId(), 1L, Long::sum);
+                    BigDecimal[] target = sums.computeIfAbsent(e.targetAccountId(), k -> new BigDecimal[] { zero(), zero() });
+                    target[0] = target[0].add(e.amount());
+                }
+                default -> {
+                }
+            }
+        }
+        Map<UUID, AccountFlow> result = new HashMap<>();
+        sums.forEach((id, s) -> result.put(id, new AccountFlow(id, s[0], s[1], postings.get(id))));
+        return result;
+    }
+
+    private static int index(UUID account, UUID[] accounts) {
+        return List.of(accounts).indexOf(account);
+    }
+
+    private static BigDecimal zero() {
+        return BigDecimal.ZERO.setScale(2);
+    }
+}
@@ -0,0 +1,48 @@
+package com.bank.persistence.dialect;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SqlDialectTest {
+
+    @Test
+    void should_detectDialectByProductName() {
+        assertThat(SqlDialect.of("PostgreSQL")).isEqualTo(SqlDialect.POSTGRES);
+        assertThat(SqlDialect.of("H2")).isEqualTo(SqlDialect.H2);
+        assertThat(SqlDialect.POSTGRES.setBasedWrites()).isTrue();
+        assertThat(SqlDialect.H2.setBasedWrites()).isFalse();
+    }
+
+    @Test
+    void should_detectH2InPostgresModeAndKeepExistingIdempotencyKey() {
+        EmbeddedDatabase dataSource = new EmbeddedDatabaseBuilder()
+                .setType(EmbeddedDatabaseType.H2)
+                .setName("dialectdb_test;MODE=PostgreSQL;DATABASE_TO_UPPER=false")
+                .addScript("classpath:schema.sql")
+                .build();
+        try {
+            SqlDialect dialect = SqlDialect.detect(dataSource);
+            assertThat(dialect).isEqualTo(SqlDialect.H2);
+
+            JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+            UUID key = UUID.randomUUID();
+            Timestamp first = Timestamp.from(Instant.parse("2026-01-01T00:00:00Z"));
+            jdbcTemplate.update(dialect.insertIdempotencyKeySql(), key, first);
+            jdbcTemplate.update(dialect.insertIdempotencyKeySql(), key, Timestamp.from(Instant.now()));
+
+            assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM \"idempotency_keys\"", Integer.class))
+                    .isOne();
+        } finally {
+            dataSource.shutdown();
+        }
+    }
+}
@@ -0,0 +1,148 @@
+package com.bank.persistence.dlq;
+
+import com.bank.core.metrics.MetricsRegistry;
+import com.bank.core.port.out.BatchUnitOfWork;
+import com.bank.core.exception.InsufficientFundsException;
+import com.bank.core.port.out.FailureReason;
+import com.bank.persistence.repository.impl.JdbcBatchPersister;
+import org.junit.jupiter.api.*;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class JdbcDeadLetterQueueTest {
+
+    private EmbeddedDatabase dataSource;
+    private JdbcTemplate jdbcTemplate;
+    private JdbcBatchPersister persister;
+    private JdbcDeadLetterQueue dlq;
+
+    @BeforeAll
+    void setupDatabase() {
+        this.dataSource = new EmbeddedDatabaseBuilder()
+                .setType(EmbeddedDatabaseType.H2)
+                .setName("dlqdb_test;MODE=PostgreSQL;DATABASE_TO_UPPER=false")
+                .addScript("classpath:schema.sql")
+                .build();
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.persister = new JdbcBatchPersister(dataSource, new MetricsRegistry(), null,
+                new DlqRetryPolicy(2, Duration.ofSeconds(10), Duration.ofSeconds(30)));
+        this.dlq = new JdbcDeadLetterQueue(dataSource, 2);
+    }
+
+    @AfterAll
+    void shutdownDatabase() {
+        if (this.dataSource != null) {
+            this.dataSource.shutdown();
+        }
+    }
+
+    @BeforeEach
+    void cleanTables() {
+        jdbcTemplate.execute("TRUNCATE TABLE \"transaction_outbox\"");
+        jdbcTemplate.execute("TRUNCATE TABLE \"transaction_outbox_dlq\"");
+        jdbcTemplate.execute("TRUNCATE TABLE \"transaction_outbox_dlq_archive\"");
+    }
+
+    @Test
+    void persister_should_classify_failures_and_back_off_exponentially() {
+        UUID unexpected = insertOutbox(0);
+        UUID insufficient = insertOutbox(0);
+        UUID invalid = insertOutbox(0);
+        UUID secondRetry = insertOutbox(1);
+        UUID exhausted = insertOutbox(2);
+        BatchUnitOfWork uow = new BatchUnitOfWork();
+        FailureReason crash = FailureReason.of(new NullPointerException("state"));
+        uow.failedOutboxKeysToDlq.put(unexpected, crash);
+        uow.failedOutboxKeysToDlq.put(insufficient, FailureReason.of(new InsufficientFundsException("no funds")));
+        uow.failedOutboxKeysToDlq.put(invalid, FailureReason.of(new IllegalArgumentException("negative amount")));
+        uow.failedOutboxKeysToDlq.put(secondRetry, crash);
+        uow.failedOutboxKeysToDlq.put(exhausted, crash);
+
+        persister.persistBatch(uow);
+
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM \"transaction_outbox\"", Integer.class)).isZero();
+        Map<String, Object> first = dlqRow(unexpected);
+        assertThat(first).containsEntry("error_type", "NullPointerException").containsEntry("retryable", true)
+                .containsEntry("attempts", 0);
+        assertThat(dlqRow(insufficient)).containsEntry("retryable", false);
+        assertThat(backoff(first)).isEqualTo(Duration.ofSeconds(10));
+        assertThat(backoff(dlqRow(secondRetry))).isEqualTo(Duration.ofSeconds(20));
+        assertThat(dlqRow(invalid)).containsEntry("error_type", "IllegalArgumentException")
+                .containsEntry("retryable", false).containsEntry("reason", "negative amount");
+        assertThat(dlqRow(exhausted)).containsEntry("retryable", false);
+        assertThat(dlq.summary()).containsExactlyInAnyOrder(
+                new DlqSummary("IllegalArgumentException", false, 1),
+                new DlqSummary("InsufficientFundsException", false, 1),
+                new DlqSummary("NullPointerException", false, 1),
+                new DlqSummary("NullPointerException", true, 2));
+    }
+
+    @Test
+    void should_redrive_due_rows_in_chunks_and_archive_terminal_ones() {
+        Instant now = Instant.now();
+        List<UUID> due = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            due.add(insertDlq(true, 1, now.minusSeconds(1), "InsufficientFundsException"));
+        }
+        UUID notYet = insertDlq(true, 0, now.plusSeconds(60), "InsufficientFundsException");
+        UUID terminal = insertDlq(false, 0, now.minusSeconds(1), "IllegalArgumentException");
+        List<List<UUID>> released = new ArrayList<>();
+
+        assertThat(dlq.redriveDue(now, released::add)).isEqualTo(5);
+
+        assertThat(released).hasSize(3);
+        assertThat(released.stream().flatMap(List::stream)).containsExactlyInAnyOrderElementsOf(due);
+        assertThat(jdbcTemplate.queryForList(
+                "SELECT \"idempotency_key\" FROM \"transaction_outbox\" WHERE \"status\" = 'PENDING' AND \"attempts\" = 2",
+                UUID.class)).containsExactlyInAnyOrderElementsOf(due);
+        assertThat(jdbcTemplate.queryForList("SELECT \"idempotency_key\" FROM \"transaction_outbox_dlq\"", UUID.class))
+                .containsExactlyInAnyOrder(notYet, terminal);
+
+        assertThat(dlq.archiveTerminal(now)).isOne();
+        assertThat(jdbcTemplate.queryForList("SELECT \"idempotency_key\" FROM \"transaction_outbox_dlq_archive\"",
+                UUID.class)).containsExactly(terminal);
+
+        assertThat(dlq.redriveAll("InsufficientFundsException", keys -> { })).isOne();
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM \"transaction_outbox_dlq\"", Integer.class))
+                .isZero();
+    }
+
+    private UUID insertOutbox(int attempts) {
+        UUID key = UUID.randomUUID();
+        jdbcTemplate.update("INSERT INTO \"transaction_outbox\" (\"idempotency_key\", \"transaction_id\", \"payload\", "
+                + "\"attempts\", \"created_at\") VALUES (?, ?, '{}', ?, ?)", key, UUID.randomUUID(), attempts,
+                Timestamp.from(Instant.now()));
+        return key;
+    }
+
+    private UUID insertDlq(boolean retryable, int attempts, Instant nextAttemptAt, String errorType) {
+        UUID key = UUID.randomUUID();
+        jdbcTemplate.update("INSERT INTO \"transaction_outbox_dlq\" (\"id\", \"idempotency_key\", \"payload\", "
+                + "\"reason\", \"error_type\", \"retryable\", \"attempts\", \"next_attempt_at\", \"moved_at\") "
+                + "VALUES (?, ?, '{}', 'failed', ?, ?, ?, ?, ?)", UUID.randomUUID(), key, errorType, retryable,
+                attempts, Timestamp.from(nextAttemptAt), Timestamp.from(Instant.now().minusSeconds(5)));
+        return key;
+    }
+
+    private Map<String, Object> dlqRow(UUID key) {
+        return jdbcTemplate.queryForMap("SELECT * FROM \"transaction_outbox_dlq\" WHERE \"idempotency_key\" = ?", key);
+    }
+
+    private static Duration backoff(Map<String, Object> row) {
+        return Duration.between(((Timestamp) row.get("moved_at")).toInstant(),
+                ((Timestamp) row.get("next_attempt_at")).toInstant());
+    }
+}
@@ -9,6 +9,8 @@ import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
 import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
 
 import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
 import java.util.UUID;
 
@@ -42,6 +44,20 @@ class JdbcAccountRepositoryTest {
         this.dataSource.shutdown();
     }
 
+    @Test
+    void forEachAccount_should_stream_every_account() {
+        String sql = "INSERT INTO \"accounts\" (\"id\", \"balance\", \"status\") VALUES (?, ?, ?)";
+        for (int i = 0; i < 5000; i++) {
+            jdbcTemplate.update(sql, UUID.randomUUID(), new BigDecimal("1.00"), "ACTIVE");
+        }
+
+        List<Account> streamed = new ArrayList<>();
+        repository.forEachAccount(streamed::add);
+
+        assertEquals(5000, streamed.size());
+        assertEquals(5000, streamed.stream().map(Account::getId).distinct().count());
+    }
+
     @Test
     void loadAllAccounts_should_return_all_accounts() {
         UUID id1 = UUID.randomUUID();
@@ -0,0 +1,145 @@
+package com.bank.persistence.repository.impl;
+
+import com.bank.core.command.TransactionCommand;
+import com.bank.core.metrics.MetricsRegistry;
+import com.bank.core.port.out.BatchUnitOfWork;
+import com.bank.persistence.exception.DataAccessException;
+import org.junit.jupiter.api.*;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class JdbcBatchPersisterConnectionTest {
+
+    private EmbeddedDatabase database;
+    private JdbcTemplate jdbcTemplate;
+    private final List<Connection> opened = new ArrayList<>();
+    private final AtomicInteger prepared = new AtomicInteger();
+
+    @BeforeAll
+    void setupDatabase() {
+        this.database = new EmbeddedDatabaseBuilder()
+                .setType(EmbeddedDatabaseType.H2)
+                .setName("persisterconn_test;MODE=PostgreSQL;DATABASE_TO_UPPER=false")
+                .addScript("classpath:schema.sql")
+                .build();
+        this.jdbcTemplate = new JdbcTemplate(database);
+    }
+
+    @AfterAll
+    void shutdownDatabase() {
+        this.database.shutdown();
+    }
+
+    @Test
+    void should_reuseStatementsAcrossBatchesAndReconnectAfterConnectionLoss() throws Exception {
+        MetricsRegistry metrics = new MetricsRegistry();
+        JdbcBatchPersister persister = new JdbcBatchPersister(countingDataSource(), metrics);
+        int connectionsBefore = opened.size();
+
+        persister.persistBatch(batch(3));
+        int preparedAfterFirst = prepared.get();
+        persister.persistBatch(batch(3));
+        persister.persistBatch(batch(3));
+
+        assertThat(opened).hasSize(connectionsBefore + 1);
+        assertThat(prepared.get()).isEqualTo(preparedAfterFirst);
+        assertThat(journalRows()).isEqualTo(9);
+
+        opened.get(opened.size() - 1).close();
+        assertThatThrownBy(() -> persister.persistBatch(batch(2))).isInstanceOf(DataAccessException.class);
+        persister.persistBatch(batch(2));
+
+        assertThat(opened).hasSize(connectionsBefore + 2);
+        assertThat(metrics.counter("bank_persister_reconnects_total").sum()).isOne();
+        assertThat(journalRows()).isEqualTo(11);
+
+        persister.close();
+        assertThat(opened.get(opened.size() - 1).isClosed()).isTrue();
+    }
+
+    @Test
+    void should_dropQueuedBatchesOfCachedStatementsOnRollback() throws Exception {
+        String sql = "INSERT INTO \"idempotency_keys\" (\"key\", \"created_at\") VALUES (?, CURRENT_TIMESTAMP)";
+        UUID rolledBack = UUID.randomUUID();
+        try (PersisterConnection connection = new PersisterConnection(database, List.of(sql), 60_000,
+                new LongAdder())) {
+            connection.begin();
+            PreparedStatement statement = connection.statement(sql);
+            statement.setObject(1, rolledBack);
+            statement.addBatch();
+            connection.rollback();
+
+            connection.begin();
+            assertThat(connection.statement(sql)).isSameAs(statement);
+            assertThat(statement.executeBatch()).isEmpty();
+            connection.commit();
+        }
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM \"idempotency_keys\" WHERE \"key\" = ?",
+                Integer.class, rolledBack)).isZero();
+    }
+
+    private int journalRows() {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM \"transaction_journal\"", Integer.class);
+    }
+
+    private DataSource countingDataSource() {
+        return (DataSource) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[] { DataSource.class },
+                (proxy, method, args) -> {
+                    Object result = invoke(database, method, args);
+                    if (method.getName().equals("getConnection")) {
+                        Connection connection = countingConnection((Connection) result);
+                        opened.add(connection);
+                        return connection;
+                    }
+                    return result;
+                });
+    }
+
+    private Connection countingConnection(Connection connection) {
+        return (Connection) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[] { Connection.class },
+                (proxy, method, args) -> {
+                    if (method.getName().equals("prepareStatement")) {
+                        prepared.incrementAndGet();
+                    }
+                    return invoke(connection, method, args);
+                });
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    private static BatchUnitOfWork batch(int commands) {
+        BatchUnitOfWork uow = new BatchUnitOfWork();
+        for (int i = 0; i < commands; i++) {
+            TransactionCommand command = TransactionCommand.createDepositCommand(UUID.randomUUID(),
+                    UUID.randomUUID(), BigDecimal.ONE);
+            uow.keysToInsert.add(command.getIdempotencyKey());
+            uow.commandsToJournal.add(command);
+        }
+        return uow;
+    }
+}
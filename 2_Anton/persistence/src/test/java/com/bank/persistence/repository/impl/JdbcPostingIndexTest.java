@@ -0,0 +1,165 @@
+package com.bank.persistence.repository.impl;
+
+import com.bank.core.command.ActionType;
+import com.bank.core.command.TransactionCommand;
+import com.bank.core.metrics.MetricsRegistry;
+import com.bank.core.port.out.BatchUnitOfWork;
+import com.bank.domain.AccountStatus;
+import com.bank.persistence.statement.StatementLine;
+import com.bank.persistence.statement.StatementPage;
+import org.junit.jupiter.api.*;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class JdbcPostingIndexTest {
+
+    private EmbeddedDatabase dataSource;
+    private JdbcTemplate jdbcTemplate;
+    private TransactionTemplate transactionTemplate;
+
+    @BeforeAll
+    void setupDatabase() {
+        this.dataSource = new EmbeddedDatabaseBuilder()
+                .setType(EmbeddedDatabaseType.H2)
+                .setName("postingdb_test;MODE=PostgreSQL;DATABASE_TO_UPPER=false")
+                .addScript("classpath:schema.sql")
+                .build();
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+    }
+
+    @AfterAll
+    void shutdownDatabase() {
+        if (this.dataSource != null) {
+            this.dataSource.shutdown();
+        }
+    }
+
+    @BeforeEach
+    void cleanTables() {
+        jdbcTemplate.execute("TRUNCATE TABLE \"accounts\"");
+        jdbcTemplate.execute("TRUNCATE TABLE \"transaction_journal\"");
+        jdbcTemplate.execute("TRUNCATE TABLE \"account_postings\"");
+        jdbcTemplate.execute("TRUNCATE TABLE \"processed_transactions\"");
+    }
+
+    @Test
+    void persister_should_write_running_balance_and_paginate_statement_newest_first() {
+        UUID alice = UUID.randomUUID();
+        UUID bob = UUID.randomUUID();
+        insertAccount(alice, "100.00");
+        insertAccount(bob, "0.00");
+        JdbcPostingIndex index = new JdbcPostingIndex(dataSource);
+        JdbcBatchPersister persister = new JdbcBatchPersister(dataSource, new MetricsRegistry(), index);
+
+        persister.persistBatch(batch(
+                TransactionCommand.createDepositCommand(UUID.randomUUID(), alice, new BigDecimal("50.00")),
+                TransactionCommand.createTransferCommand(UUID.randomUUID(), alice, bob, new BigDecimal("30.00"))));
+        persister.persistBatch(batch(
+                TransactionCommand.createWithdrawCommand(UUID.randomUUID(), alice, new BigDecimal("20.00")),
+                TransactionCommand.createDepositCommand(UUID.randomUUID(), alice, new BigDecimal("5.00"))));
+
+        List<StatementLine> all = new ArrayList<>();
+        Long cursor = null;
+        int pages = 0;
+        do {
+            StatementPage page = index.findStatement(alice, cursor, 3);
+            all.addAll(page.lines());
+            cursor = page.nextCursor();
+            pages++;
+        } while (cursor != null);
+
+        assertThat(pages).isEqualTo(2);
+        assertThat(all).extracting(StatementLine::postingNo).containsExactly(4L, 3L, 2L, 1L);
+        assertThat(all).extracting(StatementLine::actionType).containsExactly(
+                ActionType.DEPOSIT, ActionType.WITHDRAW, ActionType.TRANSFER, ActionType.DEPOSIT);
+        assertThat(all).extracting(StatementLine::balanceAfter).usingElementComparator(BigDecimal::compareTo)
+                .containsExactly(new BigDecimal("105.00"), new BigDecimal("100.00"), new BigDecimal("120.00"),
+                        new BigDecimal("150.00"));
+        assertThat(all.get(2).counterpartyId()).isEqualTo(bob);
+        assertThat(all.get(2).amount()).isEqualByComparingTo("-30.00");
+
+        StatementPage bobPage = index.findStatement(bob, null, 10);
+        assertThat(bobPage.hasMore()).isFalse();
+        assertThat(bobPage.lines()).singleElement().satisfies(line -> {
+            assertThat(line.counterpartyId()).isEqualTo(alice);
+            assertThat(line.balanceAfter()).isEqualByComparingTo("30.00");
+        });
+    }
+
+    @Test
+    void rolled_back_batch_should_not_advance_cached_heads() {
+        UUID account = UUID.randomUUID();
+        insertAccount(account, "10.00");
+        JdbcPostingIndex index = new JdbcPostingIndex(dataSource);
+
+        assertThatThrownBy(() -> transactionTemplate.executeWithoutResult(status -> {
+            index.append(List.of(
+                    TransactionCommand.createDepositCommand(UUID.randomUUID(), account, new BigDecimal("1.00"))));
+            throw new IllegalStateException("boom");
+        })).isInstanceOf(IllegalStateException.class);
+        index.onRollback();
+
+        transactionTemplate.executeWithoutResult(status -> index.append(List.of(
+                TransactionCommand.createDepositCommand(UUID.randomUUID(), account, new BigDecimal("2.00")))));
+        index.onCommit();
+
+        StatementPage page = index.findStatement(account, null, 10);
+        assertThat(page.lines()).singleElement().satisfies(line -> {
+            assertThat(line.postingNo()).isEqualTo(1L);
+            assertThat(line.balanceAfter()).isEqualByComparingTo("12.00");
+        });
+        assertThatThrownBy(() -> index.findStatement(account, null, 0))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void evicted_head_should_be_reloaded_from_last_posting() {
+        UUID[] accounts = { UUID.randomUUID(), UUID.randomUUID(), UUID.randomUUID() };
+        for (UUID account : accounts) {
+            insertAccount(account, "10.00");
+        }
+        JdbcPostingIndex index = new JdbcPostingIndex(dataSource, 2);
+        JdbcBatchPersister persister = new JdbcBatchPersister(dataSource, new MetricsRegistry(), index);
+
+        for (int round = 0; round < 2; round++) {
+            for (UUID account : accounts) {
+                persister.persistBatch(batch(
+                        TransactionCommand.createDepositCommand(UUID.randomUUID(), account, new BigDecimal("1.00"))));
+            }
+        }
+
+        assertThat(index.cachedHeads()).isEqualTo(2);
+        assertThat(index.findStatement(accounts[0], null, 10).lines().get(0)).satisfies(line -> {
+            assertThat(line.postingNo()).isEqualTo(2L);
+            assertThat(line.balanceAfter()).isEqualByComparingTo("12.00");
+        });
+    }
+
+    private void insertAccount(UUID id, String balance) {
+        jdbcTemplate.update("INSERT INTO \"accounts\" (\"id\", \"balance\", \"status\") VALUES (?, ?, ?)",
+                id, new BigDecimal(balance), AccountStatus.ACTIVE.name());
+    }
+
+    private static BatchUnitOfWork batch(TransactionCommand... commands) {
+        BatchUnitOfWork uow = new BatchUnitOfWork();
+        for (TransactionCommand command : commands) {
+            uow.keysToInsert.add(command.getIdempotencyKey());
+            uow.commandsToJournal.add(command);
+        }
+        return uow;
+    }
+}